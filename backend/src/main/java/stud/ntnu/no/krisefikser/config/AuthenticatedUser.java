@@ -0,0 +1,60 @@
+package stud.ntnu.no.krisefikser.config;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * The principal of an authenticated request, built from the JWT token and a short-lived
+ * cache instead of loading the {@link stud.ntnu.no.krisefikser.entities.User} entity.
+ * <p>
+ * {@link #getName()} returns the email of the user, or the username if the user has no
+ * email, like {@link stud.ntnu.no.krisefikser.entities.User#getUsername()} did.
+ * </p>
+ */
+@Getter
+public class AuthenticatedUser implements AuthenticatedPrincipal, Serializable {
+
+  /**
+   * The ID of the user.
+   */
+  private final Long id;
+
+  /**
+   * The email or username of the user.
+   */
+  private final String name;
+
+  /**
+   * The ID of the household of the user, or null if the user has no household.
+   */
+  private final Long householdId;
+
+  /**
+   * The roles of the user.
+   */
+  private final List<GrantedAuthority> authorities;
+
+  /**
+   * Constructor for AuthenticatedUser.
+   *
+   * @param id          the ID of the user
+   * @param name        the email or username of the user
+   * @param householdId the ID of the household of the user, may be null
+   * @param authorities the roles of the user
+   */
+  public AuthenticatedUser(Long id, String name, Long householdId, List<GrantedAuthority> authorities) {
+    this.id = id;
+    this.name = name;
+    this.householdId = householdId;
+    this.authorities = List.copyOf(authorities);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -1,6 +1,7 @@
 package stud.ntnu.no.krisefikser.config;
 
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -9,13 +10,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import stud.ntnu.no.krisefikser.service.CustomUserDetailsService;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filter responsible for handling JWT authorization.
@@ -23,6 +24,10 @@ import java.io.IOException;
  * This filter intercepts each incoming HTTP request, checks for a JWT token in cookies,
  * validates the token, and if valid, sets the authentication in the security context.
  * <p>
+ * The token is parsed once, and the principal is an {@link AuthenticatedUser} built from
+ * the user ID in the token and a short-lived cache, so most requests do not query the
+ * database.
+ * <p>
  * It extends {@link OncePerRequestFilter} to ensure it is executed once per request.
  */
 @Component
@@ -48,48 +53,49 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
       throws ServletException, IOException {
 
-    logger.info("AuthFilter triggered for: " + request.getRequestURI());
-
     // Skip filtering for authentication endpoints
     String uri = request.getRequestURI();
     if (uri.equals("/api/auth/login")
             || uri.equals("/api/auth/register")
             || uri.equals("/api/auth/verify")
             || uri.equals("/api/auth/logout")) {
-      logger.debug("Skipping JWT filter for authentication endpoint: " + request.getRequestURI());
+      logger.debug("Skipping JWT filter for authentication endpoint: " + uri);
       chain.doFilter(request, response);
       return;
     }
 
-    logger.info("JWTAuthorizationFilter: Processing request: " + request.getRequestURI());
-
     String token = extractTokenFromCookies(request.getCookies());
 
-    // If no token is found, proceed without authentication
-    if (token == null) {
-      chain.doFilter(request, response);
-      return;
+    // Without a valid token, the request proceeds without authentication
+    if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      jwtUtil.parseToken(token)
+          .flatMap(this::loadPrincipal)
+          .ifPresent(principal -> {
+            UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+          });
     }
 
-    String username = jwtUtil.extractUsername(token);
-
-    logger.info("Token username: " + username);
-    logger.info("User authorities: " + userDetailsService.loadUserByUsername(username).getAuthorities());
-
-
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-      if (jwtUtil.isTokenValid(token)) {
-        UsernamePasswordAuthenticationToken authToken =
-            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    chain.doFilter(request, response);
+  }
 
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
-      }
+  /**
+   * Builds the principal of a valid token from the user ID in its claims, or from its
+   * subject if it was issued before tokens carried the user ID.
+   *
+   * @param claims the claims of the token
+   * @return the principal, or empty if the user no longer exists
+   */
+  private Optional<AuthenticatedUser> loadPrincipal(Claims claims) {
+    Long userId = jwtUtil.extractUserId(claims);
+    if (userId != null) {
+      return userDetailsService.loadAuthenticatedUser(userId);
     }
-
-    chain.doFilter(request, response);
+    String username = claims.getSubject();
+    return username != null ? userDetailsService.loadAuthenticatedUser(username) : Optional.empty();
   }
 
   /**
@@ -100,15 +106,9 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
    */
   private String extractTokenFromCookies(Cookie[] cookies) {
     if (cookies == null) {
-      logger.info("No cookies found in request");
       return null;
     }
 
-    logger.info("All cookies in request:");
-    for (Cookie cookie : cookies) {
-      logger.info("Cookie: " + cookie.getName() + " = " + cookie.getValue());
-    }
-
     for (Cookie cookie : cookies) {
       if ("auth-token".equals(cookie.getName())) {
         return cookie.getValue();
@@ -3,22 +3,24 @@ package stud.ntnu.no.krisefikser.config;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import stud.ntnu.no.krisefikser.entities.User;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 
 /**
  * Utility service for handling JWT token creation, parsing, and validation.
@@ -26,19 +28,37 @@ import java.util.function.Function;
  * This class provides methods to:
  * <ul>
  *   <li>Generate JWT tokens for authenticated users.</li>
- *   <li>Extract claims such as username from tokens.</li>
- *   <li>Validate tokens to ensure their authenticity and expiry status.</li>
+ *   <li>Parse and validate tokens in one step, returning their claims.</li>
  * </ul>
+ * The signing key and parser are created once, since both are immutable and thread-safe.
  * It is primarily used in the authentication and authorization flow of the application.
  */
 @Service
 public class JWTUtil {
   //TODO add secret key and token expiration in application.properties
 
-  @Value("${security.jwt.secret-key}")
-  private String secretKey;
+  /**
+   * The claim holding the ID of the user.
+   */
+  static final String USER_ID_CLAIM = "uid";
+
   private static final Logger logger = LogManager.getLogger(JWTUtil.class);
 
+  private final Key signingKey;
+  private final JwtParser parser;
+
+  /**
+   * Constructor for JWTUtil.
+   *
+   * @param secretKey the secret used to sign and verify tokens
+   */
+  public JWTUtil(@Value("${security.jwt.secret-key}") String secretKey) {
+    this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+    this.parser = Jwts.parserBuilder()
+        .setSigningKey(signingKey)
+        .build();
+  }
+
   /**
    * Generates a JWT token for the specified user.
    *
@@ -50,85 +70,51 @@ public class JWTUtil {
   }
 
   /**
-   * Generates a JWT token for the specified user with a custom expiration time.
+   * Generates a JWT token for the specified user, with the ID of the user if it is known.
    *
    * @param userDetails    the user details containing the username
    * @return a signed JWT token
    */
   private String generateJwtToken(UserDetails userDetails) {
     Map<String, Object> claims = new HashMap<>();
-    claims.put("roles", userDetails.getAuthorities().stream()
-        .map(GrantedAuthority::getAuthority)
-        .toList());
-    System.out.println("Generated claims: " + claims);
-    logger.info("Generating JWT token for user: " + userDetails.getUsername());
+    if (userDetails instanceof User user && user.getId() != null) {
+      claims.put(USER_ID_CLAIM, user.getId());
+    }
+    logger.info("Generating JWT token for user: {}", userDetails.getUsername());
     return Jwts.builder()
         .setClaims(claims)
         .setSubject(userDetails.getUsername())
         .setIssuedAt(new Date(System.currentTimeMillis()))
         .setExpiration(new Date(System.currentTimeMillis() + 1000 * Duration.ofDays(365).toSeconds()))
-        .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+        .signWith(signingKey, SignatureAlgorithm.HS256)
         .compact();
   }
 
   /**
-   * Extracts the username (subject) from the provided JWT token.
+   * Parses and validates the provided JWT token.
+   * <p>
+   * A token is considered valid if it is correctly signed and has not expired.
    *
    * @param token the JWT token
-   * @return the username contained in the token
-   */
-  public String extractUsername(String token) {
-    return extractClaim(token, Claims::getSubject);
-  }
-
-  /**
-   * Retrieves the cryptographic signing key used for token generation and validation.
-   *
-   * @return the signing key
-   */
-  private Key getSigningKey() {
-    return Keys.hmacShaKeyFor(secretKey.getBytes());
-  }
-
-  /**
-   * Extracts a specific claim from the provided JWT token.
-   *
-   * @param token          the JWT token
-   * @param claimsResolver a function to extract the desired claim from the token's claims
-   * @param <T>            the type of the claim
-   * @return the extracted claim
+   * @return the claims of the token, or empty if the token is invalid
    */
-  private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    logger.info("Extracting claims from token: " + token);
-    final Claims claims = Jwts.parserBuilder()
-        .setSigningKey(getSigningKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
-    T ts = claimsResolver.apply(claims);
-    logger.info("Extracted claims: " + ts);
-    return claimsResolver.apply(claims);
+  public Optional<Claims> parseToken(String token) {
+    try {
+      return Optional.of(parser.parseClaimsJws(token).getBody());
+    } catch (JwtException | IllegalArgumentException e) {
+      logger.debug("Rejected JWT token: {}", e.getMessage());
+      return Optional.empty();
+    }
   }
 
   /**
-   * Validates the provided JWT token.
-   * <p>
-   * A token is considered valid if it is correctly signed.
+   * Extracts the ID of the user from the claims of a token.
    *
-   * @param token the JWT token
-   * @return {@code true} if the token is valid, {@code false} otherwise
+   * @param claims the claims of a valid token
+   * @return the ID of the user, or null if the token was issued before it carried the ID
    */
-  public boolean isTokenValid(String token) {
-    try {
-      Jwts.parserBuilder()
-          .setSigningKey(getSigningKey())
-          .build()
-          .parseClaimsJws(token)
-          .getBody();
-
-      return true;
-    } catch (JwtException e) {
-      return false;
-    }
+  public Long extractUserId(Claims claims) {
+    Object userId = claims.get(USER_ID_CLAIM);
+    return userId instanceof Number number ? number.longValue() : null;
   }
 }
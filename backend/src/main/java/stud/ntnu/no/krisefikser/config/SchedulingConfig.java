@@ -0,0 +1,92 @@
+package stud.ntnu.no.krisefikser.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for scheduled background jobs and the executors they hand work to.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+  /**
+   * Executor used to evaluate notifications from the notification outbox.
+   * <p>
+   * The pool and queue are bounded, so a burst of stock changes cannot exhaust the server.
+   * Work that is rejected stays in the outbox and is picked up by a later poll.
+   * </p>
+   *
+   * @param poolSize     the maximum number of concurrent household batches
+   * @param queueCapacity the maximum number of waiting household batches
+   * @return the executor
+   */
+  @Bean(name = "notificationDispatchExecutor")
+  public ThreadPoolTaskExecutor notificationDispatchExecutor(
+      @Value("${notification.outbox.pool-size:2}") int poolSize,
+      @Value("${notification.outbox.queue-capacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("notification-dispatch-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(10);
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Executor used to send emails from the mail outbox.
+   * <p>
+   * Kept separate from the notification executor, so a slow mail server cannot
+   * delay notifications.
+   * </p>
+   *
+   * @param poolSize      the maximum number of concurrent mail batches
+   * @param queueCapacity the maximum number of waiting mail batches
+   * @return the executor
+   */
+  @Bean(name = "mailDispatchExecutor")
+  public ThreadPoolTaskExecutor mailDispatchExecutor(
+      @Value("${mail.outbox.pool-size:2}") int poolSize,
+      @Value("${mail.outbox.queue-capacity:50}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("mail-dispatch-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Executor used to scan ranges of households in parallel for the admin preparedness
+   * statistics.
+   * <p>
+   * Each thread holds a database connection while it scans, so the pool should stay well
+   * below the size of the connection pool.
+   * </p>
+   *
+   * @param poolSize      the maximum number of concurrent range scans
+   * @param queueCapacity the maximum number of waiting range scans
+   * @return the executor
+   */
+  @Bean(name = "preparednessStatisticsExecutor")
+  public ThreadPoolTaskExecutor preparednessStatisticsExecutor(
+      @Value("${admin.preparedness-statistics.parallelism:4}") int poolSize,
+      @Value("${admin.preparedness-statistics.queue-capacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("preparedness-statistics-");
+    executor.initialize();
+    return executor;
+  }
+}
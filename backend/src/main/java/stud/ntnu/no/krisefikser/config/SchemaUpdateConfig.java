@@ -0,0 +1,24 @@
+package stud.ntnu.no.krisefikser.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for data fixes that must run before Hibernate updates the schema.
+ */
+@Configuration
+public class SchemaUpdateConfig {
+
+  /**
+   * Makes the entity manager factory, which updates the schema, wait for the storage item
+   * duplicates to be merged, so the unique key on household and item definition can be
+   * created.
+   *
+   * @return the post processor adding the dependency
+   */
+  @Bean
+  public static EntityManagerFactoryDependsOnPostProcessor storageItemDeduplicationDependency() {
+    return new EntityManagerFactoryDependsOnPostProcessor("storageItemDeduplicator");
+  }
+}
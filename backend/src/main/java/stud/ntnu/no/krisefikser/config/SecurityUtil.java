@@ -5,20 +5,42 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import stud.ntnu.no.krisefikser.entities.User;
 import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.UnauthorizedOperationException;
 import stud.ntnu.no.krisefikser.repository.UserRepository;
+import stud.ntnu.no.krisefikser.service.CustomUserDetailsService;
 
 import java.time.Duration;
 import java.util.Optional;
 
+/**
+ * Utility for the authenticated user of the current request and the authentication cookie.
+ * <p>
+ * The current user is resolved once per request, as an {@link AuthenticatedUser} with the
+ * ID, household ID and roles of the user. Requests authenticated with a JWT token already
+ * carry it as their principal. Other authentications are resolved from the database on
+ * first use and kept in the request attributes for the rest of the request. Services that
+ * only need the ID or household of the user should use {@link #getCurrentPrincipal()}, and
+ * load the {@link User} entity with {@link #getCurrentUser()} only to modify it.
+ * </p>
+ */
 @Component
 @RequiredArgsConstructor
 public class SecurityUtil {
+  private static final String PRINCIPAL_ATTRIBUTE = SecurityUtil.class.getName() + ".PRINCIPAL";
+
   private final UserRepository userRepository;
+  private final CustomUserDetailsService userDetailsService;
 
-  public Optional<User> getCurrentUserIfAuthenticated() {
+  /**
+   * Retrieves the principal of the authenticated user of the current request.
+   *
+   * @return the principal, or empty if the request is not authenticated
+   */
+  public Optional<AuthenticatedUser> getCurrentPrincipalIfAuthenticated() {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
     if (authentication == null ||
@@ -26,19 +48,52 @@ public class SecurityUtil {
             "anonymousUser".equals(authentication.getPrincipal())) {
       return Optional.empty();
     }
+    if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+      return Optional.of(principal);
+    }
 
-    String identity = authentication.getName();
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return userDetailsService.findAuthenticatedUser(authentication.getName());
+    }
+    // Kept with its authentication, in case the request authenticates as someone else later
+    if (attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ResolvedPrincipal resolved
+        && resolved.authentication() == authentication) {
+      return resolved.principal();
+    }
+    Optional<AuthenticatedUser> principal = userDetailsService.findAuthenticatedUser(authentication.getName());
+    attributes.setAttribute(PRINCIPAL_ATTRIBUTE, new ResolvedPrincipal(authentication, principal),
+        RequestAttributes.SCOPE_REQUEST);
+    return principal;
+  }
 
-    // Gets user either by username (admin) or email (user)
-    return userRepository.findByUsername(identity)
-            .or(() -> userRepository.findByEmail(identity));
+  /**
+   * Retrieves the principal of the authenticated user of the current request.
+   *
+   * @return the principal of the authenticated user
+   * @throws UnauthorizedOperationException if the request is not authenticated
+   */
+  public AuthenticatedUser getCurrentPrincipal() {
+    return getCurrentPrincipalIfAuthenticated()
+            .orElseThrow(() -> new UnauthorizedOperationException(CustomErrorMessage.UNAUTHORIZED_OPERATION));
   }
 
   /**
-   * Retrieves the currently authenticated user from the security context.
+   * Loads the authenticated user of the current request from the database.
+   *
+   * @return the user, or empty if the request is not authenticated
+   */
+  public Optional<User> getCurrentUserIfAuthenticated() {
+    return getCurrentPrincipalIfAuthenticated()
+            .flatMap(principal -> userRepository.findById(principal.getId()));
+  }
+
+  /**
+   * Loads the currently authenticated user from the database. Prefer
+   * {@link #getCurrentPrincipal()} unless the user entity is modified.
    *
    * @return the authenticated {@link User}
-   * @throws RuntimeException if the user is not found in the repository
+   * @throws UnauthorizedOperationException if the request is not authenticated
    */
   public User getCurrentUser() {
     return getCurrentUserIfAuthenticated()
@@ -77,4 +132,10 @@ public class SecurityUtil {
             .maxAge(Duration.ZERO)
             .build();
   }
+
+  /**
+   * A principal resolved for an authentication, kept in the request attributes.
+   */
+  private record ResolvedPrincipal(Authentication authentication, Optional<AuthenticatedUser> principal) {
+  }
 }
@@ -0,0 +1,78 @@
+package stud.ntnu.no.krisefikser.config.websocket;
+
+import java.security.Principal;
+import java.util.Optional;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+/**
+ * Channel interceptor that authorizes subscriptions to household scoped destinations.
+ * <p>
+ * A client may only subscribe to {@code /topic/households/{householdId}/...} if the
+ * authenticated user is a member of that household. Unauthorized subscriptions are
+ * dropped, so the rest of the connection keeps working.
+ * </p>
+ */
+@Component
+public class HouseholdSubscriptionInterceptor implements ChannelInterceptor {
+
+  private static final Logger logger = LogManager.getLogger(HouseholdSubscriptionInterceptor.class);
+
+  private final UserRepository userRepository;
+
+  /**
+   * Constructor for HouseholdSubscriptionInterceptor.
+   *
+   * @param userRepository the user repository
+   */
+  public HouseholdSubscriptionInterceptor(UserRepository userRepository) {
+    this.userRepository = userRepository;
+  }
+
+  /**
+   * Checks SUBSCRIBE frames for household scoped destinations before they reach the broker.
+   *
+   * @param message the inbound message
+   * @param channel the channel the message was sent on
+   * @return the message, or null if the subscription is not allowed
+   */
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    StompHeaderAccessor accessor =
+        MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+      return message;
+    }
+
+    String destination = accessor.getDestination();
+    if (!WebSocketDestinations.isHouseholdDestination(destination)) {
+      return message;
+    }
+
+    Optional<Long> householdId = WebSocketDestinations.parseHouseholdId(destination);
+    Principal user = accessor.getUser();
+    if (householdId.isEmpty() || user == null) {
+      logger.warn("Rejected subscription to {} for unauthenticated or malformed request", destination);
+      return null;
+    }
+
+    boolean member = userRepository.findHouseholdIdByEmail(user.getName())
+        .map(householdId.get()::equals)
+        .orElse(false);
+    if (!member) {
+      logger.warn("Rejected subscription to {} for user {} outside the household",
+          destination, user.getName());
+      return null;
+    }
+
+    return message;
+  }
+}
@@ -1,6 +1,6 @@
 package stud.ntnu.no.krisefikser.config.websocket;
 
-import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.Cookie;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,6 +12,7 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 import stud.ntnu.no.krisefikser.config.JWTUtil;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Interceptor for handling WebSocket handshake requests.
@@ -55,17 +56,15 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
       for (Cookie cookie : cookies) {
         if ("auth-token".equals(cookie.getName())) {
           String token = cookie.getValue();
-          try {
-            if (jwtUtil.isTokenValid(token)) {
-              String username = jwtUtil.extractUsername(token);
-              attributes.put("username", username);
-              logger.info("WebSocket handshake successful for user: {}", username);
-              return true;
-            }
-          } catch (JwtException e) {
-            logger.error("JWT validation failed: {}", e.getMessage());
+          Optional<Claims> claims = jwtUtil.parseToken(token);
+          if (claims.isEmpty()) {
+            logger.error("JWT validation failed for WebSocket handshake");
             return false;
           }
+          String username = claims.get().getSubject();
+          attributes.put("username", username);
+          logger.info("WebSocket handshake successful for user: {}", username);
+          return true;
         }
       }
     }
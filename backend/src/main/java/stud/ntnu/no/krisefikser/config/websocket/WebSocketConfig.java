@@ -1,6 +1,7 @@
 package stud.ntnu.no.krisefikser.config.websocket;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.*;
 import org.springframework.http.server.ServerHttpRequest;
@@ -24,14 +25,18 @@ import java.util.Map;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
   private final JwtHandshakeInterceptor jwtInterceptor;
+  private final HouseholdSubscriptionInterceptor householdSubscriptionInterceptor;
 
   /**
    * Constructor for WebSocketConfig.
    *
    * @param jwtInterceptor the JWT handshake interceptor
+   * @param householdSubscriptionInterceptor the interceptor authorizing household subscriptions
    */
-  public WebSocketConfig(JwtHandshakeInterceptor jwtInterceptor) {
+  public WebSocketConfig(JwtHandshakeInterceptor jwtInterceptor,
+                         HouseholdSubscriptionInterceptor householdSubscriptionInterceptor) {
     this.jwtInterceptor = jwtInterceptor;
+    this.householdSubscriptionInterceptor = householdSubscriptionInterceptor;
   }
 
   /**
@@ -73,4 +78,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     registry.enableSimpleBroker("/topic");
     registry.setApplicationDestinationPrefixes("/app");
   }
+
+  /**
+   * Registers interceptors for messages sent from clients.
+   * <p>
+   * Subscriptions to household scoped destinations are only allowed for members
+   * of that household.
+   *
+   * @param registration the registration for the client inbound channel
+   */
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(householdSubscriptionInterceptor);
+  }
 }
@@ -0,0 +1,78 @@
+package stud.ntnu.no.krisefikser.config.websocket;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds and parses the STOMP destinations used for household scoped messages.
+ * <p>
+ * Notifications are published to {@code /topic/households/{householdId}/notifications}
+ * and {@code /topic/households/{householdId}/notifications/delete}, so only members of the
+ * household receive them.
+ * </p>
+ */
+public final class WebSocketDestinations {
+
+  /**
+   * Prefix shared by all household scoped destinations.
+   */
+  public static final String HOUSEHOLD_PREFIX = "/topic/households/";
+
+  private static final Pattern HOUSEHOLD_DESTINATION =
+      Pattern.compile("^" + Pattern.quote(HOUSEHOLD_PREFIX) + "(\\d+)(/.*)?$");
+
+  private WebSocketDestinations() {
+  }
+
+  /**
+   * Returns the destination for new notifications in a household.
+   *
+   * @param householdId the ID of the household
+   * @return the destination
+   */
+  public static String householdNotifications(Long householdId) {
+    return HOUSEHOLD_PREFIX + householdId + "/notifications";
+  }
+
+  /**
+   * Returns the destination for deleted notifications in a household.
+   *
+   * @param householdId the ID of the household
+   * @return the destination
+   */
+  public static String householdNotificationDeletes(Long householdId) {
+    return HOUSEHOLD_PREFIX + householdId + "/notifications/delete";
+  }
+
+  /**
+   * Extracts the household ID from a household scoped destination.
+   *
+   * @param destination the destination to parse
+   * @return the household ID, or empty if the destination is not household scoped
+   */
+  public static Optional<Long> parseHouseholdId(String destination) {
+    if (destination == null) {
+      return Optional.empty();
+    }
+    Matcher matcher = HOUSEHOLD_DESTINATION.matcher(destination);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Long.parseLong(matcher.group(1)));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Checks whether a destination is household scoped, regardless of whether it is well formed.
+   *
+   * @param destination the destination to check
+   * @return true if the destination starts with the household prefix
+   */
+  public static boolean isHouseholdDestination(String destination) {
+    return destination != null && destination.startsWith(HOUSEHOLD_PREFIX);
+  }
+}
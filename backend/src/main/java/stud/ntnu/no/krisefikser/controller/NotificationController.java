@@ -10,8 +10,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationFeedResponse;
 import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationRequest;
 import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationResponse;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
@@ -35,7 +35,6 @@ public class NotificationController {
   private static final Logger logger = LogManager.getLogger(NotificationController.class);
 
   private final NotificationService notificationService;
-  private final SimpMessagingTemplate messagingTemplate;
 
 
   @Operation(summary = "Get notifications for a household",
@@ -52,6 +51,62 @@ public class NotificationController {
     return ResponseEntity.ok(notifications);
   }
 
+  @Operation(summary = "Get the notification feed",
+      description = "Retrieves a page of notifications for the current user's household, newest first, "
+          + "with read state. Pass the returned cursor as 'before' to fetch the next page.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved notifications"),
+      @ApiResponse(responseCode = "404", description = "User is not in a household"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  @GetMapping("/feed")
+  public ResponseEntity<NotificationFeedResponse> getNotificationFeed(
+      @RequestParam(required = false) Long before,
+      @RequestParam(required = false) Integer limit) {
+    logger.info("Received request for notification feed before cursor: {}", before);
+    return ResponseEntity.ok(notificationService.getNotificationFeed(before, limit));
+  }
+
+  @Operation(summary = "Get the unread notification count",
+      description = "Retrieves the number of notifications the current user has not read")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved the count"),
+      @ApiResponse(responseCode = "404", description = "User is not in a household"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  @GetMapping("/unread-count")
+  public ResponseEntity<Long> getUnreadCount() {
+    return ResponseEntity.ok(notificationService.getUnreadCount());
+  }
+
+  @Operation(summary = "Mark a notification as read",
+      description = "Marks a notification in the current user's household as read")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Successfully marked the notification as read"),
+      @ApiResponse(responseCode = "404", description = "Notification not found"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  @PutMapping("/{id}/read")
+  public ResponseEntity<Void> markAsRead(@PathVariable Long id) {
+    logger.info("Received request to mark notification {} as read", id);
+    notificationService.markAsRead(id);
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(summary = "Mark all notifications as read",
+      description = "Marks all notifications in the current user's household as read")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Successfully marked the notifications as read"),
+      @ApiResponse(responseCode = "404", description = "User is not in a household"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  @PutMapping("/read-all")
+  public ResponseEntity<Void> markAllAsRead() {
+    logger.info("Received request to mark all notifications as read");
+    notificationService.markAllAsRead();
+    return ResponseEntity.noContent().build();
+  }
+
   @Operation(summary = "Create a notification",
       description = "Creates a new notification")
   @ApiResponses(value = {
@@ -64,7 +119,6 @@ public class NotificationController {
   public ResponseEntity<NotificationResponse> createNotification(@Valid @RequestBody NotificationRequest request) {
     logger.info("Received request to create notification for household ID: {}", request.getHouseholdId());
     NotificationResponse response = notificationService.createNotification(request);
-    messagingTemplate.convertAndSend("/topic/notifications", response);
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
 
@@ -79,7 +133,6 @@ public class NotificationController {
   public ResponseEntity<Void> deleteNotification(@PathVariable Long id) {
     logger.info("Received request to delete notification with ID: {}", id);
     notificationService.deleteNotification(id);
-    messagingTemplate.convertAndSend("/topic/notifications/delete", id);
     return ResponseEntity.noContent().build();
   }
 
@@ -4,16 +4,23 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessBatchRequest;
 import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessSummary;
 import stud.ntnu.no.krisefikser.service.PreparednessService;
 
+import java.util.Map;
+
 /**
  * Controller for accessing household preparedness information.
  */
@@ -25,6 +32,26 @@ public class PreparednessController {
   private static final Logger logger = LogManager.getLogger(PreparednessController.class);
   private final PreparednessService preparednessService;
 
+  /**
+   * Retrieves the preparedness summary of the current user's household, for the dashboard.
+   *
+   * @return a PreparednessSummary object containing preparedness metrics
+   */
+  @Operation(summary = "Get preparedness summary for the current user's household",
+      description = "Retrieves the preparedness summary of the household the current user belongs to")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved preparedness summary"),
+      @ApiResponse(responseCode = "404", description = "User does not have a household"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  @GetMapping("/my")
+  public PreparednessSummary getMyHouseholdPreparednessSummary() {
+    logger.info("Received request for preparedness summary for the current user's household");
+    PreparednessSummary summary = preparednessService.calculateMyHouseholdPreparednessSummary();
+    logger.info("Returning preparedness summary for household ID: {}", summary.getHouseholdId());
+    return summary;
+  }
+
   /**
    * Retrieves the preparedness summary for a specific household.
    *
@@ -45,4 +72,31 @@ public class PreparednessController {
     logger.info("Returning preparedness summary for household ID: {}", householdId);
     return summary;
   }
-}
\ No newline at end of file
+
+  /**
+   * Retrieves the preparedness summaries of several households in one request. Only
+   * administrators may use it, since it reads the summaries of any household.
+   *
+   * @param request the IDs of the households
+   * @return the summaries keyed by household ID, without households that do not exist
+   */
+  @Operation(summary = "Get preparedness summaries for several households",
+      description = "Retrieves the preparedness summaries of up to 1000 households, keyed by household ID. "
+          + "Households that do not exist are left out")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved preparedness summaries"),
+      @ApiResponse(responseCode = "400", description = "Invalid request data"),
+      @ApiResponse(responseCode = "403", description = "User is not an administrator"),
+      @ApiResponse(responseCode = "500", description = "Internal server error")
+  })
+  @PostMapping("/batch")
+  @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+  public Map<Long, PreparednessSummary> getHouseholdPreparednessSummaries(
+      @Valid @RequestBody PreparednessBatchRequest request) {
+    logger.info("Received request for preparedness summaries for {} households", request.getHouseholdIds().size());
+    Map<Long, PreparednessSummary> summaries =
+        preparednessService.calculateHouseholdPreparednessSummaries(request.getHouseholdIds());
+    logger.info("Returning preparedness summaries for {} households", summaries.size());
+    return summaries;
+  }
+}
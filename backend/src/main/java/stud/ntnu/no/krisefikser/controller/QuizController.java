@@ -19,9 +19,12 @@ import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerRequest;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerResponse;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptHistoryDto;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptResponse;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizLeaderboardEntryDto;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizRequest;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizResponse;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizResultResponse;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizSelectionMode;
+import stud.ntnu.no.krisefikser.service.QuizLeaderboardService;
 import stud.ntnu.no.krisefikser.service.QuizService;
 
 @RestController
@@ -33,6 +36,7 @@ public class QuizController {
   private static final Logger logger = LogManager.getLogger(QuizController.class);
 
   private final QuizService quizService;
+  private final QuizLeaderboardService quizLeaderboardService;
 
   /**
    * Starts a new quiz attempt for a user.
@@ -40,7 +44,8 @@ public class QuizController {
    * @param quizRequest contains userId and numberOfQuestions
    * @return the quizId and the list of questions
    */
-  @Operation(summary = "Start a new quiz", description = "Creates a new quiz attempt for the specified user with the requested number of questions.")
+  @Operation(summary = "Start a new quiz", description = "Creates a new quiz attempt for the specified user with the requested number of questions. "
+      + "In ADAPTIVE mode, questions the user answered wrong or has not answered yet are favoured.")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Quiz started successfully"),
       @ApiResponse(responseCode = "404", description = "User not found"),
@@ -54,7 +59,8 @@ public class QuizController {
 
     QuizResponse quizResponse = quizService.startQuiz(
         quizRequest.getUserId(),
-        quizRequest.getNumberOfQuestions());
+        quizRequest.getNumberOfQuestions(),
+        quizRequest.getMode() != null ? quizRequest.getMode() : QuizSelectionMode.RANDOM);
 
     logger.info("Started quiz attempt: quizId={} for userId={}",
         quizResponse.getId(), quizRequest.getUserId());
@@ -120,21 +126,27 @@ public class QuizController {
   }
 
   /**
-   * Retrieves the quiz attempt history for a user.
+   * Retrieves a page of the quiz attempt history for a user, newest first.
    *
    * @param userId the ID of the user
+   * @param before the ID of the last attempt of the previous page, or null for the first page
+   * @param limit  the maximum number of attempts to return, or null for the default
    * @return list of quiz attempts with their results
    */
-  @Operation(summary = "Get quiz history", description = "Fetches the quiz attempt history for the specified user.")
+  @Operation(summary = "Get quiz history", description = "Fetches a page of the quiz attempt history for the "
+      + "specified user, newest first. Pass the ID of the last attempt as 'before' to fetch the next page.")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Quiz history retrieved successfully"),
       @ApiResponse(responseCode = "404", description = "User not found")
   })
   @GetMapping("/history/{userId}")
-  public ResponseEntity<List<QuizAttemptHistoryDto>> getQuizHistory(@PathVariable Long userId) {
-    logger.info("Received getQuizHistory request for userId={}", userId);
+  public ResponseEntity<List<QuizAttemptHistoryDto>> getQuizHistory(
+      @PathVariable Long userId,
+      @RequestParam(required = false) Long before,
+      @RequestParam(required = false) Integer limit) {
+    logger.info("Received getQuizHistory request for userId={} before={}", userId, before);
 
-    List<QuizAttemptHistoryDto> quizHistory = quizService.getQuizHistory(userId);
+    List<QuizAttemptHistoryDto> quizHistory = quizService.getQuizHistory(userId, before, limit);
 
     logger.info("Returning quiz history for userId={} with {} attempts",
         userId, quizHistory.size());
@@ -165,4 +177,54 @@ public class QuizController {
         quizId, response.getQuestions().size());
     return ResponseEntity.ok(response);
   }
+
+  /**
+   * Retrieves the top of the global quiz leaderboard.
+   *
+   * @param limit the maximum number of entries to return, or null for the top 100
+   * @return the entries, best first
+   */
+  @Operation(summary = "Get quiz leaderboard", description = "Fetches the users with the best quiz scores, "
+      + "ranked by best score, then completed quizzes and then longest streak.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully")
+  })
+  @GetMapping("/leaderboard")
+  public ResponseEntity<List<QuizLeaderboardEntryDto>> getLeaderboard(
+      @RequestParam(required = false) Integer limit) {
+    logger.info("Received getLeaderboard request with limit={}", limit);
+    return ResponseEntity.ok(quizLeaderboardService.getLeaderboard(limit));
+  }
+
+  /**
+   * Retrieves the standing and global rank of the current user.
+   *
+   * @return the entry of the current user
+   */
+  @Operation(summary = "Get my quiz standing", description = "Fetches the standing and global leaderboard rank "
+      + "of the current user. The rank is null if the user has not completed a quiz.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Standing retrieved successfully"),
+      @ApiResponse(responseCode = "401", description = "User is not logged in")
+  })
+  @GetMapping("/leaderboard/me")
+  public ResponseEntity<QuizLeaderboardEntryDto> getMyStanding() {
+    return ResponseEntity.ok(quizLeaderboardService.getMyStanding());
+  }
+
+  /**
+   * Retrieves the quiz leaderboard of the current user's household.
+   *
+   * @return the entries, best first
+   */
+  @Operation(summary = "Get household quiz leaderboard", description = "Fetches the members of the current "
+      + "user's household who have completed a quiz, ranked within the household.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully"),
+      @ApiResponse(responseCode = "404", description = "User is not in a household")
+  })
+  @GetMapping("/leaderboard/household")
+  public ResponseEntity<List<QuizLeaderboardEntryDto>> getHouseholdLeaderboard() {
+    return ResponseEntity.ok(quizLeaderboardService.getHouseholdLeaderboard());
+  }
 }
@@ -11,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteRequest;
 import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteResponse;
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary;
 import stud.ntnu.no.krisefikser.service.ReflectionService;
 
 import java.util.List;
@@ -47,24 +48,75 @@ public class ReflectionController {
   }
 
   /**
-   * Retrieves all public reflection notes that are not created by the current user.
+   * Retrieves a page of the public reflection notes that are not created by the current
+   * user, newest first.
    *
-   * @return a list of public reflection notes
+   * @param before the ID of the last note of the previous page, or null for the first page
+   * @param limit  the maximum number of notes to return
+   * @return a page of public reflection notes, with snippets instead of full content
    */
-  @Operation(summary = "Get all public reflection notes",
-      description = "Retrieves all public reflection notes that are not created by the current user")
+  @Operation(summary = "Get public reflection notes",
+      description = "Retrieves a page of the public reflection notes that are not created by the current user, "
+          + "newest first. Pass the ID of the last note as 'before' to get the next page. "
+          + "The notes have a snippet instead of the full content.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Public reflection notes retrieved successfully"),
       @ApiResponse(responseCode = "403", description = "No user logged in")
   })
   @GetMapping("/public")
-  public ResponseEntity<List<ReflectionNoteResponse>> getAllPublicReflectionNotes() {
-    logger.info("Fetching all public reflection notes");
-    List<ReflectionNoteResponse> reflectionNotes = reflectionService.getAllPublicReflectionNotes();
+  public ResponseEntity<List<ReflectionNoteSummary>> getPublicReflectionNotes(
+      @RequestParam(required = false) Long before,
+      @RequestParam(required = false) Integer limit) {
+    logger.info("Fetching public reflection notes before {}", before);
+    List<ReflectionNoteSummary> reflectionNotes = reflectionService.getPublicReflectionFeed(before, limit);
     logger.info("Fetched {} public reflection notes", reflectionNotes.size());
     return ResponseEntity.ok(reflectionNotes);
   }
 
+  /**
+   * Searches the reflection notes the current user can read.
+   *
+   * @param q     the words to search for
+   * @param limit the maximum number of hits
+   * @return the matching reflection notes, best match first
+   */
+  @Operation(summary = "Search reflection notes",
+      description = "Searches the titles and contents of the reflection notes the current user can read: "
+          + "their own notes, public notes and household notes of their household. "
+          + "Hits are ranked by relevance and have a snippet instead of the full content.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Search completed successfully"),
+      @ApiResponse(responseCode = "403", description = "No user logged in")
+  })
+  @GetMapping("/search")
+  public ResponseEntity<List<ReflectionNoteSummary>> searchReflectionNotes(
+      @RequestParam String q,
+      @RequestParam(required = false) Integer limit) {
+    logger.info("Searching reflection notes");
+    List<ReflectionNoteSummary> reflectionNotes = reflectionService.searchReflectionNotes(q, limit);
+    logger.info("Found {} reflection notes", reflectionNotes.size());
+    return ResponseEntity.ok(reflectionNotes);
+  }
+
+  /**
+   * Retrieves a reflection note with its full content.
+   *
+   * @param id the ID of the reflection note
+   * @return the reflection note
+   */
+  @Operation(summary = "Get a reflection note",
+      description = "Retrieves a reflection note with its full content, if the current user can read it")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Reflection note retrieved successfully"),
+      @ApiResponse(responseCode = "403", description = "No user logged in or the user cannot read the reflection note"),
+      @ApiResponse(responseCode = "404", description = "Reflection note not found")
+  })
+  @GetMapping("/{id}")
+  public ResponseEntity<ReflectionNoteResponse> getReflectionNote(@PathVariable Long id) {
+    logger.info("Fetching reflection note with ID: {}", id);
+    return ResponseEntity.ok(reflectionService.getReflectionNote(id));
+  }
+
   /**
    * Retrieves all reflection notes created by the current user.
    *
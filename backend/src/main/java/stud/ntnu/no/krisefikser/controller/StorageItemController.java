@@ -8,12 +8,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StockHistoryBucket;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemBulkStockUpdateRequest;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemResponse;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockAdjustRequest;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockUpdateRequest;
+import stud.ntnu.no.krisefikser.entities.StockRollupGranularity;
+import stud.ntnu.no.krisefikser.service.StockHistoryService;
 import stud.ntnu.no.krisefikser.service.StorageItemService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -30,6 +37,7 @@ public class StorageItemController {
 
   private static final Logger logger = LogManager.getLogger(StorageItemController.class);
   private final StorageItemService storageItemService;
+  private final StockHistoryService stockHistoryService;
 
   /**
    * Retrieves all storage items for a given Household Id and ItemCategory Id and
@@ -97,6 +105,7 @@ public class StorageItemController {
       @ApiResponse(responseCode = "200", description = "Successfully updated the stock of the storage item"),
       @ApiResponse(responseCode = "400", description = "Invalid request data"),
       @ApiResponse(responseCode = "404", description = "Storage item not found"),
+      @ApiResponse(responseCode = "409", description = "Storage item was changed since the given version"),
       @ApiResponse(responseCode = "500", description = "Internal server error while updating stock")
   })
   @PutMapping("/update-stock")
@@ -113,4 +122,82 @@ public class StorageItemController {
     return updatedItem;
   }
 
+  /**
+   * Adds to or removes from the stock of a storage item.
+   *
+   * @param request the request containing the storage item ID and the amount to add
+   * @return the updated StorageItemResponse DTO
+   */
+  @Operation(summary = "Adjust stock of a storage item", description = "Adds to or removes from the stock of a storage item atomically, so concurrent changes are never lost")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully adjusted the stock of the storage item"),
+      @ApiResponse(responseCode = "400", description = "Invalid request data"),
+      @ApiResponse(responseCode = "404", description = "Storage item not found"),
+      @ApiResponse(responseCode = "409", description = "Not enough stock to remove the requested amount"),
+      @ApiResponse(responseCode = "500", description = "Internal server error while adjusting stock")
+  })
+  @PutMapping("/adjust-stock")
+  public StorageItemResponse adjustStock(@Valid @RequestBody StorageItemStockAdjustRequest request) {
+    logger.info("Attempting to adjust stock for storage item ID: {} by {}", request.getId(), request.getDelta());
+
+    StorageItemResponse updatedItem = storageItemService.adjustStock(request);
+
+    logger.info("Successfully adjusted stock for storage item ID: {} to new quantity: {}",
+        updatedItem.getId(), updatedItem.getCurrentStock());
+    return updatedItem;
+  }
+
+  /**
+   * Updates the stock quantity of several storage items in one request.
+   *
+   * @param request the request containing the stock updates
+   * @return the updated StorageItemResponse DTOs
+   */
+  @Operation(summary = "Update stock of several storage items", description = "Updates the stock quantity of many storage items in one transaction. If any item is not found, nothing is updated")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully updated the stock of the storage items"),
+      @ApiResponse(responseCode = "400", description = "Invalid request data"),
+      @ApiResponse(responseCode = "404", description = "One or more storage items not found"),
+      @ApiResponse(responseCode = "409", description = "One or more storage items were changed since the given version"),
+      @ApiResponse(responseCode = "500", description = "Internal server error while updating stock")
+  })
+  @PutMapping("/update-stock/bulk")
+  public List<StorageItemResponse> updateStocks(@Valid @RequestBody StorageItemBulkStockUpdateRequest request) {
+    logger.info("Attempting to update stock for {} storage items", request.getUpdates().size());
+
+    List<StorageItemResponse> updatedItems = storageItemService.updateStocks(request);
+
+    logger.info("Successfully updated stock for {} storage items", updatedItems.size());
+    return updatedItems;
+  }
+
+  /**
+   * Retrieves the stock history of a storage item, one entry per day or week with changes.
+   *
+   * @param storageItemId the ID of the storage item
+   * @param granularity   the length of the buckets, DAY or WEEK
+   * @param from          the first day to include, optional
+   * @param to            the last day to include, optional
+   * @return the buckets with stock changes, oldest first
+   */
+  @Operation(summary = "Get stock history of a storage item", description = "Retrieves the stock added and used per day or week. Without a period, the last 30 days or 26 weeks are returned. Buckets without changes are left out")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved the stock history"),
+      @ApiResponse(responseCode = "400", description = "Invalid request data"),
+      @ApiResponse(responseCode = "404", description = "Storage item not found"),
+      @ApiResponse(responseCode = "500", description = "Internal server error while retrieving stock history")
+  })
+  @GetMapping("/history/{storageItemId}")
+  public List<StockHistoryBucket> getStockHistory(
+      @PathVariable Long storageItemId,
+      @RequestParam(defaultValue = "DAY") StockRollupGranularity granularity,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    logger.info("Fetching {} stock history for storage item ID: {}", granularity, storageItemId);
+
+    List<StockHistoryBucket> history = stockHistoryService.getHistory(storageItemId, granularity, from, to);
+
+    logger.info("Retrieved {} buckets of stock history for storage item ID: {}", history.size(), storageItemId);
+    return history;
+  }
 }
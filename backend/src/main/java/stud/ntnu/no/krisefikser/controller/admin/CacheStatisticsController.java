@@ -0,0 +1,48 @@
+package stud.ntnu.no.krisefikser.controller.admin;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import stud.ntnu.no.krisefikser.dtos.cache.CacheRegionStatisticsResponse;
+import stud.ntnu.no.krisefikser.service.CacheStatisticsService;
+
+/**
+ * Controller for monitoring the second-level cache.
+ */
+@RestController
+@RequestMapping("/api/admin/cache-statistics")
+@RequiredArgsConstructor
+@Tag(name = "Cache statistics", description = "Endpoints for monitoring the second-level cache")
+public class CacheStatisticsController {
+  private static final Logger logger = LogManager.getLogger(CacheStatisticsController.class);
+  private final CacheStatisticsService cacheStatisticsService;
+
+  /**
+   * Retrieves the hit and miss counts and hit rate of every second-level cache region.
+   *
+   * @return the statistics of the cache regions
+   */
+  @Operation(summary = "Get cache statistics",
+      description = "Retrieves the hit and miss counts and hit rate of every second-level cache region since startup")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved cache statistics"),
+      @ApiResponse(responseCode = "403", description = "The user is not an administrator")
+  })
+  @GetMapping
+  @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+  public List<CacheRegionStatisticsResponse> getCacheStatistics() {
+    List<CacheRegionStatisticsResponse> statistics = cacheStatisticsService.getCacheStatistics();
+    logger.info("Returning statistics for {} cache regions", statistics.size());
+    return statistics;
+  }
+}
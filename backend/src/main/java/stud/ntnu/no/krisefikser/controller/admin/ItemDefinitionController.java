@@ -0,0 +1,55 @@
+package stud.ntnu.no.krisefikser.controller.admin;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionRequest;
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionResponse;
+import stud.ntnu.no.krisefikser.service.ItemDefinitionService;
+
+/**
+ * Controller for managing the item definitions every household keeps stock of.
+ */
+@RestController
+@RequestMapping("/api/admin/item-definitions")
+@RequiredArgsConstructor
+@Tag(name = "Item definitions", description = "Endpoints for managing item definitions")
+public class ItemDefinitionController {
+  private static final Logger logger = LogManager.getLogger(ItemDefinitionController.class);
+  private final ItemDefinitionService itemDefinitionService;
+
+  /**
+   * Creates a new item definition and adds it to every household.
+   *
+   * @param request the request containing the details of the new item definition
+   * @return the created {@link ItemDefinitionResponse} DTO
+   */
+  @Operation(summary = "Create new item definition",
+      description = "Adds a new item definition and an empty storage item of it to every household")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "201", description = "Item definition created successfully"),
+      @ApiResponse(responseCode = "400", description = "Invalid request data"),
+      @ApiResponse(responseCode = "403", description = "The user is not an administrator"),
+      @ApiResponse(responseCode = "404", description = "Item category not found")
+  })
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+  public ItemDefinitionResponse createItemDefinition(@Valid @RequestBody ItemDefinitionRequest request) {
+    ItemDefinitionResponse created = itemDefinitionService.createItemDefinition(request);
+    logger.info("Created new item definition with ID: {}", created.getId());
+    return created;
+  }
+}
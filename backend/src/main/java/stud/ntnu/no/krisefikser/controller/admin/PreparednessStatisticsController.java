@@ -0,0 +1,52 @@
+package stud.ntnu.no.krisefikser.controller.admin;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessGrouping;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessStatisticsResponse;
+import stud.ntnu.no.krisefikser.service.PreparednessStatisticsService;
+
+/**
+ * Controller for the national preparedness statistics.
+ */
+@RestController
+@RequestMapping("/api/admin/preparedness-statistics")
+@RequiredArgsConstructor
+@Tag(name = "Preparedness statistics", description = "Endpoints for the preparedness of all households")
+public class PreparednessStatisticsController {
+  private static final Logger logger = LogManager.getLogger(PreparednessStatisticsController.class);
+  private final PreparednessStatisticsService preparednessStatisticsService;
+
+  /**
+   * Retrieves the preparedness of all households, grouped by city, postal code or item category.
+   *
+   * @param groupBy how to group the households
+   * @return the mean score, score distribution and low stock rate of each group
+   */
+  @Operation(summary = "Get national preparedness statistics",
+      description = "Retrieves the mean score, score distribution, low stock rate and expiring rate of all "
+          + "households, grouped by city, postal code or item category. The statistics are cached for a short time")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved preparedness statistics"),
+      @ApiResponse(responseCode = "400", description = "Invalid grouping"),
+      @ApiResponse(responseCode = "403", description = "The user is not an administrator")
+  })
+  @GetMapping
+  @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+  public PreparednessStatisticsResponse getPreparednessStatistics(
+      @RequestParam(defaultValue = "CITY") PreparednessGrouping groupBy) {
+    PreparednessStatisticsResponse statistics = preparednessStatisticsService.getStatistics(groupBy);
+    logger.info("Returning preparedness statistics by {} for {} groups", groupBy, statistics.getGroups().size());
+    return statistics;
+  }
+}
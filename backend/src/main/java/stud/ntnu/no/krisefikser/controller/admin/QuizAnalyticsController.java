@@ -0,0 +1,49 @@
+package stud.ntnu.no.krisefikser.controller.admin;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionStatisticsDto;
+import stud.ntnu.no.krisefikser.service.QuizAnalyticsService;
+
+/**
+ * Controller for the quiz analytics used to tune the quiz questions.
+ */
+@RestController
+@RequestMapping("/api/admin/quiz-analytics")
+@RequiredArgsConstructor
+@Tag(name = "Quiz analytics", description = "Endpoints for finding quiz questions that are too hard or broken")
+public class QuizAnalyticsController {
+  private static final Logger logger = LogManager.getLogger(QuizAnalyticsController.class);
+  private final QuizAnalyticsService quizAnalyticsService;
+
+  /**
+   * Retrieves how every quiz question and answer option has been answered, hardest first.
+   *
+   * @return the analytics of the questions
+   */
+  @Operation(summary = "Get quiz analytics",
+      description = "Retrieves how often every quiz question has been asked and answered correctly, and how "
+          + "often each answer option has been chosen. Questions with the lowest share of correct answers come first.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved quiz analytics"),
+      @ApiResponse(responseCode = "403", description = "The user is not an administrator")
+  })
+  @GetMapping
+  @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+  public List<QuizQuestionStatisticsDto> getQuizAnalytics() {
+    List<QuizQuestionStatisticsDto> statistics = quizAnalyticsService.getStatistics();
+    logger.info("Returning quiz analytics for {} questions", statistics.size());
+    return statistics;
+  }
+}
@@ -0,0 +1,42 @@
+package stud.ntnu.no.krisefikser.dtos.cache;
+
+import lombok.*;
+
+/**
+ * Data Transfer Object (DTO) for the statistics of a second-level cache region.
+ * <p>
+ * The counters are collected since the application started.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatisticsResponse {
+
+  /**
+   * The name of the cache region.
+   */
+  private String region;
+
+  /**
+   * Number of lookups that were found in the region.
+   */
+  private long hitCount;
+
+  /**
+   * Number of lookups that were not found in the region and went to the database.
+   */
+  private long missCount;
+
+  /**
+   * Number of entries put in the region.
+   */
+  private long putCount;
+
+  /**
+   * Share of lookups that were found in the region, between 0 and 1.
+   * 0 if there have been no lookups.
+   */
+  private double hitRate;
+}
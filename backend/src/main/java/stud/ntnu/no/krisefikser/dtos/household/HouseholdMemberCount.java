@@ -0,0 +1,27 @@
+package stud.ntnu.no.krisefikser.dtos.household;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of a household with the number of its members, read without loading them.
+ */
+@Data
+@AllArgsConstructor
+public class HouseholdMemberCount {
+
+  /**
+   * The ID of the household.
+   */
+  private Long id;
+
+  /**
+   * The name of the household.
+   */
+  private String name;
+
+  /**
+   * The number of members of the household.
+   */
+  private int memberCount;
+}
@@ -0,0 +1,74 @@
+package stud.ntnu.no.krisefikser.dtos.itemDefinition;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.*;
+
+/**
+ * DTO for creating item definitions.
+ */
+@Schema(
+  description = "Payload to create a new item definition.",
+  name        = "ItemDefinitionRequest"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemDefinitionRequest {
+
+  /**
+   * Name of the item.
+   */
+  @Schema(
+    description = "Name of the item.",
+    example     = "Water",
+    required    = true
+  )
+  @NotBlank(message = "Name cannot be blank")
+  private String name;
+
+  /**
+   * ID of the category the item belongs to.
+   */
+  @Schema(
+    description = "Identifier of the item category.",
+    example     = "1",
+    required    = true
+  )
+  @NotNull(message = "Category ID must not be null")
+  private Long categoryId;
+
+  /**
+   * Unit the item is measured in.
+   */
+  @Schema(
+    description = "Unit the item is measured in.",
+    example     = "L"
+  )
+  private String unit;
+
+  /**
+   * Recommended quantity per person.
+   */
+  @Schema(
+    description = "Recommended quantity per person.",
+    example     = "9.0",
+    required    = true
+  )
+  @NotNull(message = "Recommended amount per person must not be null")
+  @PositiveOrZero(message = "Recommended amount per person cannot be negative")
+  private Double recommendedAmountPerPerson;
+
+  /**
+   * Shelf life of the item in days, 0 if it does not expire.
+   */
+  @Schema(
+    description = "Shelf life of the item in days, 0 if it does not expire.",
+    example     = "365"
+  )
+  @PositiveOrZero(message = "Shelf life cannot be negative")
+  private int shelfLifeDays;
+}
@@ -0,0 +1,77 @@
+package stud.ntnu.no.krisefikser.dtos.itemDefinition;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * DTO for returning item definition details.
+ */
+@Schema(
+  description = "DTO representing the response for an item definition with its details.",
+  name        = "ItemDefinitionResponse"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemDefinitionResponse {
+
+  /**
+   * Unique identifier for the item definition.
+   */
+  @Schema(
+    description = "Identifier of the item definition.",
+    example     = "1",
+    required    = true
+  )
+  private Long id;
+
+  /**
+   * Name of the item.
+   */
+  @Schema(
+    description = "Name of the item.",
+    example     = "Water",
+    required    = true
+  )
+  private String name;
+
+  /**
+   * ID of the category the item belongs to.
+   */
+  @Schema(
+    description = "Identifier of the item category.",
+    example     = "1",
+    required    = true
+  )
+  private Long categoryId;
+
+  /**
+   * Unit the item is measured in.
+   */
+  @Schema(
+    description = "Unit the item is measured in.",
+    example     = "L"
+  )
+  private String unit;
+
+  /**
+   * Recommended quantity per person.
+   */
+  @Schema(
+    description = "Recommended quantity per person.",
+    example     = "9.0",
+    required    = true
+  )
+  private Double recommendedAmountPerPerson;
+
+  /**
+   * Shelf life of the item in days, 0 if it does not expire.
+   */
+  @Schema(
+    description = "Shelf life of the item in days, 0 if it does not expire.",
+    example     = "365",
+    required    = true
+  )
+  private int shelfLifeDays;
+}
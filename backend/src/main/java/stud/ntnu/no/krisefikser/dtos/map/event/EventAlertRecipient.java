@@ -0,0 +1,28 @@
+package stud.ntnu.no.krisefikser.dtos.map.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of a household member who may be alerted about an event,
+ * together with the location of their household.
+ */
+@Data
+@AllArgsConstructor
+public class EventAlertRecipient {
+
+  /**
+   * The email address of the user.
+   */
+  private String email;
+
+  /**
+   * The latitude of the user's household.
+   */
+  private Double latitude;
+
+  /**
+   * The longitude of the user's household.
+   */
+  private Double longitude;
+}
@@ -0,0 +1,49 @@
+package stud.ntnu.no.krisefikser.dtos.mappers;
+
+import org.springframework.stereotype.Component;
+
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionRequest;
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionResponse;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+
+/**
+ * Mapper class for converting between {@link ItemDefinition} entities and their DTOs.
+ */
+@Component
+public class ItemDefinitionMapper {
+
+  /**
+   * Converts a {@link ItemDefinition} entity to a {@link ItemDefinitionResponse} DTO.
+   *
+   * @param itemDefinition the {@link ItemDefinition} entity to convert
+   * @return the converted {@link ItemDefinitionResponse} DTO
+   */
+  public static ItemDefinitionResponse toDto(ItemDefinition itemDefinition) {
+    if (itemDefinition == null) {
+      return null;
+    }
+    return new ItemDefinitionResponse(itemDefinition.getId(), itemDefinition.getName(),
+        itemDefinition.getCategory().getId(), itemDefinition.getUnit(),
+        itemDefinition.getRecommendedAmountPerPerson(), itemDefinition.getShelfLifeDays());
+  }
+
+  /**
+   * Converts a {@link ItemDefinitionRequest} DTO to a {@link ItemDefinition} entity.
+   *
+   * @param request  the {@link ItemDefinitionRequest} DTO to convert
+   * @param category the category of the item definition
+   * @return the converted {@link ItemDefinition} entity
+   */
+  public static ItemDefinition toEntity(ItemDefinitionRequest request, ItemCategory category) {
+    if (request == null) {
+      return null;
+    }
+    return new ItemDefinition()
+        .setName(request.getName())
+        .setCategory(category)
+        .setUnit(request.getUnit())
+        .setRecommendedAmountPerPerson(request.getRecommendedAmountPerPerson())
+        .setShelfLifeDays(request.getShelfLifeDays());
+  }
+}
@@ -7,6 +7,7 @@ import stud.ntnu.no.krisefikser.entities.QuizAttempt;
 import stud.ntnu.no.krisefikser.entities.QuizAttemptAnswer;
 import stud.ntnu.no.krisefikser.dtos.quiz.*;
 
+import java.util.Comparator;
 import java.util.List;
 
 @Component
@@ -17,6 +18,7 @@ public class QuizMapper {
    */
   public QuizQuestionDto toQuizQuestionDto(QuizQuestion question) {
     List<QuizAnswerOptionDto> quizAnswerOptionDtos = question.getAnswerOptions().stream()
+        .sorted(Comparator.comparing(QuizAnswerOption::getId))
         .map(this::toQuizAnswerOptionDto)
         .toList();
 
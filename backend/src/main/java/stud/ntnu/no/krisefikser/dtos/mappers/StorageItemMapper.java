@@ -1,12 +1,10 @@
 package stud.ntnu.no.krisefikser.dtos.mappers;
 
-import java.util.Date;
-
 import org.springframework.stereotype.Component;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemResponse;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemRow;
 import stud.ntnu.no.krisefikser.entities.StorageItem;
 import stud.ntnu.no.krisefikser.entities.ItemDefinition;
-import stud.ntnu.no.krisefikser.util.DateUtil;
 
 /**
  * Mapper class for converting {@link StorageItem} entities to
@@ -42,17 +40,40 @@ public class StorageItemMapper {
       response.setUnit(item.getUnit());
       double recommendedStock = item.getRecommendedAmountPerPerson();
       response.setRecommendedStockForHousehold(recommendedStock * storageItem.getHousehold().getUsers().size());
-      Date lastUpdated = storageItem.getLastRestockedAt();
-      int shelfLifeDays = item.getShelfLifeDays();
-      if (shelfLifeDays == 0 || currentStock == 0) {
-        response.setExpirationDate(null);
-      } else {
-        response.setExpirationDate(DateUtil.addDaysToDate(lastUpdated, shelfLifeDays));
-
-      }
+      response.setExpirationDate(storageItem.getExpiresAt());
       double stockCompletionPercentage = response.getCurrentStock() / response.getRecommendedStockForHousehold();
       response.setStockCompletionPercentage(stockCompletionPercentage);
+      response.setVersion(storageItem.getVersion());
+      response.setConsumptionPerDay(storageItem.getConsumptionPerDay());
+      response.setRunsOutAt(storageItem.getRunsOutAt());
     }
     return response;
   }
+
+  /**
+   * Converts a StorageItemRow projection to a StorageItemResponse DTO.
+   *
+   * @param row           the projection to be converted
+   * @param householdSize the number of members of the household the item belongs to
+   * @return the corresponding StorageItemResponse DTO
+   */
+  public static StorageItemResponse toDto(StorageItemRow row, int householdSize) {
+    if (row == null) {
+      return null;
+    }
+
+    StorageItemResponse response = new StorageItemResponse();
+    response.setId(row.getId());
+    response.setCurrentStock(row.getCurrentStock());
+    response.setCategoryId(row.getCategoryId());
+    response.setName(row.getName());
+    response.setUnit(row.getUnit());
+    response.setRecommendedStockForHousehold(row.getRecommendedAmountPerPerson() * householdSize);
+    response.setExpirationDate(row.getExpiresAt());
+    response.setStockCompletionPercentage(response.getCurrentStock() / response.getRecommendedStockForHousehold());
+    response.setVersion(row.getVersion());
+    response.setConsumptionPerDay(row.getConsumptionPerDay());
+    response.setRunsOutAt(row.getRunsOutAt());
+    return response;
+  }
 }
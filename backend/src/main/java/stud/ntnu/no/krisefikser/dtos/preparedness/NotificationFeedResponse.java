@@ -0,0 +1,42 @@
+package stud.ntnu.no.krisefikser.dtos.preparedness;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for returning one page of the notification feed.
+ * <p>
+ * Contains the notifications of the page, newest first, and the cursor to pass
+ * to fetch the next page.
+ * </p>
+ */
+@Schema(
+    description = "A page of notifications for the current user's household.",
+    name = "NotificationFeedResponse"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationFeedResponse {
+  /**
+   * The notifications of the page, newest first.
+   */
+  @Schema(
+      description = "The notifications of the page, newest first.",
+      required = true
+  )
+  private List<NotificationResponse> notifications;
+
+  /**
+   * Cursor for the next page, or null if this is the last page.
+   */
+  @Schema(
+      description = "Cursor to pass as 'before' to fetch the next page, null on the last page.",
+      example = "120",
+      required = false
+  )
+  private Long nextCursor;
+}
@@ -65,4 +65,17 @@ public class NotificationResponse {
       required = true
   )
   private NotificationType type;
-}
\ No newline at end of file
+
+  /**
+   * Whether the current user has read this notification.
+   * <p>
+   * Only set by endpoints that are aware of the current user's read markers.
+   * </p>
+   */
+  @Schema(
+      description = "Whether the current user has read the notification (may be null).",
+      example = "false",
+      required = false
+  )
+  private Boolean read;
+}
@@ -0,0 +1,50 @@
+package stud.ntnu.no.krisefikser.dtos.preparedness;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Partial preparedness totals of one group and score decile within one range of households.
+ * <p>
+ * Rows from different ranges are added together to get the statistics of the whole country.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class PreparednessAggregateRow {
+
+  /**
+   * The city, postal code or category name of the group. Null if the households have none.
+   */
+  private String group;
+
+  /**
+   * The score decile, from 0 for scores below 0.1 to 9 for scores of 0.9 and above.
+   */
+  private int decile;
+
+  /**
+   * The number of households, or storage items when grouped by category.
+   */
+  private long count;
+
+  /**
+   * The sum of the scores, each between 0 and 1.
+   */
+  private double scoreSum;
+
+  /**
+   * The number of storage items.
+   */
+  private long totalItems;
+
+  /**
+   * The number of storage items with low stock.
+   */
+  private long lowStockItems;
+
+  /**
+   * The number of storage items expiring soon.
+   */
+  private long expiringItems;
+}
@@ -0,0 +1,32 @@
+package stud.ntnu.no.krisefikser.dtos.preparedness;
+
+import java.util.Set;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import lombok.*;
+
+/**
+ * DTO for representing a request for the preparedness summaries of several households.
+ */
+@Schema(
+  description = "Payload to fetch the preparedness summaries of several households in one request.",
+  name        = "PreparednessBatchRequest"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparednessBatchRequest {
+
+  /**
+   * The IDs of the households.
+   */
+  @Schema(description = "IDs of the households.", required = true, example = "[1, 2, 3]")
+  @NotEmpty(message = "householdIds cannot be empty")
+  @Size(max = 1000, message = "householdIds cannot contain more than 1000 households")
+  private Set<@NotNull Long> householdIds;
+}
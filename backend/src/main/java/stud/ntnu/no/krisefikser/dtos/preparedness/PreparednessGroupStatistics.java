@@ -0,0 +1,53 @@
+package stud.ntnu.no.krisefikser.dtos.preparedness;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * Data Transfer Object (DTO) for the preparedness of one city, postal code or item category.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparednessGroupStatistics {
+
+  /**
+   * The city, postal code or category name. Null for households without one.
+   */
+  @Schema(description = "City, postal code or category name. Null for households without one.", example = "Trondheim")
+  private String group;
+
+  /**
+   * The number of households in the group, or storage items when grouped by category.
+   */
+  @Schema(description = "Number of households, or storage items when grouped by category.", example = "1250")
+  private long count;
+
+  /**
+   * The mean score of the households or storage items, between 0 and 1.
+   */
+  @Schema(description = "Mean preparedness score, between 0 and 1.", example = "0.62")
+  private double meanScore;
+
+  /**
+   * The share of storage items with low stock, between 0 and 1.
+   */
+  @Schema(description = "Share of storage items with low stock, between 0 and 1.", example = "0.35")
+  private double lowStockRate;
+
+  /**
+   * The share of storage items expiring soon, between 0 and 1.
+   */
+  @Schema(description = "Share of storage items expiring soon, between 0 and 1.", example = "0.08")
+  private double expiringRate;
+
+  /**
+   * The number of households or storage items per score decile, from scores below 0.1 to
+   * scores of 0.9 and above.
+   */
+  @Schema(description = "Number of households or storage items per score decile, lowest first.")
+  private List<Long> distribution;
+}
@@ -0,0 +1,25 @@
+package stud.ntnu.no.krisefikser.dtos.preparedness;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * The ways households can be grouped in the national preparedness statistics.
+ */
+@Schema(description = "How households are grouped in the preparedness statistics.")
+public enum PreparednessGrouping {
+
+  /**
+   * One group per city, with one score per household.
+   */
+  CITY,
+
+  /**
+   * One group per postal code, with one score per household.
+   */
+  POSTAL_CODE,
+
+  /**
+   * One group per item category, with one score per storage item.
+   */
+  CATEGORY
+}
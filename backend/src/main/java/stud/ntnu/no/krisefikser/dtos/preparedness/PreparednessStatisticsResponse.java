@@ -0,0 +1,38 @@
+package stud.ntnu.no.krisefikser.dtos.preparedness;
+
+import java.util.Date;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * Data Transfer Object (DTO) for the national preparedness statistics.
+ * <p>
+ * Only households whose preparedness has been calculated are included.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparednessStatisticsResponse {
+
+  /**
+   * How the households are grouped.
+   */
+  @Schema(description = "How the households are grouped.", example = "CITY")
+  private PreparednessGrouping grouping;
+
+  /**
+   * When the statistics were calculated. They are cached for a short time.
+   */
+  @Schema(description = "When the statistics were calculated.")
+  private Date calculatedAt;
+
+  /**
+   * The statistics of each group, ordered by group name.
+   */
+  @Schema(description = "Statistics of each group, ordered by group name.")
+  private List<PreparednessGroupStatistics> groups;
+}
@@ -0,0 +1,68 @@
+package stud.ntnu.no.krisefikser.dtos.quiz;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * DTO for returning how often an answer option has been chosen.
+ */
+@Schema(
+  description = "How often an answer option has been chosen.",
+  name        = "QuizAnswerOptionStatistics"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAnswerOptionStatisticsDto {
+
+    /**
+     * The ID of the answer option.
+     */
+    @Schema(
+      description = "ID of the answer option.",
+      example     = "12",
+      required    = true
+    )
+    private Long optionId;
+
+    /**
+     * The text of the answer option.
+     */
+    @Schema(
+      description = "Text of the answer option.",
+      example     = "Water",
+      required    = true
+    )
+    private String text;
+
+    /**
+     * Whether the option is the correct answer.
+     */
+    @Schema(
+      description = "Whether the option is the correct answer.",
+      example     = "true",
+      required    = true
+    )
+    private boolean correct;
+
+    /**
+     * The number of answers choosing the option.
+     */
+    @Schema(
+      description = "Number of answers choosing the option.",
+      example     = "140",
+      required    = true
+    )
+    private long answerCount;
+
+    /**
+     * The share of the answers to the question that chose the option.
+     */
+    @Schema(
+      description = "Share of the answers to the question that chose the option, from 0 to 1.",
+      example     = "0.35",
+      required    = true
+    )
+    private double share;
+}
@@ -0,0 +1,22 @@
+package stud.ntnu.no.krisefikser.dtos.quiz;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of an answered quiz question and whether the answer was correct.
+ */
+@Data
+@AllArgsConstructor
+public class QuizAnswerOutcome {
+
+  /**
+   * The ID of the question.
+   */
+  private Long questionId;
+
+  /**
+   * Whether the answer was correct.
+   */
+  private boolean correct;
+}
@@ -0,0 +1,29 @@
+package stud.ntnu.no.krisefikser.dtos.quiz;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of a completed quiz attempt, read without loading the attempt.
+ */
+@Data
+@AllArgsConstructor
+public class QuizAttemptCompletion {
+
+  /**
+   * The ID of the user who made the attempt.
+   */
+  private Long userId;
+
+  /**
+   * The number of questions answered correctly.
+   */
+  private int correctCount;
+
+  /**
+   * When the attempt was completed.
+   */
+  private LocalDateTime completedAt;
+}
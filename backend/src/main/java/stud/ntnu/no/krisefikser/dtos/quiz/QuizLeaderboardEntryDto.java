@@ -0,0 +1,87 @@
+package stud.ntnu.no.krisefikser.dtos.quiz;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * DTO for returning the standing of a user on a quiz leaderboard.
+ */
+@Schema(
+  description = "Standing of a user on a quiz leaderboard.",
+  name        = "QuizLeaderboardEntry"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizLeaderboardEntryDto {
+
+    /**
+     * The position of the user on the leaderboard, starting at 1.
+     */
+    @Schema(
+      description = "Position on the leaderboard, starting at 1. Null if the user has not completed a quiz.",
+      example     = "3"
+    )
+    private Integer rank;
+
+    /**
+     * The ID of the user.
+     */
+    @Schema(
+      description = "ID of the user.",
+      example     = "42",
+      required    = true
+    )
+    private Long userId;
+
+    /**
+     * The name shown on the leaderboard.
+     */
+    @Schema(
+      description = "First name and last name initial of the user.",
+      example     = "Ola N.",
+      required    = true
+    )
+    private String name;
+
+    /**
+     * The highest number of correct answers in a completed attempt.
+     */
+    @Schema(
+      description = "Highest number of correct answers in a completed quiz.",
+      example     = "9",
+      required    = true
+    )
+    private int bestScore;
+
+    /**
+     * The number of completed attempts.
+     */
+    @Schema(
+      description = "Number of completed quizzes.",
+      example     = "12",
+      required    = true
+    )
+    private int completedAttempts;
+
+    /**
+     * The number of consecutive days, up to today or yesterday, with a completed attempt.
+     */
+    @Schema(
+      description = "Consecutive days up to today or yesterday with a completed quiz.",
+      example     = "4",
+      required    = true
+    )
+    private int currentStreak;
+
+    /**
+     * The longest streak the user has had.
+     */
+    @Schema(
+      description = "Longest streak of consecutive days with a completed quiz.",
+      example     = "7",
+      required    = true
+    )
+    private int bestStreak;
+}
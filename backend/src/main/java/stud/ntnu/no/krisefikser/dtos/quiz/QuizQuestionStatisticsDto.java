@@ -0,0 +1,89 @@
+package stud.ntnu.no.krisefikser.dtos.quiz;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+/**
+ * DTO for returning how a quiz question has been answered, to find questions that are too
+ * hard or broken.
+ */
+@Schema(
+  description = "How a quiz question has been answered.",
+  name        = "QuizQuestionStatistics"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizQuestionStatisticsDto {
+
+    /**
+     * The ID of the question.
+     */
+    @Schema(
+      description = "ID of the question.",
+      example     = "5",
+      required    = true
+    )
+    private Long questionId;
+
+    /**
+     * The text of the question.
+     */
+    @Schema(
+      description = "Text of the question.",
+      example     = "How much water should you store per person?",
+      required    = true
+    )
+    private String text;
+
+    /**
+     * The number of quiz attempts the question has been drawn for.
+     */
+    @Schema(
+      description = "Number of quizzes the question has been part of.",
+      example     = "420",
+      required    = true
+    )
+    private long shownCount;
+
+    /**
+     * The number of answers to the question.
+     */
+    @Schema(
+      description = "Number of answers to the question.",
+      example     = "400",
+      required    = true
+    )
+    private long answerCount;
+
+    /**
+     * The number of correct answers to the question.
+     */
+    @Schema(
+      description = "Number of correct answers to the question.",
+      example     = "260",
+      required    = true
+    )
+    private long correctCount;
+
+    /**
+     * The share of the answers that were correct, or null if the question has no answers.
+     */
+    @Schema(
+      description = "Share of the answers that were correct, from 0 to 1. Null without answers.",
+      example     = "0.65"
+    )
+    private Double correctRate;
+
+    /**
+     * How often each answer option has been chosen.
+     */
+    @Schema(
+      description = "How often each answer option has been chosen.",
+      required    = true
+    )
+    private List<QuizAnswerOptionStatisticsDto> options;
+}
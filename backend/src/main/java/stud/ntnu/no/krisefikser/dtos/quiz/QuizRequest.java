@@ -40,4 +40,14 @@ public class QuizRequest {
     @NotBlank(message = "numberOfQuestions cannot be blank")
     @PositiveOrZero(message = "numberOfQuestions cannot be negative")
     private Integer numberOfQuestions;
+
+    /**
+     * How the questions should be selected. Defaults to random selection.
+     */
+    @Schema(
+      description = "How the questions should be selected. Defaults to RANDOM.",
+      example     = "ADAPTIVE",
+      required    = false
+    )
+    private QuizSelectionMode mode;
 }
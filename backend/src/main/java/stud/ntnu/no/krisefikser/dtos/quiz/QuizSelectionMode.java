@@ -0,0 +1,21 @@
+package stud.ntnu.no.krisefikser.dtos.quiz;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * The ways the questions of a new quiz can be selected.
+ */
+@Schema(description = "How the questions of a new quiz are selected.")
+public enum QuizSelectionMode {
+
+  /**
+   * Questions are drawn uniformly at random.
+   */
+  RANDOM,
+
+  /**
+   * Questions the user answered wrong last time are favoured, then questions the user has
+   * not answered yet, over questions the user already knows.
+   */
+  ADAPTIVE
+}
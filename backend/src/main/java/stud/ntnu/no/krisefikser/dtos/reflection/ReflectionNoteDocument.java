@@ -0,0 +1,39 @@
+package stud.ntnu.no.krisefikser.dtos.reflection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNoteVisibility;
+
+/**
+ * Projection of a reflection note with the fields the search index needs, read without
+ * loading the note or its creator.
+ */
+@Data
+@AllArgsConstructor
+public class ReflectionNoteDocument {
+
+  /**
+   * The ID of the note.
+   */
+  private Long id;
+
+  /**
+   * The ID of the user who created the note.
+   */
+  private Long userId;
+
+  /**
+   * The visibility of the note.
+   */
+  private ReflectionNoteVisibility visibility;
+
+  /**
+   * The title of the note.
+   */
+  private String title;
+
+  /**
+   * The content of the note.
+   */
+  private String content;
+}
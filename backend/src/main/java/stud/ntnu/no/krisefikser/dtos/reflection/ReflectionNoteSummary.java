@@ -0,0 +1,68 @@
+package stud.ntnu.no.krisefikser.dtos.reflection;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+import stud.ntnu.no.krisefikser.dtos.user.UserResponse;
+import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNoteVisibility;
+
+import java.util.Date;
+
+/**
+ * A reflection note in a list, with a snippet instead of the full content. The full note
+ * is fetched by its ID when it is opened.
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+@Schema(description = "A reflection note in a list, with a snippet of its content")
+public class ReflectionNoteSummary {
+  @Schema(description = "ID of the reflection note", example = "1")
+  private Long id;
+
+  @Schema(description = "Title of the reflection note", example = "Sample Reflection Note")
+  private String title;
+
+  @Schema(description = "The start of the content of the reflection note",
+      example = "This is a sample reflection note content.")
+  private String snippet;
+
+  @Schema(description = "Visibility of the reflection note", example = "PUBLIC")
+  private ReflectionNoteVisibility visibility;
+
+  @Schema(description = "The user who created the reflection note")
+  private UserResponse creator;
+
+  @Schema(description = "When the reflection note was created")
+  private Date createdAt;
+
+  /**
+   * Constructor used by the list queries, which select the creator columns directly.
+   *
+   * @param id               the ID of the note
+   * @param title            the title of the note
+   * @param snippet          the snippet of the note
+   * @param visibility       the visibility of the note
+   * @param createdAt        when the note was created
+   * @param creatorId        the ID of the creator
+   * @param creatorEmail     the email of the creator, which is also the username
+   * @param creatorFirstName the first name of the creator
+   * @param creatorLastName  the last name of the creator
+   */
+  public ReflectionNoteSummary(Long id, String title, String snippet, ReflectionNoteVisibility visibility,
+                               Date createdAt, Long creatorId, String creatorEmail,
+                               String creatorFirstName, String creatorLastName) {
+    this.id = id;
+    this.title = title;
+    this.snippet = snippet;
+    this.visibility = visibility;
+    this.createdAt = createdAt;
+    this.creator = new UserResponse()
+        .setId(creatorId)
+        .setEmail(creatorEmail)
+        .setUsername(creatorEmail)
+        .setFirstName(creatorFirstName)
+        .setLastName(creatorLastName);
+  }
+}
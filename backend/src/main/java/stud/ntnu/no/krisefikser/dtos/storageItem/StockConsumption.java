@@ -0,0 +1,30 @@
+package stud.ntnu.no.krisefikser.dtos.storageItem;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of the stock used by a storage item within a period, read from its daily
+ * rollups to forecast when the stock runs out.
+ */
+@Data
+@AllArgsConstructor
+public class StockConsumption {
+
+  /**
+   * The ID of the storage item.
+   */
+  private Long storageItemId;
+
+  /**
+   * The first day with stock changes in the period.
+   */
+  private LocalDate firstBucketStart;
+
+  /**
+   * The total amount of stock used in the period.
+   */
+  private Double consumed;
+}
@@ -0,0 +1,49 @@
+package stud.ntnu.no.krisefikser.dtos.storageItem;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO for the stock changes of a storage item during one day or week.
+ */
+@Schema(
+  description = "Stock changes of a storage item during one day or week.",
+  name        = "StockHistoryBucket"
+)
+@Data
+@AllArgsConstructor
+public class StockHistoryBucket {
+
+  /**
+   * The first day of the bucket.
+   */
+  @Schema(description = "First day of the bucket.", example = "2025-04-07")
+  private LocalDate bucketStart;
+
+  /**
+   * The total amount of stock added in the bucket.
+   */
+  @Schema(description = "Total amount of stock added in the bucket.", example = "6.0")
+  private double added;
+
+  /**
+   * The total amount of stock used in the bucket.
+   */
+  @Schema(description = "Total amount of stock used in the bucket.", example = "2.5")
+  private double consumed;
+
+  /**
+   * The number of stock changes in the bucket.
+   */
+  @Schema(description = "Number of stock changes in the bucket.", example = "3")
+  private int eventCount;
+
+  /**
+   * The stock at the end of the bucket.
+   */
+  @Schema(description = "Stock after the last change in the bucket.", example = "8.5")
+  private double closingStock;
+}
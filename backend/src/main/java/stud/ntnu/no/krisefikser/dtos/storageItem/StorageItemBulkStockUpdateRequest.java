@@ -0,0 +1,35 @@
+package stud.ntnu.no.krisefikser.dtos.storageItem;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import lombok.*;
+
+/**
+ * DTO for representing a request to update the stock of several storage items at once.
+ */
+@Schema(
+  description = "Payload to update the stock of several storage items in one request.",
+  name        = "StorageItemBulkStockUpdateRequest"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageItemBulkStockUpdateRequest {
+
+  /**
+   * The stock updates to apply. If a storage item appears more than once, the last update wins.
+   */
+  @Schema(
+    description = "Stock updates to apply. If an item appears more than once, the last update wins.",
+    required    = true
+  )
+  @NotEmpty(message = "updates cannot be empty")
+  @Size(max = 500, message = "updates cannot contain more than 500 items")
+  private List<@Valid StorageItemStockUpdateRequest> updates;
+}
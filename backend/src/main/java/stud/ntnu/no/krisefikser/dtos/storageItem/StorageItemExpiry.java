@@ -0,0 +1,29 @@
+package stud.ntnu.no.krisefikser.dtos.storageItem;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of a storage item's expiration date, used to schedule expiration notifications.
+ */
+@Data
+@AllArgsConstructor
+public class StorageItemExpiry {
+
+  /**
+   * The ID of the storage item.
+   */
+  private Long storageItemId;
+
+  /**
+   * The ID of the household the item belongs to.
+   */
+  private Long householdId;
+
+  /**
+   * When the stock of the item expires.
+   */
+  private Date expiresAt;
+}
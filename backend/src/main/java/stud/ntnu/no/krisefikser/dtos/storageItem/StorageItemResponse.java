@@ -98,4 +98,31 @@ public class StorageItemResponse {
     required    = true
   )
   private double stockCompletionPercentage;
+
+  /**
+   * The version of the storage item, incremented on every change.
+   */
+  @Schema(
+    description = "Version of the storage item. Send it back when setting the stock to detect concurrent changes.",
+    example     = "4"
+  )
+  private long version;
+
+  /**
+   * The average amount used per day over the recent stock history.
+   */
+  @Schema(
+    description = "Average amount used per day over the last 28 days of stock history.",
+    example     = "0.5"
+  )
+  private double consumptionPerDay;
+
+  /**
+   * When the stock is forecast to run out at the current consumption rate.
+   */
+  @Schema(
+    description = "When the stock is forecast to run out at the current consumption rate. Null if nothing is being used or there is no stock.",
+    example     = "2025-05-01T12:00:00.000+00:00"
+  )
+  private Date runsOutAt;
 }
@@ -0,0 +1,65 @@
+package stud.ntnu.no.krisefikser.dtos.storageItem;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of a storage item with the fields of its item definition, used to list the
+ * storage items of a household with a single query.
+ */
+@Data
+@AllArgsConstructor
+public class StorageItemRow {
+
+  /**
+   * The ID of the storage item.
+   */
+  private Long id;
+
+  /**
+   * The ID of the category of the item definition.
+   */
+  private Long categoryId;
+
+  /**
+   * The current stock of the storage item.
+   */
+  private double currentStock;
+
+  /**
+   * When the stock of the item expires, or null if it does not.
+   */
+  private Date expiresAt;
+
+  /**
+   * The name of the item definition.
+   */
+  private String name;
+
+  /**
+   * The unit of the item definition.
+   */
+  private String unit;
+
+  /**
+   * The recommended amount of the item per household member.
+   */
+  private double recommendedAmountPerPerson;
+
+  /**
+   * The version of the storage item.
+   */
+  private long version;
+
+  /**
+   * The average amount used per day over the recent stock history.
+   */
+  private double consumptionPerDay;
+
+  /**
+   * When the stock is forecast to run out, or null if it is not.
+   */
+  private Date runsOutAt;
+}
@@ -0,0 +1,44 @@
+package stud.ntnu.no.krisefikser.dtos.storageItem;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import lombok.*;
+
+/**
+ * DTO for representing a request to add to or remove from the stock of a storage item.
+ */
+@Schema(
+  description = "Payload to add to or remove from the stock of a storage item.",
+  name        = "StorageItemStockAdjustRequest"
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageItemStockAdjustRequest {
+
+  /**
+   * The unique identifier of the storage item.
+   */
+  @Schema(
+    description = "Identifier of the storage item to be adjusted.",
+    example     = "123",
+    required    = true
+  )
+  @NotNull(message = "id cannot be null")
+  @PositiveOrZero(message = "id cannot be negative")
+  private Long id;
+
+  /**
+   * The amount to add to the stock, or a negative amount to remove.
+   */
+  @Schema(
+    description = "Amount to add to the stock. Negative to remove stock.",
+    example     = "-2.0",
+    required    = true
+  )
+  @NotNull(message = "delta cannot be null")
+  private Double delta;
+}
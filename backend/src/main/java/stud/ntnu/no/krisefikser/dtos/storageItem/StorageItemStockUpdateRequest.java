@@ -37,4 +37,25 @@ public class StorageItemStockUpdateRequest {
   @NotNull(message = "newStock cannot be null")
   @PositiveOrZero(message = "newStock cannot be negative")
   private Double newStock;
+
+  /**
+   * The version of the storage item the new stock is based on. If given and the item has
+   * changed since, the update is rejected instead of overwriting the change.
+   */
+  @Schema(
+    description = "Version of the storage item the new stock is based on. If the item has changed since, the update is rejected with 409 Conflict.",
+    example     = "4"
+  )
+  @PositiveOrZero(message = "version cannot be negative")
+  private Long version;
+
+  /**
+   * Creates a request that sets the stock regardless of concurrent changes.
+   *
+   * @param id       the ID of the storage item
+   * @param newStock the new stock
+   */
+  public StorageItemStockUpdateRequest(Long id, Double newStock) {
+    this(id, newStock, null);
+  }
 }
@@ -0,0 +1,39 @@
+package stud.ntnu.no.krisefikser.dtos.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import stud.ntnu.no.krisefikser.entities.Role;
+
+/**
+ * Projection of one role of a user, with what the security context needs to know about the
+ * user, read without loading the user.
+ */
+@Data
+@AllArgsConstructor
+public class UserAuthority {
+
+  /**
+   * The ID of the user.
+   */
+  private Long userId;
+
+  /**
+   * The email of the user.
+   */
+  private String email;
+
+  /**
+   * The username of the user.
+   */
+  private String username;
+
+  /**
+   * The ID of the household of the user, or null if the user has no household.
+   */
+  private Long householdId;
+
+  /**
+   * The role, or null if the user has no roles.
+   */
+  private Role role;
+}
@@ -0,0 +1,27 @@
+package stud.ntnu.no.krisefikser.dtos.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Projection of the name of a user, read without loading the user and their roles.
+ */
+@Data
+@AllArgsConstructor
+public class UserName {
+
+  /**
+   * The ID of the user.
+   */
+  private Long id;
+
+  /**
+   * The first name of the user.
+   */
+  private String firstName;
+
+  /**
+   * The last name of the user.
+   */
+  private String lastName;
+}
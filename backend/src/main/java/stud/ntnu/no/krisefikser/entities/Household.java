@@ -19,7 +19,7 @@ import java.util.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
-@Table(name = "household")
+@Table(name = "household", indexes = @Index(name = "idx_household_location", columnList = "latitude, longitude"))
 public class Household {
   /**
    * Unique identifier for the household.
@@ -0,0 +1,111 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Entity holding the materialized preparedness summary of a household.
+ * <p>
+ * The totals are the sums of the contributions stored on each storage item of the household.
+ * They are updated with the difference whenever an item changes, and recalculated from
+ * scratch when the size of the household changes. The row is removed by the database when
+ * the household is deleted.
+ * </p>
+ * <p>
+ * The ID is assigned from the household rather than generated, so the entity tells Spring
+ * Data whether it is new. A new summary is inserted instead of merged, which would fail
+ * because no row exists yet.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "household_preparedness")
+public class HouseholdPreparedness implements Persistable<Long> {
+
+  /**
+   * The ID of the household, shared with the household.
+   */
+  @Id
+  private Long householdId;
+
+  /**
+   * The household this summary belongs to.
+   */
+  @OneToOne(fetch = FetchType.LAZY)
+  @MapsId
+  @JoinColumn(name = "household_id")
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private Household household;
+
+  /**
+   * The number of members the item scores were calculated for.
+   */
+  @Column(nullable = false)
+  private int householdSize;
+
+  /**
+   * The number of storage items in the household.
+   */
+  @Column(nullable = false)
+  private int totalItems;
+
+  /**
+   * The number of items with adequate stock.
+   */
+  @Column(nullable = false)
+  private int adequateItems;
+
+  /**
+   * The number of items with low stock.
+   */
+  @Column(nullable = false)
+  private int lowStockItems;
+
+  /**
+   * The number of items expiring soon.
+   */
+  @Column(nullable = false)
+  private int expiringItems;
+
+  /**
+   * The sum of the item scores, in thousandths of a point.
+   */
+  @Column(nullable = false)
+  private long totalScore;
+
+  /**
+   * Whether the summary has been loaded from or stored in the database.
+   */
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private boolean persisted;
+
+  @Override
+  public Long getId() {
+    return householdId;
+  }
+
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markPersisted() {
+    persisted = true;
+  }
+}
@@ -3,6 +3,8 @@ package stud.ntnu.no.krisefikser.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,7 +12,7 @@ import java.util.List;
 /**
  * Entity representing a category of items.
  * <p>
- * Each category can group multiple items.
+ * Each category can group multiple items. Categories are kept in the second-level cache.
  * </p>
  */
 @Getter
@@ -20,6 +22,8 @@ import java.util.List;
 @AllArgsConstructor
 @Accessors(chain = true)
 @Table(name = "item_category")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "itemCategory")
 public class ItemCategory {
 
   /**
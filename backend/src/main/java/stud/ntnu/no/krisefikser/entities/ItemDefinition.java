@@ -3,6 +3,8 @@ package stud.ntnu.no.krisefikser.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a predefined item in the system.
@@ -10,6 +12,10 @@ import lombok.experimental.Accessors;
  * ItemDefinitions have a title, belong to a category, define units, recommended
  * quantities and shelf life.
  * </p>
+ * <p>
+ * Item definitions change rarely and are read on most requests, so they are kept in the
+ * second-level cache.
+ * </p>
  */
 @Getter
 @Setter
@@ -18,6 +24,8 @@ import lombok.experimental.Accessors;
 @AllArgsConstructor
 @Accessors(chain = true)
 @Table(name = "item_definitions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "itemDefinition")
 public class ItemDefinition {
 
   /**
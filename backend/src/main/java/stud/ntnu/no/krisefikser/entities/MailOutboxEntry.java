@@ -0,0 +1,93 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Entity representing an email waiting to be sent.
+ * <p>
+ * Emails are written to the outbox in the transaction that triggers them and are sent
+ * by a background sender, so requests never wait for the mail server.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "mail_outbox", indexes = @Index(
+    name = "idx_mail_outbox_next_attempt", columnList = "next_attempt_at, id"))
+public class MailOutboxEntry {
+
+  /**
+   * Unique identifier for the entry.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The email address of the recipient.
+   */
+  @Column(nullable = false, length = 320)
+  private String recipient;
+
+  /**
+   * The provider of the recipient, i.e. the lower case domain of the address. Emails are
+   * rate limited per provider.
+   */
+  @Column(nullable = false)
+  private String provider;
+
+  /**
+   * The subject of the email.
+   */
+  @Column(nullable = false)
+  private String subject;
+
+  /**
+   * The plain text body of the email.
+   */
+  @Column(nullable = false, columnDefinition = "TEXT")
+  private String body;
+
+  /**
+   * Number of failed attempts to send the email.
+   */
+  @Column(nullable = false)
+  private int attempts = 0;
+
+  /**
+   * The earliest time the email may be sent.
+   */
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+
+  /**
+   * The message of the last error, if sending has failed.
+   */
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  /**
+   * Identifies the poll that last leased the entry, so a poll only sends the entries it
+   * actually claimed.
+   */
+  @Column(name = "lease_token", length = 36)
+  private String leaseToken;
+
+  /**
+   * Date and time when the entry was created.
+   */
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+}
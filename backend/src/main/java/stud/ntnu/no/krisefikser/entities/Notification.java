@@ -8,7 +8,7 @@ import lombok.experimental.Accessors;
  * Entity representing a notification in the system.
  * <p>
  * Notifications can be of different types and are associated with a specific
- * item.
+ * item. A household holds at most one notification of each type per storage item.
  * </p>
  */
 @Getter
@@ -17,7 +17,11 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
-@Table(name = "notifications")
+@Table(name = "notifications",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_notifications_household_item_type",
+        columnNames = {"household_id", "storage_item_id", "type"}),
+    indexes = @Index(name = "idx_notifications_household_id", columnList = "household_id, id"))
 public class Notification {
 
   /**
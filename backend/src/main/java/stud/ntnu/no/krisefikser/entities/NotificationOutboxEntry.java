@@ -0,0 +1,81 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a pending notification evaluation for a storage item.
+ * <p>
+ * Entries are written in the same transaction as the stock change that caused them and
+ * are processed asynchronously by the notification dispatcher. The IDs are stored as plain
+ * columns so that entries outlive the storage item they refer to.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "notification_outbox", indexes = @Index(
+    name = "idx_notification_outbox_next_attempt", columnList = "next_attempt_at, id"))
+public class NotificationOutboxEntry {
+
+  /**
+   * Unique identifier for the entry.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The household the storage item belongs to, used to batch entries per household.
+   */
+  @Column(name = "household_id", nullable = false)
+  private Long householdId;
+
+  /**
+   * The storage item whose notifications should be evaluated.
+   */
+  @Column(name = "storage_item_id", nullable = false)
+  private Long storageItemId;
+
+  /**
+   * Number of failed attempts to process the entry.
+   */
+  @Column(nullable = false)
+  private int attempts = 0;
+
+  /**
+   * The earliest time the entry may be processed.
+   */
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+
+  /**
+   * The message of the last error, if processing has failed.
+   */
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  /**
+   * Identifies the poll that last leased the entry, so a poll only processes the entries it
+   * actually claimed.
+   */
+  @Column(name = "lease_token", length = 36)
+  private String leaseToken;
+
+  /**
+   * Date and time when the entry was created.
+   */
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+}
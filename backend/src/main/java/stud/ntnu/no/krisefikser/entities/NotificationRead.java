@@ -0,0 +1,51 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Entity marking a notification as read by a user.
+ * <p>
+ * Read markers are removed by the database when the notification or the user is deleted.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "notification_reads", uniqueConstraints = @UniqueConstraint(
+    name = "uk_notification_reads_user_notification",
+    columnNames = {"user_id", "notification_id"}))
+public class NotificationRead {
+
+  /**
+   * Unique identifier for the read marker.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The user who has read the notification.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private User user;
+
+  /**
+   * The notification that has been read.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "notification_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private Notification notification;
+}
@@ -3,6 +3,7 @@ package stud.ntnu.no.krisefikser.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.Accessors;
+import stud.ntnu.no.krisefikser.service.QuizQuestionBankListener;
 
 /**
  * Entity representing one possible answer to a question.
@@ -16,6 +17,7 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
+@EntityListeners(QuizQuestionBankListener.class)
 @Table(name = "answer_options")
 public class QuizAnswerOption {
 
@@ -0,0 +1,43 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Entity holding how often an answer option has been chosen.
+ * <p>
+ * Maintained in periodic batches like {@link QuizQuestionStatistics}.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "quiz_answer_option_stats")
+public class QuizAnswerOptionStatistics {
+
+  /**
+   * The ID of the answer option.
+   */
+  @Id
+  @Column(name = "option_id")
+  private Long optionId;
+
+  /**
+   * The ID of the question the option belongs to.
+   */
+  @Column(name = "question_id", nullable = false)
+  private Long questionId;
+
+  /**
+   * The number of answers choosing the option.
+   */
+  @Column(name = "answer_count", nullable = false)
+  private long answerCount;
+}
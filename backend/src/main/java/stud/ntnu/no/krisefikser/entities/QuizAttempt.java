@@ -22,7 +22,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts",
+    indexes = @Index(name = "idx_quiz_attempts_user_id", columnList = "user_id, id"))
 public class QuizAttempt {
 
   /**
@@ -56,6 +57,28 @@ public class QuizAttempt {
   @Column(name = "status", nullable = false)
   private QuizSessionStatus status = QuizSessionStatus.IN_PROGRESS;
 
+  /**
+   * The number of questions in this attempt.
+   */
+  @Column(name = "total_questions", nullable = false)
+  private int totalQuestions;
+
+  /**
+   * The number of questions answered so far.
+   * <p>
+   * Incremented in the same statement that completes the attempt, see
+   * {@link stud.ntnu.no.krisefikser.repository.QuizAttemptRepository#recordAnswer}.
+   * </p>
+   */
+  @Column(name = "answered_count", nullable = false)
+  private int answeredCount;
+
+  /**
+   * The number of questions answered correctly so far.
+   */
+  @Column(name = "correct_count", nullable = false)
+  private int correctCount;
+
   /**
    * The answers given by the user during this attempt.
    */
@@ -0,0 +1,77 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+
+/**
+ * Entity holding the quiz standing of a user on the leaderboards.
+ * <p>
+ * The standing is maintained incrementally when a quiz attempt is completed, so the
+ * leaderboards are loaded from one compact row per user instead of being aggregated from
+ * the attempts and their answers.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "quiz_leaderboard")
+public class QuizLeaderboardEntry {
+
+  /**
+   * The ID of the user, which is also the ID of the entry.
+   */
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  /**
+   * The user whose standing this is.
+   */
+  @OneToOne(fetch = FetchType.LAZY)
+  @MapsId
+  @JoinColumn(name = "user_id")
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private User user;
+
+  /**
+   * The highest number of correct answers in a completed attempt.
+   */
+  @Column(name = "best_score", nullable = false)
+  private int bestScore;
+
+  /**
+   * The number of completed attempts.
+   */
+  @Column(name = "completed_attempts", nullable = false)
+  private int completedAttempts;
+
+  /**
+   * The number of consecutive days up to the last completed attempt with at least one
+   * completed attempt.
+   */
+  @Column(name = "current_streak", nullable = false)
+  private int currentStreak;
+
+  /**
+   * The longest streak the user has had.
+   */
+  @Column(name = "best_streak", nullable = false)
+  private int bestStreak;
+
+  /**
+   * The day of the last completed attempt.
+   */
+  @Column(name = "last_completed_on")
+  private LocalDate lastCompletedOn;
+}
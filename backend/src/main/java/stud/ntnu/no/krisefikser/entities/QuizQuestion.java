@@ -5,6 +5,7 @@ import java.util.Set;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.Accessors;
+import stud.ntnu.no.krisefikser.service.QuizQuestionBankListener;
 
 /**
  * Entity representing a quiz question.
@@ -18,6 +19,7 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
+@EntityListeners(QuizQuestionBankListener.class)
 @Table(name = "questions")
 public class QuizQuestion {
 
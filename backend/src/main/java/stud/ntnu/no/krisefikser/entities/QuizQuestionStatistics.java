@@ -0,0 +1,51 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Entity holding how often a quiz question has been asked and answered.
+ * <p>
+ * The counts are accumulated in memory when quizzes are started and answered, and added to
+ * this row in periodic batches, so the quiz analytics never scan the attempt answers. Rows
+ * of deleted questions are kept, but not shown.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "quiz_question_stats")
+public class QuizQuestionStatistics {
+
+  /**
+   * The ID of the question.
+   */
+  @Id
+  @Column(name = "question_id")
+  private Long questionId;
+
+  /**
+   * The number of quiz attempts the question has been drawn for.
+   */
+  @Column(name = "shown_count", nullable = false)
+  private long shownCount;
+
+  /**
+   * The number of answers to the question.
+   */
+  @Column(name = "answer_count", nullable = false)
+  private long answerCount;
+
+  /**
+   * The number of correct answers to the question.
+   */
+  @Column(name = "correct_count", nullable = false)
+  private long correctCount;
+}
@@ -0,0 +1,81 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Entity holding which quiz questions a user has answered, and whether the last answer to
+ * each was correct.
+ * <p>
+ * The answered questions are stored as their IDs in ascending order, each encoded as the
+ * varint difference to the previous ID, and the correct answers as a bitset indexed by the
+ * position of the question in that list, as produced by
+ * {@link java.util.BitSet#toByteArray()}. Both grow with the number of answered questions
+ * rather than with the largest question ID, so the whole answer history of a user fits in a
+ * few kilobytes and adaptive quizzes never read the attempt answers.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "quiz_user_progress")
+public class QuizUserProgress {
+
+  /**
+   * The maximum size of the encoded answered questions in bytes. The bitset of correct
+   * answers is never larger.
+   */
+  public static final int MAX_PROGRESS_BYTES = 8192;
+
+  /**
+   * The ID of the user, which is also the ID of the progress.
+   */
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  /**
+   * The user whose progress this is.
+   */
+  @OneToOne(fetch = FetchType.LAZY)
+  @MapsId
+  @JoinColumn(name = "user_id")
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private User user;
+
+  /**
+   * The IDs of the questions the user has answered, in ascending order and encoded as the
+   * varint differences between consecutive IDs.
+   */
+  @Column(name = "answered_question_ids", length = MAX_PROGRESS_BYTES)
+  private byte[] answeredQuestionIds;
+
+  /**
+   * The positions in {@link #answeredQuestionIds} of the questions whose last answer by the
+   * user was correct.
+   */
+  @Column(name = "correct_positions", length = MAX_PROGRESS_BYTES)
+  private byte[] correctPositions;
+
+  /**
+   * The number of answers included in the progress, used to tell newer copies from older.
+   */
+  @Column(name = "answer_count", nullable = false)
+  private long answerCount;
+
+  /**
+   * Whether the progress includes the answers given before the progress was kept. Rows
+   * without {@link #answeredQuestionIds} are built from the answers again.
+   */
+  @Column(name = "backfilled", nullable = false)
+  private boolean backfilled;
+}
@@ -0,0 +1,64 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.Date;
+
+/**
+ * Entity representing a single change of the stock of a storage item.
+ * <p>
+ * Events are only ever appended, and are removed by the database together with their
+ * storage item. They are the source of the daily and weekly {@link StockRollup}s.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "stock_event", indexes = {
+    @Index(name = "idx_stock_event_item_occurred", columnList = "storage_item_id, occurred_at")
+})
+public class StockEvent {
+
+  /**
+   * Unique identifier for the event.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The storage item whose stock changed.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "storage_item_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private StorageItem storageItem;
+
+  /**
+   * The change of the stock. Positive when stock was added, negative when it was used.
+   */
+  @Column(nullable = false)
+  private double delta;
+
+  /**
+   * The stock after the change.
+   */
+  @Column(name = "stock_after", nullable = false)
+  private double stockAfter;
+
+  /**
+   * When the change happened.
+   */
+  @Column(name = "occurred_at", nullable = false)
+  private Date occurredAt;
+}
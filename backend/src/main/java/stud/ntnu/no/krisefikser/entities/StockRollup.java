@@ -0,0 +1,84 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+
+/**
+ * Entity holding the stock changes of a storage item summed over a day or a week.
+ * <p>
+ * Rollups are maintained incrementally: every {@link StockEvent} is added to the rollup of
+ * its day and its week with a single upsert, so history charts read one row per bucket
+ * instead of every event. Buckets without changes have no row.
+ * </p>
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@Table(name = "stock_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_rollup_bucket", columnNames = {"storage_item_id", "granularity", "bucket_start"})
+})
+public class StockRollup {
+
+  /**
+   * Unique identifier for the rollup.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The storage item whose stock changes are summed.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "storage_item_id", nullable = false)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private StorageItem storageItem;
+
+  /**
+   * The length of the bucket.
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 8)
+  private StockRollupGranularity granularity;
+
+  /**
+   * The first day of the bucket.
+   */
+  @Column(name = "bucket_start", nullable = false)
+  private LocalDate bucketStart;
+
+  /**
+   * The total amount of stock added in the bucket.
+   */
+  @Column(nullable = false)
+  private double added;
+
+  /**
+   * The total amount of stock used in the bucket, as a positive number.
+   */
+  @Column(nullable = false)
+  private double consumed;
+
+  /**
+   * The number of stock changes in the bucket.
+   */
+  @Column(name = "event_count", nullable = false)
+  private int eventCount;
+
+  /**
+   * The stock after the last change in the bucket.
+   */
+  @Column(name = "closing_stock", nullable = false)
+  private double closingStock;
+}
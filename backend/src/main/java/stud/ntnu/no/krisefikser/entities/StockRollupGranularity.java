@@ -0,0 +1,21 @@
+package stud.ntnu.no.krisefikser.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Enum representing the length of the buckets stock changes are rolled up into.
+ */
+@Schema(description = "Length of the buckets stock changes are rolled up into")
+public enum StockRollupGranularity {
+    /**
+     * One bucket per calendar day.
+     */
+    @Schema(description = "One bucket per calendar day")
+    DAY,
+
+    /**
+     * One bucket per ISO week, starting on Monday.
+     */
+    @Schema(description = "One bucket per ISO week, starting on Monday")
+    WEEK
+}
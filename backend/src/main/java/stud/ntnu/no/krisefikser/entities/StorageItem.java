@@ -5,6 +5,7 @@ import lombok.*;
 import lombok.experimental.Accessors;
 
 import org.hibernate.annotations.CreationTimestamp;
+import stud.ntnu.no.krisefikser.util.DateUtil;
 
 import java.util.Date;
 
@@ -13,7 +14,20 @@ import java.util.Date;
  * <p>
  * This is a join between an itemDefinition and a household, with metadata such
  * as
- * current stock and last restocked date.
+ * current stock and last restocked date. A household has at most one storage item
+ * per itemDefinition.
+ * </p>
+ * <p>
+ * The expiration date is stored and indexed, so items expiring within a period can be
+ * found with a range scan. It must be refreshed with {@link #refreshExpiresAt()} whenever
+ * the stock or restock date changes.
+ * </p>
+ * <p>
+ * The item is versioned, so an absolute stock update based on a stale read fails instead
+ * of silently overwriting a concurrent change. Relative stock changes are applied with
+ * single atomic updates in {@link stud.ntnu.no.krisefikser.repository.StorageItemRepository},
+ * which also increment the version and need no lock. The fields derived from the stock are
+ * written afterwards without another increment.
  * </p>
  */
 @Getter
@@ -22,7 +36,11 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
-@Table(name = "storage_item")
+@Table(name = "storage_item", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_storage_item_household_item", columnNames = {"household_id", "item_id"})
+}, indexes = {
+    @Index(name = "idx_storage_item_expires_at", columnList = "expires_at")
+})
 public class StorageItem {
 
   /**
@@ -59,4 +77,68 @@ public class StorageItem {
   @CreationTimestamp
   @Column(name = "last_updated", nullable = false)
   private Date lastRestockedAt;
+
+  /**
+   * Start of the day the stock expires, i.e. the last restock date plus the shelf life
+   * of the item. Null if there is no stock or the item does not expire.
+   */
+  @Column(name = "expires_at")
+  private Date expiresAt;
+
+  /**
+   * Version used for optimistic locking. Incremented on every change of the row.
+   */
+  @Version
+  @Column(nullable = false)
+  private long version;
+
+  /**
+   * Contribution of this item to the preparedness score of its household, in thousandths
+   * of a point. Stored so the household summary can be updated with the difference when
+   * the item changes.
+   */
+  @Column(name = "preparedness_score", nullable = false)
+  private long preparednessScore;
+
+  /**
+   * Whether the item is counted as adequately stocked in the household summary.
+   */
+  @Column(name = "adequate", nullable = false)
+  private boolean adequate;
+
+  /**
+   * Whether the item is counted as expiring soon in the household summary.
+   */
+  @Column(name = "expiring_soon", nullable = false)
+  private boolean expiringSoon;
+
+  /**
+   * Average amount used per day over the recent stock history, 0 if nothing was used.
+   * Refreshed on every stock change.
+   */
+  @Column(name = "consumption_per_day", nullable = false)
+  private double consumptionPerDay;
+
+  /**
+   * When the stock is forecast to run out at the current consumption rate. Null if nothing
+   * is being used or there is no stock. Refreshed on every stock change.
+   */
+  @Column(name = "runs_out_at")
+  private Date runsOutAt;
+
+  /**
+   * Recalculates the expiration date from the last restock date, the shelf life and the
+   * current stock.
+   *
+   * @return this storage item
+   */
+  public StorageItem refreshExpiresAt() {
+    int shelfLifeDays = itemDefinition == null ? 0 : itemDefinition.getShelfLifeDays();
+    if (lastRestockedAt == null || shelfLifeDays <= 0 || currentStock <= 0) {
+      expiresAt = null;
+    } else {
+      expiresAt = DateUtil.addDaysToDate(lastRestockedAt, shelfLifeDays);
+    }
+    return this;
+  }
 }
@@ -12,7 +12,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 @Getter
@@ -111,14 +110,15 @@ public class User implements UserDetails {
   }
 
   /**
-   * Returns the authorities granted to the user.
+   * Returns the authorities granted to the user, which are the names of the user's roles.
    *
    * @return a collection of granted authorities.
    */
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    //TODO implement getauthorities correctly
-    return List.of(new SimpleGrantedAuthority("USER"));
+    return userRoles.stream()
+        .map(userRole -> new SimpleGrantedAuthority(userRole.getRole().name()))
+        .toList();
   }
 
 
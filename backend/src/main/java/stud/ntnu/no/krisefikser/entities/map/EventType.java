@@ -4,12 +4,15 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing the type of event.
  * <p>
  * Every created event must have an event type, which is used to categorize the event.
  * Depending on the type of event, different actions may be taken.
+ * Event types are kept in the second-level cache.
  * </p>
  */
 @Getter
@@ -17,6 +20,8 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 @Entity
 @Table(name = "EVENT_TYPE")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "eventType")
 public class EventType {
 
   /**
@@ -4,15 +4,20 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing the type of position, such as shelter, food-aid center, etc.
+ * Position types are kept in the second-level cache.
  */
 @Getter
 @Setter
 @Accessors(chain = true)
 @Entity
 @Table(name = "POSITION_TYPE")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "positionType")
 public class PositionType {
 
   /**
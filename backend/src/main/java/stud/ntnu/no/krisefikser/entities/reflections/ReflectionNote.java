@@ -21,8 +21,16 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
-@Table(name = "reflection_notes")
+@Table(name = "reflection_notes", indexes = {
+    @Index(name = "idx_reflection_notes_feed", columnList = "visibility, created_at, id, user_id")
+})
 public class ReflectionNote {
+
+  /**
+   * The maximum length of a snippet, excluding the trailing ellipsis.
+   */
+  public static final int SNIPPET_LENGTH = 200;
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -34,6 +42,13 @@ public class ReflectionNote {
   @Column(columnDefinition = "TEXT")
   private String content;
 
+  /**
+   * The start of the content, kept in sync by {@link #setContent(String)} so note lists
+   * never read the full content.
+   */
+  @Column(length = SNIPPET_LENGTH + 1)
+  private String snippet;
+
   @Column
   private ReflectionNoteVisibility visibility;
 
@@ -44,4 +59,38 @@ public class ReflectionNote {
   @JoinColumn(name = "user_id")
   @ManyToOne(fetch = FetchType.LAZY)
   private User user;
+
+  /**
+   * Sets the content of the note and its snippet.
+   *
+   * @param content the content of the note
+   * @return this note
+   */
+  public ReflectionNote setContent(String content) {
+    this.content = content;
+    this.snippet = snippetOf(content);
+    return this;
+  }
+
+  /**
+   * Returns the start of a text with its whitespace collapsed, cut at a word boundary and
+   * followed by an ellipsis if the text is longer than {@value #SNIPPET_LENGTH} characters.
+   *
+   * @param text the text, may be null
+   * @return the snippet, empty if the text is null
+   */
+  static String snippetOf(String text) {
+    if (text == null) {
+      return "";
+    }
+    String collapsed = text.strip().replaceAll("\\s+", " ");
+    if (collapsed.length() <= SNIPPET_LENGTH) {
+      return collapsed;
+    }
+    int end = collapsed.lastIndexOf(' ', SNIPPET_LENGTH);
+    if (end < SNIPPET_LENGTH / 2) {
+      end = Character.isHighSurrogate(collapsed.charAt(SNIPPET_LENGTH - 1)) ? SNIPPET_LENGTH - 1 : SNIPPET_LENGTH;
+    }
+    return collapsed.substring(0, end).stripTrailing() + "\u2026";
+  }
 }
@@ -111,6 +111,16 @@ public enum CustomErrorMessage {
    */
   STORAGE_ITEM_NOT_FOUND(404, "Storage item not found."),
 
+  /**
+   * Error when the StorageItem was changed since the client read it.
+   */
+  STORAGE_ITEM_VERSION_CONFLICT(409, "Storage item was changed by someone else. Reload it and try again."),
+
+  /**
+   * Error when a stock adjustment would make the stock negative.
+   */
+  STORAGE_ITEM_INSUFFICIENT_STOCK(409, "Not enough stock to remove the requested amount."),
+
   /**
    * Error when the qustion is already answered.
    */
@@ -2,15 +2,18 @@ package stud.ntnu.no.krisefikser.exception;
 
 import io.jsonwebtoken.security.InvalidKeyException;
 import lombok.NonNull;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.MailException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
 import stud.ntnu.no.krisefikser.exception.customExceptions.*;
 
 import java.time.LocalDateTime;
@@ -198,6 +201,25 @@ public class GlobalExceptionHandler {
     return createErrorResponseEntity(HttpStatus.CONFLICT, e, request);
   }
 
+  /**
+   * Handles {@link OptimisticLockingFailureException} when an entity was changed by another
+   * request between being read and written. Conflicts on storage items tell the client to
+   * reload the item; other conflicts are reported as a plain conflict.
+   *
+   * @param e       the thrown exception
+   * @param request the current web request
+   *
+   * @return a structured {@link ResponseEntity} containing {@link ErrorDetail}
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorDetail> handleOptimisticLockingFailureException(@NonNull OptimisticLockingFailureException e, WebRequest request) {
+    if (e instanceof ObjectOptimisticLockingFailureException objectFailure
+        && StorageItem.class.equals(objectFailure.getPersistentClass())) {
+      return createErrorResponseEntity(CustomErrorMessage.STORAGE_ITEM_VERSION_CONFLICT, e, request);
+    }
+    return createErrorResponseEntity(HttpStatus.CONFLICT, e, request);
+  }
+
   /**
    * Handles {@link InvalidGeoJsonException} when the provided GeoJSON is invalid.
    *
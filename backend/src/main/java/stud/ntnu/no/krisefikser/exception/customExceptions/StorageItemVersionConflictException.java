@@ -0,0 +1,20 @@
+package stud.ntnu.no.krisefikser.exception.customExceptions;
+
+import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
+
+/**
+ * Exception thrown when a storage item has changed since the version a client read.
+ * <p>
+ * Always carries {@link CustomErrorMessage#STORAGE_ITEM_VERSION_CONFLICT}, so clients can
+ * reload the item and try again.
+ * </p>
+ */
+public class StorageItemVersionConflictException extends EntityOperationException {
+
+  /**
+   * Constructs a new {@code StorageItemVersionConflictException}.
+   */
+  public StorageItemVersionConflictException() {
+    super(CustomErrorMessage.STORAGE_ITEM_VERSION_CONFLICT);
+  }
+}
@@ -1,7 +1,10 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import stud.ntnu.no.krisefikser.entities.map.EventType;
 
 /**
@@ -36,4 +39,12 @@ public interface EventTypeRepository extends JpaRepository<EventType, Long> {
    */
   boolean existsByName(String name);
 
+  /**
+   * Finds all event types. The result is kept in the query cache until the table changes.
+   *
+   * @return all event types
+   */
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<EventType> findAll();
 }
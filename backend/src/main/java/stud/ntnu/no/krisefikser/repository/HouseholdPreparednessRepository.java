@@ -0,0 +1,133 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessAggregateRow;
+import stud.ntnu.no.krisefikser.entities.HouseholdPreparedness;
+
+/**
+ * Repository interface for managing {@link HouseholdPreparedness} entities.
+ */
+@Repository
+public interface HouseholdPreparednessRepository extends JpaRepository<HouseholdPreparedness, Long> {
+
+  /**
+   * The score of a household between 0 and 1. The total score is stored in thousandths of a
+   * point, and each item scores at most 100 points.
+   */
+  String HOUSEHOLD_SCORE = "(CASE WHEN p.totalItems = 0 THEN 0.0 ELSE p.totalScore / (p.totalItems * 100000.0) END)";
+
+  /**
+   * The score decile of a household, from 0 to 9.
+   */
+  String HOUSEHOLD_SCORE_DECILE = "LEAST(CAST(FLOOR(" + HOUSEHOLD_SCORE + " * 10) AS Integer), 9)";
+
+  /**
+   * Finds the preparedness summary of a household together with the household.
+   *
+   * @param householdId the ID of the household
+   * @return the summary, or empty if it has not been calculated yet
+   */
+  @Query("SELECT p FROM HouseholdPreparedness p JOIN FETCH p.household WHERE p.householdId = :householdId")
+  Optional<HouseholdPreparedness> findWithHouseholdByHouseholdId(@Param("householdId") Long householdId);
+
+  /**
+   * Finds the preparedness summaries of several households together with the households.
+   *
+   * @param householdIds the IDs of the households
+   * @return the summaries that have been calculated
+   */
+  @Query("SELECT p FROM HouseholdPreparedness p JOIN FETCH p.household WHERE p.householdId IN :householdIds")
+  List<HouseholdPreparedness> findWithHouseholdByHouseholdIdIn(@Param("householdIds") Collection<Long> householdIds);
+
+  /**
+   * Finds the household size the summary of a household was calculated for.
+   *
+   * @param householdId the ID of the household
+   * @return the household size, or empty if the summary has not been calculated yet
+   */
+  @Query("SELECT p.householdSize FROM HouseholdPreparedness p WHERE p.householdId = :householdId")
+  Optional<Integer> findHouseholdSizeByHouseholdId(@Param("householdId") Long householdId);
+
+  /**
+   * Adds the change of a single item to the summary of its household in one statement.
+   *
+   * @param householdId   the ID of the household
+   * @param scoreDelta    the change of the total score, in thousandths of a point
+   * @param adequateDelta the change of the number of adequate items
+   * @param lowStockDelta the change of the number of low stock items
+   * @param expiringDelta the change of the number of expiring items
+   * @return the number of updated summaries
+   */
+  @Modifying
+  @Query("UPDATE HouseholdPreparedness p SET p.totalScore = p.totalScore + :scoreDelta, "
+      + "p.adequateItems = p.adequateItems + :adequateDelta, "
+      + "p.lowStockItems = p.lowStockItems + :lowStockDelta, "
+      + "p.expiringItems = p.expiringItems + :expiringDelta "
+      + "WHERE p.householdId = :householdId")
+  int applyDelta(@Param("householdId") Long householdId,
+                 @Param("scoreDelta") long scoreDelta,
+                 @Param("adequateDelta") int adequateDelta,
+                 @Param("lowStockDelta") int lowStockDelta,
+                 @Param("expiringDelta") int expiringDelta);
+
+  /**
+   * Counts an empty storage item of an item definition in the summaries of the households
+   * within an ID range that do not have one yet. Must run before the items are created.
+   * An empty item scores 0 points and counts as low stock.
+   *
+   * @param itemDefinitionId the ID of the item definition
+   * @param afterHouseholdId the start of the household ID range, exclusive
+   * @param lastHouseholdId  the end of the household ID range, inclusive
+   * @return the number of updated summaries
+   */
+  @Modifying
+  @Query("UPDATE HouseholdPreparedness p SET p.totalItems = p.totalItems + 1, "
+      + "p.lowStockItems = p.lowStockItems + 1 "
+      + "WHERE p.householdId > :afterHouseholdId AND p.householdId <= :lastHouseholdId "
+      + "AND NOT EXISTS (SELECT s.id FROM StorageItem s "
+      + "WHERE s.household.id = p.householdId AND s.itemDefinition.id = :itemDefinitionId)")
+  int addEmptyItem(@Param("itemDefinitionId") Long itemDefinitionId,
+                   @Param("afterHouseholdId") Long afterHouseholdId,
+                   @Param("lastHouseholdId") Long lastHouseholdId);
+
+  /**
+   * Sums the preparedness of the households within an ID range per city and score decile.
+   *
+   * @param afterHouseholdId the start of the household ID range, exclusive
+   * @param lastHouseholdId  the end of the household ID range, inclusive
+   * @return one row per city and decile with households
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessAggregateRow(h.city, "
+      + HOUSEHOLD_SCORE_DECILE + ", COUNT(p), SUM(" + HOUSEHOLD_SCORE + "), "
+      + "SUM(p.totalItems), SUM(p.lowStockItems), SUM(p.expiringItems)) "
+      + "FROM HouseholdPreparedness p JOIN p.household h "
+      + "WHERE p.householdId > :afterHouseholdId AND p.householdId <= :lastHouseholdId "
+      + "GROUP BY h.city, " + HOUSEHOLD_SCORE_DECILE)
+  List<PreparednessAggregateRow> aggregateByCity(@Param("afterHouseholdId") Long afterHouseholdId,
+                                                 @Param("lastHouseholdId") Long lastHouseholdId);
+
+  /**
+   * Sums the preparedness of the households within an ID range per postal code and score decile.
+   *
+   * @param afterHouseholdId the start of the household ID range, exclusive
+   * @param lastHouseholdId  the end of the household ID range, inclusive
+   * @return one row per postal code and decile with households
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessAggregateRow(h.postalCode, "
+      + HOUSEHOLD_SCORE_DECILE + ", COUNT(p), SUM(" + HOUSEHOLD_SCORE + "), "
+      + "SUM(p.totalItems), SUM(p.lowStockItems), SUM(p.expiringItems)) "
+      + "FROM HouseholdPreparedness p JOIN p.household h "
+      + "WHERE p.householdId > :afterHouseholdId AND p.householdId <= :lastHouseholdId "
+      + "GROUP BY h.postalCode, " + HOUSEHOLD_SCORE_DECILE)
+  List<PreparednessAggregateRow> aggregateByPostalCode(@Param("afterHouseholdId") Long afterHouseholdId,
+                                                       @Param("lastHouseholdId") Long lastHouseholdId);
+}
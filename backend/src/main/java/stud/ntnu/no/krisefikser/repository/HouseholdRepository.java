@@ -1,8 +1,16 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import stud.ntnu.no.krisefikser.dtos.household.HouseholdMemberCount;
 import stud.ntnu.no.krisefikser.entities.Household;
 
 /**
@@ -14,4 +22,48 @@ import stud.ntnu.no.krisefikser.entities.Household;
 @Repository
 public interface HouseholdRepository extends JpaRepository<Household, Long> {
 
+  /**
+   * Counts the members of a household without loading them.
+   *
+   * @param id the ID of the household
+   * @return the number of members, or empty if the household does not exist
+   */
+  @Query("SELECT SIZE(h.users) FROM Household h WHERE h.id = :id")
+  Optional<Integer> findMemberCountById(@Param("id") Long id);
+
+  /**
+   * Finds the names and member counts of households in one query, without loading the members.
+   *
+   * @param ids the IDs of the households
+   * @return the households that exist
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.household.HouseholdMemberCount(h.id, h.name, SIZE(h.users)) "
+      + "FROM Household h WHERE h.id IN :ids")
+  List<HouseholdMemberCount> findMemberCountsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Finds the IDs of the households after an ID, in ascending order.
+   *
+   * @param afterId the ID to start after
+   * @param limit   the maximum number of IDs to return
+   * @return the household IDs
+   */
+  @Query("SELECT h.id FROM Household h WHERE h.id > :afterId ORDER BY h.id")
+  List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+  /**
+   * Finds the lowest household ID, used to split scans over all households into ID ranges.
+   *
+   * @return the lowest ID, or empty if there are no households
+   */
+  @Query("SELECT MIN(h.id) FROM Household h")
+  Optional<Long> findMinId();
+
+  /**
+   * Finds the highest household ID, used to split scans over all households into ID ranges.
+   *
+   * @return the highest ID, or empty if there are no households
+   */
+  @Query("SELECT MAX(h.id) FROM Household h")
+  Optional<Long> findMaxId();
 }
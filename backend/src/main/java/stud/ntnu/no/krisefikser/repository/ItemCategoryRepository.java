@@ -1,6 +1,11 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import java.util.List;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import stud.ntnu.no.krisefikser.entities.ItemCategory;
@@ -22,4 +27,12 @@ public interface ItemCategoryRepository extends JpaRepository<ItemCategory, Long
    */
   boolean existsByNameIgnoreCase(String name);
 
+  /**
+   * Finds all item categories. The result is kept in the query cache until the table changes.
+   *
+   * @return all item categories
+   */
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<ItemCategory> findAll();
 }
@@ -1,6 +1,9 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import stud.ntnu.no.krisefikser.entities.ItemDefinition;
@@ -14,4 +17,14 @@ import stud.ntnu.no.krisefikser.entities.ItemDefinition;
 @Repository
 public interface ItemDefinitionRepository extends JpaRepository<ItemDefinition, Long> {
 
+  /**
+   * Finds the IDs of the item definitions that at least one household has no storage item of,
+   * for example definitions added after the households were created.
+   *
+   * @return the item definition IDs, in ascending order
+   */
+  @Query("SELECT d.id FROM ItemDefinition d WHERE EXISTS (SELECT h.id FROM Household h "
+      + "WHERE NOT EXISTS (SELECT s.id FROM StorageItem s WHERE s.household = h AND s.itemDefinition = d)) "
+      + "ORDER BY d.id")
+  List<Long> findIdsMissingFromAnyHousehold();
 }
@@ -0,0 +1,84 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import stud.ntnu.no.krisefikser.entities.MailOutboxEntry;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link MailOutboxEntry} entities.
+ */
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntry, Long> {
+
+  /**
+   * Finds emails that are due to be sent, oldest first.
+   *
+   * @param now      the current time
+   * @param pageable limits the number of entries returned
+   * @return the due entries
+   */
+  List<MailOutboxEntry> findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant now, Pageable pageable);
+
+  /**
+   * Finds emails that are due to be sent to any but the given providers, oldest first.
+   *
+   * @param now       the current time
+   * @param providers the providers to skip
+   * @param pageable  limits the number of entries returned
+   * @return the due entries
+   */
+  List<MailOutboxEntry> findByNextAttemptAtLessThanEqualAndProviderNotInOrderByIdAsc(
+      Instant now, Collection<String> providers, Pageable pageable);
+
+  /**
+   * Postpones the given entries for a poll, so that no other poll picks them up while they
+   * are sent. Entries that are no longer due, because another poll leased them after they
+   * were read, are left alone.
+   *
+   * @param ids   the IDs of the entries
+   * @param now   the time the entries were found due
+   * @param until the time the entries become due again
+   * @param token identifies the poll
+   * @return the number of leased entries
+   */
+  @Modifying
+  @Query("UPDATE MailOutboxEntry e SET e.nextAttemptAt = :until, e.leaseToken = :token "
+      + "WHERE e.id IN :ids AND e.nextAttemptAt <= :now")
+  int lease(@Param("ids") Collection<Long> ids,
+            @Param("now") Instant now,
+            @Param("until") Instant until,
+            @Param("token") String token);
+
+  /**
+   * Finds which of the given entries were leased by a poll.
+   *
+   * @param ids   the IDs of the entries
+   * @param token identifies the poll
+   * @return the IDs of the entries leased by the poll
+   */
+  @Query("SELECT e.id FROM MailOutboxEntry e WHERE e.id IN :ids AND e.leaseToken = :token")
+  List<Long> findLeasedIds(@Param("ids") Collection<Long> ids, @Param("token") String token);
+
+  /**
+   * Records a failed attempt to send an email and schedules the next one.
+   *
+   * @param id          the ID of the entry
+   * @param nextAttempt the time of the next attempt
+   * @param error       the error message
+   * @return the number of updated entries
+   */
+  @Modifying
+  @Query("UPDATE MailOutboxEntry e SET e.attempts = e.attempts + 1, "
+      + "e.nextAttemptAt = :nextAttempt, e.lastError = :error WHERE e.id = :id")
+  int recordFailure(@Param("id") Long id,
+                    @Param("nextAttempt") Instant nextAttempt,
+                    @Param("error") String error);
+}
@@ -0,0 +1,57 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import stud.ntnu.no.krisefikser.entities.NotificationRead;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link NotificationRead} entities.
+ */
+@Repository
+public interface NotificationReadRepository extends JpaRepository<NotificationRead, Long> {
+
+  /**
+   * Marks a notification as read by a user, unless it already is.
+   *
+   * @param userId         the ID of the user
+   * @param notificationId the ID of the notification
+   * @return 1 if the notification was marked as read, 0 if it already was
+   */
+  @Modifying
+  @NativeQuery("INSERT IGNORE INTO notification_reads (user_id, notification_id) "
+      + "VALUES (:userId, :notificationId)")
+  int markRead(@Param("userId") Long userId, @Param("notificationId") Long notificationId);
+
+  /**
+   * Marks all notifications of a household as read by a user in a single statement.
+   *
+   * @param userId      the ID of the user
+   * @param householdId the ID of the household
+   * @return the number of notifications that were marked as read
+   */
+  @Modifying
+  @NativeQuery("INSERT IGNORE INTO notification_reads (user_id, notification_id) "
+      + "SELECT :userId, n.id FROM notifications n WHERE n.household_id = :householdId "
+      + "AND NOT EXISTS (SELECT 1 FROM notification_reads r "
+      + "WHERE r.user_id = :userId AND r.notification_id = n.id)")
+  int markAllRead(@Param("userId") Long userId, @Param("householdId") Long householdId);
+
+  /**
+   * Finds which of the given notifications a user has read.
+   *
+   * @param userId          the ID of the user
+   * @param notificationIds the IDs of the notifications to check
+   * @return the IDs of the notifications the user has read
+   */
+  @Query("SELECT r.notification.id FROM NotificationRead r "
+      + "WHERE r.user.id = :userId AND r.notification.id IN :notificationIds")
+  List<Long> findReadNotificationIds(@Param("userId") Long userId,
+                                     @Param("notificationIds") Collection<Long> notificationIds);
+}
@@ -1,17 +1,25 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import stud.ntnu.no.krisefikser.entities.Notification;
 import stud.ntnu.no.krisefikser.entities.NotificationType;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for managing Notification entities.
  * <p>
- * This interface extends JpaRepository to provide CRUD operations.
+ * This interface extends JpaRepository to provide CRUD operations. Notifications are
+ * unique per (household, storage item, type), which lets the generation paths use
+ * single-statement inserts and deletes instead of read-then-write sequences.
  * </p>
  */
 @Repository
@@ -25,7 +33,80 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
    */
   List<Notification> findByHouseholdId(Long householdId);
 
-  List<Notification> findByHouseholdIdAndStorageItemIdAndType(Long householdId, Long storageItemId, NotificationType type);
-  void deleteByStorageItemIdAndType(Long storageItemId, NotificationType type);
+  /**
+   * Finds a page of notifications for a household, newest first, starting below a cursor.
+   * <p>
+   * Uses the (household_id, id) index, so the cost does not grow with the page offset.
+   * </p>
+   *
+   * @param householdId the ID of the household
+   * @param before      only notifications with an ID below this cursor are returned
+   * @param limit       the maximum number of notifications to return
+   * @return the notifications, ordered by descending ID
+   */
+  @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.storageItem s LEFT JOIN FETCH s.itemDefinition "
+      + "WHERE n.household.id = :householdId AND n.id < :before ORDER BY n.id DESC")
+  List<Notification> findPageByHouseholdId(@Param("householdId") Long householdId,
+                                           @Param("before") Long before,
+                                           Limit limit);
+
+  /**
+   * Counts the notifications in a household that a user has not read.
+   *
+   * @param householdId the ID of the household
+   * @param userId      the ID of the user
+   * @return the number of unread notifications
+   */
+  @Query("SELECT COUNT(n) FROM Notification n WHERE n.household.id = :householdId "
+      + "AND NOT EXISTS (SELECT r.id FROM NotificationRead r WHERE r.notification = n AND r.user.id = :userId)")
+  long countUnread(@Param("householdId") Long householdId, @Param("userId") Long userId);
+
+  /**
+   * Finds the notification of a given type for a storage item in a household.
+   *
+   * @param householdId   the ID of the household
+   * @param storageItemId the ID of the storage item
+   * @param type          the notification type
+   * @return the notification if it exists
+   */
+  Optional<Notification> findByHouseholdIdAndStorageItemIdAndType(Long householdId, Long storageItemId,
+      NotificationType type);
+
+  /**
+   * Inserts a notification unless one already exists for the same household, storage item and type.
+   *
+   * @param householdId   the ID of the household
+   * @param storageItemId the ID of the storage item
+   * @param type          the name of the notification type
+   * @return 1 if a notification was inserted, 0 if it already existed
+   */
+  @Modifying
+  @NativeQuery("INSERT IGNORE INTO notifications (household_id, storage_item_id, type) "
+      + "VALUES (:householdId, :storageItemId, :type)")
+  int insertIgnore(@Param("householdId") Long householdId,
+                   @Param("storageItemId") Long storageItemId,
+                   @Param("type") String type);
+
+  /**
+   * Finds the IDs of all notifications of a given type for a storage item.
+   *
+   * @param storageItemId the ID of the storage item
+   * @param type          the notification type
+   * @return the notification IDs
+   */
+  @Query("SELECT n.id FROM Notification n WHERE n.storageItem.id = :storageItemId AND n.type = :type")
+  List<Long> findIdsByStorageItemIdAndType(@Param("storageItemId") Long storageItemId,
+                                           @Param("type") NotificationType type);
 
+  /**
+   * Deletes all notifications of a given type for a storage item in a single statement.
+   *
+   * @param storageItemId the ID of the storage item
+   * @param type          the notification type
+   * @return the number of deleted notifications
+   */
+  @Modifying(flushAutomatically = true)
+  @Query("DELETE FROM Notification n WHERE n.storageItem.id = :storageItemId AND n.type = :type")
+  int deleteByStorageItemIdAndType(@Param("storageItemId") Long storageItemId,
+                                   @Param("type") NotificationType type);
 }
@@ -1,8 +1,12 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import stud.ntnu.no.krisefikser.entities.map.PositionType;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -28,4 +32,13 @@ public interface PositionTypeRepository extends JpaRepository<PositionType, Long
    * @return {@code true} if a position type with the specified title exists, otherwise {@code false}
    */
   boolean existsByName(String name);
+
+  /**
+   * Finds all position types. The result is kept in the query cache until the table changes.
+   *
+   * @return all position types
+   */
+  @Override
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<PositionType> findAll();
 }
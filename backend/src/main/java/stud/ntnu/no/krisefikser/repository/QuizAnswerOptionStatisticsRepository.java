@@ -0,0 +1,38 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOptionStatistics;
+
+/**
+ * Repository interface for managing {@link QuizAnswerOptionStatistics} entities.
+ */
+@Repository
+public interface QuizAnswerOptionStatisticsRepository extends JpaRepository<QuizAnswerOptionStatistics, Long> {
+
+  /**
+   * Adds answers to the statistics of an answer option in one statement, creating them if
+   * the option has none yet.
+   *
+   * @param optionId   the ID of the answer option
+   * @param questionId the ID of the question the option belongs to
+   * @param answered   the number of answers choosing the option
+   * @return the number of inserted or updated rows
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_answer_option_stats"))
+  @Query(value = "INSERT INTO quiz_answer_option_stats (option_id, question_id, answer_count) "
+      + "VALUES (:optionId, :questionId, :answered) "
+      + "ON DUPLICATE KEY UPDATE answer_count = answer_count + :answered",
+      nativeQuery = true)
+  int add(@Param("optionId") Long optionId,
+          @Param("questionId") Long questionId,
+          @Param("answered") long answered);
+}
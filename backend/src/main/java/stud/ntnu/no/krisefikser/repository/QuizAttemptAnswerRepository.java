@@ -1,10 +1,16 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerOutcome;
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
 import stud.ntnu.no.krisefikser.entities.QuizAttemptAnswer;
 
 /**
@@ -34,8 +40,32 @@ public interface QuizAttemptAnswerRepository extends JpaRepository<QuizAttemptAn
    * Find the answer by attempt and question id.
    */
   Optional<QuizAttemptAnswer> findByAttempt_IdAndQuestion_Id(Long attemptId, Long questionId);
-  
-
 
+  /**
+   * Stores the selected option of a question in an attempt, unless the question has
+   * already been answered.
+   *
+   * @param attemptId      the ID of the attempt
+   * @param questionId     the ID of the question
+   * @param selectedOption the selected option
+   * @return 1 if the answer was stored, 0 if the question is not in the attempt or already answered
+   */
+  @Modifying
+  @Query("UPDATE QuizAttemptAnswer a SET a.selectedOption = :selectedOption "
+      + "WHERE a.attempt.id = :attemptId AND a.question.id = :questionId AND a.selectedOption IS NULL")
+  int answerIfUnanswered(@Param("attemptId") Long attemptId,
+                         @Param("questionId") Long questionId,
+                         @Param("selectedOption") QuizAnswerOption selectedOption);
 
-}
\ No newline at end of file
+  /**
+   * Finds every answer a user has given, oldest attempt first. Only used once per user, to
+   * build the quiz progress of users who answered questions before it was kept.
+   *
+   * @param userId the ID of the user
+   * @return the answered questions and whether each answer was correct
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerOutcome(a.question.id, o.isCorrect) "
+      + "FROM QuizAttemptAnswer a JOIN a.selectedOption o JOIN a.attempt q "
+      + "WHERE q.user.id = :userId ORDER BY q.attemptTime, a.id")
+  List<QuizAnswerOutcome> findAnswerOutcomesByUserId(@Param("userId") Long userId);
+}
@@ -1,11 +1,19 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptCompletion;
 import stud.ntnu.no.krisefikser.entities.QuizAttempt;
+import stud.ntnu.no.krisefikser.entities.QuizSessionStatus;
 
 /**
  * Repository interface for managing QuizAttempt entities.
@@ -16,11 +24,91 @@ import stud.ntnu.no.krisefikser.entities.QuizAttempt;
 @Repository
 public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long> {
   /**
-   * Finds all quiz attempts for a given user ID, ordered by attempt time in
-   * descending order.
+   * Finds the newest quiz attempts of a user, ordered by ID in descending order.
    *
    * @param userId the ID of the user
+   * @param limit  the maximum number of attempts to return
    * @return a list of QuizAttempt entities
    */
-  List<QuizAttempt> findByUserIdOrderByAttemptTimeDesc(Long userId);
-}
\ No newline at end of file
+  List<QuizAttempt> findByUserIdOrderByIdDesc(Long userId, Limit limit);
+
+  /**
+   * Finds the quiz attempts of a user that come after a cursor attempt in the history,
+   * ordered by ID in descending order. The page is read from the (user_id, id) index without
+   * an offset. The ID is the keyset since it never changes, unlike the attempt time, which
+   * answering an attempt rewrites.
+   *
+   * @param userId the ID of the user
+   * @param before the ID of the last attempt of the previous page
+   * @param limit  the maximum number of attempts to return
+   * @return a list of QuizAttempt entities
+   */
+  @Query("SELECT q FROM QuizAttempt q WHERE q.user.id = :userId AND q.id < :before ORDER BY q.id DESC")
+  List<QuizAttempt> findPageByUserIdBefore(@Param("userId") Long userId,
+                                           @Param("before") Long before,
+                                           Limit limit);
+
+  /**
+   * Counts an answer in the progress of an attempt, and completes the attempt when this was
+   * its last unanswered question, in one statement.
+   * <p>
+   * The status and attempt time are assigned first, since MySQL evaluates the assignments
+   * of an UPDATE from left to right and they must see the answered count before this answer.
+   * </p>
+   *
+   * @param attemptId the ID of the attempt
+   * @param correct   1 if the answer was correct, otherwise 0
+   * @param completed the status of a completed attempt
+   * @param now       the time of the answer, stored as the attempt time on completion
+   * @return the number of updated attempts
+   */
+  @Modifying
+  @Query("UPDATE QuizAttempt q SET "
+      + "q.status = CASE WHEN q.answeredCount + 1 >= q.totalQuestions THEN :completed ELSE q.status END, "
+      + "q.attemptTime = CASE WHEN q.answeredCount + 1 >= q.totalQuestions THEN :now ELSE q.attemptTime END, "
+      + "q.answeredCount = q.answeredCount + 1, "
+      + "q.correctCount = q.correctCount + :correct "
+      + "WHERE q.id = :attemptId")
+  int recordAnswer(@Param("attemptId") Long attemptId,
+                   @Param("correct") int correct,
+                   @Param("completed") QuizSessionStatus completed,
+                   @Param("now") LocalDateTime now);
+
+  /**
+   * Finds the ID of the user who made an attempt, without loading the attempt.
+   *
+   * @param attemptId the ID of the attempt
+   * @return an {@link Optional} containing the user ID, or empty if the attempt does not exist
+   */
+  @Query("SELECT q.user.id FROM QuizAttempt q WHERE q.id = :attemptId")
+  Optional<Long> findUserIdById(@Param("attemptId") Long attemptId);
+
+  /**
+   * Finds an attempt if all of its questions have been answered. Called right after
+   * {@link #recordAnswer}, it only finds the attempt for the answer that completed it, since
+   * the row stays locked until that transaction ends.
+   *
+   * @param attemptId the ID of the attempt
+   * @return an {@link Optional} containing the completed attempt, or empty if it is not completed
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptCompletion(q.user.id, q.correctCount, "
+      + "q.attemptTime) FROM QuizAttempt q WHERE q.id = :attemptId AND q.answeredCount = q.totalQuestions")
+  Optional<QuizAttemptCompletion> findCompletion(@Param("attemptId") Long attemptId);
+
+  /**
+   * Calculates the progress counters of attempts that were started before the attempts
+   * kept them. Every attempt has at least one question, so attempts without questions
+   * have not been counted yet.
+   *
+   * @return the number of updated attempts
+   */
+  @Modifying
+  @Query("UPDATE QuizAttempt q SET "
+      + "q.totalQuestions = (SELECT COUNT(a) FROM QuizAttemptAnswer a WHERE a.attempt.id = q.id), "
+      + "q.answeredCount = (SELECT COUNT(a) FROM QuizAttemptAnswer a "
+      + "WHERE a.attempt.id = q.id AND a.selectedOption IS NOT NULL), "
+      + "q.correctCount = (SELECT COUNT(a) FROM QuizAttemptAnswer a "
+      + "WHERE a.attempt.id = q.id AND a.selectedOption.isCorrect = true) "
+      + "WHERE q.totalQuestions = 0")
+  int backfillCounters();
+}
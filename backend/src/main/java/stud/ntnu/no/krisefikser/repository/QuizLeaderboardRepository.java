@@ -0,0 +1,63 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptCompletion;
+import stud.ntnu.no.krisefikser.entities.QuizLeaderboardEntry;
+import stud.ntnu.no.krisefikser.entities.QuizSessionStatus;
+
+/**
+ * Repository interface for managing {@link QuizLeaderboardEntry} entities.
+ */
+@Repository
+public interface QuizLeaderboardRepository extends JpaRepository<QuizLeaderboardEntry, Long> {
+
+  /**
+   * Creates an empty entry for a user unless the user already has one, so concurrent first
+   * completions of the same user do not fail on the primary key.
+   *
+   * @param userId the ID of the user
+   * @return the number of inserted or updated rows
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_leaderboard"))
+  @Query(value = "INSERT INTO quiz_leaderboard (user_id, best_score, completed_attempts, current_streak, "
+      + "best_streak) VALUES (:userId, 0, 0, 0, 0) ON DUPLICATE KEY UPDATE completed_attempts = completed_attempts",
+      nativeQuery = true)
+  int ensureEntry(@Param("userId") Long userId);
+
+  /**
+   * Finds the entry of a user and locks it until the end of the transaction.
+   *
+   * @param userId the ID of the user
+   * @return an {@link Optional} containing the entry if it exists
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT e FROM QuizLeaderboardEntry e WHERE e.userId = :userId")
+  Optional<QuizLeaderboardEntry> findByUserIdForUpdate(@Param("userId") Long userId);
+
+  /**
+   * Finds the completed attempts of every user, oldest first per user, to build the
+   * entries of users who completed quizzes before the leaderboards existed.
+   *
+   * @param completed the status of a completed attempt
+   * @return the completed attempts, ordered by user and attempt time
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptCompletion(q.user.id, q.correctCount, "
+      + "q.attemptTime) FROM QuizAttempt q WHERE q.status = :completed "
+      + "AND NOT EXISTS (SELECT e FROM QuizLeaderboardEntry e WHERE e.userId = q.user.id) "
+      + "ORDER BY q.user.id, q.attemptTime, q.id")
+  List<QuizAttemptCompletion> findCompletionsWithoutEntry(@Param("completed") QuizSessionStatus completed);
+}
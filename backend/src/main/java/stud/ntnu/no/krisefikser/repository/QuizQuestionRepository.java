@@ -3,8 +3,7 @@ package stud.ntnu.no.krisefikser.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.NativeQuery;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import stud.ntnu.no.krisefikser.entities.QuizQuestion;
@@ -13,14 +12,16 @@ import stud.ntnu.no.krisefikser.entities.QuizQuestion;
  * Repository interface for managing QuizQuestion entities.
  * <p>
  * This interface extends JpaRepository to provide CRUD operations.
- * It also includes a custom method to fetch a random set of quiz questions.
+ * It also includes a method to load all quiz questions for the question bank.
  * </p>
  */
 @Repository
 public interface QuizQuestionRepository extends JpaRepository<QuizQuestion, Long> {
   /**
-   * Fetches a random set of quiz questions based on the specified limit.
+   * Fetches all quiz questions together with their answer options, in one query.
+   *
+   * @return all quiz questions, ordered by ID
    */
-  @NativeQuery(value = "SELECT * FROM questions ORDER BY RAND() LIMIT :limit")
-  List<QuizQuestion> findRandomQuestions(@Param("limit") int limit);
+  @Query("SELECT DISTINCT q FROM QuizQuestion q LEFT JOIN FETCH q.answerOptions ORDER BY q.id")
+  List<QuizQuestion> findAllWithAnswerOptions();
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.entities.QuizQuestionStatistics;
+
+/**
+ * Repository interface for managing {@link QuizQuestionStatistics} entities.
+ */
+@Repository
+public interface QuizQuestionStatisticsRepository extends JpaRepository<QuizQuestionStatistics, Long> {
+
+  /**
+   * Adds counts to the statistics of a question in one statement, creating them if the
+   * question has none yet.
+   *
+   * @param questionId the ID of the question
+   * @param shown      the number of attempts the question was drawn for
+   * @param answered   the number of answers
+   * @param correct    the number of correct answers
+   * @return the number of inserted or updated rows
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_question_stats"))
+  @Query(value = "INSERT INTO quiz_question_stats (question_id, shown_count, answer_count, correct_count) "
+      + "VALUES (:questionId, :shown, :answered, :correct) "
+      + "ON DUPLICATE KEY UPDATE shown_count = shown_count + :shown, answer_count = answer_count + :answered, "
+      + "correct_count = correct_count + :correct",
+      nativeQuery = true)
+  int add(@Param("questionId") Long questionId,
+          @Param("shown") long shown,
+          @Param("answered") long answered,
+          @Param("correct") long correct);
+}
@@ -0,0 +1,47 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.entities.QuizUserProgress;
+
+/**
+ * Repository interface for managing {@link QuizUserProgress} entities.
+ */
+@Repository
+public interface QuizUserProgressRepository extends JpaRepository<QuizUserProgress, Long> {
+
+  /**
+   * Creates empty progress for a user unless the user already has it, so concurrent first
+   * answers of the same user do not fail on the primary key.
+   *
+   * @param userId the ID of the user
+   * @return the number of inserted or updated rows
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_user_progress"))
+  @Query(value = "INSERT INTO quiz_user_progress (user_id, answer_count, backfilled) VALUES (:userId, 0, false) "
+      + "ON DUPLICATE KEY UPDATE answer_count = answer_count",
+      nativeQuery = true)
+  int ensureProgress(@Param("userId") Long userId);
+
+  /**
+   * Finds the progress of a user and locks it until the end of the transaction.
+   *
+   * @param userId the ID of the user
+   * @return an {@link Optional} containing the progress if it exists
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM QuizUserProgress p WHERE p.userId = :userId")
+  Optional<QuizUserProgress> findByUserIdForUpdate(@Param("userId") Long userId);
+}
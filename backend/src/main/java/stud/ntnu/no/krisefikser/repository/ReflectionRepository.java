@@ -1,14 +1,89 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteDocument;
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary;
 import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNote;
 import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNoteVisibility;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 public interface ReflectionRepository extends JpaRepository<ReflectionNote, Long> {
-  List<ReflectionNote> findAllByVisibilityAndUserIdNot(ReflectionNoteVisibility visibility, Long userId);
   List<ReflectionNote> findAllByUserId(Long userId);
   List<ReflectionNote> findAllByVisibilityAndUserIdIn(ReflectionNoteVisibility visibility, Set<Long> userId);
+
+  /**
+   * Finds the newest notes with a visibility that are not created by a user, without their
+   * content. The notes are read from the (visibility, created_at, id, user_id) index.
+   *
+   * @param visibility the visibility of the notes
+   * @param userId     the ID of the user whose notes are left out
+   * @param limit      the maximum number of notes to return
+   * @return the notes, newest first
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary(n.id, n.title, n.snippet, "
+      + "n.visibility, n.createdAt, u.id, u.email, u.firstName, u.lastName) "
+      + "FROM ReflectionNote n JOIN n.user u "
+      + "WHERE n.visibility = :visibility AND u.id <> :userId "
+      + "ORDER BY n.createdAt DESC, n.id DESC")
+  List<ReflectionNoteSummary> findFeed(@Param("visibility") ReflectionNoteVisibility visibility,
+                                       @Param("userId") Long userId,
+                                       Limit limit);
+
+  /**
+   * Finds the next page of {@link #findFeed}, with the notes that come after a cursor note.
+   * The cursor note is joined in, so the page starts at the cursor in the index instead of
+   * skipping an offset.
+   *
+   * @param visibility the visibility of the notes
+   * @param userId     the ID of the user whose notes are left out
+   * @param before     the ID of the last note of the previous page
+   * @param limit      the maximum number of notes to return
+   * @return the notes, newest first
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary(n.id, n.title, n.snippet, "
+      + "n.visibility, n.createdAt, u.id, u.email, u.firstName, u.lastName) "
+      + "FROM ReflectionNote n JOIN n.user u, ReflectionNote c "
+      + "WHERE c.id = :before AND n.visibility = :visibility AND u.id <> :userId "
+      + "AND (n.createdAt < c.createdAt OR (n.createdAt = c.createdAt AND n.id < c.id)) "
+      + "ORDER BY n.createdAt DESC, n.id DESC")
+  List<ReflectionNoteSummary> findFeedBefore(@Param("visibility") ReflectionNoteVisibility visibility,
+                                             @Param("userId") Long userId,
+                                             @Param("before") Long before,
+                                             Limit limit);
+
+  /**
+   * Finds notes saved before snippets were kept.
+   *
+   * @param limit the maximum number of notes to return
+   * @return notes without a snippet
+   */
+  List<ReflectionNote> findBySnippetIsNull(Limit limit);
+
+  /**
+   * Finds several notes by ID, without their content.
+   *
+   * @param ids the IDs of the notes
+   * @return the notes that exist, in no particular order
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary(n.id, n.title, n.snippet, "
+      + "n.visibility, n.createdAt, u.id, u.email, u.firstName, u.lastName) "
+      + "FROM ReflectionNote n JOIN n.user u WHERE n.id IN :ids")
+  List<ReflectionNoteSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Finds the next chunk of notes to add to the search index, ordered by ID.
+   *
+   * @param afterId the ID of the last note of the previous chunk, 0 for the first chunk
+   * @param limit   the maximum number of notes to return
+   * @return the notes with the fields the search index needs
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteDocument(n.id, n.user.id, "
+      + "n.visibility, n.title, n.content) FROM ReflectionNote n WHERE n.id > :afterId ORDER BY n.id")
+  List<ReflectionNoteDocument> findDocumentsAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -0,0 +1,14 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.entities.StockEvent;
+
+/**
+ * Repository interface for managing {@link StockEvent} entities.
+ */
+@Repository
+public interface StockEventRepository extends JpaRepository<StockEvent, Long>, StockEventRepositoryCustom {
+
+}
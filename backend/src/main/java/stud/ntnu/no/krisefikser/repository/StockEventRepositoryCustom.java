@@ -0,0 +1,19 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.util.Collection;
+
+import stud.ntnu.no.krisefikser.entities.StockEvent;
+
+/**
+ * Batched writes of {@link StockEvent}s, which JPA cannot batch since their IDs are
+ * generated by the database.
+ */
+public interface StockEventRepositoryCustom {
+
+  /**
+   * Appends stock events to the event log in one JDBC batch.
+   *
+   * @param events the events to insert, with their storage items
+   */
+  void insertAll(Collection<StockEvent> events);
+}
@@ -0,0 +1,34 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import stud.ntnu.no.krisefikser.entities.StockEvent;
+
+/**
+ * Implementation of {@link StockEventRepositoryCustom} with a batched JDBC statement, which
+ * takes part in the surrounding JPA transaction.
+ */
+@RequiredArgsConstructor
+public class StockEventRepositoryCustomImpl implements StockEventRepositoryCustom {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public void insertAll(Collection<StockEvent> events) {
+    SqlParameterSource[] parameters = events.stream()
+        .map(event -> new MapSqlParameterSource()
+            .addValue("storageItemId", event.getStorageItem().getId())
+            .addValue("delta", event.getDelta())
+            .addValue("stockAfter", event.getStockAfter())
+            .addValue("occurredAt", new Timestamp(event.getOccurredAt().getTime())))
+        .toArray(SqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate("INSERT INTO stock_event (storage_item_id, delta, stock_after, occurred_at) "
+        + "VALUES (:storageItemId, :delta, :stockAfter, :occurredAt)", parameters);
+  }
+}
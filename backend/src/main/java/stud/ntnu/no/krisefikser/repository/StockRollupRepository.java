@@ -0,0 +1,60 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import stud.ntnu.no.krisefikser.dtos.storageItem.StockConsumption;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StockHistoryBucket;
+import stud.ntnu.no.krisefikser.entities.StockRollup;
+import stud.ntnu.no.krisefikser.entities.StockRollupGranularity;
+
+/**
+ * Repository interface for managing {@link StockRollup} entities.
+ */
+@Repository
+public interface StockRollupRepository extends JpaRepository<StockRollup, Long>, StockRollupRepositoryCustom {
+
+  /**
+   * Finds the rollups of a storage item within a period, using the unique key on item,
+   * granularity and bucket start.
+   *
+   * @param storageItemId the ID of the storage item
+   * @param granularity   the granularity of the buckets
+   * @param from          the first bucket start to include
+   * @param to            the last bucket start to include
+   * @return the buckets with stock changes, oldest first
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.storageItem.StockHistoryBucket(r.bucketStart, r.added, "
+      + "r.consumed, r.eventCount, r.closingStock) FROM StockRollup r "
+      + "WHERE r.storageItem.id = :storageItemId AND r.granularity = :granularity "
+      + "AND r.bucketStart >= :from AND r.bucketStart <= :to ORDER BY r.bucketStart")
+  List<StockHistoryBucket> findBuckets(@Param("storageItemId") Long storageItemId,
+                                       @Param("granularity") StockRollupGranularity granularity,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+
+  /**
+   * Sums the stock used by several storage items within a period from their rollups, in one
+   * query.
+   *
+   * @param storageItemIds the IDs of the storage items
+   * @param granularity    the granularity of the buckets
+   * @param from           the first bucket start to include
+   * @param to             the last bucket start to include
+   * @return one row per storage item with stock changes in the period
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.storageItem.StockConsumption(r.storageItem.id, "
+      + "MIN(r.bucketStart), SUM(r.consumed)) FROM StockRollup r "
+      + "WHERE r.storageItem.id IN :storageItemIds AND r.granularity = :granularity "
+      + "AND r.bucketStart >= :from AND r.bucketStart <= :to GROUP BY r.storageItem.id")
+  List<StockConsumption> findConsumption(@Param("storageItemIds") Collection<Long> storageItemIds,
+                                         @Param("granularity") StockRollupGranularity granularity,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+}
@@ -0,0 +1,20 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.util.Collection;
+
+import stud.ntnu.no.krisefikser.entities.StockRollup;
+
+/**
+ * Batched writes of {@link StockRollup}s.
+ */
+public interface StockRollupRepositoryCustom {
+
+  /**
+   * Adds stock changes to the rollups of their buckets in one JDBC batch, creating the
+   * rollups of buckets that have none yet.
+   *
+   * @param changes the changes, each holding the storage item, bucket, added and used amount,
+   *                number of changes and stock after the changes
+   */
+  void upsertAll(Collection<StockRollup> changes);
+}
@@ -0,0 +1,39 @@
+package stud.ntnu.no.krisefikser.repository;
+
+import java.util.Collection;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import stud.ntnu.no.krisefikser.entities.StockRollup;
+
+/**
+ * Implementation of {@link StockRollupRepositoryCustom} with a batched JDBC statement, which
+ * takes part in the surrounding JPA transaction.
+ */
+@RequiredArgsConstructor
+public class StockRollupRepositoryCustomImpl implements StockRollupRepositoryCustom {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public void upsertAll(Collection<StockRollup> changes) {
+    SqlParameterSource[] parameters = changes.stream()
+        .map(change -> new MapSqlParameterSource()
+            .addValue("storageItemId", change.getStorageItem().getId())
+            .addValue("granularity", change.getGranularity().name())
+            .addValue("bucketStart", change.getBucketStart())
+            .addValue("added", change.getAdded())
+            .addValue("consumed", change.getConsumed())
+            .addValue("eventCount", change.getEventCount())
+            .addValue("closingStock", change.getClosingStock()))
+        .toArray(SqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate("INSERT INTO stock_rollup (storage_item_id, granularity, bucket_start, added, "
+        + "consumed, event_count, closing_stock) "
+        + "VALUES (:storageItemId, :granularity, :bucketStart, :added, :consumed, :eventCount, :closingStock) "
+        + "ON DUPLICATE KEY UPDATE added = added + :added, consumed = consumed + :consumed, "
+        + "event_count = event_count + :eventCount, closing_stock = :closingStock", parameters);
+  }
+}
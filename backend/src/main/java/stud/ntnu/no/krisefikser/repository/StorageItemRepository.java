@@ -1,10 +1,24 @@
 package stud.ntnu.no.krisefikser.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessAggregateRow;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemExpiry;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemRow;
 import stud.ntnu.no.krisefikser.entities.StorageItem;
 
 /**
@@ -17,28 +31,225 @@ import stud.ntnu.no.krisefikser.entities.StorageItem;
 public interface StorageItemRepository extends JpaRepository<StorageItem, Long> {
 
   /**
-   * Finds all storage items for a given household and item category.
+   * Creates an empty storage item in a household for every item definition it does not
+   * have yet, in one statement. The statement is declared to only touch the storage item
+   * table, so it does not evict the cached reference data.
    *
    * @param householdId the ID of the household
-   * @param categoryId the ID of the item category
-   * @return a list of StorageItem entities matching the criteria
+   * @param createdAt   the creation date of the storage items
+   * @return the number of created storage items
    */
-  List<StorageItem> findByHouseholdIdAndItemDefinition_CategoryId(Long householdId, Long categoryId);
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_item"))
+  @Query(value = "INSERT INTO storage_item (household_id, item_id, current_stock, last_updated, "
+      + "preparedness_score, adequate, expiring_soon, consumption_per_day, version) "
+      + "SELECT :householdId, d.id, 0, :createdAt, 0, FALSE, FALSE, 0, 0 FROM item_definitions d "
+      + "WHERE NOT EXISTS (SELECT 1 FROM storage_item s WHERE s.household_id = :householdId AND s.item_id = d.id)",
+      nativeQuery = true)
+  int insertMissingForHousehold(@Param("householdId") Long householdId, @Param("createdAt") Date createdAt);
 
   /**
-   * Checks if a storage item exists by household ID and item definition ID.
+   * Creates an empty storage item of an item definition in every household within an ID
+   * range that does not have one yet, in one statement.
    *
-   * @param householdId the ID of the household
    * @param itemDefinitionId the ID of the item definition
-   * @return true if the storage item exists, false otherwise
+   * @param afterHouseholdId the start of the household ID range, exclusive
+   * @param lastHouseholdId  the end of the household ID range, inclusive
+   * @param createdAt        the creation date of the storage items
+   * @return the number of created storage items
    */
-  boolean existsByHouseholdIdAndItemDefinitionId(Long householdId, Long itemDefinitionId);
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "storage_item"))
+  @Query(value = "INSERT INTO storage_item (household_id, item_id, current_stock, last_updated, "
+      + "preparedness_score, adequate, expiring_soon, consumption_per_day, version) "
+      + "SELECT h.id, :itemDefinitionId, 0, :createdAt, 0, FALSE, FALSE, 0, 0 FROM household h "
+      + "WHERE h.id > :afterHouseholdId AND h.id <= :lastHouseholdId "
+      + "AND NOT EXISTS (SELECT 1 FROM storage_item s WHERE s.household_id = h.id AND s.item_id = :itemDefinitionId)",
+      nativeQuery = true)
+  int insertMissingForItemDefinition(@Param("itemDefinitionId") Long itemDefinitionId,
+                                     @Param("afterHouseholdId") Long afterHouseholdId,
+                                     @Param("lastHouseholdId") Long lastHouseholdId,
+                                     @Param("createdAt") Date createdAt);
 
   /**
-   * Finds all storage items belonging to a specific household.
+   * Finds all storage items belonging to a specific household, with their item definitions.
    *
    * @param householdId the ID of the household
    * @return a list of StorageItem entities belonging to the household
    */
+  @EntityGraph(attributePaths = "itemDefinition")
   List<StorageItem> findByHouseholdId(Long householdId);
+
+  /**
+   * Finds all storage items of several households with their item definitions, in one query.
+   *
+   * @param householdIds the IDs of the households
+   * @return the storage items of the households
+   */
+  @Query("SELECT s FROM StorageItem s JOIN FETCH s.itemDefinition WHERE s.household.id IN :householdIds")
+  List<StorageItem> findWithItemDefinitionByHouseholdIdIn(@Param("householdIds") Collection<Long> householdIds);
+
+  /**
+   * Lists the storage items of a household with their item definitions, in one query.
+   *
+   * @param householdId the ID of the household
+   * @return the storage items of the household, ordered by ID
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemRow(s.id, d.category.id, "
+      + "s.currentStock, s.expiresAt, d.name, d.unit, d.recommendedAmountPerPerson, s.version, "
+      + "s.consumptionPerDay, s.runsOutAt) "
+      + "FROM StorageItem s JOIN s.itemDefinition d WHERE s.household.id = :householdId ORDER BY s.id")
+  List<StorageItemRow> findRowsByHouseholdId(@Param("householdId") Long householdId);
+
+  /**
+   * Lists the storage items of a household in an item category with their item definitions,
+   * in one query.
+   *
+   * @param householdId the ID of the household
+   * @param categoryId  the ID of the item category
+   * @return the storage items of the household in the category, ordered by ID
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemRow(s.id, d.category.id, "
+      + "s.currentStock, s.expiresAt, d.name, d.unit, d.recommendedAmountPerPerson, s.version, "
+      + "s.consumptionPerDay, s.runsOutAt) "
+      + "FROM StorageItem s JOIN s.itemDefinition d "
+      + "WHERE s.household.id = :householdId AND d.category.id = :categoryId ORDER BY s.id")
+  List<StorageItemRow> findRowsByHouseholdIdAndCategoryId(@Param("householdId") Long householdId,
+                                                          @Param("categoryId") Long categoryId);
+
+  /**
+   * Finds the storage items expiring within a period, using the index on the expiration date.
+   *
+   * @param from the start of the period, exclusive
+   * @param to   the end of the period, inclusive
+   * @return the expiration dates of the items
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemExpiry(s.id, s.household.id, s.expiresAt) "
+      + "FROM StorageItem s WHERE s.expiresAt > :from AND s.expiresAt <= :to")
+  List<StorageItemExpiry> findExpiriesBetween(@Param("from") Date from, @Param("to") Date to);
+
+  /**
+   * Finds storage items with stock and a shelf life whose expiration date has not been
+   * calculated yet, for example rows created before the column existed.
+   *
+   * @param limit the maximum number of items to return
+   * @return the storage items, with their item definitions
+   */
+  @Query("SELECT s FROM StorageItem s JOIN FETCH s.itemDefinition d "
+      + "WHERE s.expiresAt IS NULL AND s.lastRestockedAt IS NOT NULL "
+      + "AND s.currentStock > 0 AND d.shelfLifeDays > 0 ORDER BY s.id")
+  List<StorageItem> findMissingExpiresAt(Limit limit);
+
+  /**
+   * Finds storage items by ID with their item definitions and households, in one query.
+   *
+   * @param ids the IDs of the storage items
+   * @return the storage items that exist
+   */
+  @Query("SELECT s FROM StorageItem s JOIN FETCH s.itemDefinition JOIN FETCH s.household WHERE s.id IN :ids")
+  List<StorageItem> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Adds to the stock of a storage item and marks it as restocked, in one atomic statement.
+   *
+   * @param id          the ID of the storage item
+   * @param amount      the amount to add
+   * @param restockedAt the new restock date
+   * @return the number of updated items, 0 if the item does not exist
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE StorageItem s SET s.currentStock = s.currentStock + :amount, "
+      + "s.lastRestockedAt = :restockedAt, s.version = s.version + 1 WHERE s.id = :id")
+  int incrementStock(@Param("id") Long id, @Param("amount") double amount, @Param("restockedAt") Date restockedAt);
+
+  /**
+   * Removes from the stock of a storage item in one atomic statement, unless the stock is
+   * lower than the amount.
+   *
+   * @param id     the ID of the storage item
+   * @param amount the amount to remove
+   * @return the number of updated items, 0 if the item does not exist or has too little stock
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE StorageItem s SET s.currentStock = s.currentStock - :amount, s.version = s.version + 1 "
+      + "WHERE s.id = :id AND s.currentStock >= :amount")
+  int decrementStock(@Param("id") Long id, @Param("amount") double amount);
+
+  /**
+   * Empties a storage item in one atomic statement, unless its stock has changed since it
+   * was read.
+   *
+   * @param id    the ID of the storage item
+   * @param stock the stock that was read
+   * @return the number of updated items, 0 if the item does not exist or its stock has changed
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE StorageItem s SET s.currentStock = 0.0, s.version = s.version + 1 "
+      + "WHERE s.id = :id AND s.currentStock = :stock")
+  int emptyStock(@Param("id") Long id, @Param("stock") double stock);
+
+  /**
+   * Finds the current stock of a storage item.
+   *
+   * @param id the ID of the storage item
+   * @return an {@link Optional} containing the stock if the item exists
+   */
+  @Query("SELECT s.currentStock FROM StorageItem s WHERE s.id = :id")
+  Optional<Double> findCurrentStockById(@Param("id") Long id);
+
+  /**
+   * Finds a storage item with its item definition and household, in one query. The item is
+   * read only, so changes to it are never written back by the persistence context.
+   *
+   * @param id the ID of the storage item
+   * @return an {@link Optional} containing the storage item if it exists
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT s FROM StorageItem s JOIN FETCH s.itemDefinition JOIN FETCH s.household WHERE s.id = :id")
+  Optional<StorageItem> findReadOnlyWithDetailsById(@Param("id") Long id);
+
+  /**
+   * Stores the fields of a storage item that are derived from its stock, without
+   * incrementing the version. Used after an atomic stock update, which already did.
+   *
+   * @param id                the ID of the storage item
+   * @param expiresAt         the expiration date
+   * @param consumptionPerDay the average amount used per day
+   * @param runsOutAt         when the stock is forecast to run out
+   * @param preparednessScore the contribution to the preparedness score of the household
+   * @param adequate          whether the item is adequately stocked
+   * @param expiringSoon      whether the item is expiring soon
+   * @return the number of updated items
+   */
+  @Modifying
+  @Query("UPDATE StorageItem s SET s.expiresAt = :expiresAt, s.consumptionPerDay = :consumptionPerDay, "
+      + "s.runsOutAt = :runsOutAt, s.preparednessScore = :preparednessScore, s.adequate = :adequate, "
+      + "s.expiringSoon = :expiringSoon WHERE s.id = :id")
+  int updateDerivedFields(@Param("id") Long id,
+                          @Param("expiresAt") Date expiresAt,
+                          @Param("consumptionPerDay") double consumptionPerDay,
+                          @Param("runsOutAt") Date runsOutAt,
+                          @Param("preparednessScore") long preparednessScore,
+                          @Param("adequate") boolean adequate,
+                          @Param("expiringSoon") boolean expiringSoon);
+
+  /**
+   * Sums the preparedness of the storage items of the households within an ID range per
+   * item category and score decile. Item scores are stored in thousandths of a point, and
+   * each item scores at most 100 points.
+   *
+   * @param afterHouseholdId the start of the household ID range, exclusive
+   * @param lastHouseholdId  the end of the household ID range, inclusive
+   * @return one row per category and decile with storage items
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessAggregateRow(c.name, "
+      + "LEAST(CAST(FLOOR(s.preparednessScore / 10000.0) AS Integer), 9), COUNT(s), "
+      + "SUM(s.preparednessScore / 100000.0), COUNT(s), "
+      + "SUM(CASE WHEN s.adequate = false THEN 1 ELSE 0 END), "
+      + "SUM(CASE WHEN s.expiringSoon = true THEN 1 ELSE 0 END)) "
+      + "FROM StorageItem s JOIN s.itemDefinition d JOIN d.category c "
+      + "WHERE s.household.id > :afterHouseholdId AND s.household.id <= :lastHouseholdId "
+      + "GROUP BY c.name, LEAST(CAST(FLOOR(s.preparednessScore / 10000.0) AS Integer), 9)")
+  List<PreparednessAggregateRow> aggregateByCategory(@Param("afterHouseholdId") Long afterHouseholdId,
+                                                     @Param("lastHouseholdId") Long lastHouseholdId);
 }
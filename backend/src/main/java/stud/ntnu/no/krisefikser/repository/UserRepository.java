@@ -1,9 +1,16 @@
 package stud.ntnu.no.krisefikser.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import stud.ntnu.no.krisefikser.dtos.map.event.EventAlertRecipient;
+import stud.ntnu.no.krisefikser.dtos.user.UserAuthority;
+import stud.ntnu.no.krisefikser.dtos.user.UserName;
 import stud.ntnu.no.krisefikser.entities.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,4 +38,72 @@ public interface UserRepository extends JpaRepository<User, Long> {
    */
   Optional<User> findByEmail(String email);
   Optional<User> findByUsername(String username);
+
+  /**
+   * Finds the ID of the household a user belongs to, without loading the user.
+   *
+   * @param email the email of the user
+   * @return an {@link Optional} containing the household ID, or empty if the user has no household
+   */
+  @Query("SELECT u.household.id FROM User u WHERE u.email = :email")
+  Optional<Long> findHouseholdIdByEmail(@Param("email") String email);
+
+  /**
+   * Finds the enabled users whose household lies within a bounding box.
+   *
+   * @param minLatitude  the southern edge of the box
+   * @param maxLatitude  the northern edge of the box
+   * @param minLongitude the western edge of the box
+   * @param maxLongitude the eastern edge of the box
+   * @return the users with the location of their household
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.map.event.EventAlertRecipient(u.email, h.latitude, h.longitude) "
+      + "FROM User u JOIN u.household h WHERE u.enabled = true "
+      + "AND h.latitude BETWEEN :minLatitude AND :maxLatitude "
+      + "AND h.longitude BETWEEN :minLongitude AND :maxLongitude")
+  List<EventAlertRecipient> findAlertRecipientsWithin(@Param("minLatitude") double minLatitude,
+                                                      @Param("maxLatitude") double maxLatitude,
+                                                      @Param("minLongitude") double minLongitude,
+                                                      @Param("maxLongitude") double maxLongitude);
+
+  /**
+   * Finds the IDs of the members of a household, without loading them.
+   *
+   * @param householdId the ID of the household
+   * @return the IDs of the members
+   */
+  @Query("SELECT u.id FROM User u WHERE u.household.id = :householdId")
+  List<Long> findIdsByHouseholdId(@Param("householdId") Long householdId);
+
+  /**
+   * Finds the names of several users in one query, without loading their roles.
+   *
+   * @param ids the IDs of the users
+   * @return the names of the users that exist
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.user.UserName(u.id, u.firstName, u.lastName) "
+      + "FROM User u WHERE u.id IN :ids")
+  List<UserName> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Finds the roles of a user together with the identity and household of the user, one
+   * row per role, without loading the user.
+   *
+   * @param userId the ID of the user
+   * @return one row per role, a single row with a null role if the user has no roles, or
+   *     no rows if the user does not exist
+   */
+  @Query("SELECT new stud.ntnu.no.krisefikser.dtos.user.UserAuthority(u.id, u.email, u.username, "
+      + "u.household.id, r.role) FROM User u LEFT JOIN u.userRoles r WHERE u.id = :userId")
+  List<UserAuthority> findAuthoritiesById(@Param("userId") Long userId);
+
+  /**
+   * Finds the IDs of the users with an email or username, the user with the email first.
+   *
+   * @param identity the email or username of the user
+   * @return the IDs of the matching users
+   */
+  @Query("SELECT u.id FROM User u WHERE u.email = :identity OR u.username = :identity "
+      + "ORDER BY CASE WHEN u.email = :identity THEN 0 ELSE 1 END")
+  List<Long> findIdsByIdentity(@Param("identity") String identity);
 }
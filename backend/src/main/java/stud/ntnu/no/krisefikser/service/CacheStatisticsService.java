@@ -0,0 +1,85 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.springframework.stereotype.Service;
+import stud.ntnu.no.krisefikser.dtos.cache.CacheRegionStatisticsResponse;
+
+/**
+ * Service for reading the statistics of the Hibernate second-level cache.
+ * <p>
+ * Reference data such as item definitions, item categories, event types and position types
+ * are cached, as well as the results of the queries listing them. The statistics show how
+ * often the cache saved a database round trip.
+ * </p>
+ * <p>
+ * The counts are read from the {@link CacheStatisticsMXBean} the JCache provider registers
+ * for every cache region, which {@code application.conf} enables for all regions. They do not
+ * depend on {@code hibernate.generate_statistics}, which stays off in production.
+ * </p>
+ */
+@Service
+public class CacheStatisticsService {
+
+  private static final ObjectName STATISTICS_BEANS = objectName("javax.cache:type=CacheStatistics,*");
+
+  private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+  /**
+   * Returns the statistics of every second-level cache region, ordered by region name.
+   * Regions without statistics are left out.
+   *
+   * @return the statistics of the regions
+   */
+  public List<CacheRegionStatisticsResponse> getCacheStatistics() {
+    // A region is registered once per cache manager, so the counts are summed per name
+    Map<String, long[]> countsByRegion = new TreeMap<>();
+    for (ObjectName name : mBeanServer.queryNames(STATISTICS_BEANS, null)) {
+      CacheStatisticsMXBean statistics = JMX.newMXBeanProxy(mBeanServer, name, CacheStatisticsMXBean.class);
+      long[] counts = countsByRegion.computeIfAbsent(name.getKeyProperty("Cache"), region -> new long[3]);
+      counts[0] += statistics.getCacheHits();
+      counts[1] += statistics.getCacheMisses();
+      counts[2] += statistics.getCachePuts();
+    }
+    return countsByRegion.entrySet().stream()
+        .map(entry -> toDto(entry.getKey(), entry.getValue()))
+        .toList();
+  }
+
+  /**
+   * Maps the counts of a region to the response DTO.
+   *
+   * @param region the name of the region
+   * @param counts the hit, miss and put counts of the region
+   * @return the DTO
+   */
+  private CacheRegionStatisticsResponse toDto(String region, long[] counts) {
+    long hits = counts[0];
+    long misses = counts[1];
+    double hitRate = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    return new CacheRegionStatisticsResponse(region, hits, misses, counts[2], hitRate);
+  }
+
+  /**
+   * Parses a constant JMX object name.
+   *
+   * @param name the object name
+   * @return the parsed object name
+   */
+  private static ObjectName objectName(String name) {
+    try {
+      return new ObjectName(name);
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+}
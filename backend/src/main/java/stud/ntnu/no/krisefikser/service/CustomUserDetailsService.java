@@ -1,14 +1,27 @@
 package stud.ntnu.no.krisefikser.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.dtos.user.UserAuthority;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
 import stud.ntnu.no.krisefikser.repository.UserRepository;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
 import static stud.ntnu.no.krisefikser.exception.CustomErrorMessage.USER_NOT_FOUND;
 
 /**
@@ -17,14 +30,42 @@ import static stud.ntnu.no.krisefikser.exception.CustomErrorMessage.USER_NOT_FOU
  * Implements {@link UserDetailsService} to provide authentication functionality
  * required by Spring Security.
  * </p>
+ * <p>
+ * The principals of authenticated requests are loaded with one query and cached for a few
+ * seconds, so a changed household or role takes effect within the cache TTL while most
+ * requests do not touch the database.
+ * </p>
  */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
   private static final Logger logger = LogManager.getLogger(CustomUserDetailsService.class);
 
   private final UserRepository userRepository;
+  private final Cache<Long, Optional<AuthenticatedUser>> principals;
+  private final Cache<String, Optional<Long>> userIdsByIdentity;
+
+  /**
+   * Constructor for CustomUserDetailsService.
+   *
+   * @param userRepository  the user repository
+   * @param cacheSize       the maximum number of cached principals
+   * @param cacheTtlSeconds the number of seconds a principal is cached
+   */
+  public CustomUserDetailsService(UserRepository userRepository,
+                                  @Value("${security.principal-cache.size:10000}") long cacheSize,
+                                  @Value("${security.principal-cache.ttl-seconds:30}") long cacheTtlSeconds) {
+    this.userRepository = userRepository;
+    this.principals = Caffeine.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+        .build();
+    this.userIdsByIdentity = Caffeine.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+        .build();
+  }
+
   /**
    * Loads a user by their username.
    * <p>
@@ -50,4 +91,76 @@ public class CustomUserDetailsService implements UserDetailsService {
       throw new AppEntityNotFoundException(USER_NOT_FOUND);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Loads the principal of an authenticated request by user ID, from the cache if possible.
+   *
+   * @param userId the ID of the user
+   * @return the principal, or empty if the user does not exist
+   */
+  public Optional<AuthenticatedUser> loadAuthenticatedUser(Long userId) {
+    return principals.get(userId, this::loadPrincipal);
+  }
+
+  /**
+   * Loads the principal of an authenticated request by email or username, for tokens issued
+   * before they carried the user ID.
+   *
+   * @param identity the email or username of the user
+   * @return the principal, or empty if the user does not exist
+   */
+  public Optional<AuthenticatedUser> loadAuthenticatedUser(String identity) {
+    return userIdsByIdentity.get(identity, key -> userRepository.findIdsByIdentity(key).stream().findFirst())
+        .flatMap(this::loadAuthenticatedUser);
+  }
+
+  /**
+   * Loads the principal of a user by email or username from the database, bypassing the
+   * cache. Used for authentications whose principal is not an {@link AuthenticatedUser},
+   * which are resolved once per request by {@link stud.ntnu.no.krisefikser.config.SecurityUtil}.
+   *
+   * @param identity the email or username of the user
+   * @return the principal, or empty if the user does not exist
+   */
+  public Optional<AuthenticatedUser> findAuthenticatedUser(String identity) {
+    return userRepository.findIdsByIdentity(identity).stream()
+        .findFirst()
+        .flatMap(this::loadPrincipal);
+  }
+
+  /**
+   * Removes the cached principal of a user after the household or roles of the user have
+   * changed, so the next request loads it again. The principal is removed again after the
+   * current transaction commits, so a principal loaded before the change was visible is not
+   * kept.
+   *
+   * @param userId the ID of the user
+   */
+  public void evictAuthenticatedUser(Long userId) {
+    principals.invalidate(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          principals.invalidate(userId);
+        }
+      });
+    }
+  }
+
+  private Optional<AuthenticatedUser> loadPrincipal(Long userId) {
+    List<UserAuthority> rows = userRepository.findAuthoritiesById(userId);
+    if (rows.isEmpty()) {
+      logger.warn("User not found with ID: {}", userId);
+      return Optional.empty();
+    }
+    UserAuthority user = rows.get(0);
+    List<GrantedAuthority> authorities = rows.stream()
+        .map(UserAuthority::getRole)
+        .filter(Objects::nonNull)
+        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.name()))
+        .toList();
+    String name = user.getEmail() != null ? user.getEmail() : user.getUsername();
+    return Optional.of(new AuthenticatedUser(user.getUserId(), name, user.getHouseholdId(), authorities));
+  }
+}
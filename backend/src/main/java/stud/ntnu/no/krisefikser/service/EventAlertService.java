@@ -0,0 +1,142 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import stud.ntnu.no.krisefikser.dtos.map.event.EventAlertRecipient;
+import stud.ntnu.no.krisefikser.entities.map.CircleData;
+import stud.ntnu.no.krisefikser.entities.map.Event;
+import stud.ntnu.no.krisefikser.entities.map.EventStatus;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+/**
+ * Service for alerting households affected by an event by email.
+ * <p>
+ * Candidate households are found with a bounding box query on the household location,
+ * and then filtered precisely against the event's circle or geometry. The alert emails are
+ * written to the mail outbox and sent in the background.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class EventAlertService {
+
+  private static final Logger logger = LogManager.getLogger(EventAlertService.class);
+
+  private static final double EARTH_RADIUS_METERS = 6_371_000;
+  private static final double METERS_PER_DEGREE_LATITUDE = 111_320;
+
+  private final UserRepository userRepository;
+  private final MailOutboxService mailOutboxService;
+  private final GeometryFactory geometryFactory = new GeometryFactory();
+
+  /**
+   * Queues alert emails to the members of every household inside the area of an event.
+   * Events that are inactive or finished are not alerted.
+   *
+   * @param event the event to alert about
+   * @return the number of queued emails
+   */
+  @Transactional
+  public int alertAffectedHouseholds(Event event) {
+    if (event.getStatus() == EventStatus.INACTIVE || event.getStatus() == EventStatus.FINISHED) {
+      return 0;
+    }
+
+    CircleData circle = event.getCircleData();
+    boolean isCircle = circle != null && circle.getRadius() != null
+        && circle.getLatitude() != null && circle.getLongitude() != null;
+    if (!isCircle && event.getGeometry() == null) {
+      return 0;
+    }
+
+    Envelope box = isCircle ? circleEnvelope(circle) : event.getGeometry().getEnvelopeInternal();
+    Predicate<EventAlertRecipient> inside = isCircle ? insideCircle(circle) : insideGeometry(event.getGeometry());
+
+    List<EventAlertRecipient> recipients = userRepository.findAlertRecipientsWithin(
+        box.getMinY(), box.getMaxY(), box.getMinX(), box.getMaxX());
+
+    String subject = "Emergency alert: " + event.getTitle();
+    String body = event.getTitle() + " (" + event.getSeverity() + ")\n\n" + event.getDescription()
+        + "\n\nYour household is inside the affected area. Follow the advice of the local authorities.";
+
+    int queued = 0;
+    for (EventAlertRecipient recipient : recipients) {
+      if (inside.test(recipient)) {
+        mailOutboxService.enqueue(recipient.getEmail(), subject, body);
+        queued++;
+      }
+    }
+    logger.info("Queued {} alert emails for event {} ({} candidates in bounding box)",
+        queued, event.getId(), recipients.size());
+    return queued;
+  }
+
+  /**
+   * Returns the bounding box of a circle in degrees.
+   *
+   * @param circle the circle, with its radius in meters
+   * @return the bounding box, with longitude as x and latitude as y
+   */
+  private Envelope circleEnvelope(CircleData circle) {
+    double latitudeDelta = circle.getRadius() / METERS_PER_DEGREE_LATITUDE;
+    double cosLatitude = Math.max(Math.cos(Math.toRadians(circle.getLatitude())), 0.01);
+    double longitudeDelta = latitudeDelta / cosLatitude;
+    return new Envelope(
+        circle.getLongitude() - longitudeDelta, circle.getLongitude() + longitudeDelta,
+        circle.getLatitude() - latitudeDelta, circle.getLatitude() + latitudeDelta);
+  }
+
+  /**
+   * Returns a predicate checking whether a household lies within a circle.
+   *
+   * @param circle the circle, with its radius in meters
+   * @return the predicate
+   */
+  private Predicate<EventAlertRecipient> insideCircle(CircleData circle) {
+    return recipient -> distanceMeters(circle.getLatitude(), circle.getLongitude(),
+        recipient.getLatitude(), recipient.getLongitude()) <= circle.getRadius();
+  }
+
+  /**
+   * Returns a predicate checking whether a household lies within a geometry.
+   *
+   * @param geometry the geometry, with longitude as x and latitude as y
+   * @return the predicate
+   */
+  private Predicate<EventAlertRecipient> insideGeometry(Geometry geometry) {
+    PreparedGeometry prepared = PreparedGeometryFactory.prepare(geometry);
+    return recipient -> prepared.covers(geometryFactory.createPoint(
+        new Coordinate(recipient.getLongitude(), recipient.getLatitude())));
+  }
+
+  /**
+   * Calculates the great circle distance between two points with the haversine formula.
+   *
+   * @param lat1 the latitude of the first point
+   * @param lon1 the longitude of the first point
+   * @param lat2 the latitude of the second point
+   * @param lon2 the longitude of the second point
+   * @return the distance in meters
+   */
+  private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+  }
+}
@@ -39,6 +39,7 @@ public class EventService {
   private final EventRepository eventRepository;
   private final EventTypeRepository eventTypeRepository;
   private final EventMapper eventMapper;
+  private final EventAlertService eventAlertService;
 
   /**
    * Creates a new event based on the given request.
@@ -62,6 +63,7 @@ public class EventService {
     event = eventRepository.save(event);
 
     logger.info("Event added with ID: {}", event.getId());
+    eventAlertService.alertAffectedHouseholds(event);
     return eventMapper.toDto(event);
   }
 
@@ -0,0 +1,312 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemExpiry;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+/**
+ * Schedules expiration notifications at the exact moment they become due.
+ * <p>
+ * Every storage item with an expiration date has four transitions: it enters the expiration
+ * notification window {@value #WINDOW_DAYS} days before it expires and leaves it once its
+ * expiration day has passed, and it starts and stops counting as expiring soon in the
+ * preparedness summary. The transitions within the next horizon are loaded with range scans
+ * on the indexed expiration date and kept in an in-memory priority queue. A single task is
+ * scheduled for the earliest transition; when it fires, the due items are queued in the
+ * notification outbox, which evaluates them the same way as stock changes.
+ * </p>
+ * <p>
+ * Transitions of items that have been restocked since they were queued are harmless,
+ * since the outbox always evaluates the current state of the item.
+ * </p>
+ */
+@Service
+public class ExpirationNotificationScheduler {
+
+  private static final Logger logger = LogManager.getLogger(ExpirationNotificationScheduler.class);
+
+  /**
+   * Number of days before expiration an item gets an expiration notification.
+   * Matches the window used by {@link NotificationService#generateExpiringNotification}.
+   */
+  static final int WINDOW_DAYS = 7;
+
+  /**
+   * Days relative to the expiration date at which an item changes state: it leaves the
+   * notification window the day after it expires and enters it {@value #WINDOW_DAYS} days
+   * before, and it counts as expiring soon in the preparedness summary from
+   * {@value PreparednessScoring#EXPIRING_DAYS_THRESHOLD} - 1 days before until the day it expires.
+   */
+  private static final List<Long> TRANSITION_OFFSET_DAYS = List.of(
+      1L, (long) -WINDOW_DAYS, 0L, (long) -(PreparednessScoring.EXPIRING_DAYS_THRESHOLD - 1));
+
+  private static final int BACKFILL_BATCH_SIZE = 500;
+  private static final Duration CATCH_UP = Duration.ofDays(1);
+  private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+  private final StorageItemRepository storageItemRepository;
+  private final NotificationOutboxService notificationOutboxService;
+  private final TaskScheduler taskScheduler;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final Duration horizon;
+
+  private final PriorityQueue<ExpiryTransition> queue = new PriorityQueue<>();
+  private final Set<ExpiryTransition> queued = new HashSet<>();
+  private Instant loadedUntil;
+  private ScheduledFuture<?> wakeup;
+  private Instant wakeupAt;
+
+  /**
+   * Constructor for ExpirationNotificationScheduler.
+   *
+   * @param storageItemRepository     the storage item repository
+   * @param notificationOutboxService the outbox evaluating notifications
+   * @param taskScheduler             the scheduler running the wakeup task
+   * @param transactionManager        the transaction manager
+   * @param enabled                   whether expiration transitions should be scheduled
+   * @param horizonHours              how many hours ahead transitions are kept in memory
+   */
+  public ExpirationNotificationScheduler(StorageItemRepository storageItemRepository,
+                                         NotificationOutboxService notificationOutboxService,
+                                         TaskScheduler taskScheduler,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${notification.expiration.enabled:true}") boolean enabled,
+                                         @Value("${notification.expiration.horizon-hours:25}") long horizonHours) {
+    this.storageItemRepository = storageItemRepository;
+    this.notificationOutboxService = notificationOutboxService;
+    this.taskScheduler = taskScheduler;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.horizon = Duration.ofHours(horizonHours);
+  }
+
+  /**
+   * Calculates missing expiration dates and loads the first horizon of transitions on startup.
+   * Transitions from the last day are included, so the ones missed while the server was
+   * down fire right away.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    backfillExpiresAt();
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      loadedUntil = Instant.now().minus(CATCH_UP);
+    }
+    refill();
+  }
+
+  /**
+   * Loads the transitions between the end of the loaded period and the end of the horizon.
+   */
+  @Scheduled(fixedDelayString = "${notification.expiration.refill-interval-ms:3600000}",
+      initialDelayString = "${notification.expiration.refill-interval-ms:3600000}")
+  public void refill() {
+    Instant from;
+    synchronized (this) {
+      from = loadedUntil;
+    }
+    if (!enabled || from == null) {
+      return;
+    }
+    Instant to = Instant.now().plus(horizon);
+
+    // A transition at expiresAt + offset falls in (from, to] when expiresAt falls in (from - offset, to - offset]
+    Map<Long, List<StorageItemExpiry>> expiriesByOffset = new LinkedHashMap<>();
+    for (long offsetDays : TRANSITION_OFFSET_DAYS) {
+      expiriesByOffset.put(offsetDays, storageItemRepository.findExpiriesBetween(
+          Date.from(shiftDays(from, -offsetDays)), Date.from(shiftDays(to, -offsetDays))));
+    }
+
+    int loaded = 0;
+    synchronized (this) {
+      for (Map.Entry<Long, List<StorageItemExpiry>> entry : expiriesByOffset.entrySet()) {
+        entry.getValue().forEach(expiry -> add(expiry, entry.getKey()));
+        loaded += entry.getValue().size();
+      }
+      loadedUntil = to;
+      rescheduleWakeup();
+    }
+    logger.info("Loaded {} expiration transitions until {}", loaded, to);
+  }
+
+  /**
+   * Schedules the upcoming transitions of a storage item whose expiration date has changed.
+   * Transitions that are already in the past are left to the evaluation of the change itself.
+   *
+   * @param item the storage item
+   */
+  public void track(StorageItem item) {
+    if (!enabled || item.getExpiresAt() == null) {
+      return;
+    }
+    StorageItemExpiry expiry = new StorageItemExpiry(item.getId(), item.getHousehold().getId(), item.getExpiresAt());
+    Instant now = Instant.now();
+    Instant end = now.plus(horizon);
+
+    synchronized (this) {
+      for (long offsetDays : TRANSITION_OFFSET_DAYS) {
+        Instant at = shiftDays(expiry.getExpiresAt().toInstant(), offsetDays);
+        if (at.isAfter(now) && !at.isAfter(end)) {
+          add(expiry, offsetDays);
+        }
+      }
+      rescheduleWakeup();
+    }
+  }
+
+  /**
+   * Queues the due transitions in the notification outbox and schedules the next wakeup.
+   * If the outbox cannot be written, the transitions are retried shortly after.
+   */
+  void fireDue() {
+    Instant now = Instant.now();
+    List<ExpiryTransition> due = new ArrayList<>();
+    synchronized (this) {
+      wakeup = null;
+      wakeupAt = null;
+      while (!queue.isEmpty() && !queue.peek().getAt().isAfter(now)) {
+        ExpiryTransition transition = queue.poll();
+        queued.remove(transition);
+        due.add(transition);
+      }
+    }
+
+    if (!due.isEmpty()) {
+      Map<Long, Long> householdIdsByStorageItemId = new LinkedHashMap<>();
+      due.forEach(transition -> householdIdsByStorageItemId.put(
+          transition.getStorageItemId(), transition.getHouseholdId()));
+      try {
+        notificationOutboxService.enqueueAll(householdIdsByStorageItemId);
+        logger.info("Queued expiration evaluation for {} storage items", householdIdsByStorageItemId.size());
+      } catch (RuntimeException e) {
+        logger.error("Failed to queue expiration evaluation, retrying in {}", RETRY_DELAY, e);
+        Instant retryAt = now.plus(RETRY_DELAY);
+        synchronized (this) {
+          due.forEach(transition -> offer(new ExpiryTransition(
+              retryAt, transition.getStorageItemId(), transition.getHouseholdId())));
+        }
+      }
+    }
+
+    synchronized (this) {
+      rescheduleWakeup();
+    }
+  }
+
+  /**
+   * Calculates the expiration date of storage items that do not have one yet, in batches.
+   */
+  void backfillExpiresAt() {
+    int total = 0;
+    int updated;
+    do {
+      updated = transactionTemplate.execute(status -> {
+        List<StorageItem> items = storageItemRepository.findMissingExpiresAt(Limit.of(BACKFILL_BATCH_SIZE));
+        items.forEach(StorageItem::refreshExpiresAt);
+        return items.size();
+      });
+      total += updated;
+    } while (updated == BACKFILL_BATCH_SIZE);
+
+    if (total > 0) {
+      logger.info("Calculated missing expiration dates for {} storage items", total);
+    }
+  }
+
+  /**
+   * Returns the number of transitions waiting in memory.
+   *
+   * @return the number of queued transitions
+   */
+  synchronized int pendingTransitions() {
+    return queue.size();
+  }
+
+  private void add(StorageItemExpiry expiry, long offsetDays) {
+    offer(new ExpiryTransition(shiftDays(expiry.getExpiresAt().toInstant(), offsetDays),
+        expiry.getStorageItemId(), expiry.getHouseholdId()));
+  }
+
+  /**
+   * Moves an instant by a number of calendar days in the system time zone, the zone the
+   * expiration dates are calculated in, so transitions stay at midnight across DST changes.
+   *
+   * @param instant the instant to move
+   * @param days    the number of days, may be negative
+   * @return the moved instant
+   */
+  private static Instant shiftDays(Instant instant, long days) {
+    return instant.atZone(ZoneId.systemDefault()).plusDays(days).toInstant();
+  }
+
+  private void offer(ExpiryTransition transition) {
+    if (queued.add(transition)) {
+      queue.add(transition);
+    }
+  }
+
+  /**
+   * Makes sure the wakeup task is scheduled for the earliest transition.
+   * Must be called while holding the lock.
+   */
+  private void rescheduleWakeup() {
+    ExpiryTransition head = queue.peek();
+    if (head == null || head.getAt().equals(wakeupAt)) {
+      return;
+    }
+    if (wakeup != null) {
+      wakeup.cancel(false);
+    }
+    wakeupAt = head.getAt();
+    wakeup = taskScheduler.schedule(this::fireDue, wakeupAt);
+  }
+
+  /**
+   * A storage item entering or leaving the expiration window at a given instant.
+   */
+  @Getter
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  static class ExpiryTransition implements Comparable<ExpiryTransition> {
+    private final Instant at;
+    private final Long storageItemId;
+    private final Long householdId;
+
+    @Override
+    public int compareTo(ExpiryTransition other) {
+      int byTime = at.compareTo(other.at);
+      return byTime != 0 ? byTime : storageItemId.compareTo(other.storageItemId);
+    }
+  }
+}
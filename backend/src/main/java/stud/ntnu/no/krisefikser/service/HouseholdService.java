@@ -33,6 +33,9 @@ public class HouseholdService {
   private final UserRepository userRepository;
   private final StorageItemCreationService storageItemCreationService;
   private final HouseholdTokenRepository householdTokenRepository;
+  private final NotificationUnreadCounter notificationUnreadCounter;
+  private final PreparednessService preparednessService;
+  private final CustomUserDetailsService customUserDetailsService;
   private static final Logger logger = LogManager.getLogger(HouseholdService.class);
 
   /**
@@ -60,6 +63,7 @@ public class HouseholdService {
     householdRepository.save(household);
     currentUser.setHousehold(household);
     userRepository.save(currentUser);
+    customUserDetailsService.evictAuthenticatedUser(currentUser.getId());
     logger.info("Adding user '{}' to household '{}'", currentUser.getEmail(), householdRequest.getName());
     storageItemCreationService.createStorageItemsForNewHousehold(household);
 
@@ -112,6 +116,10 @@ public class HouseholdService {
 
     userRepository.save(currentUser);
     householdTokenRepository.delete(householdToken);
+    notificationUnreadCounter.evictUser(household.getId(), currentUser.getId());
+    customUserDetailsService.evictAuthenticatedUser(currentUser.getId());
+    // The household size changes every item's recommended amount
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
     logger.info("User '{}' joined household '{}'", currentUser.getEmail(), currentUser.getHousehold().getName());
   }
 
@@ -128,6 +136,21 @@ public class HouseholdService {
     return exists;
   }
 
+  /**
+   * Counts the members of a household.
+   *
+   * @param id the ID of the household
+   * @return the number of members of the household
+   * @throws AppEntityNotFoundException if the household does not exist
+   */
+  public int getMemberCount(Long id) {
+    return householdRepository.findMemberCountById(id)
+        .orElseThrow(() -> {
+          logger.error("Household with ID {} not found", id);
+          return new AppEntityNotFoundException(CustomErrorMessage.HOUSEHOLD_NOT_FOUND);
+        });
+  }
+
   /**
    * Retrieves the household of the currently authenticated user.
    *
@@ -157,6 +180,8 @@ public class HouseholdService {
       logger.error("User '{}' does not belong to any household", currentUser.getEmail());
       throw new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_IN_HOUSEHOLD);
     }
+    notificationUnreadCounter.evictUser(household.getId(), currentUser.getId());
+    customUserDetailsService.evictAuthenticatedUser(currentUser.getId());
     if(currentUser.isHouseholdAdmin() && household.getUsers().size() == 1) {
       //Need to replace owner, if there are no other people the household gets deleted
       logger.info("User '{}' is the last member of the household and is the owner, also deleting household", currentUser.getEmail());
@@ -176,6 +201,7 @@ public class HouseholdService {
       }
       household.setOwner(newOwner);
       householdRepository.save(household);
+      preparednessService.recalculateHouseholdPreparedness(household.getId());
     } else if(household.getUsers().size() == 1) {
       //This shouldnt be able to happen
       logger.error("Illegal state");
@@ -187,6 +213,7 @@ public class HouseholdService {
       household.getUsers().remove(currentUser);
       userRepository.save(currentUser);
       householdRepository.save(household);
+      preparednessService.recalculateHouseholdPreparedness(household.getId());
     }
   }
 }
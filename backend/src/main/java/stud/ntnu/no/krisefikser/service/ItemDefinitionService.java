@@ -0,0 +1,61 @@
+package stud.ntnu.no.krisefikser.service;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionRequest;
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionResponse;
+import stud.ntnu.no.krisefikser.dtos.mappers.ItemDefinitionMapper;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+
+/**
+ * Service class for managing ItemDefinition entities.
+ * <p>
+ * A new item definition is added to every existing household right after it is saved, with
+ * the chunked backfill of {@link StorageItemBackfillService}. The definition is committed
+ * first, so a backfill that fails part way is completed on the next startup.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemDefinitionService {
+
+  private static final Logger logger = LogManager.getLogger(ItemDefinitionService.class);
+  private final ItemDefinitionRepository itemDefinitionRepository;
+  private final ItemCategoryRepository categoryRepository;
+  private final StorageItemBackfillService backfillService;
+
+  /**
+   * Creates a new item definition and adds it to every household.
+   *
+   * @param request the request containing the details of the new item definition
+   * @return the created {@link ItemDefinitionResponse} DTO
+   * @throws AppEntityNotFoundException if the item category does not exist
+   */
+  public ItemDefinitionResponse createItemDefinition(ItemDefinitionRequest request) {
+    logger.info("Creating new item definition: {}", request.getName());
+
+    ItemCategory category = categoryRepository.findById(request.getCategoryId())
+        .orElseThrow(() -> {
+          logger.error("Item category with ID {} not found", request.getCategoryId());
+          return new AppEntityNotFoundException(CustomErrorMessage.ITEM_CATEGORY_NOT_FOUND);
+        });
+    ItemDefinition saved = itemDefinitionRepository.save(ItemDefinitionMapper.toEntity(request, category));
+    logger.info("Created new item definition with ID: {}", saved.getId());
+
+    try {
+      backfillService.backfillItemDefinition(saved.getId());
+    } catch (RuntimeException e) {
+      logger.error("Failed to add item definition ID {} to all households, it is retried on next startup",
+          saved.getId(), e);
+    }
+    return ItemDefinitionMapper.toDto(saved);
+  }
+}
@@ -0,0 +1,367 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.entities.MailOutboxEntry;
+import stud.ntnu.no.krisefikser.repository.MailOutboxRepository;
+import stud.ntnu.no.krisefikser.util.TokenBucket;
+
+/**
+ * Service for sending emails asynchronously through a persistent outbox.
+ * <p>
+ * Callers enqueue emails in their own transaction. A background sender polls the outbox,
+ * applies a rate limit per recipient provider (the domain of the address), and sends the
+ * emails of each provider as one batch over a single connection on a bounded executor.
+ * Providers over their rate limit are left out of the poll query, so a backlog to one
+ * provider does not hold up the emails to the others. Failed emails are retried with
+ * exponential backoff.
+ * </p>
+ */
+@Service
+public class MailOutboxService {
+
+  private static final Logger logger = LogManager.getLogger(MailOutboxService.class);
+
+  private static final int BATCH_SIZE = 100;
+  private static final int MAX_BATCHES_PER_POLL = 5;
+  private static final int MAX_ATTEMPTS = 6;
+  private static final Duration LEASE = Duration.ofMinutes(5);
+  private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+  private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+  private final MailOutboxRepository outboxRepository;
+  private final JavaMailSender mailSender;
+  private final ThreadPoolTaskExecutor executor;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean dispatchEnabled;
+  private final int ratePerMinute;
+  private final String fromAddress;
+
+  private final AtomicBoolean polling = new AtomicBoolean(false);
+  private final Map<String, TokenBucket> providerLimits = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for MailOutboxService.
+   *
+   * @param outboxRepository   the mail outbox repository
+   * @param mailSender         the mail sender
+   * @param executor           the bounded executor sending mail batches
+   * @param transactionManager the transaction manager
+   * @param dispatchEnabled    whether the background sender should run
+   * @param ratePerMinute      the maximum number of emails per minute to each provider
+   * @param fromAddress        the sender address of the emails
+   */
+  public MailOutboxService(MailOutboxRepository outboxRepository,
+                           JavaMailSender mailSender,
+                           @Qualifier("mailDispatchExecutor") ThreadPoolTaskExecutor executor,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${mail.outbox.dispatch-enabled:true}") boolean dispatchEnabled,
+                           @Value("${mail.outbox.rate-per-minute:60}") int ratePerMinute,
+                           @Value("${spring.mail.username:}") String fromAddress) {
+    this.outboxRepository = outboxRepository;
+    this.mailSender = mailSender;
+    this.executor = executor;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.dispatchEnabled = dispatchEnabled;
+    this.ratePerMinute = ratePerMinute;
+    this.fromAddress = fromAddress;
+  }
+
+  /**
+   * Writes an email to the outbox in the current transaction.
+   * <p>
+   * Once the transaction commits, the sender is nudged so the email goes out
+   * without waiting for the next poll.
+   * </p>
+   *
+   * @param recipient the email address of the recipient
+   * @param subject   the subject
+   * @param body      the plain text body
+   */
+  @Transactional
+  public void enqueue(String recipient, String subject, String body) {
+    outboxRepository.save(new MailOutboxEntry()
+        .setRecipient(recipient)
+        .setProvider(providerOf(recipient))
+        .setSubject(subject)
+        .setBody(body)
+        .setNextAttemptAt(Instant.now()));
+    logger.info("Queued email '{}' to '{}'", subject, recipient);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          triggerDispatch();
+        }
+      });
+    }
+  }
+
+  /**
+   * Schedules a dispatch on the executor, without blocking the caller.
+   */
+  public void triggerDispatch() {
+    if (!dispatchEnabled) {
+      return;
+    }
+    try {
+      executor.execute(this::dispatchDue);
+    } catch (TaskRejectedException e) {
+      logger.warn("Mail sender is saturated, emails will be picked up by the next poll");
+    }
+  }
+
+  /**
+   * Runs the background sender, if it is enabled.
+   */
+  @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:5000}")
+  public void pollOutbox() {
+    if (dispatchEnabled) {
+      dispatchDue();
+    }
+  }
+
+  /**
+   * Polls the outbox for due emails and submits one batch per provider to the executor.
+   * <p>
+   * Providers whose rate limit is reached are skipped by the query, and a provider that
+   * reaches its limit during the poll is skipped by the next query, so emails to other
+   * providers are found behind any backlog. Emails are leased before they are submitted,
+   * and only the emails the lease claimed are sent, so instances polling at the same time
+   * never send the same email. A leased email becomes due again if its batch is lost.
+   * </p>
+   */
+  public void dispatchDue() {
+    if (!polling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      Instant now = Instant.now();
+      String token = UUID.randomUUID().toString();
+      Set<String> throttled = new HashSet<>();
+      providerLimits.forEach((provider, limit) -> {
+        if (!limit.hasToken()) {
+          throttled.add(provider);
+        }
+      });
+
+      for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+        List<MailOutboxEntry> due = throttled.isEmpty()
+            ? outboxRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(now, PageRequest.of(0, BATCH_SIZE))
+            : outboxRepository.findByNextAttemptAtLessThanEqualAndProviderNotInOrderByIdAsc(
+                now, throttled, PageRequest.of(0, BATCH_SIZE));
+
+        Map<String, List<MailOutboxEntry>> byProvider = new LinkedHashMap<>();
+        for (MailOutboxEntry entry : due) {
+          String provider = entry.getProvider();
+          if (throttled.contains(provider)) {
+            continue;
+          }
+          if (rateLimitFor(provider).tryAcquire()) {
+            byProvider.computeIfAbsent(provider, p -> new ArrayList<>()).add(entry);
+          } else {
+            throttled.add(provider);
+          }
+        }
+        leaseAndSubmit(byProvider, now, token);
+
+        // Every email found was either submitted or belongs to a provider skipped from now on
+        if (due.size() < BATCH_SIZE) {
+          break;
+        }
+      }
+    } finally {
+      polling.set(false);
+    }
+  }
+
+  /**
+   * Leases the emails of a poll and submits the ones it claimed, one batch per provider.
+   *
+   * @param byProvider the emails to send, by provider
+   * @param now        the time the emails were found due
+   * @param token      identifies the poll
+   */
+  private void leaseAndSubmit(Map<String, List<MailOutboxEntry>> byProvider, Instant now, String token) {
+    if (byProvider.isEmpty()) {
+      return;
+    }
+    List<Long> dueIds = byProvider.values().stream()
+        .flatMap(List::stream)
+        .map(MailOutboxEntry::getId)
+        .toList();
+    Set<Long> leasedIds = transactionTemplate.execute(status -> {
+      int leased = outboxRepository.lease(dueIds, now, now.plus(LEASE), token);
+      // Another poll leased some of the emails after they were read
+      return leased == dueIds.size() ? Set.copyOf(dueIds) : Set.copyOf(outboxRepository.findLeasedIds(dueIds, token));
+    });
+
+    byProvider.forEach((provider, entries) -> {
+      List<MailOutboxEntry> leased = entries.stream()
+          .filter(entry -> leasedIds.contains(entry.getId()))
+          .toList();
+      if (leased.isEmpty()) {
+        return;
+      }
+      try {
+        executor.execute(() -> deliver(leased));
+      } catch (TaskRejectedException e) {
+        logger.warn("Mail batch for '{}' rejected, retrying after the lease expires", provider);
+      }
+    });
+  }
+
+  /**
+   * Sends a batch of emails over a single connection and records the outcome.
+   * <p>
+   * Sent emails are removed from the outbox. Failed emails are rescheduled with exponential
+   * backoff, and dropped after {@value #MAX_ATTEMPTS} attempts.
+   * </p>
+   *
+   * @param entries the emails to send
+   */
+  public void deliver(List<MailOutboxEntry> entries) {
+    Map<SimpleMailMessage, MailOutboxEntry> messages = new IdentityHashMap<>();
+    for (MailOutboxEntry entry : entries) {
+      messages.put(toMessage(entry), entry);
+    }
+
+    Map<Object, Exception> failures = Map.of();
+    try {
+      mailSender.send(messages.keySet().toArray(new SimpleMailMessage[0]));
+    } catch (MailSendException e) {
+      failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+    } catch (MailException e) {
+      failures = allFailed(messages, e);
+    }
+
+    List<Long> sentIds = new ArrayList<>();
+    Map<MailOutboxEntry, Exception> failed = new IdentityHashMap<>();
+    for (Map.Entry<SimpleMailMessage, MailOutboxEntry> message : messages.entrySet()) {
+      Exception failure = failures.get(message.getKey());
+      if (failure == null) {
+        sentIds.add(message.getValue().getId());
+      } else {
+        failed.put(message.getValue(), failure);
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      if (!sentIds.isEmpty()) {
+        outboxRepository.deleteAllByIdInBatch(sentIds);
+      }
+      failed.forEach(this::handleFailure);
+    });
+    logger.info("Sent {} emails, {} failed", sentIds.size(), failed.size());
+  }
+
+  /**
+   * Reschedules a failed email, or drops it once it has used up its attempts.
+   *
+   * @param entry the email that failed
+   * @param cause the cause of the failure
+   */
+  private void handleFailure(MailOutboxEntry entry, Exception cause) {
+    int attempts = entry.getAttempts() + 1;
+    if (attempts >= MAX_ATTEMPTS) {
+      logger.error("Dropping email '{}' to '{}' after {} attempts",
+          entry.getSubject(), entry.getRecipient(), attempts, cause);
+      outboxRepository.deleteById(entry.getId());
+      return;
+    }
+
+    Duration backoff = BASE_BACKOFF.multipliedBy(1L << (attempts - 1));
+    if (backoff.compareTo(MAX_BACKOFF) > 0) {
+      backoff = MAX_BACKOFF;
+    }
+    String message = String.valueOf(cause.getMessage());
+    String error = message.length() > 500 ? message.substring(0, 500) : message;
+    logger.warn("Sending email to '{}' failed (attempt {}), retrying in {}: {}",
+        entry.getRecipient(), attempts, backoff, error);
+    outboxRepository.recordFailure(entry.getId(), Instant.now().plus(backoff), error);
+  }
+
+  /**
+   * Builds the mail message for an outbox entry.
+   *
+   * @param entry the outbox entry
+   * @return the mail message
+   */
+  private SimpleMailMessage toMessage(MailOutboxEntry entry) {
+    SimpleMailMessage message = new SimpleMailMessage();
+    if (!fromAddress.isBlank()) {
+      message.setFrom(fromAddress);
+    }
+    message.setTo(entry.getRecipient());
+    message.setSubject(entry.getSubject());
+    message.setText(entry.getBody());
+    return message;
+  }
+
+  /**
+   * Marks every message of a batch as failed with the same cause.
+   *
+   * @param messages the messages of the batch
+   * @param cause    the cause of the failure
+   * @return the failures keyed by message
+   */
+  private Map<Object, Exception> allFailed(Map<SimpleMailMessage, MailOutboxEntry> messages, Exception cause) {
+    Map<Object, Exception> failures = new IdentityHashMap<>();
+    messages.keySet().forEach(message -> failures.put(message, cause));
+    return failures;
+  }
+
+  /**
+   * Returns the rate limit of a provider, creating it on first use.
+   *
+   * @param provider the provider
+   * @return the token bucket of the provider
+   */
+  private TokenBucket rateLimitFor(String provider) {
+    return providerLimits.computeIfAbsent(provider,
+        p -> new TokenBucket(ratePerMinute, ratePerMinute / 60d));
+  }
+
+  /**
+   * Returns the provider of an email address, i.e. its domain.
+   *
+   * @param recipient the email address
+   * @return the lower case domain, or the whole address if it has no domain
+   */
+  static String providerOf(String recipient) {
+    int at = recipient.lastIndexOf('@');
+    return (at < 0 ? recipient : recipient.substring(at + 1)).toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,296 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.entities.NotificationOutboxEntry;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+/**
+ * Service for evaluating notifications asynchronously through a transactional outbox.
+ * <p>
+ * Stock changes only write an outbox entry in their own transaction. A background
+ * dispatcher polls the outbox, groups the due entries per household and evaluates the
+ * notifications for each household on a bounded executor. Failed batches are retried
+ * with exponential backoff.
+ * </p>
+ */
+@Service
+public class NotificationOutboxService {
+
+  private static final Logger logger = LogManager.getLogger(NotificationOutboxService.class);
+
+  private static final int BATCH_SIZE = 200;
+  private static final int MAX_ATTEMPTS = 8;
+  private static final Duration LEASE = Duration.ofSeconds(60);
+  private static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+
+  private final NotificationOutboxRepository outboxRepository;
+  private final StorageItemRepository storageItemRepository;
+  private final NotificationService notificationService;
+  private final PreparednessService preparednessService;
+  private final ThreadPoolTaskExecutor executor;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean dispatchEnabled;
+
+  private final AtomicBoolean polling = new AtomicBoolean(false);
+  private final Set<Long> householdsInFlight = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor for NotificationOutboxService.
+   *
+   * @param outboxRepository      the outbox repository
+   * @param storageItemRepository the storage item repository
+   * @param notificationService   the service evaluating notifications
+   * @param preparednessService   the service updating household preparedness
+   * @param executor              the bounded executor processing household batches
+   * @param transactionManager    the transaction manager
+   * @param dispatchEnabled       whether the background dispatcher should run
+   */
+  public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                   StorageItemRepository storageItemRepository,
+                                   NotificationService notificationService,
+                                   PreparednessService preparednessService,
+                                   @Qualifier("notificationDispatchExecutor") ThreadPoolTaskExecutor executor,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${notification.outbox.dispatch-enabled:true}") boolean dispatchEnabled) {
+    this.outboxRepository = outboxRepository;
+    this.storageItemRepository = storageItemRepository;
+    this.notificationService = notificationService;
+    this.preparednessService = preparednessService;
+    this.executor = executor;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.dispatchEnabled = dispatchEnabled;
+  }
+
+  /**
+   * Writes an outbox entry for a storage item in the current transaction.
+   * <p>
+   * Once the transaction commits, the dispatcher is nudged so the notifications
+   * are evaluated without waiting for the next poll.
+   * </p>
+   *
+   * @param item the storage item whose notifications should be evaluated
+   */
+  @Transactional
+  public void enqueue(StorageItem item) {
+    enqueueAll(Map.of(item.getId(), item.getHousehold().getId()));
+  }
+
+  /**
+   * Writes one outbox entry per storage item in the current transaction, and nudges the
+   * dispatcher once the transaction commits.
+   *
+   * @param householdIdsByStorageItemId the household ID of each storage item to evaluate
+   */
+  @Transactional
+  public void enqueueAll(Map<Long, Long> householdIdsByStorageItemId) {
+    if (householdIdsByStorageItemId.isEmpty()) {
+      return;
+    }
+    Instant now = Instant.now();
+    List<NotificationOutboxEntry> entries = new ArrayList<>();
+    householdIdsByStorageItemId.forEach((storageItemId, householdId) -> entries.add(new NotificationOutboxEntry()
+        .setHouseholdId(householdId)
+        .setStorageItemId(storageItemId)
+        .setNextAttemptAt(now)));
+    outboxRepository.saveAll(entries);
+    logger.info("Queued notification evaluation for storage item IDs: {}", householdIdsByStorageItemId.keySet());
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          triggerDispatch();
+        }
+      });
+    }
+  }
+
+  /**
+   * Schedules a dispatch on the executor, without blocking the caller.
+   */
+  public void triggerDispatch() {
+    if (!dispatchEnabled) {
+      return;
+    }
+    try {
+      executor.execute(this::dispatchDue);
+    } catch (TaskRejectedException e) {
+      logger.warn("Notification dispatcher is saturated, entries will be picked up by the next poll");
+    }
+  }
+
+  /**
+   * Polls the outbox for due entries and submits one batch per household to the executor.
+   * <p>
+   * Entries are leased before they are submitted, so an entry whose batch is lost
+   * (for example on shutdown) becomes due again once the lease runs out. The lease only
+   * claims entries that are still due, and only the claimed entries are submitted, so
+   * instances polling at the same time never process the same entry.
+   * Households that already have a batch in flight are skipped until it is done.
+   * </p>
+   */
+  @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:5000}")
+  public void dispatchDue() {
+    if (!dispatchEnabled || !polling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      Instant now = Instant.now();
+      List<NotificationOutboxEntry> due = outboxRepository
+          .findByNextAttemptAtLessThanEqualOrderByIdAsc(now, PageRequest.of(0, BATCH_SIZE));
+      if (due.isEmpty()) {
+        return;
+      }
+
+      Map<Long, List<NotificationOutboxEntry>> byHousehold = new LinkedHashMap<>();
+      for (NotificationOutboxEntry entry : due) {
+        if (!householdsInFlight.contains(entry.getHouseholdId())) {
+          byHousehold.computeIfAbsent(entry.getHouseholdId(), id -> new ArrayList<>()).add(entry);
+        }
+      }
+      if (byHousehold.isEmpty()) {
+        return;
+      }
+
+      List<Long> dueIds = byHousehold.values().stream()
+          .flatMap(List::stream)
+          .map(NotificationOutboxEntry::getId)
+          .toList();
+      String token = UUID.randomUUID().toString();
+      Set<Long> leasedIds = transactionTemplate.execute(status -> {
+        int leased = outboxRepository.lease(dueIds, now, now.plus(LEASE), token);
+        // Another poll leased some of the entries after they were read
+        return leased == dueIds.size() ? Set.copyOf(dueIds) : Set.copyOf(outboxRepository.findLeasedIds(dueIds, token));
+      });
+
+      byHousehold.forEach((householdId, entries) -> {
+        List<NotificationOutboxEntry> leased = entries.stream()
+            .filter(entry -> leasedIds.contains(entry.getId()))
+            .toList();
+        if (!leased.isEmpty()) {
+          submitHouseholdBatch(householdId, leased);
+        }
+      });
+    } finally {
+      polling.set(false);
+    }
+  }
+
+  /**
+   * Submits the entries of one household to the executor.
+   *
+   * @param householdId the ID of the household
+   * @param entries     the leased entries of the household
+   */
+  private void submitHouseholdBatch(Long householdId, List<NotificationOutboxEntry> entries) {
+    if (!householdsInFlight.add(householdId)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          processHouseholdBatch(householdId, entries);
+        } finally {
+          householdsInFlight.remove(householdId);
+        }
+      });
+    } catch (TaskRejectedException e) {
+      householdsInFlight.remove(householdId);
+      logger.warn("Notification batch for household {} rejected, retrying after the lease expires", householdId);
+    }
+  }
+
+  /**
+   * Evaluates the notifications for a batch of entries belonging to one household.
+   * <p>
+   * Every storage item is evaluated once, no matter how many entries refer to it. Items that
+   * have been deleted since the entry was written are skipped. On success the entries are
+   * removed; on failure they are rescheduled with exponential backoff, and dropped after
+   * {@value #MAX_ATTEMPTS} attempts.
+   * </p>
+   *
+   * @param householdId the ID of the household
+   * @param entries     the entries to process
+   */
+  public void processHouseholdBatch(Long householdId, List<NotificationOutboxEntry> entries) {
+    List<Long> entryIds = entries.stream().map(NotificationOutboxEntry::getId).toList();
+    Set<Long> storageItemIds = new LinkedHashSet<>();
+    entries.forEach(entry -> storageItemIds.add(entry.getStorageItemId()));
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        List<StorageItem> items = storageItemRepository.findAllById(storageItemIds);
+        if (items.size() < storageItemIds.size()) {
+          logger.info("Skipping {} deleted storage items for household {}",
+              storageItemIds.size() - items.size(), householdId);
+        }
+        items.forEach(notificationService::checkAndGenerateNotifications);
+        preparednessService.updateItemScores(items);
+        outboxRepository.deleteAllByIdInBatch(entryIds);
+      });
+      logger.info("Evaluated notifications for {} storage items in household {}", storageItemIds.size(), householdId);
+    } catch (RuntimeException e) {
+      handleFailure(householdId, entries, entryIds, e);
+    }
+  }
+
+  /**
+   * Reschedules a failed batch, or drops it once it has used up its attempts.
+   *
+   * @param householdId the ID of the household
+   * @param entries     the entries that failed
+   * @param entryIds    the IDs of the entries
+   * @param cause       the cause of the failure
+   */
+  private void handleFailure(Long householdId, List<NotificationOutboxEntry> entries, List<Long> entryIds,
+                             RuntimeException cause) {
+    int attempts = entries.stream().mapToInt(NotificationOutboxEntry::getAttempts).max().orElse(0) + 1;
+    if (attempts >= MAX_ATTEMPTS) {
+      logger.error("Dropping {} notification outbox entries for household {} after {} attempts",
+          entryIds.size(), householdId, attempts, cause);
+      transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteAllByIdInBatch(entryIds));
+      return;
+    }
+
+    Duration backoff = BASE_BACKOFF.multipliedBy(1L << (attempts - 1));
+    if (backoff.compareTo(MAX_BACKOFF) > 0) {
+      backoff = MAX_BACKOFF;
+    }
+    String message = String.valueOf(cause.getMessage());
+    String error = message.length() > 500 ? message.substring(0, 500) : message;
+    logger.warn("Notification batch for household {} failed (attempt {}), retrying in {}",
+        householdId, attempts, backoff, cause);
+    Instant nextAttempt = Instant.now().plus(backoff);
+    transactionTemplate.executeWithoutResult(
+        status -> outboxRepository.recordFailure(entryIds, nextAttempt, error));
+  }
+}
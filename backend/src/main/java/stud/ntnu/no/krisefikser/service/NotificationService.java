@@ -1,9 +1,14 @@
 package stud.ntnu.no.krisefikser.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.config.SecurityUtil;
+import stud.ntnu.no.krisefikser.config.websocket.WebSocketDestinations;
+import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationFeedResponse;
 import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationRequest;
 import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationResponse;
 import stud.ntnu.no.krisefikser.dtos.mappers.NotificationMapper;
@@ -15,16 +20,18 @@ import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
 import stud.ntnu.no.krisefikser.exception.customExceptions.NotificationNotFoundException;
 import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationReadRepository;
 import stud.ntnu.no.krisefikser.repository.NotificationRepository;
 import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
-import stud.ntnu.no.krisefikser.util.DateUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service for managing notifications.
@@ -42,6 +49,12 @@ public class NotificationService {
   private final HouseholdRepository householdRepository;
   private final StorageItemRepository storageItemRepository;
   private final SimpMessagingTemplate messagingTemplate;
+  private final NotificationReadRepository notificationReadRepository;
+  private final NotificationUnreadCounter unreadCounter;
+  private final SecurityUtil securityUtil;
+
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
 
   /**
    * Retrieves all notifications for a specific household.
@@ -63,6 +76,105 @@ public class NotificationService {
     return NotificationMapper.toDtoList(notifications);
   }
 
+  /**
+   * Retrieves a page of notifications for the current user's household, newest first,
+   * including whether the current user has read them.
+   *
+   * @param before cursor from the previous page, or null for the first page
+   * @param limit  the maximum number of notifications to return, or null for the default
+   * @return the page of notifications and the cursor for the next page
+   * @throws AppEntityNotFoundException if the current user is not in a household
+   */
+  @Transactional(readOnly = true)
+  public NotificationFeedResponse getNotificationFeed(Long before, Integer limit) {
+    AuthenticatedUser user = securityUtil.getCurrentPrincipal();
+    Long householdId = getHouseholdIdOf(user);
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    long cursor = before == null ? Long.MAX_VALUE : before;
+
+    // Fetch one extra row to know whether there is a next page
+    List<Notification> notifications = notificationRepository
+        .findPageByHouseholdId(householdId, cursor, Limit.of(pageSize + 1));
+    boolean hasMore = notifications.size() > pageSize;
+    if (hasMore) {
+      notifications = notifications.subList(0, pageSize);
+    }
+
+    List<NotificationResponse> responses = NotificationMapper.toDtoList(notifications);
+    if (!responses.isEmpty()) {
+      Set<Long> readIds = new HashSet<>(notificationReadRepository.findReadNotificationIds(
+          user.getId(), responses.stream().map(NotificationResponse::getId).toList()));
+      responses.forEach(response -> response.setRead(readIds.contains(response.getId())));
+    }
+
+    Long nextCursor = hasMore ? responses.get(responses.size() - 1).getId() : null;
+    return new NotificationFeedResponse(responses, nextCursor);
+  }
+
+  /**
+   * Returns the number of notifications in the current user's household that the user
+   * has not read. The count is served from memory once it has been loaded.
+   *
+   * @return the number of unread notifications
+   * @throws AppEntityNotFoundException if the current user is not in a household
+   */
+  public long getUnreadCount() {
+    AuthenticatedUser user = securityUtil.getCurrentPrincipal();
+    Long householdId = getHouseholdIdOf(user);
+    return unreadCounter.get(householdId, user.getId(),
+        () -> notificationRepository.countUnread(householdId, user.getId()));
+  }
+
+  /**
+   * Marks a notification in the current user's household as read.
+   *
+   * @param notificationId the ID of the notification
+   * @throws NotificationNotFoundException if the notification does not exist in the user's household
+   */
+  @Transactional
+  public void markAsRead(Long notificationId) {
+    AuthenticatedUser user = securityUtil.getCurrentPrincipal();
+    Long householdId = getHouseholdIdOf(user);
+    Notification notification = notificationRepository.findById(notificationId)
+        .filter(n -> n.getHousehold().getId().equals(householdId))
+        .orElseThrow(() -> {
+          logger.error("Notification {} not found in household {}", notificationId, householdId);
+          return new NotificationNotFoundException(CustomErrorMessage.NOTIFICATION_NOT_FOUND);
+        });
+
+    int marked = notificationReadRepository.markRead(user.getId(), notification.getId());
+    unreadCounter.notificationsRead(householdId, user.getId(), marked);
+  }
+
+  /**
+   * Marks all notifications in the current user's household as read.
+   *
+   * @throws AppEntityNotFoundException if the current user is not in a household
+   */
+  @Transactional
+  public void markAllAsRead() {
+    AuthenticatedUser user = securityUtil.getCurrentPrincipal();
+    Long householdId = getHouseholdIdOf(user);
+    int marked = notificationReadRepository.markAllRead(user.getId(), householdId);
+    logger.info("Marked {} notifications as read for user {}", marked, user.getId());
+    unreadCounter.notificationsRead(householdId, user.getId(), marked);
+  }
+
+  /**
+   * Returns the ID of the household a user belongs to.
+   *
+   * @param user the principal of the user
+   * @return the ID of the household
+   * @throws AppEntityNotFoundException if the user is not in a household
+   */
+  private Long getHouseholdIdOf(AuthenticatedUser user) {
+    if (user.getHouseholdId() == null) {
+      logger.error("User '{}' does not belong to any household", user.getName());
+      throw new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_IN_HOUSEHOLD);
+    }
+    return user.getHouseholdId();
+  }
+
   /**
    * Creates a new notification from request data.
    *
@@ -105,10 +217,12 @@ public class NotificationService {
         .setType(request.getType());
 
     Notification saved = notificationRepository.save(notification);
+    unreadCounter.notificationCreated(household.getId());
     NotificationResponse response = NotificationMapper.toDto(saved);
 
-    // Send websocket notification
-    messagingTemplate.convertAndSend("/topic/notifications", response);
+    // Send websocket notification to the members of the household
+    messagingTemplate.convertAndSend(
+        WebSocketDestinations.householdNotifications(household.getId()), response);
 
     return response;
   }
@@ -122,16 +236,19 @@ public class NotificationService {
   public void deleteNotification(Long notificationId) {
     logger.info("Deleting notification with ID: {}", notificationId);
 
-    // Check if notification exists before deleting
-    if (!notificationRepository.existsById(notificationId)) {
-      logger.error("Notification not found with ID: {}", notificationId);
-      throw new NotificationNotFoundException(CustomErrorMessage.NOTIFICATION_NOT_FOUND);
-    }
+    Notification notification = notificationRepository.findById(notificationId)
+        .orElseThrow(() -> {
+          logger.error("Notification not found with ID: {}", notificationId);
+          return new NotificationNotFoundException(CustomErrorMessage.NOTIFICATION_NOT_FOUND);
+        });
+    Long householdId = notification.getHousehold().getId();
 
-    notificationRepository.deleteById(notificationId);
+    notificationRepository.delete(notification);
+    unreadCounter.evictHousehold(householdId);
 
-    // Send websocket notification for deletion
-    messagingTemplate.convertAndSend("/topic/notifications/delete", notificationId);
+    // Send websocket notification for deletion to the members of the household
+    messagingTemplate.convertAndSend(
+        WebSocketDestinations.householdNotificationDeletes(householdId), notificationId);
   }
 
   /**
@@ -154,40 +271,12 @@ public class NotificationService {
     if (currentStock >= lowStockThreshold) {
       logger.info("Stock is above low threshold ({} >= {}), removing notifications",
           currentStock, lowStockThreshold);
-
-      // Find notifications first so we can send WebSocket messages
-      List<Notification> notifications = notificationRepository
-          .findByHouseholdIdAndStorageItemIdAndType(
-              item.getHousehold().getId(),
-              item.getId(),
-              NotificationType.LOW_STOCK);
-
-      // Delete each notification and send WebSocket message
-      for (Notification notification : notifications) {
-        Long notificationId = notification.getId();
-        notificationRepository.deleteById(notificationId);
-        messagingTemplate.convertAndSend("/topic/notifications/delete", notificationId);
-      }
-
+      removeNotifications(item, NotificationType.LOW_STOCK);
       return;
     }
 
-    // Only create notification if below threshold and none exists
-    List<Notification> existingNotifications = notificationRepository
-        .findByHouseholdIdAndStorageItemIdAndType(
-            item.getHousehold().getId(),
-            item.getId(),
-            NotificationType.LOW_STOCK);
-
-    if (existingNotifications.isEmpty()) {
-      logger.info("Creating low stock notification for item: {}", item.getId());
-      NotificationRequest notificationRequest = new NotificationRequest();
-      notificationRequest.setHouseholdId(item.getHousehold().getId());
-      notificationRequest.setStorageItemId(item.getId());
-      notificationRequest.setType(NotificationType.LOW_STOCK);
-
-      createNotification(notificationRequest);
-    }
+    // Below threshold, the unique key makes the insert a no-op if the notification already exists
+    ensureNotification(item, NotificationType.LOW_STOCK);
   }
 
   @Transactional
@@ -197,48 +286,84 @@ public class NotificationService {
     // First check if the item has stock - if not, remove any expiration notifications
     if (item.getCurrentStock() <= 0) {
       logger.info("Item has no stock, removing expiration notifications for item: {}", item.getId());
-      notificationRepository.deleteByStorageItemIdAndType(item.getId(), NotificationType.EXPIRATION);
+      removeExpirationNotifications(item);
       return;
     }
 
-    Date lastRestocked = item.getLastRestockedAt();
-    if (lastRestocked == null) {
-      logger.info("No restock date for item: {}, removing notifications", item.getId());
-      notificationRepository.deleteByStorageItemIdAndType(item.getId(), NotificationType.EXPIRATION);
+    Date expiresAtDate = item.getExpiresAt();
+    if (expiresAtDate == null) {
+      logger.info("No expiration date for item: {}, removing notifications", item.getId());
+      removeExpirationNotifications(item);
       return;
     }
 
-    int shelfLifeDays = item.getItemDefinition().getShelfLifeDays();
-    if (shelfLifeDays <= 0) return;
-
-    LocalDate expiresAt = DateUtil.addDaysToDate(lastRestocked, shelfLifeDays)
-        .toInstant()
+    LocalDate expiresAt = expiresAtDate.toInstant()
         .atZone(ZoneId.systemDefault())
         .toLocalDate();
     LocalDate today = LocalDate.now();
-    LocalDate cutoff = today.plusDays(7);
+    LocalDate cutoff = today.plusDays(ExpirationNotificationScheduler.WINDOW_DAYS);
 
     logger.info("Item {}, expiresAt={}, today={}, cutoff={}", item.getId(), expiresAt, today, cutoff);
 
     // inclusive between today and cutoff
     if (!expiresAt.isBefore(today) && !expiresAt.isAfter(cutoff)) {
-      List<Notification> existing = notificationRepository
-          .findByHouseholdIdAndStorageItemIdAndType(
-              item.getHousehold().getId(),
-              item.getId(),
-              NotificationType.EXPIRATION
-          );
-      if (existing.isEmpty()) {
-        logger.info("Creating expiration notification for item: {}", item.getId());
-        NotificationRequest req = new NotificationRequest();
-        req.setHouseholdId(item.getHousehold().getId());
-        req.setStorageItemId(item.getId());
-        req.setType(NotificationType.EXPIRATION);
-        createNotification(req);
-      }
+      ensureNotification(item, NotificationType.EXPIRATION);
     } else {
       logger.info("Not expiring within 7 days, removing any existing notifications for item: {}", item.getId());
-      notificationRepository.deleteByStorageItemIdAndType(item.getId(), NotificationType.EXPIRATION);
+      removeExpirationNotifications(item);
+    }
+  }
+
+  /**
+   * Inserts a notification of the given type for an item unless one already exists,
+   * and publishes it over websocket if it was created.
+   *
+   * @param item the storage item the notification concerns
+   * @param type the notification type
+   */
+  private void ensureNotification(StorageItem item, NotificationType type) {
+    Long householdId = item.getHousehold().getId();
+    if (notificationRepository.insertIgnore(householdId, item.getId(), type.name()) == 0) {
+      logger.info("{} notification already exists for item: {}", type, item.getId());
+      return;
+    }
+
+    logger.info("Created {} notification for item: {}", type, item.getId());
+    unreadCounter.notificationCreated(householdId);
+    notificationRepository.findByHouseholdIdAndStorageItemIdAndType(householdId, item.getId(), type)
+        .map(NotificationMapper::toDto)
+        .ifPresent(response -> messagingTemplate.convertAndSend(
+            WebSocketDestinations.householdNotifications(householdId), response));
+  }
+
+  /**
+   * Deletes all notifications of the given type for an item in one statement and
+   * publishes the deleted IDs over websocket.
+   *
+   * @param item the storage item the notifications concern
+   * @param type the notification type
+   */
+  private void removeNotifications(StorageItem item, NotificationType type) {
+    List<Long> notificationIds = notificationRepository.findIdsByStorageItemIdAndType(item.getId(), type);
+    if (notificationIds.isEmpty()) {
+      return;
+    }
+
+    notificationRepository.deleteAllByIdInBatch(notificationIds);
+    unreadCounter.evictHousehold(item.getHousehold().getId());
+    String destination = WebSocketDestinations.householdNotificationDeletes(item.getHousehold().getId());
+    notificationIds.forEach(id -> messagingTemplate.convertAndSend(destination, id));
+  }
+
+  /**
+   * Deletes the expiration notifications of an item in a single statement.
+   *
+   * @param item the storage item the notifications concern
+   */
+  private void removeExpirationNotifications(StorageItem item) {
+    int deleted = notificationRepository.deleteByStorageItemIdAndType(item.getId(), NotificationType.EXPIRATION);
+    if (deleted > 0) {
+      unreadCounter.evictHousehold(item.getHousehold().getId());
     }
   }
 
@@ -0,0 +1,122 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory cache of unread notification counts per household and user.
+ * <p>
+ * A count is loaded from the database the first time it is requested and is then
+ * maintained incrementally: new notifications increment the counts of the household,
+ * and marking notifications as read decrements the count of the user. Deletions and
+ * membership changes evict the affected counts, so they are reloaded on the next request.
+ * All changes are applied after the surrounding transaction commits.
+ * </p>
+ */
+@Component
+public class NotificationUnreadCounter {
+
+  private final Map<Long, Map<Long, AtomicLong>> counts = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the unread count of a user, loading it if it is not cached.
+   *
+   * @param householdId the ID of the household
+   * @param userId      the ID of the user
+   * @param loader      loads the count from the database
+   * @return the number of unread notifications
+   */
+  public long get(Long householdId, Long userId, LongSupplier loader) {
+    return counts.computeIfAbsent(householdId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(userId, id -> new AtomicLong(loader.getAsLong()))
+        .get();
+  }
+
+  /**
+   * Registers a new notification in a household, incrementing the count of every cached member.
+   *
+   * @param householdId the ID of the household
+   */
+  public void notificationCreated(Long householdId) {
+    afterCommit(() -> {
+      Map<Long, AtomicLong> household = counts.get(householdId);
+      if (household != null) {
+        household.values().forEach(AtomicLong::incrementAndGet);
+      }
+    });
+  }
+
+  /**
+   * Registers that a user has read a number of notifications.
+   *
+   * @param householdId the ID of the household
+   * @param userId      the ID of the user
+   * @param read        the number of notifications that became read
+   */
+  public void notificationsRead(Long householdId, Long userId, int read) {
+    if (read <= 0) {
+      return;
+    }
+    afterCommit(() -> {
+      Map<Long, AtomicLong> household = counts.get(householdId);
+      AtomicLong count = household == null ? null : household.get(userId);
+      if (count != null) {
+        count.updateAndGet(value -> Math.max(0, value - read));
+      }
+    });
+  }
+
+  /**
+   * Evicts all counts of a household, for example after notifications have been deleted.
+   *
+   * @param householdId the ID of the household
+   */
+  public void evictHousehold(Long householdId) {
+    if (householdId == null) {
+      return;
+    }
+    afterCommit(() -> counts.remove(householdId));
+  }
+
+  /**
+   * Evicts the count of a single user, for example when the user joins or leaves a household.
+   *
+   * @param householdId the ID of the household
+   * @param userId      the ID of the user
+   */
+  public void evictUser(Long householdId, Long userId) {
+    if (householdId == null || userId == null) {
+      return;
+    }
+    afterCommit(() -> {
+      Map<Long, AtomicLong> household = counts.get(householdId);
+      if (household != null) {
+        household.remove(userId);
+      }
+    });
+  }
+
+  /**
+   * Runs an action after the current transaction commits, or immediately if there is none.
+   *
+   * @param action the action to run
+   */
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
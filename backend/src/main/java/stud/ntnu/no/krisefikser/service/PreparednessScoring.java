@@ -0,0 +1,185 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+
+/**
+ * Scoring rules for household preparedness.
+ * <p>
+ * Shared by the full recalculation and the incremental updates of the household summary,
+ * so both always agree. Scores are kept in thousandths of a point, so the summary can be
+ * updated with differences without accumulating rounding errors.
+ * </p>
+ */
+public final class PreparednessScoring {
+
+  /**
+   * Items expiring within this number of days count as expiring soon.
+   */
+  public static final int EXPIRING_DAYS_THRESHOLD = 30;
+
+  /**
+   * Number of stored score units per point.
+   */
+  public static final long SCORE_SCALE = 1000;
+
+  /**
+   * Share of the recommended amount at which an item counts as adequately stocked.
+   */
+  private static final double ADEQUATE_RATIO = 0.9;
+
+  private PreparednessScoring() {
+  }
+
+  /**
+   * Calculates the contribution of a storage item to the preparedness of its household.
+   * <ul>
+   *   <li>Items below 10% of the recommended amount score 0 points and count as low stock</li>
+   *   <li>Items at or above 90% of the recommended amount score 100 points and count as adequate</li>
+   *   <li>Items in between score proportionally on a linear scale and count as low stock</li>
+   *   <li>Items expiring soon have their score halved</li>
+   * </ul>
+   *
+   * @param item          the storage item, with its item definition
+   * @param householdSize the number of members of the household
+   * @return the contribution of the item
+   */
+  public static ItemScore score(StorageItem item, int householdSize) {
+    double ratio = stockRatio(item.getCurrentStock(),
+        item.getItemDefinition().getRecommendedAmountPerPerson() * householdSize);
+    boolean expiring = isExpiringSoon(item.getExpiresAt());
+    return new ItemScore(points(ratio, expiring), ratio >= ADEQUATE_RATIO, expiring);
+  }
+
+  /**
+   * Scores a range of storage items of one household from primitive arrays, following the
+   * same rules as {@link #score}. Used to score many households without creating an object
+   * per item. Ranges of different households can be scored concurrently.
+   *
+   * @param currentStock         the current stock of each item
+   * @param recommendedPerPerson the recommended amount per person of each item
+   * @param expiring             whether each item is expiring soon
+   * @param from                 the index of the first item of the household, inclusive
+   * @param to                   the index of the last item of the household, exclusive
+   * @param householdSize        the number of members of the household
+   * @param scores               receives the score of each item, in thousandths of a point
+   * @param adequate             receives whether each item is adequately stocked
+   */
+  public static void scoreItems(double[] currentStock, double[] recommendedPerPerson, boolean[] expiring,
+                                int from, int to, int householdSize, long[] scores, boolean[] adequate) {
+    for (int i = from; i < to; i++) {
+      double ratio = stockRatio(currentStock[i], recommendedPerPerson[i] * householdSize);
+      scores[i] = points(ratio, expiring[i]);
+      adequate[i] = ratio >= ADEQUATE_RATIO;
+    }
+  }
+
+  /**
+   * Returns the share of the recommended amount that is in stock.
+   *
+   * @param currentStock      the current stock
+   * @param recommendedAmount the recommended amount for the household
+   * @return the share, infinite if nothing is recommended but there is stock
+   */
+  private static double stockRatio(double currentStock, double recommendedAmount) {
+    if (recommendedAmount > 0) {
+      return currentStock / recommendedAmount;
+    }
+    return currentStock > 0 ? Double.POSITIVE_INFINITY : 0;
+  }
+
+  /**
+   * Returns the score of an item from the share of the recommended amount in stock.
+   *
+   * @param ratio    the share of the recommended amount in stock
+   * @param expiring whether the item is expiring soon
+   * @return the score, in thousandths of a point
+   */
+  private static long points(double ratio, boolean expiring) {
+    double itemScore;
+    if (ratio < 0.1) {
+      itemScore = 0;
+    } else if (ratio >= ADEQUATE_RATIO) {
+      itemScore = 100;
+    } else {
+      itemScore = 100 * (ratio - 0.1) / 0.8;
+    }
+
+    if (expiring) {
+      itemScore *= 0.5;
+    }
+    return Math.round(itemScore * SCORE_SCALE);
+  }
+
+  /**
+   * Returns the contribution currently stored on a storage item.
+   *
+   * @param item the storage item
+   * @return the stored contribution
+   */
+  public static ItemScore stored(StorageItem item) {
+    return new ItemScore(item.getPreparednessScore(), item.isAdequate(), item.isExpiringSoon());
+  }
+
+  /**
+   * Stores a contribution on a storage item.
+   *
+   * @param item  the storage item
+   * @param score the contribution to store
+   */
+  public static void store(StorageItem item, ItemScore score) {
+    item.setPreparednessScore(score.getScore())
+        .setAdequate(score.isAdequate())
+        .setExpiringSoon(score.isExpiring());
+  }
+
+  /**
+   * Checks if a date is after today and within {@value #EXPIRING_DAYS_THRESHOLD} days from now.
+   *
+   * @param expirationDate the expiration date to check, may be null
+   * @return true if the date is within the threshold, false otherwise
+   */
+  public static boolean isExpiringSoon(Date expirationDate) {
+    if (expirationDate == null) {
+      return false;
+    }
+
+    LocalDate expiration = expirationDate.toInstant()
+        .atZone(ZoneId.systemDefault())
+        .toLocalDate();
+    LocalDate today = LocalDate.now();
+    LocalDate threshold = today.plusDays(EXPIRING_DAYS_THRESHOLD);
+
+    return expiration.isBefore(threshold) && expiration.isAfter(today);
+  }
+
+  /**
+   * The contribution of a single storage item to the preparedness of its household.
+   */
+  @Getter
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  public static class ItemScore {
+
+    /**
+     * The score of the item, in thousandths of a point.
+     */
+    private final long score;
+
+    /**
+     * Whether the item is adequately stocked. Items that are not are low on stock.
+     */
+    private final boolean adequate;
+
+    /**
+     * Whether the item is expiring soon.
+     */
+    private final boolean expiring;
+  }
+}
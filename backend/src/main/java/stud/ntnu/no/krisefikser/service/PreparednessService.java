@@ -4,60 +4,147 @@ import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import stud.ntnu.no.krisefikser.config.SecurityUtil;
+import stud.ntnu.no.krisefikser.dtos.household.HouseholdMemberCount;
 import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessSummary;
 import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.HouseholdPreparedness;
 import stud.ntnu.no.krisefikser.entities.StorageItem;
 import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
 import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
 import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
-import stud.ntnu.no.krisefikser.util.DateUtil;
+import stud.ntnu.no.krisefikser.service.PreparednessScoring.ItemScore;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
 
 /**
  * Service for calculating household preparedness scores and summaries.
+ * <p>
+ * The summary of each household is materialized in a single row. Stock changes and expiry
+ * transitions update it with the difference of the changed item, while changes to the
+ * household size recalculate it from scratch, since they change every item's recommended
+ * amount.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class PreparednessService {
 
   private static final Logger logger = LogManager.getLogger(PreparednessService.class);
+
+  /**
+   * Minimum number of storage items for a batch to be scored in parallel. Smaller batches
+   * are scored faster on the calling thread.
+   */
+  private static final int PARALLEL_SCORING_THRESHOLD = 10_000;
+
   private final HouseholdRepository householdRepository;
   private final StorageItemRepository storageItemRepository;
-  private static final int EXPIRING_DAYS_THRESHOLD = 30; // Items expiring within 30 days
+  private final HouseholdPreparednessRepository preparednessRepository;
+  private final SecurityUtil securityUtil;
 
 
   /**
-   * Calculates a detailed preparedness summary for a specific household.
-   * <p>
-   * This method computes various preparedness metrics based on the household's inventory:
-   * <ul>
-   *   <li>Overall preparedness score (0-100) calculated as the average of individual item scores</li>
-   *   <li>Item adequacy based on comparison to recommended amounts per person</li>
-   *   <li>Expiring items identification using the configured threshold period</li>
-   * </ul>
-   * </p>
+   * Returns the preparedness summary for a specific household.
    * <p>
-   * The scoring algorithm works as follows:
-   * <ul>
-   *   <li>Items below 10% of the recommended amount score 0 points and are counted as low stock</li>
-   *   <li>Items at or above 90% of the recommended amount score 100 points and are counted as adequate</li>
-   *   <li>Items between 10% and 90% score proportionally on a linear scale and are counted as low stock</li>
-   * </ul>
+   * The summary is read from the materialized row of the household. If it has not been
+   * calculated yet, it is calculated from the household's inventory first. See
+   * {@link PreparednessScoring#score} for how each item is scored. The overall score
+   * (0-1) is the average of the item scores.
    * </p>
    *
    * @param householdId the ID of the household to analyze
    * @return a PreparednessSummary object containing calculated preparedness metrics
    * @throws AppEntityNotFoundException if the household with the given ID doesn't exist
    */
+  @Transactional
   public PreparednessSummary calculateHouseholdPreparednessSummary(Long householdId) {
-    logger.info("Calculating preparedness summary for household ID: {}", householdId);
+    logger.info("Fetching preparedness summary for household ID: {}", householdId);
+
+    HouseholdPreparedness preparedness = preparednessRepository.findWithHouseholdByHouseholdId(householdId)
+        .orElseGet(() -> {
+          logger.info("Preparedness of household ID {} not calculated yet", householdId);
+          return recalculateHouseholdPreparedness(householdId);
+        });
 
+    PreparednessSummary summary = toSummary(preparedness, preparedness.getHousehold().getName());
+    logger.info("Preparedness summary for household ID {}: Score={}, AdequateItems={}, LowStockItems={}, ExpiringItems={}",
+        householdId, summary.getOverallScore(), summary.getAdequateItems(), summary.getLowStockItems(),
+        summary.getExpiringItems());
+    return summary;
+  }
+
+  /**
+   * Returns the preparedness summary of the current user's household.
+   *
+   * @return the summary of the household
+   * @throws AppEntityNotFoundException if the current user does not belong to a household
+   */
+  @Transactional
+  public PreparednessSummary calculateMyHouseholdPreparednessSummary() {
+    Long householdId = securityUtil.getCurrentPrincipal().getHouseholdId();
+    if (householdId == null) {
+      throw new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_IN_HOUSEHOLD);
+    }
+    return calculateHouseholdPreparednessSummary(householdId);
+  }
+
+  /**
+   * Returns the preparedness summaries of several households at once.
+   * <p>
+   * The materialized summaries are read in one query. Households whose summary has not been
+   * calculated yet are scored together: their member counts and their storage items are read
+   * in one query each, and the items are scored from primitive arrays, in parallel for large
+   * batches. Households that do not exist are left out of the result.
+   * </p>
+   *
+   * @param householdIds the IDs of the households
+   * @return the summaries, keyed by household ID in ascending order
+   */
+  @Transactional
+  public Map<Long, PreparednessSummary> calculateHouseholdPreparednessSummaries(Collection<Long> householdIds) {
+    Map<Long, PreparednessSummary> summaries = new TreeMap<>();
+    if (householdIds.isEmpty()) {
+      return summaries;
+    }
+
+    TreeSet<Long> missingIds = new TreeSet<>(householdIds);
+    for (HouseholdPreparedness preparedness : preparednessRepository.findWithHouseholdByHouseholdIdIn(missingIds)) {
+      summaries.put(preparedness.getHouseholdId(), toSummary(preparedness, preparedness.getHousehold().getName()));
+      missingIds.remove(preparedness.getHouseholdId());
+    }
+
+    if (!missingIds.isEmpty()) {
+      summaries.putAll(recalculateHouseholdPreparednessBatch(missingIds));
+    }
+    logger.info("Fetched preparedness summaries for {} of {} households, {} calculated now",
+        summaries.size(), householdIds.size(), missingIds.size());
+    return summaries;
+  }
+
+  /**
+   * Calculates the preparedness of a household from scratch and stores it, together with
+   * the contribution of each storage item.
+   *
+   * @param householdId the ID of the household
+   * @return the stored summary
+   * @throws AppEntityNotFoundException if the household with the given ID doesn't exist
+   */
+  @Transactional
+  public HouseholdPreparedness recalculateHouseholdPreparedness(Long householdId) {
     Household household = householdRepository.findById(householdId)
         .orElseThrow(() -> {
           logger.error("Household not found with ID: {}", householdId);
@@ -65,79 +152,204 @@ public class PreparednessService {
         });
 
     List<StorageItem> allStorageItems = storageItemRepository.findByHouseholdId(householdId);
-    logger.info("Found {} storage items for household ID: {}", allStorageItems.size(), householdId);
-
     int householdSize = household.getUsers().size();
-    logger.info("Household size: {}", householdSize);
+    logger.info("Recalculating preparedness for {} storage items and household size {} in household ID: {}",
+        allStorageItems.size(), householdSize, householdId);
 
-    int adequateItems = 0;
-    int lowStockItems = 0;
-    int expiringItems = 0;
-    double totalScore = 0;
+    HouseholdPreparedness preparedness = preparednessRepository.findById(householdId)
+        .orElseGet(() -> new HouseholdPreparedness().setHouseholdId(householdId).setHousehold(household));
+    reset(preparedness, householdSize, allStorageItems.size());
 
     for (StorageItem item : allStorageItems) {
-      double currentStock = item.getCurrentStock();
-      double recommendedAmount = item.getItemDefinition().getRecommendedAmountPerPerson() * householdSize;
-      double p = currentStock / recommendedAmount;
-
-      double itemScore;
-      if (p < 0.1) {
-        itemScore = 0;
-        lowStockItems++;
-      } else if (p >= 0.9) {
-        itemScore = 100;
-        adequateItems++;
+      ItemScore score = PreparednessScoring.score(item, householdSize);
+      PreparednessScoring.store(item, score);
+      preparedness.setTotalScore(preparedness.getTotalScore() + score.getScore());
+      if (score.isAdequate()) {
+        preparedness.setAdequateItems(preparedness.getAdequateItems() + 1);
       } else {
-        itemScore = 100 * (p - 0.1) / 0.8;
-        lowStockItems++;
+        preparedness.setLowStockItems(preparedness.getLowStockItems() + 1);
       }
-
-      Date lastUpdated = item.getLastRestockedAt();
-      int shelfLifeDays = item.getItemDefinition().getShelfLifeDays();
-
-      if (isExpiringSoon(DateUtil.addDaysToDate(lastUpdated, shelfLifeDays))) {
-        expiringItems++;
-        itemScore *= 0.5; // Correct placement: before totalScore accumulation
+      if (score.isExpiring()) {
+        preparedness.setExpiringItems(preparedness.getExpiringItems() + 1);
       }
+    }
 
-      totalScore += itemScore;
+    preparednessRepository.save(preparedness);
+    return preparedness;
+  }
+
+  /**
+   * Calculates the preparedness of several households from scratch and stores it, together
+   * with the contribution of each storage item. See {@link #recalculateHouseholdPreparedness(Long)}.
+   *
+   * @param householdIds the IDs of the households
+   * @return the summaries of the households that exist, keyed by household ID
+   */
+  private Map<Long, PreparednessSummary> recalculateHouseholdPreparednessBatch(Collection<Long> householdIds) {
+    List<HouseholdMemberCount> households = householdRepository.findMemberCountsByIdIn(householdIds);
+    if (households.isEmpty()) {
+      return Map.of();
+    }
+    Map<Long, List<StorageItem>> itemsByHousehold = new LinkedHashMap<>();
+    households.forEach(household -> itemsByHousehold.put(household.getId(), new ArrayList<>()));
+    for (StorageItem item : storageItemRepository.findWithItemDefinitionByHouseholdIdIn(itemsByHousehold.keySet())) {
+      itemsByHousehold.get(item.getHousehold().getId()).add(item);
     }
 
-    double overallScore = allStorageItems.isEmpty() ? 0 : (totalScore / allStorageItems.size()) / 100.0;
+    // Lay out the items of each household next to each other, so each household is one range
+    int householdCount = households.size();
+    int itemCount = itemsByHousehold.values().stream().mapToInt(List::size).sum();
+    int[] offsets = new int[householdCount + 1];
+    int[] householdSizes = new int[householdCount];
+    double[] currentStock = new double[itemCount];
+    double[] recommendedPerPerson = new double[itemCount];
+    boolean[] expiring = new boolean[itemCount];
+    List<StorageItem> items = new ArrayList<>(itemCount);
+    for (int h = 0; h < householdCount; h++) {
+      HouseholdMemberCount household = households.get(h);
+      householdSizes[h] = household.getMemberCount();
+      offsets[h] = items.size();
+      for (StorageItem item : itemsByHousehold.get(household.getId())) {
+        int i = items.size();
+        currentStock[i] = item.getCurrentStock();
+        recommendedPerPerson[i] = item.getItemDefinition().getRecommendedAmountPerPerson();
+        expiring[i] = PreparednessScoring.isExpiringSoon(item.getExpiresAt());
+        items.add(item);
+      }
+    }
+    offsets[householdCount] = itemCount;
 
+    long[] scores = new long[itemCount];
+    boolean[] adequate = new boolean[itemCount];
+    IntStream householdIndexes = IntStream.range(0, householdCount);
+    if (itemCount >= PARALLEL_SCORING_THRESHOLD) {
+      householdIndexes = householdIndexes.parallel();
+    }
+    householdIndexes.forEach(h -> PreparednessScoring.scoreItems(currentStock, recommendedPerPerson, expiring,
+        offsets[h], offsets[h + 1], householdSizes[h], scores, adequate));
 
-    PreparednessSummary summary = new PreparednessSummary();
-    summary.setHouseholdId(householdId);
-    summary.setHouseholdName(household.getName());
-    summary.setOverallScore(overallScore);
-    summary.setTotalItems(allStorageItems.size());
-    summary.setAdequateItems(adequateItems);
-    summary.setLowStockItems(lowStockItems);
-    summary.setExpiringItems(expiringItems);
+    Map<Long, HouseholdPreparedness> existing = new HashMap<>();
+    preparednessRepository.findAllById(itemsByHousehold.keySet())
+        .forEach(preparedness -> existing.put(preparedness.getHouseholdId(), preparedness));
+    Map<Long, PreparednessSummary> summaries = new TreeMap<>();
+    List<HouseholdPreparedness> preparednessList = new ArrayList<>(householdCount);
+    for (int h = 0; h < householdCount; h++) {
+      HouseholdMemberCount household = households.get(h);
+      HouseholdPreparedness preparedness = existing.computeIfAbsent(household.getId(), id -> new HouseholdPreparedness()
+          .setHouseholdId(id)
+          .setHousehold(householdRepository.getReferenceById(id)));
+      reset(preparedness, householdSizes[h], offsets[h + 1] - offsets[h]);
+      for (int i = offsets[h]; i < offsets[h + 1]; i++) {
+        PreparednessScoring.store(items.get(i), new ItemScore(scores[i], adequate[i], expiring[i]));
+        preparedness.setTotalScore(preparedness.getTotalScore() + scores[i]);
+        if (adequate[i]) {
+          preparedness.setAdequateItems(preparedness.getAdequateItems() + 1);
+        } else {
+          preparedness.setLowStockItems(preparedness.getLowStockItems() + 1);
+        }
+        if (expiring[i]) {
+          preparedness.setExpiringItems(preparedness.getExpiringItems() + 1);
+        }
+      }
+      preparednessList.add(preparedness);
+      summaries.put(household.getId(), toSummary(preparedness, household.getName()));
+    }
 
-    logger.info("Preparedness summary calculated for household ID {}: Score={}, AdequateItems={}, LowStockItems={}, ExpiringItems={}",
-        householdId, summary.getOverallScore(), adequateItems, lowStockItems, expiringItems);
+    preparednessRepository.saveAll(preparednessList);
+    logger.info("Recalculated preparedness for {} storage items in {} households", itemCount, householdCount);
+    return summaries;
+  }
 
-    return summary;
+  /**
+   * Clears the totals of a summary before it is recalculated. Existing summaries are reused,
+   * so they are updated rather than inserted again.
+   */
+  private static void reset(HouseholdPreparedness preparedness, int householdSize, int totalItems) {
+    preparedness.setHouseholdSize(householdSize)
+        .setTotalItems(totalItems)
+        .setTotalScore(0)
+        .setAdequateItems(0)
+        .setLowStockItems(0)
+        .setExpiringItems(0);
   }
 
+  /**
+   * Updates the summary of an item's household with the change of the item's score.
+   *
+   * @param item the storage item that has changed
+   * @see #updateItemScores(Collection)
+   */
+  @Transactional
+  public void updateItemScore(StorageItem item) {
+    updateItemScores(List.of(item));
+  }
 
   /**
-   * Checks if a date is within the expiring threshold (30 days from now).
+   * Updates the summaries of the items' households with the changes of the items' scores.
+   * <p>
+   * The changes are summed per household, and each summary is updated with a single
+   * statement. Households whose summary has not been calculated yet are left alone, since
+   * the first read calculates them from scratch.
+   * </p>
    *
-   * @param expirationDate the expiration date to check
-   * @return true if the date is within the threshold, false otherwise
+   * @param items the storage items that have changed
    */
-  private boolean isExpiringSoon(Date expirationDate) {
-    if (expirationDate == null) {
-      return false;
-    }
+  @Transactional
+  public void updateItemScores(Collection<StorageItem> items) {
+    Map<Long, List<StorageItem>> itemsByHousehold = new LinkedHashMap<>();
+    items.forEach(item -> itemsByHousehold
+        .computeIfAbsent(item.getHousehold().getId(), id -> new ArrayList<>()).add(item));
+
+    itemsByHousehold.forEach((householdId, householdItems) -> {
+      Optional<Integer> householdSize = preparednessRepository.findHouseholdSizeByHouseholdId(householdId);
+      if (householdSize.isEmpty()) {
+        return;
+      }
+
+      long scoreDelta = 0;
+      int adequateDelta = 0;
+      int expiringDelta = 0;
+      boolean changed = false;
+      for (StorageItem item : householdItems) {
+        ItemScore previous = PreparednessScoring.stored(item);
+        ItemScore current = PreparednessScoring.score(item, householdSize.get());
+        if (current.equals(previous)) {
+          continue;
+        }
+        scoreDelta += current.getScore() - previous.getScore();
+        adequateDelta += (current.isAdequate() ? 1 : 0) - (previous.isAdequate() ? 1 : 0);
+        expiringDelta += (current.isExpiring() ? 1 : 0) - (previous.isExpiring() ? 1 : 0);
+        PreparednessScoring.store(item, current);
+        changed = true;
+      }
 
-    LocalDate expiration = expirationDate.toInstant()
-        .atZone(ZoneId.systemDefault())
-        .toLocalDate();
-    LocalDate threshold = LocalDate.now().plusDays(EXPIRING_DAYS_THRESHOLD);
+      if (changed) {
+        preparednessRepository.applyDelta(householdId, scoreDelta, adequateDelta, -adequateDelta, expiringDelta);
+        logger.info("Updated preparedness of household ID {} for {} storage items", householdId, householdItems.size());
+      }
+    });
+  }
 
-    return expiration.isBefore(threshold) && expiration.isAfter(LocalDate.now());
+  /**
+   * Maps a materialized summary to the response DTO.
+   *
+   * @param preparedness  the materialized summary
+   * @param householdName the name of the household
+   * @return the summary DTO
+   */
+  private PreparednessSummary toSummary(HouseholdPreparedness preparedness, String householdName) {
+    int totalItems = preparedness.getTotalItems();
+    double overallScore = totalItems == 0 ? 0
+        : ((double) preparedness.getTotalScore() / PreparednessScoring.SCORE_SCALE / totalItems) / 100.0;
+
+    PreparednessSummary summary = new PreparednessSummary();
+    summary.setHouseholdId(preparedness.getHouseholdId());
+    summary.setHouseholdName(householdName);
+    summary.setOverallScore(overallScore);
+    summary.setTotalItems(totalItems);
+    summary.setAdequateItems(preparedness.getAdequateItems());
+    summary.setLowStockItems(preparedness.getLowStockItems());
+    summary.setExpiringItems(preparedness.getExpiringItems());
+    return summary;
   }
-}
\ No newline at end of file
+}
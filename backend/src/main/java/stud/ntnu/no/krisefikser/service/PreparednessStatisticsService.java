@@ -0,0 +1,209 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessAggregateRow;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessGroupStatistics;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessGrouping;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessStatisticsResponse;
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+/**
+ * Service for the national preparedness statistics shown to administrators.
+ * <p>
+ * The statistics are calculated in the database from the materialized household summaries
+ * and the scores stored on each storage item, never by scoring households one by one. The
+ * household ID space is split into ranges that are summed with GROUP BY queries in parallel,
+ * each in its own read-only transaction, and the partial sums are added together here.
+ * </p>
+ * <p>
+ * The result of each grouping is cached for a short time, so repeated requests from the
+ * admin dashboard do not scan all households again. Concurrent requests for the same
+ * grouping wait for a single calculation.
+ * </p>
+ */
+@Service
+public class PreparednessStatisticsService {
+
+  private static final Logger logger = LogManager.getLogger(PreparednessStatisticsService.class);
+
+  private static final int DECILES = 10;
+
+  private final HouseholdRepository householdRepository;
+  private final HouseholdPreparednessRepository preparednessRepository;
+  private final StorageItemRepository storageItemRepository;
+  private final ThreadPoolTaskExecutor executor;
+  private final TransactionTemplate transactionTemplate;
+  private final int parallelism;
+  private final Cache<PreparednessGrouping, PreparednessStatisticsResponse> cache;
+
+  /**
+   * Constructor for PreparednessStatisticsService.
+   *
+   * @param householdRepository    the household repository
+   * @param preparednessRepository the household preparedness repository
+   * @param storageItemRepository  the storage item repository
+   * @param executor               the executor scanning the household ranges
+   * @param transactionManager     the transaction manager
+   * @param parallelism            the number of household ranges scanned in parallel
+   * @param cacheTtlSeconds        the number of seconds the statistics are cached
+   */
+  public PreparednessStatisticsService(HouseholdRepository householdRepository,
+                                       HouseholdPreparednessRepository preparednessRepository,
+                                       StorageItemRepository storageItemRepository,
+                                       @Qualifier("preparednessStatisticsExecutor") ThreadPoolTaskExecutor executor,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${admin.preparedness-statistics.parallelism:4}") int parallelism,
+                                       @Value("${admin.preparedness-statistics.cache-ttl-seconds:60}") long cacheTtlSeconds) {
+    this.householdRepository = householdRepository;
+    this.preparednessRepository = preparednessRepository;
+    this.storageItemRepository = storageItemRepository;
+    this.executor = executor;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.parallelism = Math.max(1, parallelism);
+    this.cache = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+        .build();
+  }
+
+  /**
+   * Returns the preparedness statistics of all households, grouped by city, postal code or
+   * item category. Households whose preparedness has not been calculated yet are left out
+   * of the city and postal code statistics.
+   *
+   * @param grouping how to group the households
+   * @return the statistics, calculated at most the cache TTL ago
+   */
+  public PreparednessStatisticsResponse getStatistics(PreparednessGrouping grouping) {
+    return cache.get(grouping, this::calculate);
+  }
+
+  /**
+   * Removes all cached statistics, so the next request calculates them again.
+   */
+  void clearCache() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Calculates the statistics of a grouping by summing the household ranges in parallel.
+   *
+   * @param grouping how to group the households
+   * @return the statistics
+   */
+  private PreparednessStatisticsResponse calculate(PreparednessGrouping grouping) {
+    long start = System.nanoTime();
+    Optional<Long> minId = householdRepository.findMinId();
+    Optional<Long> maxId = householdRepository.findMaxId();
+    if (minId.isEmpty() || maxId.isEmpty()) {
+      return new PreparednessStatisticsResponse(grouping, new Date(), List.of());
+    }
+
+    long first = minId.get();
+    long last = maxId.get();
+    long rangeSize = Math.max(1, (last - first + parallelism) / parallelism);
+    List<CompletableFuture<List<PreparednessAggregateRow>>> ranges = new ArrayList<>();
+    for (long after = first - 1; after < last; after += rangeSize) {
+      long rangeAfter = after;
+      long rangeLast = Math.min(after + rangeSize, last);
+      ranges.add(CompletableFuture.supplyAsync(
+          () -> transactionTemplate.execute(status -> aggregate(grouping, rangeAfter, rangeLast)), executor));
+    }
+
+    Map<String, Totals> totalsByGroup = new HashMap<>();
+    try {
+      for (CompletableFuture<List<PreparednessAggregateRow>> range : ranges) {
+        for (PreparednessAggregateRow row : range.join()) {
+          totalsByGroup.computeIfAbsent(row.getGroup(), group -> new Totals()).add(row);
+        }
+      }
+    } catch (CompletionException e) {
+      ranges.forEach(range -> range.cancel(false));
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+
+    List<PreparednessGroupStatistics> groups = totalsByGroup.entrySet().stream()
+        .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+        .sorted(Comparator.comparing(PreparednessGroupStatistics::getGroup,
+            Comparator.nullsLast(Comparator.naturalOrder())))
+        .toList();
+    logger.info("Calculated preparedness statistics by {} for {} groups from {} household ranges in {} ms",
+        grouping, groups.size(), ranges.size(), (System.nanoTime() - start) / 1_000_000);
+    return new PreparednessStatisticsResponse(grouping, new Date(), groups);
+  }
+
+  /**
+   * Sums the preparedness of the households within an ID range.
+   *
+   * @param grouping         how to group the households
+   * @param afterHouseholdId the start of the household ID range, exclusive
+   * @param lastHouseholdId  the end of the household ID range, inclusive
+   * @return the partial sums per group and score decile
+   */
+  private List<PreparednessAggregateRow> aggregate(PreparednessGrouping grouping, long afterHouseholdId,
+                                                   long lastHouseholdId) {
+    return switch (grouping) {
+      case CITY -> preparednessRepository.aggregateByCity(afterHouseholdId, lastHouseholdId);
+      case POSTAL_CODE -> preparednessRepository.aggregateByPostalCode(afterHouseholdId, lastHouseholdId);
+      case CATEGORY -> storageItemRepository.aggregateByCategory(afterHouseholdId, lastHouseholdId);
+    };
+  }
+
+  /**
+   * The sums of one group over all household ranges.
+   */
+  private static class Totals {
+    private long count;
+    private double scoreSum;
+    private long totalItems;
+    private long lowStockItems;
+    private long expiringItems;
+    private final long[] distribution = new long[DECILES];
+
+    private void add(PreparednessAggregateRow row) {
+      count += row.getCount();
+      scoreSum += row.getScoreSum();
+      totalItems += row.getTotalItems();
+      lowStockItems += row.getLowStockItems();
+      expiringItems += row.getExpiringItems();
+      distribution[row.getDecile()] += row.getCount();
+    }
+
+    private PreparednessGroupStatistics toStatistics(String group) {
+      return new PreparednessGroupStatistics(
+          group,
+          count,
+          count == 0 ? 0 : scoreSum / count,
+          totalItems == 0 ? 0 : (double) lowStockItems / totalItems,
+          totalItems == 0 ? 0 : (double) expiringItems / totalItems,
+          Arrays.stream(distribution).boxed().toList());
+    }
+  }
+}
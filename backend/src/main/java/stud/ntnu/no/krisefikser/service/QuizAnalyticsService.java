@@ -0,0 +1,265 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerOptionDto;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerOptionStatisticsDto;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionDto;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionStatisticsDto;
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOptionStatistics;
+import stud.ntnu.no.krisefikser.entities.QuizQuestionStatistics;
+import stud.ntnu.no.krisefikser.repository.QuizAnswerOptionStatisticsRepository;
+import stud.ntnu.no.krisefikser.repository.QuizQuestionStatisticsRepository;
+
+/**
+ * Service for the per-question and per-option quiz analytics shown to administrators.
+ * <p>
+ * Starting a quiz and answering a question only increment {@link LongAdder} counters in
+ * memory, which spread concurrent increments over several cells instead of contending on
+ * one. The counts are added to the statistics tables in one transaction every flush
+ * interval, and on shutdown. Counts that fail to flush are kept for the next flush.
+ * </p>
+ * <p>
+ * The analytics are read from the statistics tables, plus the counts that have not been
+ * flushed yet, and never from the attempt answers.
+ * </p>
+ */
+@Service
+public class QuizAnalyticsService {
+
+  private static final Logger logger = LogManager.getLogger(QuizAnalyticsService.class);
+
+  private final QuizQuestionStatisticsRepository questionStatisticsRepository;
+  private final QuizAnswerOptionStatisticsRepository optionStatisticsRepository;
+  private final QuizQuestionBank quizQuestionBank;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean flushEnabled;
+
+  private final Map<Long, QuestionCounters> questionCounters = new ConcurrentHashMap<>();
+  private final Map<Long, OptionCounter> optionCounters = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for QuizAnalyticsService.
+   *
+   * @param questionStatisticsRepository the quiz question statistics repository
+   * @param optionStatisticsRepository   the answer option statistics repository
+   * @param quizQuestionBank             the quiz question bank
+   * @param transactionManager           the transaction manager
+   * @param flushEnabled                 whether the counters should be flushed in the background
+   */
+  public QuizAnalyticsService(QuizQuestionStatisticsRepository questionStatisticsRepository,
+                              QuizAnswerOptionStatisticsRepository optionStatisticsRepository,
+                              QuizQuestionBank quizQuestionBank,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${quiz.analytics.flush-enabled:true}") boolean flushEnabled) {
+    this.questionStatisticsRepository = questionStatisticsRepository;
+    this.optionStatisticsRepository = optionStatisticsRepository;
+    this.quizQuestionBank = quizQuestionBank;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.flushEnabled = flushEnabled;
+  }
+
+  /**
+   * Counts that questions have been drawn for a quiz attempt.
+   *
+   * @param questionIds the IDs of the drawn questions
+   */
+  public void recordShown(Collection<Long> questionIds) {
+    for (Long questionId : questionIds) {
+      countersOf(questionId).shown.increment();
+    }
+  }
+
+  /**
+   * Counts an answer to a question.
+   *
+   * @param questionId the ID of the question
+   * @param optionId   the ID of the chosen answer option
+   * @param correct    whether the answer was correct
+   */
+  public void recordAnswer(Long questionId, Long optionId, boolean correct) {
+    QuestionCounters counters = countersOf(questionId);
+    counters.answered.increment();
+    if (correct) {
+      counters.correct.increment();
+    }
+    optionCounters.computeIfAbsent(optionId, id -> new OptionCounter(questionId)).answered.increment();
+  }
+
+  /**
+   * Flushes the counters every flush interval, unless background flushing is disabled.
+   */
+  @Scheduled(fixedDelayString = "${quiz.analytics.flush-interval-ms:10000}")
+  public void scheduledFlush() {
+    if (flushEnabled) {
+      flush();
+    }
+  }
+
+  /**
+   * Flushes the remaining counts when the application shuts down.
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  /**
+   * Adds the counts accumulated since the last flush to the statistics tables, in one
+   * transaction.
+   * <p>
+   * The flushed counts are subtracted from the counters rather than resetting them, so
+   * increments made during the flush are kept for the next one. If the flush fails, the
+   * counts are added back.
+   * </p>
+   *
+   * @return the number of updated statistics rows
+   */
+  public synchronized int flush() {
+    Map<Long, long[]> questionDeltas = new HashMap<>();
+    questionCounters.forEach((questionId, counters) -> {
+      long[] delta = {take(counters.shown), take(counters.answered), take(counters.correct)};
+      if (delta[0] != 0 || delta[1] != 0 || delta[2] != 0) {
+        questionDeltas.put(questionId, delta);
+      }
+    });
+    Map<Long, Long> optionDeltas = new HashMap<>();
+    optionCounters.forEach((optionId, counter) -> {
+      long delta = take(counter.answered);
+      if (delta != 0) {
+        optionDeltas.put(optionId, delta);
+      }
+    });
+    if (questionDeltas.isEmpty() && optionDeltas.isEmpty()) {
+      return 0;
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        questionDeltas.forEach((questionId, delta) ->
+            questionStatisticsRepository.add(questionId, delta[0], delta[1], delta[2]));
+        optionDeltas.forEach((optionId, delta) ->
+            optionStatisticsRepository.add(optionId, optionCounters.get(optionId).questionId, delta));
+      });
+    } catch (RuntimeException e) {
+      logger.error("Failed to flush quiz analytics, keeping the counts for the next flush", e);
+      questionDeltas.forEach((questionId, delta) -> {
+        QuestionCounters counters = countersOf(questionId);
+        counters.shown.add(delta[0]);
+        counters.answered.add(delta[1]);
+        counters.correct.add(delta[2]);
+      });
+      optionDeltas.forEach((optionId, delta) -> optionCounters.get(optionId).answered.add(delta));
+      return 0;
+    }
+
+    int rows = questionDeltas.size() + optionDeltas.size();
+    logger.debug("Flushed quiz analytics for {} questions and {} answer options",
+        questionDeltas.size(), optionDeltas.size());
+    return rows;
+  }
+
+  /**
+   * Retrieves the analytics of all current questions, hardest first. Questions without
+   * answers come last.
+   *
+   * @return the analytics of the questions
+   */
+  public List<QuizQuestionStatisticsDto> getStatistics() {
+    Map<Long, QuizQuestionStatistics> stored = questionStatisticsRepository.findAll().stream()
+        .collect(Collectors.toMap(QuizQuestionStatistics::getQuestionId, Function.identity()));
+    Map<Long, Long> storedOptions = optionStatisticsRepository.findAll().stream()
+        .collect(Collectors.toMap(QuizAnswerOptionStatistics::getOptionId,
+            QuizAnswerOptionStatistics::getAnswerCount));
+
+    List<QuizQuestionStatisticsDto> statistics = new ArrayList<>();
+    for (QuizQuestionDto question : quizQuestionBank.getQuestions()) {
+      QuizQuestionStatistics row = stored.get(question.getQuestionId());
+      QuestionCounters pending = questionCounters.get(question.getQuestionId());
+      long shown = (row != null ? row.getShownCount() : 0) + (pending != null ? pending.shown.sum() : 0);
+      long answered = (row != null ? row.getAnswerCount() : 0) + (pending != null ? pending.answered.sum() : 0);
+      long correct = (row != null ? row.getCorrectCount() : 0) + (pending != null ? pending.correct.sum() : 0);
+
+      Long correctOptionId = quizQuestionBank.getCorrectOptionId(question.getQuestionId());
+      List<QuizAnswerOptionStatisticsDto> options = new ArrayList<>(question.getOptions().size());
+      for (QuizAnswerOptionDto option : question.getOptions()) {
+        OptionCounter pendingOption = optionCounters.get(option.getId());
+        long chosen = storedOptions.getOrDefault(option.getId(), 0L)
+            + (pendingOption != null ? pendingOption.answered.sum() : 0);
+        options.add(new QuizAnswerOptionStatisticsDto(
+            option.getId(),
+            option.getText(),
+            option.getId().equals(correctOptionId),
+            chosen,
+            answered == 0 ? 0 : (double) chosen / answered));
+      }
+
+      statistics.add(new QuizQuestionStatisticsDto(
+          question.getQuestionId(),
+          question.getText(),
+          shown,
+          answered,
+          correct,
+          answered == 0 ? null : (double) correct / answered,
+          options));
+    }
+
+    statistics.sort(Comparator.comparing(QuizQuestionStatisticsDto::getCorrectRate,
+        Comparator.nullsLast(Comparator.naturalOrder())));
+    return statistics;
+  }
+
+  private QuestionCounters countersOf(Long questionId) {
+    return questionCounters.computeIfAbsent(questionId, id -> new QuestionCounters());
+  }
+
+  /**
+   * Subtracts the current count of a counter from it and returns the count.
+   */
+  private static long take(LongAdder adder) {
+    long count = adder.sum();
+    if (count != 0) {
+      adder.add(-count);
+    }
+    return count;
+  }
+
+  /**
+   * The counts of a question since the last flush.
+   */
+  private static final class QuestionCounters {
+    private final LongAdder shown = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder correct = new LongAdder();
+  }
+
+  /**
+   * The answers choosing an option since the last flush.
+   */
+  private static final class OptionCounter {
+    private final Long questionId;
+    private final LongAdder answered = new LongAdder();
+
+    private OptionCounter(Long questionId) {
+      this.questionId = questionId;
+    }
+  }
+}
@@ -0,0 +1,421 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.config.SecurityUtil;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptCompletion;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizLeaderboardEntryDto;
+import stud.ntnu.no.krisefikser.dtos.user.UserName;
+import stud.ntnu.no.krisefikser.entities.QuizLeaderboardEntry;
+import stud.ntnu.no.krisefikser.entities.QuizSessionStatus;
+import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.QuizLeaderboardRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+import stud.ntnu.no.krisefikser.util.RankedSet;
+
+/**
+ * Service for the global and household quiz leaderboards.
+ * <p>
+ * The standing of every user is kept in the {@code quiz_leaderboard} table and updated
+ * when one of the user's attempts is completed. The standings are also held in memory in a
+ * {@link RankedSet}, ordered by best score, then completed attempts and then best streak,
+ * so the top of the leaderboard and the rank of a user are read in O(log n) time. The
+ * in-memory standings are updated after the completing transaction commits, and reloaded
+ * from the table after a maximum age to pick up completions on other instances.
+ * </p>
+ * <p>
+ * Households have few members, so the household leaderboard sorts the in-memory standings
+ * of the members.
+ * </p>
+ */
+@Service
+public class QuizLeaderboardService {
+
+  private static final Logger logger = LogManager.getLogger(QuizLeaderboardService.class);
+
+  private static final int DEFAULT_LEADERBOARD_SIZE = 100;
+  private static final int MAX_LEADERBOARD_SIZE = 500;
+
+  /**
+   * The order of the leaderboard: best score, then completed attempts, then best streak,
+   * all descending. Ties are broken by user ID, so every standing has a distinct rank.
+   */
+  private static final Comparator<Standing> ORDER = Comparator
+      .comparingInt((Standing standing) -> -standing.bestScore)
+      .thenComparingInt(standing -> -standing.completedAttempts)
+      .thenComparingInt(standing -> -standing.bestStreak)
+      .thenComparingLong(standing -> standing.userId);
+
+  private final QuizLeaderboardRepository leaderboardRepository;
+  private final UserRepository userRepository;
+  private final SecurityUtil securityUtil;
+  private final long maxAgeMillis;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Map<Long, Standing> standings = new HashMap<>();
+  private RankedSet<Standing> ranking = new RankedSet<>(ORDER);
+  private Map<Long, Standing> appliedDuringLoad;
+  private volatile long loadedAt;
+  private volatile boolean loaded;
+
+  /**
+   * Constructor for QuizLeaderboardService.
+   *
+   * @param leaderboardRepository the quiz leaderboard repository
+   * @param userRepository        the user repository
+   * @param securityUtil          the security utility
+   * @param maxAgeMillis          the maximum age of the in-memory standings, in milliseconds
+   */
+  public QuizLeaderboardService(QuizLeaderboardRepository leaderboardRepository,
+                                UserRepository userRepository,
+                                SecurityUtil securityUtil,
+                                @Value("${quiz.leaderboard.max-age-ms:300000}") long maxAgeMillis) {
+    this.leaderboardRepository = leaderboardRepository;
+    this.userRepository = userRepository;
+    this.securityUtil = securityUtil;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /**
+   * Adds a completed attempt to the standing of its user.
+   * <p>
+   * Must be called in the transaction that completes the attempt. The entry of the user is
+   * locked while it is updated, and the in-memory standing is updated after the transaction
+   * commits.
+   * </p>
+   *
+   * @param completion the completed attempt
+   */
+  @Transactional
+  public void recordCompletedAttempt(QuizAttemptCompletion completion) {
+    leaderboardRepository.ensureEntry(completion.getUserId());
+    QuizLeaderboardEntry entry = leaderboardRepository.findByUserIdForUpdate(completion.getUserId())
+        .orElseThrow(() -> new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_FOUND));
+    addCompletion(entry, completion);
+
+    Standing standing = new Standing(entry);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          apply(standing);
+        }
+      });
+    } else {
+      apply(standing);
+    }
+  }
+
+  /**
+   * Creates the entries of users who completed quizzes before the leaderboards existed,
+   * by replaying their completed attempts in order.
+   *
+   * @return the number of created entries
+   */
+  @Transactional
+  public int backfillEntries() {
+    List<QuizAttemptCompletion> completions =
+        leaderboardRepository.findCompletionsWithoutEntry(QuizSessionStatus.COMPLETED);
+    Map<Long, QuizLeaderboardEntry> entries = new HashMap<>();
+    for (QuizAttemptCompletion completion : completions) {
+      QuizLeaderboardEntry entry = entries.computeIfAbsent(completion.getUserId(),
+          userId -> new QuizLeaderboardEntry().setUser(userRepository.getReferenceById(userId)));
+      addCompletion(entry, completion);
+    }
+    leaderboardRepository.saveAll(entries.values());
+    loaded = false;
+    return entries.size();
+  }
+
+  /**
+   * Retrieves the top of the global leaderboard.
+   *
+   * @param limit the maximum number of entries to return, or null for the top 100
+   * @return the entries, best first
+   */
+  @Transactional(readOnly = true)
+  public List<QuizLeaderboardEntryDto> getLeaderboard(Integer limit) {
+    int size = limit == null ? DEFAULT_LEADERBOARD_SIZE : Math.max(1, Math.min(limit, MAX_LEADERBOARD_SIZE));
+    ensureLoaded();
+
+    List<Standing> top;
+    lock.readLock().lock();
+    try {
+      top = ranking.head(size);
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    List<QuizLeaderboardEntryDto> entries = new ArrayList<>(top.size());
+    Map<Long, UserName> names = findNames(top);
+    for (int i = 0; i < top.size(); i++) {
+      entries.add(toDto(top.get(i), i + 1, names.get(top.get(i).userId)));
+    }
+    logger.info("Returning the top {} of the quiz leaderboard", entries.size());
+    return entries;
+  }
+
+  /**
+   * Retrieves the standing and global rank of the current user.
+   *
+   * @return the entry of the current user, with no rank if the user has not completed a quiz
+   */
+  @Transactional(readOnly = true)
+  public QuizLeaderboardEntryDto getMyStanding() {
+    AuthenticatedUser user = securityUtil.getCurrentPrincipal();
+    ensureLoaded();
+
+    Standing standing;
+    int rank;
+    lock.readLock().lock();
+    try {
+      standing = standings.get(user.getId());
+      rank = standing == null ? -1 : ranking.rank(standing);
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    UserName name = userRepository.findNamesByIdIn(List.of(user.getId())).stream()
+        .findFirst()
+        .orElseThrow(() -> new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_FOUND));
+    if (standing == null) {
+      return new QuizLeaderboardEntryDto(null, user.getId(), displayName(name), 0, 0, 0, 0);
+    }
+    return toDto(standing, rank + 1, name);
+  }
+
+  /**
+   * Retrieves the leaderboard of the current user's household, with the members who have
+   * completed a quiz.
+   *
+   * @return the entries, best first, ranked within the household
+   * @throws AppEntityNotFoundException if the current user is not in a household
+   */
+  @Transactional(readOnly = true)
+  public List<QuizLeaderboardEntryDto> getHouseholdLeaderboard() {
+    AuthenticatedUser user = securityUtil.getCurrentPrincipal();
+    if (user.getHouseholdId() == null) {
+      throw new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_IN_HOUSEHOLD);
+    }
+    List<Long> memberIds = userRepository.findIdsByHouseholdId(user.getHouseholdId());
+    ensureLoaded();
+
+    List<Standing> members = new ArrayList<>(memberIds.size());
+    lock.readLock().lock();
+    try {
+      memberIds.stream().map(standings::get).filter(Objects::nonNull).forEach(members::add);
+    } finally {
+      lock.readLock().unlock();
+    }
+    members.sort(ORDER);
+
+    List<QuizLeaderboardEntryDto> entries = new ArrayList<>(members.size());
+    Map<Long, UserName> names = findNames(members);
+    for (int i = 0; i < members.size(); i++) {
+      entries.add(toDto(members.get(i), i + 1, names.get(members.get(i).userId)));
+    }
+    return entries;
+  }
+
+  /**
+   * Forgets the in-memory standings, so the next read loads them from the table.
+   */
+  void invalidate() {
+    lock.writeLock().lock();
+    try {
+      standings = new HashMap<>();
+      ranking = new RankedSet<>(ORDER);
+      loaded = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a completed attempt to an entry. A streak continues when the previous completion
+   * was on the day before, and is unchanged by further completions on the same day.
+   *
+   * @param entry      the entry of the user
+   * @param completion the completed attempt
+   */
+  private void addCompletion(QuizLeaderboardEntry entry, QuizAttemptCompletion completion) {
+    LocalDate day = completion.getCompletedAt().toLocalDate();
+    LocalDate last = entry.getLastCompletedOn();
+    if (last == null || day.isAfter(last)) {
+      int streak = last != null && last.plusDays(1).equals(day) ? entry.getCurrentStreak() + 1 : 1;
+      entry.setCurrentStreak(streak)
+          .setBestStreak(Math.max(entry.getBestStreak(), streak))
+          .setLastCompletedOn(day);
+    }
+    entry.setCompletedAttempts(entry.getCompletedAttempts() + 1)
+        .setBestScore(Math.max(entry.getBestScore(), completion.getCorrectCount()));
+  }
+
+  /**
+   * Replaces the in-memory standing of a user.
+   *
+   * @param standing the new standing
+   */
+  private void apply(Standing standing) {
+    lock.writeLock().lock();
+    try {
+      Standing previous = standings.get(standing.userId);
+      if (previous != null && previous.completedAttempts >= standing.completedAttempts) {
+        return;
+      }
+      if (previous != null) {
+        ranking.remove(previous);
+      }
+      standings.put(standing.userId, standing);
+      ranking.add(standing);
+      if (appliedDuringLoad != null) {
+        appliedDuringLoad.put(standing.userId, standing);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Loads the standings from the table if they are missing or too old. The loaded standings
+   * replace the ones in memory, except for standings applied while the table was read, which
+   * are kept if they are newer than the loaded ones.
+   */
+  private void ensureLoaded() {
+    if (loaded && System.currentTimeMillis() - loadedAt < maxAgeMillis) {
+      return;
+    }
+    synchronized (this) {
+      if (loaded && System.currentTimeMillis() - loadedAt < maxAgeMillis) {
+        return;
+      }
+      long start = System.currentTimeMillis();
+      lock.writeLock().lock();
+      try {
+        appliedDuringLoad = new HashMap<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      Map<Long, Standing> loadedStandings = new HashMap<>();
+      try {
+        for (QuizLeaderboardEntry entry : leaderboardRepository.findAll()) {
+          loadedStandings.put(entry.getUserId(), new Standing(entry));
+        }
+
+        lock.writeLock().lock();
+        try {
+          // Only these standings can be newer than the table, older ones are replaced
+          appliedDuringLoad.forEach((userId, standing) -> loadedStandings.merge(userId, standing,
+              (fromTable, applied) -> applied.completedAttempts > fromTable.completedAttempts ? applied : fromTable));
+          RankedSet<Standing> loadedRanking = new RankedSet<>(ORDER);
+          loadedStandings.values().forEach(loadedRanking::add);
+          standings = loadedStandings;
+          ranking = loadedRanking;
+        } finally {
+          lock.writeLock().unlock();
+        }
+      } finally {
+        lock.writeLock().lock();
+        try {
+          appliedDuringLoad = null;
+        } finally {
+          lock.writeLock().unlock();
+        }
+      }
+      loadedAt = start;
+      loaded = true;
+      logger.info("Loaded {} quiz leaderboard standings", loadedStandings.size());
+    }
+  }
+
+  /**
+   * Finds the names of the users of some standings in one query.
+   *
+   * @param standings the standings
+   * @return the names by user ID
+   */
+  private Map<Long, UserName> findNames(List<Standing> standings) {
+    if (standings.isEmpty()) {
+      return Map.of();
+    }
+    return userRepository.findNamesByIdIn(standings.stream().map(standing -> standing.userId).toList())
+        .stream()
+        .collect(Collectors.toMap(UserName::getId, Function.identity()));
+  }
+
+  private QuizLeaderboardEntryDto toDto(Standing standing, Integer rank, UserName name) {
+    return new QuizLeaderboardEntryDto(
+        rank,
+        standing.userId,
+        displayName(name),
+        standing.bestScore,
+        standing.completedAttempts,
+        standing.currentStreak(LocalDate.now()),
+        standing.bestStreak);
+  }
+
+  /**
+   * Returns the name shown on the leaderboards: the first name and the initial of the last
+   * name.
+   */
+  private String displayName(UserName name) {
+    if (name == null) {
+      return null;
+    }
+    String lastName = name.getLastName();
+    if (lastName == null || lastName.isBlank()) {
+      return name.getFirstName();
+    }
+    return name.getFirstName() + " " + lastName.charAt(0) + ".";
+  }
+
+  /**
+   * An immutable copy of the standing of a user, as placed in the ranking.
+   */
+  private static final class Standing {
+    private final long userId;
+    private final int bestScore;
+    private final int completedAttempts;
+    private final int streak;
+    private final int bestStreak;
+    private final LocalDate lastCompletedOn;
+
+    private Standing(QuizLeaderboardEntry entry) {
+      this.userId = entry.getUserId() != null ? entry.getUserId() : entry.getUser().getId();
+      this.bestScore = entry.getBestScore();
+      this.completedAttempts = entry.getCompletedAttempts();
+      this.streak = entry.getCurrentStreak();
+      this.bestStreak = entry.getBestStreak();
+      this.lastCompletedOn = entry.getLastCompletedOn();
+    }
+
+    /**
+     * Returns the current streak, which is broken once a whole day has passed without a
+     * completed attempt.
+     */
+    private int currentStreak(LocalDate today) {
+      return lastCompletedOn != null && !lastCompletedOn.plusDays(1).isBefore(today) ? streak : 0;
+    }
+  }
+}
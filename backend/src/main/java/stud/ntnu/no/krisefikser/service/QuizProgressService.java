@@ -0,0 +1,416 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerOutcome;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionDto;
+import stud.ntnu.no.krisefikser.entities.QuizUserProgress;
+import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.QuizAttemptAnswerRepository;
+import stud.ntnu.no.krisefikser.repository.QuizUserProgressRepository;
+
+/**
+ * Service for the quiz progress of users and the adaptive selection of quiz questions.
+ * <p>
+ * The progress of a user is the sorted IDs of the questions the user has answered, and a
+ * bitset of the positions in that list whose last answer was correct. Its size follows the
+ * number of answered questions, however large the question IDs grow. It is updated with
+ * every answer, stored in one row per user and cached in memory, so selecting the questions
+ * of an adaptive quiz takes microseconds and never reads the answer history.
+ * </p>
+ * <p>
+ * A progress that outgrows {@link QuizUserProgress#MAX_PROGRESS_BYTES} forgets the
+ * questions the user knows, which are drawn as unseen questions again, and keeps the
+ * missed ones. If the missed questions alone do not fit either, the progress starts over.
+ * </p>
+ * <p>
+ * Adaptive quizzes draw questions by weighted random sampling without replacement, where
+ * questions the user got wrong last time weigh {@value #MISSED_WEIGHT}, questions the user
+ * has not answered weigh {@value #UNSEEN_WEIGHT} and known questions weigh
+ * {@value #KNOWN_WEIGHT}. Known questions are still drawn now and then, for repetition.
+ * </p>
+ */
+@Service
+public class QuizProgressService {
+
+  private static final Logger logger = LogManager.getLogger(QuizProgressService.class);
+
+  static final double MISSED_WEIGHT = 8;
+  static final double UNSEEN_WEIGHT = 4;
+  static final double KNOWN_WEIGHT = 1;
+
+  private final QuizUserProgressRepository progressRepository;
+  private final QuizAttemptAnswerRepository quizAttemptAnswerRepository;
+  private final QuizQuestionBank quizQuestionBank;
+  private final Cache<Long, Progress> cache;
+
+  /**
+   * Constructor for QuizProgressService.
+   *
+   * @param progressRepository          the quiz user progress repository
+   * @param quizAttemptAnswerRepository the quiz attempt answer repository
+   * @param quizQuestionBank            the quiz question bank
+   * @param cacheSize                   the maximum number of users whose progress is cached
+   * @param cacheTtlSeconds             the number of seconds a cached progress is kept
+   */
+  public QuizProgressService(QuizUserProgressRepository progressRepository,
+                             QuizAttemptAnswerRepository quizAttemptAnswerRepository,
+                             QuizQuestionBank quizQuestionBank,
+                             @Value("${quiz.progress.cache-size:10000}") long cacheSize,
+                             @Value("${quiz.progress.cache-ttl-seconds:600}") long cacheTtlSeconds) {
+    this.progressRepository = progressRepository;
+    this.quizAttemptAnswerRepository = quizAttemptAnswerRepository;
+    this.quizQuestionBank = quizQuestionBank;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+        .build();
+  }
+
+  /**
+   * Adds an answer to the progress of a user.
+   * <p>
+   * Must be called in the transaction that stores the answer. The progress row is locked
+   * while it is updated, and the cached progress is replaced after the transaction commits.
+   * The first answer of a user who answered questions before the progress was kept builds
+   * the progress from the stored answers, which already include this one.
+   * </p>
+   *
+   * @param userId     the ID of the user
+   * @param questionId the ID of the answered question
+   * @param correct    whether the answer was correct
+   */
+  @Transactional
+  public void recordAnswer(Long userId, Long questionId, boolean correct) {
+    progressRepository.ensureProgress(userId);
+    QuizUserProgress row = progressRepository.findByUserIdForUpdate(userId)
+        .orElseThrow(() -> new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_FOUND));
+
+    Progress previous = isStored(row) ? Progress.of(row) : fromHistory(userId);
+    Progress progress = fit(userId, previous.with(questionId, correct)).withVersion(row.getAnswerCount() + 1);
+    row.setAnsweredQuestionIds(progress.encodeAnswered())
+        .setCorrectPositions(progress.correct.toByteArray())
+        .setAnswerCount(progress.version)
+        .setBackfilled(true);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cacheIfNewer(userId, progress);
+        }
+      });
+    } else {
+      cacheIfNewer(userId, progress);
+    }
+  }
+
+  /**
+   * Selects the questions of an adaptive quiz, favouring questions the user got wrong last
+   * time and questions the user has not answered.
+   *
+   * @param userId the ID of the user
+   * @param count  the number of questions to select, at most the size of the question bank
+   * @return the selected questions, in random order
+   * @throws IllegalArgumentException if count is negative or larger than the question bank
+   */
+  @Transactional(readOnly = true)
+  public List<QuizQuestionDto> selectAdaptive(Long userId, int count) {
+    Progress progress = getProgress(userId);
+    List<QuizQuestionDto> questions = quizQuestionBank.getQuestions();
+    if (count < 0 || count > questions.size()) {
+      throw new IllegalArgumentException("Cannot draw " + count + " of " + questions.size() + " questions");
+    }
+
+    // Efraimidis-Spirakis: the count largest keys log(u)/w, the logarithm of u^(1/w), are a
+    // weighted sample without replacement
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    PriorityQueue<WeightedQuestion> largest = new PriorityQueue<>(count + 1);
+    for (QuizQuestionDto question : questions) {
+      double key = Math.log(1 - random.nextDouble()) / progress.weightOf(question.getQuestionId());
+      if (largest.size() < count) {
+        largest.add(new WeightedQuestion(key, question));
+      } else if (count > 0 && key > largest.peek().key) {
+        largest.poll();
+        largest.add(new WeightedQuestion(key, question));
+      }
+    }
+
+    List<QuizQuestionDto> selected = new ArrayList<>(count);
+    largest.forEach(weighted -> selected.add(weighted.question));
+    Collections.shuffle(selected, random);
+    return selected;
+  }
+
+  /**
+   * Returns the progress of a user, from the cache if possible.
+   *
+   * @param userId the ID of the user
+   * @return the progress of the user
+   */
+  Progress getProgress(Long userId) {
+    return cache.get(userId, this::loadProgress);
+  }
+
+  /**
+   * Removes all cached progress, so the next read loads it from the database.
+   */
+  void clearCache() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Loads the progress of a user from its row, or builds it from the stored answers if the
+   * user has not answered anything since the progress was kept.
+   *
+   * @param userId the ID of the user
+   * @return the progress of the user
+   */
+  private Progress loadProgress(Long userId) {
+    return progressRepository.findById(userId)
+        .filter(QuizProgressService::isStored)
+        .map(Progress::of)
+        .orElseGet(() -> fromHistory(userId));
+  }
+
+  /**
+   * Whether a progress row holds the complete progress of its user.
+   *
+   * @param row the progress row
+   * @return true if the row is backfilled and has its answered questions
+   */
+  private static boolean isStored(QuizUserProgress row) {
+    return row.isBackfilled() && row.getAnsweredQuestionIds() != null;
+  }
+
+  /**
+   * Builds the progress of a user from every answer the user has given.
+   *
+   * @param userId the ID of the user
+   * @return the progress of the user, with version 0
+   */
+  private Progress fromHistory(Long userId) {
+    // The last answer to each question wins
+    Map<Long, Boolean> lastOutcomes = new TreeMap<>();
+    List<QuizAnswerOutcome> outcomes = quizAttemptAnswerRepository.findAnswerOutcomesByUserId(userId);
+    for (QuizAnswerOutcome outcome : outcomes) {
+      lastOutcomes.put(outcome.getQuestionId(), outcome.isCorrect());
+    }
+
+    long[] answered = new long[lastOutcomes.size()];
+    BitSet correct = new BitSet(answered.length);
+    int position = 0;
+    for (Map.Entry<Long, Boolean> outcome : lastOutcomes.entrySet()) {
+      answered[position] = outcome.getKey();
+      correct.set(position++, outcome.getValue());
+    }
+    logger.info("Built quiz progress of user ID {} from {} answers", userId, outcomes.size());
+    return fit(userId, new Progress(answered, correct, 0));
+  }
+
+  /**
+   * Shrinks a progress until it fits in its row, first by forgetting the questions the user
+   * knows, and then by starting over.
+   *
+   * @param userId   the ID of the user
+   * @param progress the progress
+   * @return the progress, or a smaller one if it does not fit
+   */
+  private Progress fit(Long userId, Progress progress) {
+    if (progress.encodedSize() <= QuizUserProgress.MAX_PROGRESS_BYTES) {
+      return progress;
+    }
+    Progress missed = progress.withoutKnown();
+    if (missed.encodedSize() <= QuizUserProgress.MAX_PROGRESS_BYTES) {
+      logger.warn("Quiz progress of user ID {} is too large, forgetting {} known questions",
+          userId, progress.answered.length - missed.answered.length);
+      return missed;
+    }
+    logger.warn("Quiz progress of user ID {} is too large, starting over", userId);
+    return new Progress(new long[0], new BitSet(), progress.version);
+  }
+
+  /**
+   * Caches the progress of a user unless a newer one is already cached, since transactions
+   * of the same user can commit in a different order than they updated the row.
+   */
+  private void cacheIfNewer(Long userId, Progress progress) {
+    cache.asMap().merge(userId, progress, (cached, updated) -> updated.version >= cached.version ? updated : cached);
+  }
+
+  /**
+   * The questions a user has answered and answered correctly, at one version. The answered
+   * question IDs are sorted, and the correct answers are indexed by position in them. Neither
+   * is modified once the progress is shared.
+   */
+  static final class Progress {
+    private final long[] answered;
+    private final BitSet correct;
+    private final long version;
+
+    private Progress(long[] answered, BitSet correct, long version) {
+      this.answered = answered;
+      this.correct = correct;
+      this.version = version;
+    }
+
+    private static Progress of(QuizUserProgress row) {
+      return new Progress(
+          decodeAnswered(row.getAnsweredQuestionIds()),
+          BitSet.valueOf(row.getCorrectPositions() != null ? row.getCorrectPositions() : new byte[0]),
+          row.getAnswerCount());
+    }
+
+    /**
+     * Returns a copy with one more answer.
+     */
+    private Progress with(Long questionId, boolean correctAnswer) {
+      int position = Arrays.binarySearch(answered, questionId);
+      if (position >= 0) {
+        BitSet newCorrect = (BitSet) correct.clone();
+        newCorrect.set(position, correctAnswer);
+        return new Progress(answered, newCorrect, version);
+      }
+
+      int insertAt = -position - 1;
+      long[] newAnswered = new long[answered.length + 1];
+      System.arraycopy(answered, 0, newAnswered, 0, insertAt);
+      newAnswered[insertAt] = questionId;
+      System.arraycopy(answered, insertAt, newAnswered, insertAt + 1, answered.length - insertAt);
+      // The questions after the new one move up one position
+      BitSet newCorrect = correct.get(0, insertAt);
+      for (int i = correct.nextSetBit(insertAt); i >= 0; i = correct.nextSetBit(i + 1)) {
+        newCorrect.set(i + 1);
+      }
+      newCorrect.set(insertAt, correctAnswer);
+      return new Progress(newAnswered, newCorrect, version);
+    }
+
+    private Progress withVersion(long newVersion) {
+      return new Progress(answered, correct, newVersion);
+    }
+
+    /**
+     * Returns a copy without the questions whose last answer was correct.
+     */
+    private Progress withoutKnown() {
+      long[] missed = new long[answered.length - correct.cardinality()];
+      int count = 0;
+      for (int i = correct.nextClearBit(0); i < answered.length; i = correct.nextClearBit(i + 1)) {
+        missed[count++] = answered[i];
+      }
+      return new Progress(missed, new BitSet(), version);
+    }
+
+    boolean isAnswered(Long questionId) {
+      return Arrays.binarySearch(answered, questionId) >= 0;
+    }
+
+    boolean isCorrect(Long questionId) {
+      int position = Arrays.binarySearch(answered, questionId);
+      return position >= 0 && correct.get(position);
+    }
+
+    private double weightOf(Long questionId) {
+      int position = Arrays.binarySearch(answered, questionId);
+      if (position < 0) {
+        return UNSEEN_WEIGHT;
+      }
+      return correct.get(position) ? KNOWN_WEIGHT : MISSED_WEIGHT;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded answered questions.
+     */
+    int encodedSize() {
+      int size = 0;
+      long previous = 0;
+      for (long questionId : answered) {
+        long delta = questionId - previous;
+        do {
+          size++;
+          delta >>>= 7;
+        } while (delta != 0);
+        previous = questionId;
+      }
+      return size;
+    }
+
+    /**
+     * Encodes the answered questions as the varint differences between consecutive IDs.
+     */
+    private byte[] encodeAnswered() {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(encodedSize());
+      long previous = 0;
+      for (long questionId : answered) {
+        long delta = questionId - previous;
+        while ((delta & ~0x7FL) != 0) {
+          out.write((int) ((delta & 0x7F) | 0x80));
+          delta >>>= 7;
+        }
+        out.write((int) delta);
+        previous = questionId;
+      }
+      return out.toByteArray();
+    }
+
+    private static long[] decodeAnswered(byte[] encoded) {
+      long[] ids = new long[encoded.length];
+      int count = 0;
+      long previous = 0;
+      int index = 0;
+      while (index < encoded.length) {
+        long delta = 0;
+        int shift = 0;
+        byte b;
+        do {
+          b = encoded[index++];
+          delta |= (long) (b & 0x7F) << shift;
+          shift += 7;
+        } while ((b & 0x80) != 0);
+        previous += delta;
+        ids[count++] = previous;
+      }
+      return Arrays.copyOf(ids, count);
+    }
+  }
+
+  /**
+   * A question with its sampling key, ordered by key so the smallest is polled first.
+   */
+  private static final class WeightedQuestion implements Comparable<WeightedQuestion> {
+    private final double key;
+    private final QuizQuestionDto question;
+
+    private WeightedQuestion(double key, QuizQuestionDto question) {
+      this.key = key;
+      this.question = question;
+    }
+
+    @Override
+    public int compareTo(WeightedQuestion other) {
+      return Double.compare(key, other.key);
+    }
+  }
+}
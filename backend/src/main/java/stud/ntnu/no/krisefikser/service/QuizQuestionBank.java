@@ -0,0 +1,243 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import stud.ntnu.no.krisefikser.dtos.mappers.QuizMapper;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionDto;
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
+import stud.ntnu.no.krisefikser.entities.QuizQuestion;
+import stud.ntnu.no.krisefikser.repository.QuizQuestionRepository;
+
+/**
+ * In-memory bank of all quiz questions with their answer options.
+ * <p>
+ * The questions are loaded in one query and kept as ready-made DTOs in an immutable
+ * snapshot, so starting a quiz neither sorts the question table nor loads answer options
+ * question by question. Random questions are drawn with Floyd's sampling algorithm in time
+ * proportional to the number of questions drawn. The bank also knows which question each
+ * answer option belongs to and which option is correct, so answers are checked without
+ * loading the options.
+ * </p>
+ * <p>
+ * Every change to a question or answer option invalidates the snapshot, both immediately
+ * and after the change commits, and the next request loads a new one. Snapshots are also
+ * reloaded after a maximum age, to pick up changes made directly in the database.
+ * </p>
+ */
+@Component
+public class QuizQuestionBank {
+
+  private static final Logger logger = LogManager.getLogger(QuizQuestionBank.class);
+
+  private final QuizQuestionRepository quizQuestionRepository;
+  private final QuizMapper quizMapper;
+  private final long maxAgeMillis;
+
+  /**
+   * Incremented on every change to the questions. A snapshot is only valid while the
+   * generation it was loaded at is current.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * Constructor for QuizQuestionBank.
+   *
+   * @param quizQuestionRepository the quiz question repository
+   * @param quizMapper             the quiz mapper
+   * @param maxAgeMillis           the maximum age of a snapshot, in milliseconds
+   */
+  public QuizQuestionBank(QuizQuestionRepository quizQuestionRepository,
+                          QuizMapper quizMapper,
+                          @Value("${quiz.question-bank.max-age-ms:600000}") long maxAgeMillis) {
+    this.quizQuestionRepository = quizQuestionRepository;
+    this.quizMapper = quizMapper;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /**
+   * Returns the number of questions in the bank.
+   *
+   * @return the number of questions
+   */
+  public int size() {
+    return current().questions.size();
+  }
+
+  /**
+   * Returns all questions in the bank, ordered by ID.
+   * <p>
+   * The returned DTOs are shared and must not be modified.
+   * </p>
+   *
+   * @return the questions
+   */
+  public List<QuizQuestionDto> getQuestions() {
+    return current().questions;
+  }
+
+  /**
+   * Draws distinct questions uniformly at random, in random order.
+   * <p>
+   * The returned DTOs are shared between all quizzes and must not be modified.
+   * </p>
+   *
+   * @param count the number of questions to draw, at most {@link #size()}
+   * @return the drawn questions
+   * @throws IllegalArgumentException if count is negative or larger than the bank
+   */
+  public List<QuizQuestionDto> sample(int count) {
+    List<QuizQuestionDto> questions = current().questions;
+    int size = questions.size();
+    if (count < 0 || count > size) {
+      throw new IllegalArgumentException("Cannot draw " + count + " of " + size + " questions");
+    }
+
+    // Floyd's algorithm: draws a uniformly random subset using exactly count random numbers
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Set<Integer> chosen = new HashSet<>(count * 2);
+    int[] drawn = new int[count];
+    int n = 0;
+    for (int j = size - count; j < size; j++) {
+      int candidate = random.nextInt(j + 1);
+      int index = chosen.add(candidate) ? candidate : j;
+      chosen.add(index);
+      drawn[n++] = index;
+    }
+
+    // Floyd's algorithm favours later indexes at later positions, so shuffle the drawn ones
+    for (int i = count - 1; i > 0; i--) {
+      int other = random.nextInt(i + 1);
+      int swap = drawn[i];
+      drawn[i] = drawn[other];
+      drawn[other] = swap;
+    }
+
+    List<QuizQuestionDto> sample = new ArrayList<>(count);
+    for (int index : drawn) {
+      sample.add(questions.get(index));
+    }
+    return sample;
+  }
+
+  /**
+   * Returns the ID of the question an answer option belongs to.
+   *
+   * @param answerOptionId the ID of the answer option
+   * @return the ID of the question, or null if the answer option does not exist
+   */
+  public Long getQuestionIdOfOption(Long answerOptionId) {
+    return current().questionIdByOption.get(answerOptionId);
+  }
+
+  /**
+   * Returns the ID of the correct answer option of a question.
+   *
+   * @param questionId the ID of the question
+   * @return the ID of the correct option, or null if the question does not exist or has none
+   */
+  public Long getCorrectOptionId(Long questionId) {
+    return current().correctOptionByQuestion.get(questionId);
+  }
+
+  /**
+   * Invalidates the current snapshot after a question or answer option has changed. The
+   * snapshot is invalidated again after the current transaction commits, so a snapshot
+   * loaded before the change was visible is not kept.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          generation.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * Returns the current snapshot, loading a new one if it is missing, outdated or too old.
+   *
+   * @return the current snapshot
+   */
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (isValid(current)) {
+      return current;
+    }
+    synchronized (this) {
+      current = snapshot;
+      if (isValid(current)) {
+        return current;
+      }
+      long loadedGeneration = generation.get();
+      List<QuizQuestion> entities = quizQuestionRepository.findAllWithAnswerOptions();
+      List<QuizQuestionDto> questions = new ArrayList<>(entities.size());
+      Map<Long, Long> questionIdByOption = new HashMap<>();
+      Map<Long, Long> correctOptionByQuestion = new HashMap<>();
+      for (QuizQuestion question : entities) {
+        questions.add(quizMapper.toQuizQuestionDto(question));
+        for (QuizAnswerOption option : question.getAnswerOptions()) {
+          questionIdByOption.put(option.getId(), question.getId());
+          if (option.isCorrect()) {
+            correctOptionByQuestion.merge(question.getId(), option.getId(), Math::min);
+          }
+        }
+      }
+      current = new Snapshot(loadedGeneration, System.currentTimeMillis(), List.copyOf(questions),
+          Map.copyOf(questionIdByOption), Map.copyOf(correctOptionByQuestion));
+      snapshot = current;
+      logger.info("Loaded {} quiz questions into the question bank", questions.size());
+      return current;
+    }
+  }
+
+  /**
+   * Checks if a snapshot can still be used.
+   *
+   * @param snapshot the snapshot, may be null
+   * @return true if the snapshot is current and not too old
+   */
+  private boolean isValid(Snapshot snapshot) {
+    return snapshot != null
+        && snapshot.generation == generation.get()
+        && System.currentTimeMillis() - snapshot.loadedAt < maxAgeMillis;
+  }
+
+  /**
+   * An immutable set of questions loaded at one point in time.
+   */
+  private static final class Snapshot {
+    private final long generation;
+    private final long loadedAt;
+    private final List<QuizQuestionDto> questions;
+    private final Map<Long, Long> questionIdByOption;
+    private final Map<Long, Long> correctOptionByQuestion;
+
+    private Snapshot(long generation, long loadedAt, List<QuizQuestionDto> questions,
+                     Map<Long, Long> questionIdByOption, Map<Long, Long> correctOptionByQuestion) {
+      this.generation = generation;
+      this.loadedAt = loadedAt;
+      this.questions = questions;
+      this.questionIdByOption = questionIdByOption;
+      this.correctOptionByQuestion = correctOptionByQuestion;
+    }
+  }
+}
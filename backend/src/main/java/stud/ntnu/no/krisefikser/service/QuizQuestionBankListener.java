@@ -0,0 +1,42 @@
+package stud.ntnu.no.krisefikser.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener that invalidates the {@link QuizQuestionBank} when a quiz question or
+ * answer option is created, changed or deleted.
+ * <p>
+ * The bank is looked up when an entity changes rather than injected, since the bank
+ * depends on the entity manager that creates this listener.
+ * </p>
+ */
+@Component
+public class QuizQuestionBankListener {
+
+  private final ObjectProvider<QuizQuestionBank> quizQuestionBank;
+
+  /**
+   * Constructor for QuizQuestionBankListener.
+   *
+   * @param quizQuestionBank provides the question bank
+   */
+  public QuizQuestionBankListener(ObjectProvider<QuizQuestionBank> quizQuestionBank) {
+    this.quizQuestionBank = quizQuestionBank;
+  }
+
+  /**
+   * Invalidates the question bank after a question or answer option has changed.
+   *
+   * @param entity the changed entity
+   */
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void changed(Object entity) {
+    quizQuestionBank.ifAvailable(QuizQuestionBank::invalidate);
+  }
+}
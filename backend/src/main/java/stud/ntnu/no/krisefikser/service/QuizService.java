@@ -1,9 +1,14 @@
 package stud.ntnu.no.krisefikser.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,11 +21,10 @@ import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptResponse;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionDto;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizResponse;
 import stud.ntnu.no.krisefikser.dtos.quiz.QuizResultResponse;
-import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizSelectionMode;
 import stud.ntnu.no.krisefikser.entities.QuizAttempt;
 import stud.ntnu.no.krisefikser.entities.QuizAttemptAnswer;
 import stud.ntnu.no.krisefikser.entities.QuizSessionStatus;
-import stud.ntnu.no.krisefikser.entities.User;
 import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
 import stud.ntnu.no.krisefikser.exception.customExceptions.EntityOperationException;
@@ -43,22 +47,43 @@ public class QuizService {
 
   private static final Logger logger = LogManager.getLogger(QuizService.class);
 
+  private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+  private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
   private final UserRepository userRepository;
   private final QuizAttemptRepository quizAttemptRepository;
   private final QuizQuestionRepository quizQuestionRepository;
   private final QuizAnswerOptionRepository quizAnswerOptionRepository;
   private final QuizAttemptAnswerRepository quizAttemptAnswerRepository;
   private final QuizMapper quizMapper;
+  private final QuizQuestionBank quizQuestionBank;
+  private final QuizLeaderboardService quizLeaderboardService;
+  private final QuizAnalyticsService quizAnalyticsService;
+  private final QuizProgressService quizProgressService;
+
+  /**
+   * Starts a new quiz attempt with randomly selected questions and returns the generated
+   * quizId plus the selected questions.
+   */
+  @Transactional
+  public QuizResponse startQuiz(Long userId, int numberOfQuestions) {
+    return startQuiz(userId, numberOfQuestions, QuizSelectionMode.RANDOM);
+  }
 
   /**
    * Starts a new quiz attempt and returns the generated quizId plus the selected
    * questions.
+   * <p>
+   * The questions are drawn from the {@link QuizQuestionBank}, either at random or, in
+   * adaptive mode, weighted by the cached progress of the user, so the only database work
+   * is inserting the attempt and its questions.
+   * </p>
    */
   @Transactional
-  public QuizResponse startQuiz(Long userId, int numberOfQuestions) {
-    logger.info("Starting quiz for user ID: {} with {} questions", userId, numberOfQuestions);
+  public QuizResponse startQuiz(Long userId, int numberOfQuestions, QuizSelectionMode mode) {
+    logger.info("Starting {} quiz for user ID: {} with {} questions", mode, userId, numberOfQuestions);
 
-    if (numberOfQuestions > quizQuestionRepository.count()) {
+    if (numberOfQuestions > quizQuestionBank.size()) {
       logger.error("Requested number of questions exceeds available questions");
       throw new AppEntityNotFoundException(CustomErrorMessage.QUIZ_QUESTION_LIMIT_EXCEEDED);
     }
@@ -68,37 +93,31 @@ public class QuizService {
       throw new AppEntityNotFoundException(CustomErrorMessage.QUIZ_QUESTION_LIMIT_EXCEEDED);
     }
 
-    User quizTaker = userRepository
-        .findById(userId)
-        .orElseThrow(() -> {
-          logger.error("User not found: {}", userId);
-          return new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_FOUND);
-        });
-
     QuizAttempt quizAttempt = new QuizAttempt()
-        .setUser(quizTaker)
-        .setStatus(QuizSessionStatus.IN_PROGRESS);
-    quizAttemptRepository.save(quizAttempt);
+        .setUser(userRepository.getReferenceById(userId))
+        .setStatus(QuizSessionStatus.IN_PROGRESS)
+        .setTotalQuestions(numberOfQuestions);
+    try {
+      quizAttemptRepository.saveAndFlush(quizAttempt);
+    } catch (DataIntegrityViolationException e) {
+      logger.error("User not found: {}", userId);
+      throw new AppEntityNotFoundException(CustomErrorMessage.USER_NOT_FOUND);
+    }
     logger.info("Created QuizAttempt id={} for userId={}", quizAttempt.getId(), userId);
 
-    List<QuizAttemptAnswer> quizAttemptAnswers = quizQuestionRepository
-        .findRandomQuestions(numberOfQuestions)
+    List<QuizQuestionDto> quizQuestionDtoList = mode == QuizSelectionMode.ADAPTIVE
+        ? quizProgressService.selectAdaptive(userId, numberOfQuestions)
+        : quizQuestionBank.sample(numberOfQuestions);
+    List<QuizAttemptAnswer> quizAttemptAnswers = quizQuestionDtoList
         .stream()
-        .map(quizQuestion -> new QuizAttemptAnswer()
+        .map(question -> new QuizAttemptAnswer()
             .setAttempt(quizAttempt)
-            .setQuestion(quizQuestion))
+            .setQuestion(quizQuestionRepository.getReferenceById(question.getQuestionId())))
         .toList();
 
     quizAttemptAnswerRepository.saveAll(quizAttemptAnswers);
     logger.info("Saved {} questions for QuizAttempt id={}", quizAttemptAnswers.size(), quizAttempt.getId());
-
-    List<QuizQuestionDto> quizQuestionDtoList = quizAttemptAnswers
-        .stream()
-        .map(QuizAttemptAnswer::getQuestion)
-        .map(quizMapper::toQuizQuestionDto)
-        .toList();
-
-    logger.info("Fetched {} questions for QuizAttempt id={}", quizQuestionDtoList.size(), quizAttempt.getId());
+    quizAnalyticsService.recordShown(quizQuestionDtoList.stream().map(QuizQuestionDto::getQuestionId).toList());
 
     return quizMapper.toQuizResponse(
         quizAttempt.getId(),
@@ -108,6 +127,13 @@ public class QuizService {
   /**
    * Processes a submitted answer, updates the attempt, and returns whether it was
    * correct.
+   * <p>
+   * The answer option is checked against the {@link QuizQuestionBank}. The answer is then
+   * stored with one guarded update that only succeeds if the question is still unanswered,
+   * and the progress counters of the attempt are updated with one more, which also
+   * completes the attempt after its last question. The answer is added to the quiz
+   * progress of the user, and a completed attempt to the user's standing on the leaderboards.
+   * </p>
    */
   @Transactional
   public QuizAnswerResponse submitAnswer(Long quizAttemptId, QuizAnswerRequest quizAnswerRequest) {
@@ -117,57 +143,69 @@ public class QuizService {
         quizAnswerRequest.getSelectedAnswerId());
 
     // Check if selected answer option exists
-    QuizAnswerOption selectedAnswerOption = quizAnswerOptionRepository
-        .findById(quizAnswerRequest.getSelectedAnswerId())
-        .orElseThrow(() -> {
-          logger.error("AnswerOption not found: {}", quizAnswerRequest.getSelectedAnswerId());
-          return new AppEntityNotFoundException(CustomErrorMessage.ANSWER_OPTION_NOT_FOUND);
-        });
+    Long optionQuestionId = quizQuestionBank.getQuestionIdOfOption(quizAnswerRequest.getSelectedAnswerId());
+    if (optionQuestionId == null) {
+      logger.error("AnswerOption not found: {}", quizAnswerRequest.getSelectedAnswerId());
+      throw new AppEntityNotFoundException(CustomErrorMessage.ANSWER_OPTION_NOT_FOUND);
+    }
 
+    boolean stored = optionQuestionId.equals(quizAnswerRequest.getQuestionId())
+        && quizAttemptAnswerRepository.answerIfUnanswered(
+            quizAttemptId,
+            quizAnswerRequest.getQuestionId(),
+            quizAnswerOptionRepository.getReferenceById(quizAnswerRequest.getSelectedAnswerId())) == 1;
+    if (!stored) {
+      throw rejectAnswer(quizAttemptId, quizAnswerRequest);
+    }
+
+    Long correctAnswerId = quizQuestionBank.getCorrectOptionId(quizAnswerRequest.getQuestionId());
+    if (correctAnswerId == null) {
+      logger.error("No correct answer option found for question ID={}", quizAnswerRequest.getQuestionId());
+      throw new EntityOperationException(CustomErrorMessage.CORRECT_ANSWER_NOT_FOUND);
+    }
+    boolean isCorrectAnswer = correctAnswerId.equals(quizAnswerRequest.getSelectedAnswerId());
+    quizAnalyticsService.recordAnswer(quizAnswerRequest.getQuestionId(),
+        quizAnswerRequest.getSelectedAnswerId(), isCorrectAnswer);
+    quizAttemptRepository.findUserIdById(quizAttemptId).ifPresent(userId ->
+        quizProgressService.recordAnswer(userId, quizAnswerRequest.getQuestionId(), isCorrectAnswer));
+
+    quizAttemptRepository.recordAnswer(quizAttemptId, isCorrectAnswer ? 1 : 0,
+        QuizSessionStatus.COMPLETED, LocalDateTime.now());
+    quizAttemptRepository.findCompletion(quizAttemptId)
+        .ifPresent(quizLeaderboardService::recordCompletedAttempt);
+    return quizMapper.toQuizAnswerResponse(
+        quizAnswerRequest,
+        isCorrectAnswer,
+        correctAnswerId);
+  }
+
+  /**
+   * Finds out why an answer could not be stored. Only runs when an answer is rejected.
+   *
+   * @param quizAttemptId     the ID of the quiz attempt
+   * @param quizAnswerRequest the rejected answer
+   * @return the exception to throw
+   */
+  private RuntimeException rejectAnswer(Long quizAttemptId, QuizAnswerRequest quizAnswerRequest) {
     // Check if the quiz attempt answer exists
     QuizAttemptAnswer quizAttemptAnswer = quizAttemptAnswerRepository
         .findByAttempt_IdAndQuestion_Id(quizAttemptId, quizAnswerRequest.getQuestionId())
-        .orElseThrow(() -> {
-          logger.error("QuizAttemptAnswer not found for quizAttemptId={} and questionId={}",
-              quizAttemptId, quizAnswerRequest.getQuestionId());
-          return new AppEntityNotFoundException(CustomErrorMessage.QUIZ_ATTEMPT_ANSWER_NOT_FOUND);
-        });
+        .orElse(null);
+    if (quizAttemptAnswer == null) {
+      logger.error("QuizAttemptAnswer not found for quizAttemptId={} and questionId={}",
+          quizAttemptId, quizAnswerRequest.getQuestionId());
+      return new AppEntityNotFoundException(CustomErrorMessage.QUIZ_ATTEMPT_ANSWER_NOT_FOUND);
+    }
 
     // Check if question is already answered
     if (quizAttemptAnswer.getSelectedOption() != null) {
       logger.error("Question already answered for quizAttemptId={} and questionId={}",
           quizAttemptId, quizAnswerRequest.getQuestionId());
-      throw new EntityOperationException(CustomErrorMessage.QUESTION_ALREADY_ANSWERED);
+      return new EntityOperationException(CustomErrorMessage.QUESTION_ALREADY_ANSWERED);
     }
 
-    // Check if the selected answer option belongs to the question
-    if (!selectedAnswerOption.getQuizQuestion().getId()
-        .equals(quizAnswerRequest.getQuestionId())) {
-      throw new EntityOperationException(CustomErrorMessage.INVALID_ANSWER_FOR_QUESTION);
-    }
-
-    quizAttemptAnswer.setSelectedOption(selectedAnswerOption);
-    quizAttemptAnswerRepository.save(quizAttemptAnswer);
-
-    boolean isCorrectAnswer = selectedAnswerOption.isCorrect();
-    Long correctAnswerId = selectedAnswerOption
-        .getQuizQuestion()
-        .getAnswerOptions()
-        .stream()
-        .filter(QuizAnswerOption::isCorrect)
-        .map(QuizAnswerOption::getId)
-        .findFirst()
-        .orElseThrow(() -> {
-          logger.error("No correct answer option found for question ID={}",
-              selectedAnswerOption.getQuizQuestion().getId());
-          return new EntityOperationException(CustomErrorMessage.CORRECT_ANSWER_NOT_FOUND);
-        });
-
-    completeQuizAttempt(quizAttemptId);
-    return quizMapper.toQuizAnswerResponse(
-        quizAnswerRequest,
-        isCorrectAnswer,
-        correctAnswerId);
+    // Otherwise the selected answer option belongs to another question
+    return new EntityOperationException(CustomErrorMessage.INVALID_ANSWER_FOR_QUESTION);
   }
 
   /**
@@ -178,36 +216,46 @@ public class QuizService {
   public QuizResultResponse getResult(Long quizAttemptId) {
     logger.info("Fetching result for QuizAttempt id={}", quizAttemptId);
 
-    // Check if the quiz attempt exists
-    loadAttempt(quizAttemptId);
+    QuizAttempt quizAttempt = loadAttempt(quizAttemptId);
 
-    int totalQuestions = getQuestionCount(quizAttemptId);
-    int correctAnswers = getCorrectAnswersCount(quizAttemptId);
+    int totalQuestions = quizAttempt.getTotalQuestions();
+    int correctAnswers = quizAttempt.getCorrectCount();
     logger.info("QuizAttempt id={} has {} total questions and {} correct answers",
         quizAttemptId, totalQuestions, correctAnswers);
     return quizMapper.toQuizResultResponse(totalQuestions, correctAnswers);
   }
 
   /**
-   * Retrieves the history of quiz attempts for a given user.
+   * Retrieves a page of the quiz history of a user, newest first.
+   * <p>
+   * The scores are read from the counters kept on each attempt, and the page is found by
+   * keyset on the attempt ID, so a page takes the same time however many attempts the user
+   * has made, and answering an attempt does not move it between pages.
+   * </p>
+   *
+   * @param userId the ID of the user
+   * @param before the ID of the last attempt of the previous page, or null for the first page
+   * @param limit  the maximum number of attempts to return, or null for the default
+   * @return the page of quiz attempts with their results
    */
   @Transactional(readOnly = true)
-  public List<QuizAttemptHistoryDto> getQuizHistory(Long userId) {
-    logger.info("Fetching quiz history for user ID: {}", userId);
-    List<QuizAttempt> quizAttempts = quizAttemptRepository.findByUserIdOrderByAttemptTimeDesc(userId);
+  public List<QuizAttemptHistoryDto> getQuizHistory(Long userId, Long before, Integer limit) {
+    logger.info("Fetching quiz history for user ID: {} before attempt ID: {}", userId, before);
+    int pageSize = limit == null
+        ? DEFAULT_HISTORY_PAGE_SIZE
+        : Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+    List<QuizAttempt> quizAttempts = before == null
+        ? quizAttemptRepository.findByUserIdOrderByIdDesc(userId, Limit.of(pageSize))
+        : quizAttemptRepository.findPageByUserIdBefore(userId, before, Limit.of(pageSize));
 
     logger.info("Found {} quiz attempts for user ID: {}", quizAttempts.size(), userId);
 
     return quizAttempts
         .stream()
-        .map(quizAttempt -> {
-          int questionCount = getQuestionCount(quizAttempt.getId());
-          int correctCount = getCorrectAnswersCount(quizAttempt.getId());
-          return quizMapper.toQuizAttemptHistoryDto(
-              quizAttempt,
-              questionCount,
-              correctCount);
-        })
+        .map(quizAttempt -> quizMapper.toQuizAttemptHistoryDto(
+            quizAttempt,
+            quizAttempt.getTotalQuestions(),
+            quizAttempt.getCorrectCount()))
         .toList();
   }
 
@@ -231,7 +279,7 @@ public class QuizService {
    */
   public Long getQuestionCount() {
     logger.info("Fetching total number of quiz questions");
-    return quizQuestionRepository.count();
+    return (long) quizQuestionBank.size();
   }
 
   /**
@@ -260,20 +308,20 @@ public class QuizService {
   }
 
   /**
-   * Completes the quiz attempt by marking it as finished if answered all
-   * questions.
+   * Calculates the progress counters of quiz attempts that were started before the
+   * counters were kept on the attempt, and the leaderboard standings of users who completed
+   * quizzes before the leaderboards existed. Runs once on startup and does nothing afterwards.
    */
-  public void completeQuizAttempt(Long quizAttemptId) {
-    long submittedAnswersCount = getSubmittedAnswersCount(quizAttemptId);
-    long totalQuestionsCount = getQuestionCount(quizAttemptId);
-    logger.info("Completing quiz attempt id={} with {} submitted answers out of {} total questions",
-        quizAttemptId, submittedAnswersCount, totalQuestionsCount);
-
-    if (submittedAnswersCount == totalQuestionsCount) {
-      QuizAttempt quizAttempt = loadAttempt(quizAttemptId);
-      quizAttempt.setStatus(QuizSessionStatus.COMPLETED);
-      quizAttemptRepository.save(quizAttempt);
-      logger.info("Quiz attempt id={} marked as finished", quizAttemptId);
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void backfillAttemptCounters() {
+    int updated = quizAttemptRepository.backfillCounters();
+    if (updated > 0) {
+      logger.info("Calculated progress counters for {} quiz attempts", updated);
+    }
+    int entries = quizLeaderboardService.backfillEntries();
+    if (entries > 0) {
+      logger.info("Created quiz leaderboard entries for {} users", entries);
     }
   }
 
@@ -0,0 +1,363 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteDocument;
+import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNote;
+import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNoteVisibility;
+import stud.ntnu.no.krisefikser.repository.ReflectionRepository;
+
+/**
+ * In-memory inverted index over the titles and contents of reflection notes.
+ * <p>
+ * Every note is split into lower-case words, and each word maps to the notes containing it
+ * and how often. Title words count {@value #TITLE_WEIGHT} times. The index also keeps the
+ * creator and visibility of each note, so a search only scores the notes the searching user
+ * may read, and ranks them by BM25. Query words of at least {@value #MIN_PREFIX_LENGTH}
+ * letters also match longer words starting with them at a lower weight, since Norwegian
+ * writes compound words as one word.
+ * </p>
+ * <p>
+ * The index is built from the database on startup and rebuilt every rebuild interval, to
+ * pick up notes written on other instances. Notes added or deleted on this instance are
+ * applied after their transaction commits. Changes made while the index is rebuilt are
+ * applied to both the current and the new index, so none are lost when the new index
+ * replaces the current one.
+ * </p>
+ */
+@Service
+public class ReflectionSearchIndex {
+
+  private static final Logger logger = LogManager.getLogger(ReflectionSearchIndex.class);
+
+  static final int TITLE_WEIGHT = 2;
+  static final int MIN_PREFIX_LENGTH = 3;
+  private static final double PREFIX_WEIGHT = 0.5;
+  private static final int MAX_PREFIX_EXPANSIONS = 50;
+  private static final int MAX_QUERY_TERMS = 10;
+  private static final int MIN_TERM_LENGTH = 2;
+  private static final int BUILD_CHUNK_SIZE = 500;
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final ReflectionRepository reflectionRepository;
+  private final boolean rebuildEnabled;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Index index = new Index();
+  private List<Consumer<Index>> changesDuringRebuild;
+
+  /**
+   * Constructor for ReflectionSearchIndex.
+   *
+   * @param reflectionRepository the reflection repository
+   * @param rebuildEnabled       whether the index should be rebuilt in the background
+   */
+  public ReflectionSearchIndex(ReflectionRepository reflectionRepository,
+                               @Value("${reflection.search.rebuild-enabled:true}") boolean rebuildEnabled) {
+    this.reflectionRepository = reflectionRepository;
+    this.rebuildEnabled = rebuildEnabled;
+  }
+
+  /**
+   * Builds the index when the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildOnStartup() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      logger.error("Failed to build the reflection search index, searches only find new notes until the next rebuild", e);
+    }
+  }
+
+  /**
+   * Rebuilds the index every rebuild interval, unless background rebuilds are disabled.
+   */
+  @Scheduled(fixedDelayString = "${reflection.search.rebuild-interval-ms:3600000}",
+      initialDelayString = "${reflection.search.rebuild-interval-ms:3600000}")
+  public void scheduledRebuild() {
+    if (rebuildEnabled) {
+      buildOnStartup();
+    }
+  }
+
+  /**
+   * Builds a new index from all notes, one chunk at a time, and replaces the current one.
+   * Searches use the current index while the new one is built.
+   *
+   * @return the number of indexed notes
+   */
+  public synchronized int rebuild() {
+    lock.writeLock().lock();
+    try {
+      changesDuringRebuild = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Index rebuilt = new Index();
+    try {
+      long afterId = 0;
+      List<ReflectionNoteDocument> chunk;
+      do {
+        chunk = reflectionRepository.findDocumentsAfter(afterId, Limit.of(BUILD_CHUNK_SIZE));
+        chunk.forEach(rebuilt::add);
+        if (!chunk.isEmpty()) {
+          afterId = chunk.get(chunk.size() - 1).getId();
+        }
+      } while (chunk.size() == BUILD_CHUNK_SIZE);
+    } catch (RuntimeException e) {
+      lock.writeLock().lock();
+      try {
+        changesDuringRebuild = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+
+    lock.writeLock().lock();
+    try {
+      changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+      changesDuringRebuild = null;
+      index = rebuilt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    logger.info("Indexed {} reflection notes with {} distinct words", rebuilt.documents.size(), rebuilt.postings.size());
+    return rebuilt.documents.size();
+  }
+
+  /**
+   * Adds a saved note to the index, or replaces it, after the current transaction commits.
+   *
+   * @param reflectionNote the saved note
+   */
+  public void index(ReflectionNote reflectionNote) {
+    ReflectionNoteDocument document = new ReflectionNoteDocument(
+        reflectionNote.getId(),
+        reflectionNote.getUser().getId(),
+        reflectionNote.getVisibility(),
+        reflectionNote.getTitle(),
+        reflectionNote.getContent());
+    afterCommit(() -> apply(current -> current.add(document)));
+  }
+
+  /**
+   * Removes a deleted note from the index after the current transaction commits.
+   *
+   * @param noteId the ID of the deleted note
+   */
+  public void remove(Long noteId) {
+    afterCommit(() -> apply(current -> current.remove(noteId)));
+  }
+
+  /**
+   * Searches the notes a user may read: the user's own notes, public notes and household
+   * notes created by members of the user's household.
+   *
+   * @param query              the words to search for
+   * @param userId             the ID of the searching user
+   * @param householdMemberIds the IDs of the members of the user's household, empty if none
+   * @param limit              the maximum number of hits
+   * @return the IDs of the matching notes, best match first
+   */
+  public List<Long> search(String query, Long userId, Set<Long> householdMemberIds, int limit) {
+    List<String> terms = tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+    if (terms.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      Index current = index;
+      Map<Long, Double> scores = new HashMap<>();
+      for (String term : terms) {
+        current.score(term, 1, userId, householdMemberIds, scores);
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+          int expansions = 0;
+          for (String longer : current.postings.subMap(term, false, term + Character.MAX_VALUE, true).keySet()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+              break;
+            }
+            current.score(longer, PREFIX_WEIGHT, userId, householdMemberIds, scores);
+          }
+        }
+      }
+      return scores.entrySet().stream()
+          .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+              .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+          .limit(limit)
+          .map(Map.Entry::getKey)
+          .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Splits a text into lower-case words of at least {@value #MIN_TERM_LENGTH} letters or
+   * digits.
+   *
+   * @param text the text, may be null
+   * @return the words, in order
+   */
+  static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) {
+      return List.of();
+    }
+    List<String> terms = new ArrayList<>();
+    for (String term : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+      if (term.length() >= MIN_TERM_LENGTH) {
+        terms.add(term);
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * Applies a change to the current index, and records it for the new index if the index is
+   * being rebuilt.
+   */
+  private void apply(Consumer<Index> change) {
+    lock.writeLock().lock();
+    try {
+      change.accept(index);
+      if (changesDuringRebuild != null) {
+        changesDuringRebuild.add(change);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * The postings and indexed notes. Guarded by the lock of the search index.
+   */
+  private static final class Index {
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedNote> documents = new HashMap<>();
+    private long totalLength;
+
+    private void add(ReflectionNoteDocument document) {
+      remove(document.getId());
+      Map<String, Integer> frequencies = new HashMap<>();
+      int length = 0;
+      for (String term : tokenize(document.getTitle())) {
+        frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        length++;
+      }
+      for (String term : tokenize(document.getContent())) {
+        frequencies.merge(term, 1, Integer::sum);
+        length++;
+      }
+      frequencies.forEach((term, frequency) ->
+          postings.computeIfAbsent(term, key -> new HashMap<>()).put(document.getId(), frequency));
+      documents.put(document.getId(), new IndexedNote(document.getUserId(), document.getVisibility(), length,
+          frequencies.keySet().toArray(new String[0])));
+      totalLength += length;
+    }
+
+    private void remove(Long noteId) {
+      IndexedNote removed = documents.remove(noteId);
+      if (removed == null) {
+        return;
+      }
+      for (String term : removed.terms) {
+        Map<Long, Integer> notes = postings.get(term);
+        notes.remove(noteId);
+        if (notes.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+      totalLength -= removed.length;
+    }
+
+    /**
+     * Adds the BM25 score of one word to the notes containing it that the user may read.
+     */
+    private void score(String term, double weight, Long userId, Set<Long> householdMemberIds,
+                       Map<Long, Double> scores) {
+      Map<Long, Integer> notes = postings.getOrDefault(term, Collections.emptyMap());
+      if (notes.isEmpty()) {
+        return;
+      }
+      int count = documents.size();
+      double averageLength = (double) totalLength / count;
+      double idf = Math.log(1 + (count - notes.size() + 0.5) / (notes.size() + 0.5));
+      notes.forEach((noteId, frequency) -> {
+        IndexedNote note = documents.get(noteId);
+        if (!note.isVisibleTo(userId, householdMemberIds)) {
+          return;
+        }
+        double normalization = K1 * (1 - B + B * note.length / Math.max(averageLength, 1));
+        double score = weight * idf * frequency * (K1 + 1) / (frequency + normalization);
+        scores.merge(noteId, score, Double::sum);
+      });
+    }
+  }
+
+  /**
+   * The creator, visibility, length and distinct words of an indexed note.
+   */
+  private static final class IndexedNote {
+    private final Long userId;
+    private final ReflectionNoteVisibility visibility;
+    private final int length;
+    private final String[] terms;
+
+    private IndexedNote(Long userId, ReflectionNoteVisibility visibility, int length, String[] terms) {
+      this.userId = userId;
+      this.visibility = visibility;
+      this.length = length;
+      this.terms = terms;
+    }
+
+    private boolean isVisibleTo(Long searchingUserId, Set<Long> householdMemberIds) {
+      return userId.equals(searchingUserId)
+          || visibility == ReflectionNoteVisibility.PUBLIC
+          || (visibility == ReflectionNoteVisibility.HOUSEHOLD && householdMemberIds.contains(userId));
+    }
+  }
+}
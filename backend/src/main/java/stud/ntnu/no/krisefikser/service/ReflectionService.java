@@ -1,14 +1,20 @@
 package stud.ntnu.no.krisefikser.service;
 
-import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
 import stud.ntnu.no.krisefikser.config.SecurityUtil;
 import stud.ntnu.no.krisefikser.dtos.mappers.reflections.ReflectionNoteMapper;
 import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteRequest;
 import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteResponse;
-import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary;
 import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNote;
 import stud.ntnu.no.krisefikser.entities.User;
 import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNoteVisibility;
@@ -16,21 +22,55 @@ import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
 import stud.ntnu.no.krisefikser.exception.customExceptions.UnauthorizedOperationException;
 import stud.ntnu.no.krisefikser.repository.ReflectionRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing reflection notes.
  */
 @Service
-@RequiredArgsConstructor
 public class ReflectionService {
+  private static final int DEFAULT_FEED_PAGE_SIZE = 20;
+  private static final int MAX_FEED_PAGE_SIZE = 100;
+  private static final int DEFAULT_SEARCH_SIZE = 20;
+  private static final int MAX_SEARCH_SIZE = 50;
+  private static final int SNIPPET_BACKFILL_CHUNK_SIZE = 500;
+
   private final ReflectionRepository reflectionRepository;
+  private final ReflectionSearchIndex reflectionSearchIndex;
+  private final UserRepository userRepository;
   private final SecurityUtil securityUtil;
+  private final TransactionTemplate transactionTemplate;
   private static final Logger logger = LogManager.getLogger(ReflectionService.class);
 
+  /**
+   * Constructor for ReflectionService.
+   *
+   * @param reflectionRepository  the reflection repository
+   * @param reflectionSearchIndex the search index of the reflection notes
+   * @param userRepository        the user repository
+   * @param securityUtil          the security utility
+   * @param transactionManager    the transaction manager used for the snippet backfill chunks
+   */
+  public ReflectionService(ReflectionRepository reflectionRepository,
+                           ReflectionSearchIndex reflectionSearchIndex,
+                           UserRepository userRepository,
+                           SecurityUtil securityUtil,
+                           PlatformTransactionManager transactionManager) {
+    this.reflectionRepository = reflectionRepository;
+    this.reflectionSearchIndex = reflectionSearchIndex;
+    this.userRepository = userRepository;
+    this.securityUtil = securityUtil;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
   /**
    * Adds a reflection note for the current user.
    *
@@ -45,21 +85,83 @@ public class ReflectionService {
         .setTitle(reflectionNoteRequest.getTitle())
         .setVisibility(reflectionNoteRequest.getVisibility());
     reflectionRepository.save(reflectionNote);
+    reflectionSearchIndex.index(reflectionNote);
     logger.info("Reflection note added successfully for user: {}", currentUser.getUsername());
   }
 
   /**
-   * Retrieves all public reflection notes that are not created by the current user.
+   * Retrieves a page of the public reflection notes that are not created by the current
+   * user, newest first. The notes carry a snippet instead of their full content, which is
+   * fetched with {@link #getReflectionNote(Long)}.
    *
-   * @return a list of public reflection notes
+   * @param before the ID of the last note of the previous page, or null for the first page
+   * @param limit  the maximum number of notes, or null for {@value #DEFAULT_FEED_PAGE_SIZE}
+   * @return a page of public reflection notes
    */
-  public List<ReflectionNoteResponse> getAllPublicReflectionNotes() {
-    User currentUser = securityUtil.getCurrentUser();
-    logger.info("Fetching all public reflection notes that arent created by user: {}", currentUser.getUsername());
-    List<ReflectionNote> reflectionNotes = reflectionRepository.findAllByVisibilityAndUserIdNot(ReflectionNoteVisibility.PUBLIC, currentUser.getId());
+  public List<ReflectionNoteSummary> getPublicReflectionFeed(Long before, Integer limit) {
+    AuthenticatedUser currentUser = securityUtil.getCurrentPrincipal();
+    int pageSize = limit == null ? DEFAULT_FEED_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+    logger.info("Fetching {} public reflection notes before {} that arent created by user: {}",
+        pageSize, before, currentUser.getName());
+    List<ReflectionNoteSummary> reflectionNotes = before == null
+        ? reflectionRepository.findFeed(ReflectionNoteVisibility.PUBLIC, currentUser.getId(), Limit.of(pageSize))
+        : reflectionRepository.findFeedBefore(ReflectionNoteVisibility.PUBLIC, currentUser.getId(), before,
+            Limit.of(pageSize));
     logger.info("Fetched {} public reflection notes", reflectionNotes.size());
-    return reflectionNotes.stream().map(ReflectionNoteMapper::toDto)
+    return reflectionNotes;
+  }
+
+  /**
+   * Retrieves a reflection note with its full content. The current user can read their own
+   * notes, public notes and household notes of their household.
+   *
+   * @param id the ID of the reflection note
+   * @return the reflection note
+   */
+  @Transactional(readOnly = true)
+  public ReflectionNoteResponse getReflectionNote(Long id) {
+    AuthenticatedUser currentUser = securityUtil.getCurrentPrincipal();
+    logger.info("Fetching reflection note with id {} for user: {}", id, currentUser.getName());
+    ReflectionNote reflectionNote = reflectionRepository.findById(id).orElseThrow(
+        () -> new AppEntityNotFoundException(CustomErrorMessage.REFLECTION_NOTE_NOT_FOUND)
+    );
+    if (!canRead(currentUser, reflectionNote)) {
+      logger.warn("User {} is not authorized to read reflection note with id {}", currentUser.getName(), id);
+      throw new UnauthorizedOperationException(CustomErrorMessage.UNAUTHORIZED_OPERATION);
+    }
+    return ReflectionNoteMapper.toDto(reflectionNote);
+  }
+
+  /**
+   * Searches the reflection notes the current user can read, which are the user's own
+   * notes, public notes and household notes of the user's household. The search runs on the
+   * {@link ReflectionSearchIndex}, and only the hits are read from the database.
+   *
+   * @param query the words to search for
+   * @param limit the maximum number of hits, or null for {@value #DEFAULT_SEARCH_SIZE}
+   * @return the matching reflection notes, best match first
+   */
+  @Transactional(readOnly = true)
+  public List<ReflectionNoteSummary> searchReflectionNotes(String query, Integer limit) {
+    AuthenticatedUser currentUser = securityUtil.getCurrentPrincipal();
+    int size = limit == null ? DEFAULT_SEARCH_SIZE : Math.max(1, Math.min(limit, MAX_SEARCH_SIZE));
+    logger.info("Searching reflection notes for user: {}", currentUser.getName());
+    Set<Long> householdMemberIds = currentUser.getHouseholdId() == null
+        ? Set.of()
+        : new HashSet<>(userRepository.findIdsByHouseholdId(currentUser.getHouseholdId()));
+    List<Long> hits = reflectionSearchIndex.search(query, currentUser.getId(), householdMemberIds, size);
+    if (hits.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, ReflectionNoteSummary> notesById = reflectionRepository.findSummariesByIdIn(hits).stream()
+        .collect(Collectors.toMap(ReflectionNoteSummary::getId, Function.identity()));
+    // Notes deleted on another instance may still be in the index until it is rebuilt
+    List<ReflectionNoteSummary> reflectionNotes = hits.stream()
+        .map(notesById::get)
+        .filter(Objects::nonNull)
         .toList();
+    logger.info("Found {} reflection notes", reflectionNotes.size());
+    return reflectionNotes;
   }
 
   /**
@@ -68,8 +170,8 @@ public class ReflectionService {
    * @return a list of reflection notes created by the user
    */
   public List<ReflectionNoteResponse> getAllMyReflectionNotes() {
-    User currentUser = securityUtil.getCurrentUser();
-    logger.info("Fetching all reflection notes created by user: {}", currentUser.getUsername());
+    AuthenticatedUser currentUser = securityUtil.getCurrentPrincipal();
+    logger.info("Fetching all reflection notes created by user: {}", currentUser.getName());
     List<ReflectionNote> reflectionNotes = reflectionRepository.findAllByUserId(currentUser.getId());
     logger.info("Fetched {} reflection notes", reflectionNotes.size());
     return reflectionNotes.stream().map(ReflectionNoteMapper::toDto)
@@ -82,21 +184,18 @@ public class ReflectionService {
    * @return a list of reflection notes in the user's household
    */
   public List<ReflectionNoteResponse> getAllReflectionNotesInMyHousehold() {
-    User currentUser = securityUtil.getCurrentUser();
-    Household household = currentUser.getHousehold();
-    if (household == null) {
-      logger.warn("User {} does not belong to any household", currentUser.getUsername());
+    AuthenticatedUser currentUser = securityUtil.getCurrentPrincipal();
+    if (currentUser.getHouseholdId() == null) {
+      logger.warn("User {} does not belong to any household", currentUser.getName());
       throw new AppEntityNotFoundException(CustomErrorMessage.HOUSEHOLD_NOT_FOUND);
     }
-    Set<Long> userIdsInHousehold = household.getUsers().stream()
-        .map(User::getId)
-        .collect(Collectors.toSet());
+    Set<Long> userIdsInHousehold = new HashSet<>(userRepository.findIdsByHouseholdId(currentUser.getHouseholdId()));
     userIdsInHousehold.remove(currentUser.getId());
     if (userIdsInHousehold.isEmpty()) {
-      logger.warn("No other users in household of user: {}", currentUser.getUsername());
+      logger.warn("No other users in household of user: {}", currentUser.getName());
       return List.of();
     }
-    logger.info("Fetching all reflection notes in household of user: {}", currentUser.getUsername());
+    logger.info("Fetching all reflection notes in household of user: {}", currentUser.getName());
     List<ReflectionNote> reflectionNotes = reflectionRepository.findAllByVisibilityAndUserIdIn(ReflectionNoteVisibility.HOUSEHOLD, userIdsInHousehold);
     logger.info("Fetched {} reflection notes", reflectionNotes.size());
     return reflectionNotes.stream().map(ReflectionNoteMapper::toDto)
@@ -109,17 +208,56 @@ public class ReflectionService {
    * @param id the ID of the reflection note
    */
   public void deleteReflectionNoteById(Long id) {
-    User currentUser = securityUtil.getCurrentUser();
-    logger.info("Deleting reflection note with id {} for user: {}", id, currentUser.getUsername());
+    AuthenticatedUser currentUser = securityUtil.getCurrentPrincipal();
+    logger.info("Deleting reflection note with id {} for user: {}", id, currentUser.getName());
     ReflectionNote reflectionNote = reflectionRepository.findById(id).orElseThrow(
         () -> new AppEntityNotFoundException(CustomErrorMessage.REFLECTION_NOTE_NOT_FOUND)
     );
     if (reflectionNote.getUser().getId().equals(currentUser.getId())) {
       reflectionRepository.delete(reflectionNote);
-      logger.info("Reflection note with id {} deleted successfully for user: {}", id, currentUser.getUsername());
+      reflectionSearchIndex.remove(id);
+      logger.info("Reflection note with id {} deleted successfully for user: {}", id, currentUser.getName());
     } else {
-      logger.warn("User {} is not authorized to delete reflection note with id {}", currentUser.getUsername(), id);
+      logger.warn("User {} is not authorized to delete reflection note with id {}", currentUser.getName(), id);
       throw new UnauthorizedOperationException(CustomErrorMessage.UNAUTHORIZED_OPERATION);
     }
   }
+
+  /**
+   * Fills in the snippet of notes saved before snippets were kept, one chunk per
+   * transaction, so each chunk is committed and released from memory before the next.
+   * Runs once on startup and does nothing afterwards.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillSnippets() {
+    int total = 0;
+    int updated;
+    do {
+      updated = transactionTemplate.execute(status -> {
+        List<ReflectionNote> reflectionNotes =
+            reflectionRepository.findBySnippetIsNull(Limit.of(SNIPPET_BACKFILL_CHUNK_SIZE));
+        reflectionNotes.forEach(note -> note.setContent(note.getContent()));
+        return reflectionNotes.size();
+      });
+      total += updated;
+    } while (updated == SNIPPET_BACKFILL_CHUNK_SIZE);
+    if (total > 0) {
+      logger.info("Calculated snippets for {} reflection notes", total);
+    }
+  }
+
+  /**
+   * Checks if a user can read a reflection note.
+   */
+  private boolean canRead(AuthenticatedUser user, ReflectionNote reflectionNote) {
+    User creator = reflectionNote.getUser();
+    if (creator.getId().equals(user.getId())
+        || reflectionNote.getVisibility() == ReflectionNoteVisibility.PUBLIC) {
+      return true;
+    }
+    return reflectionNote.getVisibility() == ReflectionNoteVisibility.HOUSEHOLD
+        && user.getHouseholdId() != null
+        && creator.getHousehold() != null
+        && user.getHouseholdId().equals(creator.getHousehold().getId());
+  }
 }
@@ -0,0 +1,208 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StockConsumption;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StockHistoryBucket;
+import stud.ntnu.no.krisefikser.entities.StockEvent;
+import stud.ntnu.no.krisefikser.entities.StockRollup;
+import stud.ntnu.no.krisefikser.entities.StockRollupGranularity;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.StockEventRepository;
+import stud.ntnu.no.krisefikser.repository.StockRollupRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+/**
+ * Service class for the stock history of storage items.
+ * <p>
+ * Every stock change is appended to the event log and added to the daily and weekly rollups
+ * of the item in the same transaction, so history charts read one row per bucket. The
+ * consumption rate and run-out forecast stored on the item are refreshed from the daily
+ * rollups of the last {@value #FORECAST_WINDOW_DAYS} days on every change.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class StockHistoryService {
+
+  private static final Logger logger = LogManager.getLogger(StockHistoryService.class);
+
+  /**
+   * Number of days of daily rollups the consumption rate is averaged over.
+   */
+  static final int FORECAST_WINDOW_DAYS = 28;
+
+  private static final int DEFAULT_DAY_BUCKETS = 30;
+  private static final int DEFAULT_WEEK_BUCKETS = 26;
+  private static final double EPSILON = 0.001; // Tolerance for floating point comparison
+
+  private final StockEventRepository stockEventRepository;
+  private final StockRollupRepository stockRollupRepository;
+  private final StorageItemRepository storageItemRepository;
+
+  /**
+   * Records a change of the stock of a storage item and refreshes its forecast.
+   * <p>
+   * Must be called in the transaction that changes the stock, after the new stock has been
+   * set on the item. Changes smaller than the rounding tolerance are ignored.
+   * </p>
+   *
+   * @param storageItem the storage item, with its new stock
+   * @param delta       the change of the stock
+   */
+  @Transactional
+  public void record(StorageItem storageItem, double delta) {
+    recordAll(Map.of(storageItem, delta));
+  }
+
+  /**
+   * Records changes of the stock of several storage items and refreshes their forecasts.
+   * <p>
+   * The events and the rollup changes are each written with one batched statement, and the
+   * forecasts are refreshed from one query, so the number of round trips does not grow
+   * with the number of items. Must be called in the transaction that changes the stock,
+   * after the new stock has been set on the items. Changes smaller than the rounding
+   * tolerance are ignored.
+   * </p>
+   *
+   * @param changes the change of the stock of each storage item, with its new stock
+   */
+  @Transactional
+  public void recordAll(Map<StorageItem, Double> changes) {
+    Instant now = Instant.now();
+    Date occurredAt = Date.from(now);
+    LocalDate today = LocalDate.ofInstant(now, ZoneId.systemDefault());
+
+    List<StockEvent> events = new ArrayList<>();
+    List<StockRollup> rollups = new ArrayList<>();
+    changes.forEach((storageItem, delta) -> {
+      if (Math.abs(delta) < EPSILON) {
+        return;
+      }
+      double stockAfter = storageItem.getCurrentStock();
+      events.add(new StockEvent()
+          .setStorageItem(storageItem)
+          .setDelta(delta)
+          .setStockAfter(stockAfter)
+          .setOccurredAt(occurredAt));
+      for (StockRollupGranularity granularity : StockRollupGranularity.values()) {
+        rollups.add(new StockRollup()
+            .setStorageItem(storageItem)
+            .setGranularity(granularity)
+            .setBucketStart(bucketStart(granularity, today))
+            .setAdded(Math.max(delta, 0))
+            .setConsumed(Math.max(-delta, 0))
+            .setEventCount(1)
+            .setClosingStock(stockAfter));
+      }
+    });
+    if (events.isEmpty()) {
+      return;
+    }
+
+    stockEventRepository.insertAll(events);
+    stockRollupRepository.upsertAll(rollups);
+    refreshForecasts(events.stream().map(StockEvent::getStorageItem).toList(), today, now);
+  }
+
+  /**
+   * Retrieves the stock history of a storage item, one entry per day or week with changes.
+   *
+   * @param storageItemId the ID of the storage item
+   * @param granularity   the length of the buckets
+   * @param from          the first day to include, or null for the last 30 days or 26 weeks
+   * @param to            the last day to include, or null for today
+   * @return the buckets with stock changes, oldest first
+   * @throws AppEntityNotFoundException if the storage item does not exist
+   */
+  @Transactional(readOnly = true)
+  public List<StockHistoryBucket> getHistory(Long storageItemId, StockRollupGranularity granularity,
+                                             LocalDate from, LocalDate to) {
+    if (!storageItemRepository.existsById(storageItemId)) {
+      logger.error("Storage item with ID {} not found", storageItemId);
+      throw new AppEntityNotFoundException(CustomErrorMessage.STORAGE_ITEM_NOT_FOUND);
+    }
+
+    LocalDate lastBucket = bucketStart(granularity, to != null ? to : LocalDate.now());
+    LocalDate firstBucket;
+    if (from != null) {
+      firstBucket = bucketStart(granularity, from);
+    } else if (granularity == StockRollupGranularity.WEEK) {
+      firstBucket = lastBucket.minusWeeks(DEFAULT_WEEK_BUCKETS - 1);
+    } else {
+      firstBucket = lastBucket.minusDays(DEFAULT_DAY_BUCKETS - 1);
+    }
+
+    List<StockHistoryBucket> buckets = stockRollupRepository.findBuckets(storageItemId, granularity,
+        firstBucket, lastBucket);
+    logger.info("Retrieved {} {} buckets of stock history for storage item ID: {}", buckets.size(),
+        granularity, storageItemId);
+    return buckets;
+  }
+
+  /**
+   * Recalculates the consumption rate and run-out forecast of storage items. The rate is
+   * the amount used per day since the first change within the forecast window.
+   *
+   * @param storageItems the storage items
+   * @param today        the current day
+   * @param now          the current time
+   */
+  private void refreshForecasts(List<StorageItem> storageItems, LocalDate today, Instant now) {
+    List<Long> ids = storageItems.stream().map(StorageItem::getId).toList();
+    Map<Long, StockConsumption> consumptionById = new HashMap<>();
+    stockRollupRepository.findConsumption(ids, StockRollupGranularity.DAY,
+            today.minusDays(FORECAST_WINDOW_DAYS - 1), today)
+        .forEach(consumption -> consumptionById.put(consumption.getStorageItemId(), consumption));
+
+    for (StorageItem storageItem : storageItems) {
+      StockConsumption consumption = consumptionById.get(storageItem.getId());
+      double rate = 0;
+      if (consumption != null && consumption.getConsumed() > 0) {
+        long days = ChronoUnit.DAYS.between(consumption.getFirstBucketStart(), today) + 1;
+        rate = consumption.getConsumed() / days;
+      }
+
+      double stock = storageItem.getCurrentStock();
+      storageItem.setConsumptionPerDay(rate);
+      if (rate > 0 && stock > 0) {
+        long millisLeft = Math.round(stock / rate * Duration.ofDays(1).toMillis());
+        storageItem.setRunsOutAt(Date.from(now.plusMillis(millisLeft)));
+      } else {
+        storageItem.setRunsOutAt(null);
+      }
+    }
+  }
+
+  /**
+   * Returns the first day of the bucket a day belongs to.
+   *
+   * @param granularity the length of the bucket
+   * @param day         the day
+   * @return the day itself for daily buckets, or the Monday of its week for weekly buckets
+   */
+  static LocalDate bucketStart(StockRollupGranularity granularity, LocalDate day) {
+    return granularity == StockRollupGranularity.WEEK
+        ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+        : day;
+  }
+}
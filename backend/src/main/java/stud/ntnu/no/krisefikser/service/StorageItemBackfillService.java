@@ -0,0 +1,132 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+/**
+ * Adds item definitions to existing households.
+ * <p>
+ * New households get a storage item for every item definition when they are created, but
+ * an item definition added later is missing from all existing households.
+ * {@link ItemDefinitionService} adds every definition it creates to all households right
+ * away. On startup, every item definition that is still missing from at least one household,
+ * for example after a failed run, is added to all households.
+ * </p>
+ * <p>
+ * The households are processed in chunks of consecutive IDs, each with one INSERT ... SELECT
+ * statement in its own transaction, so no transaction grows with the number of households.
+ * Households that already have the item are skipped using the unique key on household and
+ * item definition, which makes every chunk idempotent: a run that is interrupted resumes
+ * where it stopped on the next startup, or by calling {@link #backfillItemDefinition} again.
+ * </p>
+ */
+@Service
+public class StorageItemBackfillService {
+
+  private static final Logger logger = LogManager.getLogger(StorageItemBackfillService.class);
+
+  private final ItemDefinitionRepository itemDefinitionRepository;
+  private final HouseholdRepository householdRepository;
+  private final StorageItemRepository storageItemRepository;
+  private final HouseholdPreparednessRepository preparednessRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int chunkSize;
+
+  /**
+   * Constructor for StorageItemBackfillService.
+   *
+   * @param itemDefinitionRepository the item definition repository
+   * @param householdRepository      the household repository
+   * @param storageItemRepository    the storage item repository
+   * @param preparednessRepository   the household preparedness repository
+   * @param transactionManager       the transaction manager
+   * @param enabled                  whether missing item definitions should be added on startup
+   * @param chunkSize                the number of households processed per transaction
+   */
+  public StorageItemBackfillService(ItemDefinitionRepository itemDefinitionRepository,
+                                    HouseholdRepository householdRepository,
+                                    StorageItemRepository storageItemRepository,
+                                    HouseholdPreparednessRepository preparednessRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${storage-item.backfill.enabled:true}") boolean enabled,
+                                    @Value("${storage-item.backfill.chunk-size:1000}") int chunkSize) {
+    this.itemDefinitionRepository = itemDefinitionRepository;
+    this.householdRepository = householdRepository;
+    this.storageItemRepository = storageItemRepository;
+    this.preparednessRepository = preparednessRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Adds every item definition that is missing from at least one household to all households.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    List<Long> itemDefinitionIds = itemDefinitionRepository.findIdsMissingFromAnyHousehold();
+    for (Long itemDefinitionId : itemDefinitionIds) {
+      try {
+        backfillItemDefinition(itemDefinitionId);
+      } catch (RuntimeException e) {
+        logger.error("Failed to add item definition ID {} to all households, it is retried on next startup",
+            itemDefinitionId, e);
+      }
+    }
+  }
+
+  /**
+   * Adds an item definition to every household that does not have it yet, one chunk of
+   * households at a time. The preparedness summary of each household is updated in the
+   * same transaction as its new item.
+   *
+   * @param itemDefinitionId the ID of the item definition
+   * @return the number of created storage items
+   */
+  public int backfillItemDefinition(Long itemDefinitionId) {
+    logger.info("Adding item definition ID {} to all households", itemDefinitionId);
+    int total = 0;
+    long afterHouseholdId = 0;
+    List<Long> householdIds;
+    do {
+      householdIds = householdRepository.findIdsAfter(afterHouseholdId, Limit.of(chunkSize));
+      if (householdIds.isEmpty()) {
+        break;
+      }
+      long after = afterHouseholdId;
+      long last = householdIds.get(householdIds.size() - 1);
+      Integer created = transactionTemplate.execute(status -> {
+        // The summaries are updated first, while the households without the item can still be told apart
+        preparednessRepository.addEmptyItem(itemDefinitionId, after, last);
+        return storageItemRepository.insertMissingForItemDefinition(itemDefinitionId, after, last,
+            Date.from(Instant.now()));
+      });
+      total += created == null ? 0 : created;
+      afterHouseholdId = last;
+      logger.debug("Added item definition ID {} to households up to ID {}", itemDefinitionId, last);
+    } while (householdIds.size() == chunkSize);
+
+    logger.info("Added item definition ID {} to {} households", itemDefinitionId, total);
+    return total;
+  }
+}
@@ -6,12 +6,10 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import stud.ntnu.no.krisefikser.entities.Household;
-import stud.ntnu.no.krisefikser.entities.ItemDefinition;
-import stud.ntnu.no.krisefikser.entities.StorageItem;
-import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
 import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.Date;
 
 @Service
 @RequiredArgsConstructor
@@ -19,28 +17,22 @@ public class StorageItemCreationService {
 
   private static final Logger logger = LogManager.getLogger(StorageItemCreationService.class);
   private final StorageItemRepository storageItemRepository;
-  private final ItemDefinitionRepository itemDefinitionRepository;
-
+  private final PreparednessService preparednessService;
+
+  /**
+   * Creates an empty storage item in a new household for every item definition, with a
+   * single INSERT ... SELECT statement. Item definitions the household already has are skipped.
+   *
+   * @param household the new household, already saved
+   */
   @Transactional
   public void createStorageItemsForNewHousehold(Household household) {
-    // Fetch all item definitions
-    List<ItemDefinition> itemDefinitions = itemDefinitionRepository.findAll();
-
-    // Iterate over all item definitions and create a StorageItem for each
-    for (ItemDefinition itemDefinition : itemDefinitions) {
-      // Check if a StorageItem already exists for the given household and item
-      // definition
-      if (storageItemRepository.existsByHouseholdIdAndItemDefinitionId(household.getId(), itemDefinition.getId())) {
-        continue; // Skip if it already exists
-      }
+    int created = storageItemRepository.insertMissingForHousehold(household.getId(), Date.from(Instant.now()));
 
-      StorageItem storageItem = new StorageItem();
-      storageItem.setHousehold(household);
-      storageItem.setItemDefinition(itemDefinition);
-      storageItem.setCurrentStock(0.0);
-      storageItemRepository.save(storageItem);
+    if (created > 0) {
+      preparednessService.recalculateHouseholdPreparedness(household.getId());
     }
 
-    logger.info("Storage items created for new household: {}", household.getName());
+    logger.info("{} storage items created for new household: {}", created, household.getName());
   }
 }
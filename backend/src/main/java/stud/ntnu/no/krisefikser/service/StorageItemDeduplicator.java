@@ -0,0 +1,192 @@
+package stud.ntnu.no.krisefikser.service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Merges duplicate storage items before the schema is updated.
+ * <p>
+ * A household has at most one storage item per item definition, which the unique key on
+ * household and item definition enforces. Databases created before the key existed may
+ * hold duplicates, and the schema update fails to create the key on them. This runs before
+ * the entity manager factory, and therefore before the schema update, and merges every
+ * group of duplicates into the storage item with the lowest ID, which keeps the sum of their
+ * stock.
+ * </p>
+ * <p>
+ * The history and notifications of the removed duplicates are deleted with them, and the
+ * preparedness summaries of the affected households are deleted so the next read
+ * recalculates them. Everything runs in one transaction, so a failed run leaves the
+ * duplicates in place for the next startup.
+ * </p>
+ */
+@Component("storageItemDeduplicator")
+public class StorageItemDeduplicator {
+
+  private static final Logger logger = LogManager.getLogger(StorageItemDeduplicator.class);
+
+  private static final int DELETE_CHUNK_SIZE = 1000;
+  private static final String STORAGE_ITEM_TABLE = "storage_item";
+  private static final String PREPAREDNESS_TABLE = "household_preparedness";
+  private static final List<String> DEPENDENT_TABLES =
+      List.of("stock_rollup", "stock_event", "notifications", "notification_outbox");
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Constructor for StorageItemDeduplicator. Works on the data source directly, since it runs
+   * before the JPA transaction manager is available.
+   *
+   * @param dataSource the data source
+   */
+  public StorageItemDeduplicator(DataSource dataSource) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+  }
+
+  /**
+   * Merges the duplicates on startup.
+   */
+  @PostConstruct
+  public void start() {
+    int removed = deduplicate();
+    if (removed > 0) {
+      logger.warn("Merged {} duplicate storage items", removed);
+    }
+  }
+
+  /**
+   * Merges every group of storage items of the same household and item definition into the
+   * one with the lowest ID.
+   *
+   * @return the number of removed storage items
+   */
+  public int deduplicate() {
+    Set<String> tables = existingTables();
+    if (!tables.contains(STORAGE_ITEM_TABLE)) {
+      return 0;
+    }
+
+    Map<List<Long>, List<Object[]>> groups = new LinkedHashMap<>();
+    jdbcTemplate.query("SELECT s.id, s.household_id, s.item_id, s.current_stock FROM storage_item s "
+            + "JOIN (SELECT household_id, item_id FROM storage_item GROUP BY household_id, item_id "
+            + "HAVING COUNT(*) > 1) d ON s.household_id = d.household_id AND s.item_id = d.item_id "
+            + "ORDER BY s.household_id, s.item_id, s.id",
+        (ResultSet rs) -> {
+          groups.computeIfAbsent(List.of(rs.getLong("household_id"), rs.getLong("item_id")), key -> new ArrayList<>())
+              .add(new Object[] {rs.getLong("id"), rs.getDouble("current_stock")});
+        });
+    if (groups.isEmpty()) {
+      return 0;
+    }
+
+    List<Object[]> merged = new ArrayList<>();
+    List<Long> duplicateIds = new ArrayList<>();
+    Set<Long> householdIds = new LinkedHashSet<>();
+    groups.forEach((key, rows) -> {
+      double stock = 0;
+      for (Object[] row : rows) {
+        stock += (double) row[1];
+      }
+      merged.add(new Object[] {stock, rows.get(0)[0]});
+      rows.subList(1, rows.size()).forEach(row -> duplicateIds.add((Long) row[0]));
+      householdIds.add(key.get(0));
+    });
+
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.batchUpdate("UPDATE storage_item SET current_stock = ?, version = version + 1 WHERE id = ?",
+          merged);
+      for (String table : DEPENDENT_TABLES) {
+        if (tables.contains(table)) {
+          deleteIn(table, "storage_item_id", duplicateIds);
+        }
+      }
+      deleteIn(STORAGE_ITEM_TABLE, "id", duplicateIds);
+      if (tables.contains(PREPAREDNESS_TABLE)) {
+        deleteIn(PREPAREDNESS_TABLE, "household_id", householdIds);
+      }
+    });
+    logger.info("Merged {} duplicate storage items into {} storage items of {} households",
+        duplicateIds.size(), merged.size(), householdIds.size());
+    return duplicateIds.size();
+  }
+
+  /**
+   * Deletes the rows of a table whose column matches any of the given IDs, in chunks that
+   * keep the statements short.
+   *
+   * @param table  the table
+   * @param column the column holding the IDs
+   * @param ids    the IDs
+   */
+  private void deleteIn(String table, String column, Iterable<Long> ids) {
+    List<Long> chunk = new ArrayList<>();
+    for (Long id : ids) {
+      chunk.add(id);
+      if (chunk.size() == DELETE_CHUNK_SIZE) {
+        namedJdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " IN (:ids)", Map.of("ids", chunk));
+        chunk = new ArrayList<>();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      namedJdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " IN (:ids)", Map.of("ids", chunk));
+    }
+  }
+
+  /**
+   * Finds which of the tables touched by the merge exist, since the schema may not have been
+   * created yet.
+   *
+   * @return the lower case names of the existing tables
+   */
+  private Set<String> existingTables() {
+    List<String> candidates = new ArrayList<>(DEPENDENT_TABLES);
+    candidates.add(STORAGE_ITEM_TABLE);
+    candidates.add(PREPAREDNESS_TABLE);
+
+    Set<String> existing = new HashSet<>();
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      for (String table : candidates) {
+        // Unquoted names are stored in upper case by some databases
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+          try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[] {"TABLE"})) {
+            if (tables.next()) {
+              existing.add(table);
+              break;
+            }
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to read the database schema", e);
+    }
+    return existing;
+  }
+}
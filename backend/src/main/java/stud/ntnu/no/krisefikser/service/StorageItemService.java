@@ -1,8 +1,12 @@
 package stud.ntnu.no.krisefikser.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,19 +15,29 @@ import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import stud.ntnu.no.krisefikser.dtos.mappers.StorageItemMapper;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemBulkStockUpdateRequest;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemResponse;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemRow;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockAdjustRequest;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockUpdateRequest;
 import stud.ntnu.no.krisefikser.entities.StorageItem;
 import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.exception.customExceptions.EntityOperationException;
+import stud.ntnu.no.krisefikser.exception.customExceptions.StorageItemVersionConflictException;
 import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
 
 /**
  * Service class for managing storage items.
  * <p>
  * This class provides methods to retrieve storage items and update their stock levels.
- * It also integrates with the notification system to generate alerts for low stock
- * and expiring items.
+ * Stock changes are queued for the notification system, which generates alerts for low
+ * stock and expiring items in the background.
+ * </p>
+ * <p>
+ * Household members may change the same item at the same time. Relative changes are
+ * applied with single atomic updates, so they never overwrite each other. Absolute changes
+ * are checked against the version of the item, and rejected if it changed since it was read.
  * </p>
  */
 @Service
@@ -35,40 +49,43 @@ public class StorageItemService {
   private final StorageItemRepository storageItemRepository;
   private final HouseholdService householdService;
   private final ItemCategoryService categoryService;
-  private final NotificationService notificationService;
+  private final NotificationOutboxService notificationOutboxService;
+  private final ExpirationNotificationScheduler expirationScheduler;
+  private final PreparednessService preparednessService;
+  private final StockHistoryService stockHistoryService;
   private static final double EPSILON = 0.001; // Tolerance for floating point comparison
 
   /**
    * Retrieves all storage items for a given Household Id and Item Category Id
    * and maps them to StorageItemResponse DTOs.
+   * <p>
+   * The items are read with a single projection query, and the household size with
+   * another, so the number of queries does not grow with the number of items.
+   * </p>
    *
    * @param householdId the ID of the household
    * @param categoryId  the ID of the item category
    * @return a list of StorageItemResponse DTOs
    */
-  @Transactional
+  @Transactional(readOnly = true)
   public List<StorageItemResponse> getStorageItemsByHouseholdAndCategory(Long householdId, Long categoryId) {
     logger.info("Fetching all storage items for household ID: {} and category ID: {}", householdId, categoryId);
 
-    // Check if household exists
-    if (!householdService.existsById(householdId)) {
-      logger.error("Household with ID {} not found", householdId);
-      throw new AppEntityNotFoundException(CustomErrorMessage.HOUSEHOLD_NOT_FOUND);
-    }
+    // Fails if the household does not exist
+    int householdSize = householdService.getMemberCount(householdId);
+
+    // Fetch storage items based on household and category
+    List<StorageItemRow> rows = storageItemRepository.findRowsByHouseholdIdAndCategoryId(householdId, categoryId);
 
-    // Check if category exists
-    if (!categoryService.existsById(categoryId)) {
+    // An unknown category has no items, so it only needs checking if nothing was found
+    if (rows.isEmpty() && !categoryService.existsById(categoryId)) {
       logger.error("Item category with ID {} not found", categoryId);
       throw new AppEntityNotFoundException(CustomErrorMessage.ITEM_CATEGORY_NOT_FOUND);
     }
 
-    // Fetch storage items based on household and category
-    List<StorageItem> storageItems = storageItemRepository.findByHouseholdIdAndItemDefinition_CategoryId(householdId,
-        categoryId);
-
-    // Map the list of StorageItem entities to StorageItemResponse DTOs
-    List<StorageItemResponse> storageItemResponses = storageItems.stream()
-        .map(StorageItemMapper::toDto)
+    // Map the rows to StorageItemResponse DTOs
+    List<StorageItemResponse> storageItemResponses = rows.stream()
+        .map(row -> StorageItemMapper.toDto(row, householdSize))
         .toList();
 
     logger.info("Retrieved {} storage items for household ID: {} and category ID: {}", storageItemResponses.size(),
@@ -80,24 +97,23 @@ public class StorageItemService {
   /**
    * Retrieves all storage items for a given Household Id
    * and maps them to StorageItemResponse DTOs.
+   * <p>
+   * The items are read with a single projection query, and the household size with
+   * another, so the number of queries does not grow with the number of items.
+   * </p>
    *
    * @param householdId the ID of the household
    * @return a list of StorageItemResponse DTOs
    */
-  @Transactional
+  @Transactional(readOnly = true)
   public List<StorageItemResponse> getStorageItemsByHousehold(Long householdId) {
-    // Check if household exists
-    if (!householdService.existsById(householdId)) {
-      logger.error("Household with ID {} not found", householdId);
-      throw new AppEntityNotFoundException(CustomErrorMessage.HOUSEHOLD_NOT_FOUND);
-    }
-
-    // Fetch storage items based on household
-    List<StorageItem> storageItems = storageItemRepository.findByHouseholdId(householdId);
+    // Fails if the household does not exist
+    int householdSize = householdService.getMemberCount(householdId);
 
-    // Map the list of StorageItem entities to StorageItemResponse DTOs
-    List<StorageItemResponse> storageItemResponses = storageItems.stream()
-        .map(StorageItemMapper::toDto)
+    // Fetch storage items based on household and map them to StorageItemResponse DTOs
+    List<StorageItemResponse> storageItemResponses = storageItemRepository.findRowsByHouseholdId(householdId)
+        .stream()
+        .map(row -> StorageItemMapper.toDto(row, householdSize))
         .toList();
 
     logger.info("Retrieved {} storage items for household ID: {}", storageItemResponses.size(), householdId);
@@ -106,10 +122,12 @@ public class StorageItemService {
   }
 
   /**
-   * Updates the stock quantity of a storage item and checks for low stock and expiration conditions.
+   * Updates the stock quantity of a storage item and queues a check for low stock and
+   * expiration conditions.
    *
    * @param request the request containing the storage item ID and new stock
    * @return the updated StorageItem entity
+   * @throws StorageItemVersionConflictException if the request has a version and the item has changed since
    */
 
   @Transactional
@@ -122,29 +140,194 @@ public class StorageItemService {
           return new AppEntityNotFoundException(CustomErrorMessage.STORAGE_ITEM_NOT_FOUND);
         });
 
-    double oldStock = storageItem.getCurrentStock();
-    double newStock = request.getNewStock();
+    checkVersion(storageItem, request.getVersion());
+    double delta = applyStockChange(storageItem, request.getNewStock());
+    stockHistoryService.record(storageItem, delta);
+    preparednessService.updateItemScore(storageItem);
+
+    StorageItem updated = storageItemRepository.saveAndFlush(storageItem);
+    logger.info("Successfully updated stock for storage item ID: {} to new quantity: {}", request.getId(),
+        request.getNewStock());
+
+    // Notifications are evaluated asynchronously once this transaction commits
+    notificationOutboxService.enqueue(updated);
+    // Later expiration transitions are scheduled to fire on time
+    expirationScheduler.track(updated);
+
+    StorageItemResponse response = StorageItemMapper.toDto(updated);
+    logger.info("Mapped updated storage item to DTO: {}", response);
+
+    return response;
+  }
+
+  /**
+   * Adds to or removes from the stock of a storage item and queues a check for low stock
+   * and expiration conditions.
+   * <p>
+   * The stock is changed with a single atomic update, so concurrent adjustments of the same
+   * item are never lost and no lock is taken while reading. The item is then read back to
+   * record the change and refresh the fields derived from the stock, which are written
+   * without another version increment. Adding stock marks the item as restocked. Removing
+   * more than the stock is rejected, except for rounding differences, which empty the item.
+   * </p>
+   *
+   * @param request the request containing the storage item ID and the amount to add
+   * @return the updated storage item
+   * @throws AppEntityNotFoundException          if the storage item does not exist
+   * @throws EntityOperationException            if there is not enough stock to remove the amount
+   * @throws StorageItemVersionConflictException if the stock changed while a rounding difference was emptied
+   */
+  @Transactional
+  public StorageItemResponse adjustStock(StorageItemStockAdjustRequest request) {
+    Long id = request.getId();
+    double delta = request.getDelta();
+    logger.info("Adjusting stock for storage item ID: {} by {}", id, delta);
 
+    int updatedRows = delta >= 0
+        ? storageItemRepository.incrementStock(id, delta, Date.from(Instant.now()))
+        : storageItemRepository.decrementStock(id, -delta);
+    if (updatedRows == 0) {
+      delta = emptyWithinRoundingDifference(id, delta);
+    }
+
+    // The row stays locked by the update until commit, so this read sees the final stock
+    StorageItem storageItem = storageItemRepository.findReadOnlyWithDetailsById(id)
+        .orElseThrow(() -> new AppEntityNotFoundException(CustomErrorMessage.STORAGE_ITEM_NOT_FOUND));
+    storageItem.refreshExpiresAt();
+    stockHistoryService.record(storageItem, delta);
+    preparednessService.updateItemScore(storageItem);
+    storageItemRepository.updateDerivedFields(id, storageItem.getExpiresAt(), storageItem.getConsumptionPerDay(),
+        storageItem.getRunsOutAt(), storageItem.getPreparednessScore(), storageItem.isAdequate(),
+        storageItem.isExpiringSoon());
+    logger.info("Successfully adjusted stock for storage item ID: {} to new quantity: {}", id,
+        storageItem.getCurrentStock());
+
+    notificationOutboxService.enqueue(storageItem);
+    expirationScheduler.track(storageItem);
+
+    return StorageItemMapper.toDto(storageItem);
+  }
+
+  /**
+   * Empties a storage item whose stock is lower than the amount to remove by no more than a
+   * rounding difference, with an update that only applies if the stock is unchanged.
+   *
+   * @param id    the ID of the storage item
+   * @param delta the requested change of the stock, negative
+   * @return the change actually made
+   * @throws AppEntityNotFoundException          if the storage item does not exist
+   * @throws EntityOperationException            if there is not enough stock to remove the amount
+   * @throws StorageItemVersionConflictException if the stock changed since it was read
+   */
+  private double emptyWithinRoundingDifference(Long id, double delta) {
+    double stock = storageItemRepository.findCurrentStockById(id)
+        .orElseThrow(() -> {
+          logger.error("Storage item with ID {} not found", id);
+          return new AppEntityNotFoundException(CustomErrorMessage.STORAGE_ITEM_NOT_FOUND);
+        });
+    if (stock + delta < -EPSILON) {
+      logger.error("Not enough stock to remove {} from storage item ID: {}", -delta, id);
+      throw new EntityOperationException(CustomErrorMessage.STORAGE_ITEM_INSUFFICIENT_STOCK);
+    }
+    if (storageItemRepository.emptyStock(id, stock) == 0) {
+      logger.error("Stock of storage item ID: {} changed while it was being emptied", id);
+      throw new StorageItemVersionConflictException();
+    }
+    return -stock;
+  }
+
+  /**
+   * Updates the stock quantity of several storage items in one transaction.
+   * <p>
+   * The items are loaded with one query and written in JDBC batches when the transaction
+   * commits. The stock history of all items is written with one batched statement for the
+   * events and one for the rollups. The preparedness summary is updated once per household,
+   * and a single outbox write queues the notification evaluation, which the dispatcher runs
+   * once per household.
+   * If any of the items does not exist or has changed since the given version, nothing is
+   * updated.
+   * </p>
+   *
+   * @param request the request containing the stock updates
+   * @return the updated storage items, in the order they were first requested
+   * @throws AppEntityNotFoundException if any of the storage items does not exist
+   * @throws StorageItemVersionConflictException if any of the storage items has changed since its given version
+   */
+  @Transactional
+  public List<StorageItemResponse> updateStocks(StorageItemBulkStockUpdateRequest request) {
+    Map<Long, StorageItemStockUpdateRequest> updatesById = new LinkedHashMap<>();
+    request.getUpdates().forEach(update -> updatesById.put(update.getId(), update));
+    logger.info("Updating stock for {} storage items", updatesById.size());
+
+    Map<Long, StorageItem> itemsById = new HashMap<>();
+    storageItemRepository.findAllWithDetailsByIdIn(updatesById.keySet())
+        .forEach(item -> itemsById.put(item.getId(), item));
+    if (itemsById.size() < updatesById.size()) {
+      List<Long> missing = updatesById.keySet().stream().filter(id -> !itemsById.containsKey(id)).toList();
+      logger.error("Storage items with IDs {} not found", missing);
+      throw new AppEntityNotFoundException(CustomErrorMessage.STORAGE_ITEM_NOT_FOUND);
+    }
+
+    List<StorageItem> updated = new ArrayList<>();
+    Map<StorageItem, Double> deltas = new LinkedHashMap<>();
+    Map<Long, Long> householdIdsByStorageItemId = new LinkedHashMap<>();
+    updatesById.forEach((id, update) -> {
+      StorageItem storageItem = itemsById.get(id);
+      checkVersion(storageItem, update.getVersion());
+      deltas.put(storageItem, applyStockChange(storageItem, update.getNewStock()));
+      updated.add(storageItem);
+      householdIdsByStorageItemId.put(id, storageItem.getHousehold().getId());
+    });
+
+    stockHistoryService.recordAll(deltas);
+    preparednessService.updateItemScores(updated);
+    notificationOutboxService.enqueueAll(householdIdsByStorageItemId);
+    updated.forEach(expirationScheduler::track);
+
+    logger.info("Successfully updated stock for {} storage items", updated.size());
+    return updated.stream()
+        .map(StorageItemMapper::toDto)
+        .toList();
+  }
+
+  /**
+   * Checks that a storage item has not changed since the version a client read.
+   *
+   * @param storageItem     the storage item
+   * @param expectedVersion the version the client read, or null to skip the check
+   * @throws StorageItemVersionConflictException if the item has a different version
+   */
+  private void checkVersion(StorageItem storageItem, Long expectedVersion) {
+    if (expectedVersion != null && expectedVersion != storageItem.getVersion()) {
+      logger.error("Storage item ID: {} has version {}, but the update was based on version {}",
+          storageItem.getId(), storageItem.getVersion(), expectedVersion);
+      throw new StorageItemVersionConflictException();
+    }
+  }
+
+  /**
+   * Sets the new stock of a storage item. The restock date is moved to now unless the
+   * stock decreased, and the expiration date is recalculated. The caller records the
+   * change in the stock history.
+   *
+   * @param storageItem the storage item to update
+   * @param newStock    the new stock
+   * @return the change of the stock
+   */
+  private double applyStockChange(StorageItem storageItem, double newStock) {
+    double oldStock = storageItem.getCurrentStock();
     storageItem.setCurrentStock(newStock);
 
     if (newStock > oldStock) {
       storageItem.setLastRestockedAt(Date.from(Instant.now()));
-      logger.info("Set last restocked date to current date for storage item ID: {}", request.getId());
+      logger.info("Set last restocked date to current date for storage item ID: {}", storageItem.getId());
     } else if (Math.abs(oldStock - newStock) < EPSILON) {
       storageItem.setLastRestockedAt(Date.from(Instant.now()));
-      logger.info("Stock unchanged for storage item ID: {}", request.getId());
+      logger.info("Stock unchanged for storage item ID: {}", storageItem.getId());
     } else {
-      logger.info("Stock decreased, leaving timestamp unchanged: {}", request.getId());
+      logger.info("Stock decreased, leaving timestamp unchanged: {}", storageItem.getId());
     }
-
-    StorageItem updated = storageItemRepository.saveAndFlush(storageItem);
-    logger.info("Successfully updated stock for storage item ID: {} to new quantity: {}", request.getId(), newStock);
-
-    notificationService.checkAndGenerateNotifications(updated);
-
-    StorageItemResponse response = StorageItemMapper.toDto(updated);
-    logger.info("Mapped updated storage item to DTO: {}", response);
-
-    return response;
+    storageItem.refreshExpiresAt();
+    return newStock - oldStock;
   }
 }
@@ -4,13 +4,13 @@ import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.ResponseCookie;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import stud.ntnu.no.krisefikser.config.JWTUtil;
 import stud.ntnu.no.krisefikser.config.SecurityUtil;
 import stud.ntnu.no.krisefikser.dtos.auth.LoginRequest;
@@ -26,7 +26,6 @@ import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundExce
 import stud.ntnu.no.krisefikser.exception.customExceptions.EntityAlreadyExistsException;
 import stud.ntnu.no.krisefikser.repository.UserRepository;
 import stud.ntnu.no.krisefikser.repository.VerificationTokenRepository;
-import org.springframework.mail.*;
 
 import java.util.Set;
 import java.util.UUID;
@@ -45,14 +44,19 @@ public class UserService {
   private final CustomUserDetailsService customUserDetailsService;
   private final JWTUtil jwtUtil;
   private final VerificationTokenRepository verificationTokenRepository;
-  private final JavaMailSender mailSender;
+  private final MailOutboxService mailOutboxService;
   private final SecurityUtil securityUtil;
   private final CaptchaService captchaService;
   /**
    * Registers a new user with the provided details.
+   * <p>
+   * The verification email is queued in the same transaction as the user, and is sent
+   * in the background once the registration has been committed.
+   * </p>
    *
    * @param registerRequest the registration request containing user details
    */
+  @Transactional
   public void register(RegisterRequest registerRequest) {
     if (userRepository.existsByEmail(registerRequest.getEmail())) {
       logger.error("Email '{}' is already taken", registerRequest.getEmail());
@@ -75,31 +79,27 @@ public class UserService {
     role.setUser(user);
     user.setUserRoles(Set.of(role));
 
-    VerificationToken verificationToken = createVerificationTokenAndSendVerificationEmail(user);
-    //only save user if mail is sent
+    VerificationToken verificationToken = createVerificationTokenAndQueueVerificationEmail(user);
+    //only save user if mail is queued
     userRepository.save(user);
     verificationTokenRepository.save(verificationToken);
     logger.info("User with email '{}' registered successfully, the account is not yet enabled", registerRequest.getEmail());
   }
 
   /**
-   * Creates a verification token for the user and sends a verification email.
+   * Creates a verification token for the user and queues a verification email.
    *
    * @param user the user to create a verification token for
    */
-  private VerificationToken createVerificationTokenAndSendVerificationEmail(User user) {
+  private VerificationToken createVerificationTokenAndQueueVerificationEmail(User user) {
     logger.info("Creating verification token for user '{}'", user.getEmail());
     String token = UUID.randomUUID().toString();
     VerificationToken verificationToken = new VerificationToken().setToken(token).setUser(user);
 
-    SimpleMailMessage message = new SimpleMailMessage();
-    message.setTo(user.getEmail());
-    message.setSubject("Complete Registration!");
-    message.setText("To confirm your account, please click here: " +
+    mailOutboxService.enqueue(user.getEmail(), "Complete Registration!",
+        "To confirm your account, please click here: " +
         "http://localhost:5173/verify?token=" + token); //TODO make a verify page on frontend
-
-    mailSender.send(message);
-    logger.info("Verification email sent to '{}'", user.getEmail());
+    logger.info("Verification email queued for '{}'", user.getEmail());
     return verificationToken;
   }
 
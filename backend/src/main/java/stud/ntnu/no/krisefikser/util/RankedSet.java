@@ -0,0 +1,224 @@
+package stud.ntnu.no.krisefikser.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set that also knows the position of its elements, implemented as a treap where
+ * every node stores the size of its subtree.
+ * <p>
+ * Adding, removing, finding the rank of an element and finding the element at a rank all
+ * take expected O(log n) time. The first k elements are read in O(log n + k) time. The
+ * comparator must be consistent with equals, since elements that compare as equal are
+ * treated as the same element.
+ * </p>
+ * <p>
+ * The set is not thread safe.
+ * </p>
+ *
+ * @param <E> the type of the elements
+ */
+public class RankedSet<E> {
+
+  private final Comparator<? super E> comparator;
+  private Node<E> root;
+
+  /**
+   * Creates an empty set.
+   *
+   * @param comparator the order of the elements
+   */
+  public RankedSet(Comparator<? super E> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Returns the number of elements in the set.
+   *
+   * @return the number of elements
+   */
+  public int size() {
+    return size(root);
+  }
+
+  /**
+   * Adds an element, unless an equal element is already in the set.
+   *
+   * @param element the element to add
+   * @return true if the element was added
+   */
+  public boolean add(E element) {
+    if (rank(element) >= 0) {
+      return false;
+    }
+    Node<E>[] parts = split(root, element);
+    root = merge(merge(parts[0], new Node<>(element)), parts[1]);
+    return true;
+  }
+
+  /**
+   * Removes an element.
+   *
+   * @param element the element to remove
+   * @return true if the element was in the set
+   */
+  public boolean remove(E element) {
+    if (rank(element) < 0) {
+      return false;
+    }
+    Node<E>[] parts = split(root, element);
+    root = merge(parts[0], removeFirst(parts[1]));
+    return true;
+  }
+
+  /**
+   * Returns the position of an element in the set.
+   *
+   * @param element the element
+   * @return the number of elements before it, or -1 if it is not in the set
+   */
+  public int rank(E element) {
+    int before = 0;
+    Node<E> node = root;
+    while (node != null) {
+      int order = comparator.compare(element, node.value);
+      if (order < 0) {
+        node = node.left;
+      } else if (order > 0) {
+        before += size(node.left) + 1;
+        node = node.right;
+      } else {
+        return before + size(node.left);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the element at a position in the set.
+   *
+   * @param index the position, from 0
+   * @return the element
+   * @throws IndexOutOfBoundsException if the index is negative or not less than the size
+   */
+  public E get(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+    }
+    Node<E> node = root;
+    while (true) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index > leftSize) {
+        index -= leftSize + 1;
+        node = node.right;
+      } else {
+        return node.value;
+      }
+    }
+  }
+
+  /**
+   * Returns the first elements of the set, in order.
+   *
+   * @param count the maximum number of elements to return
+   * @return the first elements
+   */
+  public List<E> head(int count) {
+    List<E> head = new ArrayList<>(Math.max(0, Math.min(count, size())));
+    Deque<Node<E>> path = new ArrayDeque<>();
+    Node<E> node = root;
+    while (head.size() < count && (node != null || !path.isEmpty())) {
+      while (node != null) {
+        path.push(node);
+        node = node.left;
+      }
+      node = path.pop();
+      head.add(node.value);
+      node = node.right;
+    }
+    return head;
+  }
+
+  /**
+   * Splits a subtree into the elements before a value and the elements from the value on.
+   */
+  private Node<E>[] split(Node<E> node, E value) {
+    @SuppressWarnings("unchecked")
+    Node<E>[] parts = new Node[2];
+    if (node == null) {
+      return parts;
+    }
+    if (comparator.compare(node.value, value) < 0) {
+      Node<E>[] right = split(node.right, value);
+      node.right = right[0];
+      parts[0] = node.update();
+      parts[1] = right[1];
+    } else {
+      Node<E>[] left = split(node.left, value);
+      node.left = left[1];
+      parts[0] = left[0];
+      parts[1] = node.update();
+    }
+    return parts;
+  }
+
+  /**
+   * Merges two subtrees where every element of the first comes before the second.
+   */
+  private Node<E> merge(Node<E> first, Node<E> second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    if (first.priority > second.priority) {
+      first.right = merge(first.right, second);
+      return first.update();
+    }
+    second.left = merge(first, second.left);
+    return second.update();
+  }
+
+  /**
+   * Removes the first element of a non-empty subtree.
+   */
+  private Node<E> removeFirst(Node<E> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = removeFirst(node.left);
+    return node.update();
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * A node of the treap. The priorities are random, which keeps the tree balanced in
+   * expectation.
+   */
+  private static final class Node<E> {
+    private final E value;
+    private final int priority = ThreadLocalRandom.current().nextInt();
+    private int size = 1;
+    private Node<E> left;
+    private Node<E> right;
+
+    private Node(E value) {
+      this.value = value;
+    }
+
+    private Node<E> update() {
+      size = 1 + size(left) + size(right);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package stud.ntnu.no.krisefikser.util;
+
+/**
+ * Simple thread safe token bucket used for rate limiting.
+ * <p>
+ * The bucket holds up to {@code capacity} tokens and is refilled continuously at
+ * {@code refillPerSecond} tokens per second. Each permitted operation consumes one token.
+ * </p>
+ */
+public class TokenBucket {
+
+  private final double capacity;
+  private final double refillPerNano;
+  private double tokens;
+  private long lastRefill;
+
+  /**
+   * Creates a full token bucket.
+   *
+   * @param capacity        the maximum number of tokens, i.e. the allowed burst size
+   * @param refillPerSecond the number of tokens added per second
+   */
+  public TokenBucket(double capacity, double refillPerSecond) {
+    this.capacity = capacity;
+    this.refillPerNano = refillPerSecond / 1_000_000_000d;
+    this.tokens = capacity;
+    this.lastRefill = System.nanoTime();
+  }
+
+  /**
+   * Takes a token if one is available.
+   *
+   * @return true if a token was taken, false if the rate limit is reached
+   */
+  public synchronized boolean tryAcquire() {
+    refill();
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  /**
+   * Checks whether a token is available, without taking it.
+   *
+   * @return true if a token is available, false if the rate limit is reached
+   */
+  public synchronized boolean hasToken() {
+    refill();
+    return tokens >= 1;
+  }
+
+  /**
+   * Adds the tokens accumulated since the last refill.
+   */
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+    lastRefill = now;
+  }
+}
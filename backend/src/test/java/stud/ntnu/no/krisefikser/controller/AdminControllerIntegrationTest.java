@@ -0,0 +1,64 @@
+package stud.ntnu.no.krisefikser.controller;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Tests which roles may use the admin endpoints. Both administrators and super administrators
+ * are allowed, other users are forbidden.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AdminControllerIntegrationTest {
+
+  private static final String[] ADMIN_ENDPOINTS = {
+      "/api/admin/cache-statistics",
+      "/api/admin/preparedness-statistics",
+      "/api/admin/quiz-analytics"
+  };
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  @WithMockUser(roles = "USER")
+  void testUserIsForbidden() throws Exception {
+    expectForAllEndpoints(status().isForbidden());
+  }
+
+  @Test
+  @WithMockUser(roles = {"USER", "ADMIN"})
+  void testAdminIsAllowed() throws Exception {
+    expectForAllEndpoints(status().isOk());
+  }
+
+  @Test
+  @WithMockUser(roles = {"USER", "SUPER_ADMIN"})
+  void testSuperAdminIsAllowed() throws Exception {
+    expectForAllEndpoints(status().isOk());
+  }
+
+  private void expectForAllEndpoints(ResultMatcher expected) throws Exception {
+    for (String endpoint : ADMIN_ENDPOINTS) {
+      mockMvc.perform(get(endpoint)).andExpect(expected);
+    }
+    mockMvc.perform(post("/api/preparedness/batch")
+            .with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"householdIds\": [1, 2]}"))
+        .andExpect(expected);
+  }
+}
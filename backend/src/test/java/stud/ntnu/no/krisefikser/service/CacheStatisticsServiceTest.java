@@ -0,0 +1,141 @@
+package stud.ntnu.no.krisefikser.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.cache.CacheRegionStatisticsResponse;
+import stud.ntnu.no.krisefikser.dtos.itemCategory.ItemCategoryRequest;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationRepository;
+import stud.ntnu.no.krisefikser.repository.StockEventRepository;
+import stud.ntnu.no.krisefikser.repository.StockRollupRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CacheStatisticsServiceTest {
+
+  @Autowired
+  private CacheStatisticsService cacheStatisticsService;
+
+  @Autowired
+  private ItemCategoryService itemCategoryService;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private StockEventRepository stockEventRepository;
+
+  @Autowired
+  private StockRollupRepository stockRollupRepository;
+
+  @Autowired
+  private NotificationRepository notificationRepository;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private Long categoryId;
+
+  @BeforeEach
+  public void setUp() {
+    // Rows left by other test classes may still reference the item definitions
+    stockRollupRepository.deleteAll();
+    stockEventRepository.deleteAll();
+    notificationOutboxRepository.deleteAll();
+    notificationRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    categoryId = itemCategoryRepository.save(new ItemCategory().setName("Mat")).getId();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  public void testFindByIdIsServedFromEntityCache() {
+    itemCategoryRepository.findById(categoryId);
+    itemCategoryRepository.findById(categoryId);
+
+    assertTrue(statistics.getDomainDataRegionStatistics("itemCategory").getHitCount() >= 1);
+  }
+
+  @Test
+  public void testCategoryListIsServedFromQueryCache() {
+    itemCategoryService.getAllItemCategories();
+    itemCategoryService.getAllItemCategories();
+
+    assertEquals(1, statistics.getQueryCacheHitCount());
+  }
+
+  @Test
+  public void testCreateCategoryInvalidatesCachedList() {
+    assertEquals(1, itemCategoryService.getAllItemCategories().size());
+
+    itemCategoryService.createCategory(new ItemCategoryRequest("Vann"));
+
+    assertEquals(2, itemCategoryService.getAllItemCategories().size());
+  }
+
+  @Test
+  public void testGetCacheStatisticsReportsHitRate() {
+    itemCategoryRepository.findById(categoryId);
+    itemCategoryRepository.findById(categoryId);
+
+    List<CacheRegionStatisticsResponse> regions = cacheStatisticsService.getCacheStatistics();
+
+    CacheRegionStatisticsResponse categories = regions.stream()
+        .filter(region -> region.getRegion().equals("itemCategory"))
+        .findFirst()
+        .orElseThrow();
+    assertTrue(categories.getHitCount() >= 1);
+    assertTrue(categories.getHitRate() > 0 && categories.getHitRate() <= 1);
+  }
+
+  @Test
+  public void testGetCacheStatisticsWithoutHibernateStatistics() {
+    // Production leaves Hibernate statistics off, the counts come from the cache itself
+    statistics.setStatisticsEnabled(false);
+    try {
+      long before = hitCount("itemCategory");
+      itemCategoryRepository.findById(categoryId);
+      itemCategoryRepository.findById(categoryId);
+
+      assertTrue(hitCount("itemCategory") > before);
+    } finally {
+      statistics.setStatisticsEnabled(true);
+    }
+  }
+
+  private long hitCount(String region) {
+    return cacheStatisticsService.getCacheStatistics().stream()
+        .filter(statistics -> statistics.getRegion().equals(region))
+        .mapToLong(CacheRegionStatisticsResponse::getHitCount)
+        .sum();
+  }
+}
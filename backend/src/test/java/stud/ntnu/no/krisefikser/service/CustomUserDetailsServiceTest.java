@@ -0,0 +1,140 @@
+package stud.ntnu.no.krisefikser.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.config.JWTUtil;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.Role;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.entities.UserRole;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CustomUserDetailsServiceTest {
+
+  @Autowired
+  private CustomUserDetailsService userDetailsService;
+
+  @Autowired
+  private JWTUtil jwtUtil;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Value("${security.jwt.secret-key}")
+  private String secretKey;
+
+  private User user;
+
+  @BeforeEach
+  public void setUp() {
+    user = new User()
+        .setFirstName("Admin")
+        .setLastName("User")
+        .setEmail("admin.user." + System.nanoTime() + "@example.com")
+        .setPassword("password")
+        .setEnabled(true);
+    user.getUserRoles().add(new UserRole().setUser(user).setRole(Role.ROLE_USER));
+    user.getUserRoles().add(new UserRole().setUser(user).setRole(Role.ROLE_ADMIN));
+    user = userRepository.save(user);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    // Other test classes clear the users and households
+    Household household = userRepository.findById(user.getId()).orElseThrow().getHousehold();
+    userRepository.deleteById(user.getId());
+    if (household != null) {
+      householdRepository.deleteById(household.getId());
+    }
+  }
+
+  @Test
+  public void testTokenCarriesUserIdWithoutRoles() {
+    String token = jwtUtil.generateToken(user);
+
+    Claims claims = jwtUtil.parseToken(token).orElseThrow();
+    assertEquals(user.getId(), jwtUtil.extractUserId(claims));
+    assertEquals(user.getEmail(), claims.getSubject());
+    // The roles are read from the cached principal, so the token does not carry them
+    assertFalse(claims.containsKey("roles"));
+  }
+
+  @Test
+  public void testInvalidTokensAreRejected() {
+    String token = jwtUtil.generateToken(user);
+
+    assertTrue(jwtUtil.parseToken(token.substring(0, token.length() - 2) + "xx").isEmpty());
+    assertTrue(jwtUtil.parseToken("not-a-token").isEmpty());
+
+    String expired = Jwts.builder()
+        .setSubject(user.getEmail())
+        .setExpiration(new Date(System.currentTimeMillis() - 1000))
+        .signWith(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+        .compact();
+    assertTrue(jwtUtil.parseToken(expired).isEmpty());
+  }
+
+  @Test
+  public void testPrincipalIsLoadedByUserId() {
+    AuthenticatedUser principal = userDetailsService.loadAuthenticatedUser(user.getId()).orElseThrow();
+
+    assertEquals(user.getId(), principal.getId());
+    assertEquals(user.getEmail(), principal.getName());
+    assertNull(principal.getHouseholdId());
+    assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"),
+        principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList());
+
+    assertTrue(userDetailsService.loadAuthenticatedUser(-1L).isEmpty());
+  }
+
+  @Test
+  public void testPrincipalOfTokenWithoutUserIdIsLoadedBySubject() {
+    String legacyToken = Jwts.builder()
+        .setSubject(user.getEmail())
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .signWith(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+        .compact();
+
+    Claims claims = jwtUtil.parseToken(legacyToken).orElseThrow();
+    assertNull(jwtUtil.extractUserId(claims));
+    assertEquals(user.getId(),
+        userDetailsService.loadAuthenticatedUser(claims.getSubject()).orElseThrow().getId());
+  }
+
+  @Test
+  public void testEvictedPrincipalSeesNewHousehold() {
+    assertNull(userDetailsService.loadAuthenticatedUser(user.getId()).orElseThrow().getHouseholdId());
+
+    Household household = householdRepository.save(new Household().setName("Test Household"));
+    userRepository.save(user.setHousehold(household));
+
+    // Cached until evicted
+    assertNull(userDetailsService.loadAuthenticatedUser(user.getId()).orElseThrow().getHouseholdId());
+    userDetailsService.evictAuthenticatedUser(user.getId());
+    assertEquals(household.getId(), userDetailsService.loadAuthenticatedUser(user.getId()).orElseThrow().getHouseholdId());
+  }
+}
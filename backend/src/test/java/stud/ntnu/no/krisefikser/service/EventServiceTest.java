@@ -36,6 +36,9 @@ class EventServiceTest {
   @Mock
   private EventMapper eventMapper;
 
+  @Mock
+  private EventAlertService eventAlertService;
+
   @InjectMocks
   private EventService eventService;
 
@@ -146,6 +149,7 @@ class EventServiceTest {
 
     assertEquals(response, result);
     verify(eventRepository).save(entity);
+    verify(eventAlertService).alertAffectedHouseholds(entity);
   }
 
   @Test
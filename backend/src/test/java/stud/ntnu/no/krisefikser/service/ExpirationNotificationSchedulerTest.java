@@ -0,0 +1,110 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemExpiry;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExpirationNotificationSchedulerTest {
+
+  private StorageItemRepository storageItemRepository;
+  private NotificationOutboxService notificationOutboxService;
+  private TaskScheduler taskScheduler;
+  private ExpirationNotificationScheduler scheduler;
+
+  @BeforeEach
+  void setup() {
+    storageItemRepository = mock(StorageItemRepository.class);
+    notificationOutboxService = mock(NotificationOutboxService.class);
+    taskScheduler = mock(TaskScheduler.class);
+    scheduler = new ExpirationNotificationScheduler(storageItemRepository, notificationOutboxService,
+        taskScheduler, mock(PlatformTransactionManager.class), true, 25);
+  }
+
+  @Test
+  void track_schedulesWakeupWhenItemEntersWindow() {
+    Instant entersWindow = Instant.now().plus(2, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+    Date expiresAt = Date.from(entersWindow.atZone(ZoneId.systemDefault())
+        .plusDays(ExpirationNotificationScheduler.WINDOW_DAYS).toInstant());
+
+    scheduler.track(storageItem(5L, expiresAt));
+
+    // Leaving the window is a week away, outside the horizon
+    assertEquals(1, scheduler.pendingTransitions());
+    verify(taskScheduler).schedule(any(Runnable.class), eq(entersWindow));
+  }
+
+  @Test
+  void track_ignoresItemsWithoutExpiration() {
+    scheduler.track(storageItem(5L, null));
+
+    assertEquals(0, scheduler.pendingTransitions());
+    verifyNoInteractions(taskScheduler);
+  }
+
+  @Test
+  void track_disabledDoesNothing() {
+    scheduler = new ExpirationNotificationScheduler(storageItemRepository, notificationOutboxService,
+        taskScheduler, mock(PlatformTransactionManager.class), false, 25);
+
+    scheduler.track(storageItem(5L, Date.from(Instant.now().plus(7, ChronoUnit.DAYS))));
+
+    assertEquals(0, scheduler.pendingTransitions());
+    verifyNoInteractions(taskScheduler);
+  }
+
+  @Test
+  void start_loadsMissedTransitionsAndFiresThemIntoOutbox() {
+    // Expired yesterday, so it left the window an hour ago while the server was down
+    Date expiresAt = Date.from(Instant.now().minus(1, ChronoUnit.HOURS)
+        .atZone(ZoneId.systemDefault()).minusDays(1).toInstant());
+    when(storageItemRepository.findExpiriesBetween(any(), any()))
+        .thenReturn(List.of(new StorageItemExpiry(5L, 1L, expiresAt)), List.of());
+
+    scheduler.start();
+    assertEquals(1, scheduler.pendingTransitions());
+    verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+    scheduler.fireDue();
+
+    verify(notificationOutboxService).enqueueAll(Map.of(5L, 1L));
+    assertEquals(0, scheduler.pendingTransitions());
+  }
+
+  @Test
+  void fireDue_requeuesTransitionsWhenOutboxFails() {
+    Date expiresAt = Date.from(Instant.now().minus(1, ChronoUnit.HOURS)
+        .atZone(ZoneId.systemDefault()).minusDays(1).toInstant());
+    when(storageItemRepository.findExpiriesBetween(any(), any()))
+        .thenReturn(List.of(new StorageItemExpiry(5L, 1L, expiresAt)), List.of());
+    doThrow(new RuntimeException("Database unavailable"))
+        .when(notificationOutboxService).enqueueAll(anyMap());
+
+    scheduler.start();
+    scheduler.fireDue();
+
+    assertEquals(1, scheduler.pendingTransitions());
+  }
+
+  private StorageItem storageItem(Long id, Date expiresAt) {
+    Household household = new Household();
+    household.setId(1L);
+    return new StorageItem()
+        .setId(id)
+        .setHousehold(household)
+        .setExpiresAt(expiresAt);
+  }
+}
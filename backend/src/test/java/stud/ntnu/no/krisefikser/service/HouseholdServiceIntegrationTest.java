@@ -0,0 +1,116 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.household.HouseholdRequest;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.HouseholdPreparedness;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests creating a household against the database, where the storage items of the new
+ * household are inserted with a native statement.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class HouseholdServiceIntegrationTest {
+
+  @Autowired
+  private HouseholdService householdService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private HouseholdPreparednessRepository preparednessRepository;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  private User user;
+
+  @BeforeEach
+  public void setUp() {
+    String suffix = String.valueOf(System.nanoTime());
+    ItemCategory category = itemCategoryRepository.save(new ItemCategory().setName("Household " + suffix));
+    itemDefinitionRepository.save(new ItemDefinition()
+        .setName("Water " + suffix)
+        .setUnit("L")
+        .setRecommendedAmountPerPerson(3.0)
+        .setCategory(category));
+
+    String email = "household." + suffix + "@example.com";
+    user = userRepository.save(new User()
+        .setFirstName("Ola")
+        .setLastName("Nordmann")
+        .setEmail(email)
+        .setUsername(email)
+        .setPassword("password")
+        .setEnabled(true));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(email, null, List.of()));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+    // Other test classes clear the households, which the user must not belong to
+    User stored = userRepository.findById(user.getId()).orElseThrow();
+    Household household = stored.getHousehold();
+    if (household != null) {
+      userRepository.save(stored.setHousehold(null));
+      preparednessRepository.deleteById(household.getId());
+      householdRepository.deleteById(household.getId());
+    }
+    userRepository.deleteById(user.getId());
+  }
+
+  @Test
+  public void testNewHouseholdGetsAnEmptyStorageItemOfEveryDefinition() {
+    HouseholdRequest request = new HouseholdRequest().setName("Nordmann").setCity("Trondheim");
+
+    householdService.createNewHousehold(request);
+
+    Household household = userRepository.findById(user.getId()).orElseThrow().getHousehold();
+    assertNotNull(household);
+    List<StorageItem> items = storageItemRepository.findByHouseholdId(household.getId());
+    assertEquals(itemDefinitionRepository.count(), items.size());
+    assertTrue(items.stream().allMatch(item -> item.getCurrentStock() == 0
+        && item.getConsumptionPerDay() == 0
+        && item.getRunsOutAt() == null
+        && item.getVersion() == 0));
+
+    HouseholdPreparedness preparedness = preparednessRepository.findById(household.getId()).orElseThrow();
+    assertEquals(items.size(), preparedness.getTotalItems());
+    assertEquals(0, preparedness.getAdequateItems());
+  }
+}
@@ -37,6 +37,12 @@ public class HouseholdServiceTest {
   private HouseholdTokenRepository householdTokenRepository;
   @Mock
   private StorageItemCreationService storageItemCreationService;
+  @Mock
+  private NotificationUnreadCounter notificationUnreadCounter;
+  @Mock
+  private PreparednessService preparednessService;
+  @Mock
+  private CustomUserDetailsService customUserDetailsService;
   
   @InjectMocks
   HouseholdService householdService;
@@ -116,6 +122,7 @@ public class HouseholdServiceTest {
 
     verify(userRepository).save(user);
     verify(householdTokenRepository).delete(householdToken);
+    verify(preparednessService).recalculateHouseholdPreparedness(123L);
   }
 
   @Test
@@ -208,6 +215,7 @@ public class HouseholdServiceTest {
     verify(userRepository).save(owner);
     verify(householdRepository).save(household);
     verify(householdRepository, never()).delete(any());
+    verify(preparednessService).recalculateHouseholdPreparedness(1L);
   }
 
   @Test
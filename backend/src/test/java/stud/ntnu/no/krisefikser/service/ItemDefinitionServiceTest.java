@@ -0,0 +1,90 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionRequest;
+import stud.ntnu.no.krisefikser.dtos.itemDefinition.ItemDefinitionResponse;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "storage-item.backfill.chunk-size=2")
+@ActiveProfiles("test")
+public class ItemDefinitionServiceTest {
+
+  @Autowired
+  private ItemDefinitionService itemDefinitionService;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  private ItemCategory category;
+  private final List<Household> households = new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() {
+    notificationOutboxRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    householdRepository.deleteAll();
+
+    category = itemCategoryRepository.save(new ItemCategory().setName("Drinks"));
+    households.clear();
+    for (int i = 0; i < 3; i++) {
+      households.add(householdRepository.save(new Household().setName("Household " + i)));
+    }
+  }
+
+  @Test
+  public void testCreateItemDefinitionAddsItToEveryHousehold() {
+    ItemDefinitionResponse response = itemDefinitionService.createItemDefinition(
+        new ItemDefinitionRequest("Water", category.getId(), "L", 9.0, 365));
+
+    assertNotNull(response.getId());
+    assertEquals("Water", response.getName());
+    assertEquals(category.getId(), response.getCategoryId());
+    assertEquals(365, response.getShelfLifeDays());
+    for (Household household : households) {
+      List<StorageItem> items = storageItemRepository.findByHouseholdId(household.getId());
+      assertEquals(1, items.size());
+      assertEquals(response.getId(), items.get(0).getItemDefinition().getId());
+      assertEquals(0.0, items.get(0).getCurrentStock(), 0.0);
+    }
+    assertTrue(itemDefinitionRepository.findIdsMissingFromAnyHousehold().isEmpty());
+  }
+
+  @Test
+  public void testCreateItemDefinitionWithUnknownCategoryThrows() {
+    assertThrows(AppEntityNotFoundException.class, () -> itemDefinitionService.createItemDefinition(
+        new ItemDefinitionRequest("Water", 999L, "L", 9.0, 365)));
+    assertEquals(0, itemDefinitionRepository.count());
+  }
+}
@@ -0,0 +1,231 @@
+package stud.ntnu.no.krisefikser.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.entities.MailOutboxEntry;
+import stud.ntnu.no.krisefikser.repository.MailOutboxRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the mail outbox against a local SMTP server. The background sender is disabled, so
+ * the tests poll the outbox themselves.
+ */
+@SpringBootTest(properties = {
+    "spring.mail.host=localhost",
+    "spring.mail.port=3025",
+    "spring.mail.username=outbox@krisefikser.test",
+    "spring.mail.password=secret",
+    "spring.mail.properties.mail.smtp.starttls.enable=false",
+    "mail.outbox.rate-per-minute=3"
+})
+@ActiveProfiles("test")
+public class MailOutboxServiceTest {
+
+  @Autowired
+  private MailOutboxService mailOutboxService;
+
+  @Autowired
+  private MailOutboxRepository mailOutboxRepository;
+
+  @Autowired
+  @Qualifier("mailDispatchExecutor")
+  private ThreadPoolTaskExecutor mailDispatchExecutor;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private GreenMail mailServer;
+
+  @BeforeEach
+  public void setUp() {
+    mailOutboxRepository.deleteAll();
+    mailServer = new GreenMail(ServerSetupTest.SMTP);
+    mailServer.setUser("outbox@krisefikser.test", "secret");
+    mailServer.start();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    mailServer.stop();
+    mailOutboxRepository.deleteAll();
+  }
+
+  @Test
+  public void testEnqueueStoresEmailWithoutSending() {
+    mailOutboxService.enqueue("user@example.com", "Subject", "Body");
+
+    List<MailOutboxEntry> entries = mailOutboxRepository.findAll();
+    assertEquals(1, entries.size());
+    assertEquals("user@example.com", entries.get(0).getRecipient());
+    assertEquals("example.com", entries.get(0).getProvider());
+    assertEquals(0, entries.get(0).getAttempts());
+    assertEquals(0, mailServer.getReceivedMessages().length);
+  }
+
+  @Test
+  public void testDeliverSendsBatchOverSmtp() throws Exception {
+    mailOutboxService.enqueue("first@example.com", "Hello", "First");
+    mailOutboxService.enqueue("second@example.com", "Hello", "Second");
+
+    mailOutboxService.deliver(mailOutboxRepository.findAll());
+
+    MimeMessage[] received = mailServer.getReceivedMessages();
+    assertEquals(2, received.length);
+    assertEquals("Hello", received[0].getSubject());
+    assertEquals("outbox@krisefikser.test", received[0].getFrom()[0].toString());
+    assertTrue(mailOutboxRepository.findAll().isEmpty());
+  }
+
+  @Test
+  public void testDeliverReschedulesBatchWhenServerIsUnreachable() {
+    mailServer.stop();
+    mailOutboxService.enqueue("user@example.com", "Hello", "Body");
+
+    Instant before = Instant.now();
+    mailOutboxService.deliver(mailOutboxRepository.findAll());
+
+    MailOutboxEntry failed = mailOutboxRepository.findAll().get(0);
+    assertEquals(1, failed.getAttempts());
+    assertTrue(failed.getNextAttemptAt().isAfter(before));
+    assertNotNull(failed.getLastError());
+  }
+
+  @Test
+  public void testDeliverReschedulesOnlyRejectedRecipients() {
+    // The local server accepts every recipient, so a relay rejecting one is mocked
+    JavaMailSender relay = mock(JavaMailSender.class);
+    List<SimpleMailMessage> sent = new ArrayList<>();
+    doAnswer(invocation -> {
+      Map<Object, Exception> failed = new LinkedHashMap<>();
+      for (Object argument : invocation.getArguments()) {
+        SimpleMailMessage message = (SimpleMailMessage) argument;
+        if (Arrays.stream(message.getTo()).anyMatch(to -> to.contains("fail"))) {
+          failed.put(message, new IllegalStateException("Mailbox unavailable"));
+        } else {
+          sent.add(message);
+        }
+      }
+      throw new MailSendException(failed);
+    }).when(relay).send(any(SimpleMailMessage[].class));
+    MailOutboxService service = new MailOutboxService(mailOutboxRepository, relay, mailDispatchExecutor,
+        transactionManager, false, 60, "");
+
+    mailOutboxService.enqueue("first@example.com", "Hello", "First");
+    mailOutboxService.enqueue("second@example.com", "Hello", "Second");
+    mailOutboxService.enqueue("fail@example.com", "Hello", "Third");
+    service.deliver(mailOutboxRepository.findAll());
+
+    assertEquals(2, sent.size());
+    List<MailOutboxEntry> remaining = mailOutboxRepository.findAll();
+    assertEquals(1, remaining.size());
+    assertEquals("fail@example.com", remaining.get(0).getRecipient());
+    assertEquals(1, remaining.get(0).getAttempts());
+    assertNotNull(remaining.get(0).getLastError());
+  }
+
+  @Test
+  public void testDispatchSendsOtherProvidersBehindThrottledBacklog() throws Exception {
+    String suffix = String.valueOf(System.nanoTime());
+    String backlog = "backlog" + suffix + ".test";
+    String other = "other" + suffix + ".test";
+    List<MailOutboxEntry> entries = new ArrayList<>();
+    for (int i = 0; i < 105; i++) {
+      entries.add(entry("user" + i + "@" + backlog));
+    }
+    entries.add(entry("first@" + other));
+    entries.add(entry("second@" + other));
+    mailOutboxRepository.saveAll(entries);
+
+    mailOutboxService.dispatchDue();
+
+    // The rate limit allows a burst of 3 emails per provider
+    assertTrue(mailServer.waitForIncomingEmail(5000, 5));
+    awaitOutboxSize(102);
+    assertEquals(2, Arrays.stream(mailServer.getReceivedMessages())
+        .filter(message -> recipientOf(message).endsWith("@" + other))
+        .count());
+
+    // The backlog stays in the outbox, unleased, until its provider has capacity again
+    mailOutboxService.dispatchDue();
+    assertFalse(mailServer.waitForIncomingEmail(500, 6));
+    assertTrue(mailOutboxRepository.findAll().stream()
+        .allMatch(entry -> entry.getProvider().equals(backlog) && entry.getLeaseToken() == null));
+  }
+
+  @Test
+  public void testDispatchSkipsEmailsLeasedByAnotherPoll() throws Exception {
+    String provider = "leased" + System.nanoTime() + ".test";
+    MailOutboxEntry leased = mailOutboxRepository.save(entry("leased@" + provider));
+    mailOutboxRepository.save(entry("free@" + provider));
+    Instant now = Instant.now();
+    new TransactionTemplate(transactionManager).executeWithoutResult(
+        status -> mailOutboxRepository.lease(List.of(leased.getId()), now, now.plusSeconds(60), "other"));
+
+    mailOutboxService.dispatchDue();
+
+    assertTrue(mailServer.waitForIncomingEmail(5000, 1));
+    awaitOutboxSize(1);
+    assertEquals("free@" + provider, recipientOf(mailServer.getReceivedMessages()[0]));
+    assertEquals("other", mailOutboxRepository.findAll().get(0).getLeaseToken());
+  }
+
+  @Test
+  public void testProviderIsTheRecipientDomain() {
+    assertEquals("gmail.com", MailOutboxService.providerOf("Someone@Gmail.com"));
+    assertEquals("localhost", MailOutboxService.providerOf("localhost"));
+  }
+
+  private MailOutboxEntry entry(String recipient) {
+    return new MailOutboxEntry()
+        .setRecipient(recipient)
+        .setProvider(MailOutboxService.providerOf(recipient))
+        .setSubject("Hello")
+        .setBody("Body")
+        .setNextAttemptAt(Instant.now().minusSeconds(1));
+  }
+
+  private String recipientOf(MimeMessage message) {
+    try {
+      return message.getAllRecipients()[0].toString();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Waits for the sender to remove the sent emails from the outbox.
+   */
+  private void awaitOutboxSize(long size) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (mailOutboxRepository.count() != size && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    assertEquals(size, mailOutboxRepository.count());
+  }
+}
@@ -0,0 +1,140 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.Notification;
+import stud.ntnu.no.krisefikser.entities.NotificationOutboxEntry;
+import stud.ntnu.no.krisefikser.entities.NotificationType;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class NotificationOutboxServiceTest {
+
+  @Autowired
+  private NotificationOutboxService notificationOutboxService;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Autowired
+  private NotificationRepository notificationRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private Long householdId;
+  private Long storageItemId;
+
+  @BeforeEach
+  public void setUp() {
+    cleanUp();
+
+    Household household = householdRepository.save(new Household().setName("Outbox Household"));
+    ItemCategory category = itemCategoryRepository.save(new ItemCategory().setName("Food"));
+    ItemDefinition definition = itemDefinitionRepository.save(new ItemDefinition()
+        .setName("Bread")
+        .setUnit("pcs")
+        .setRecommendedAmountPerPerson(1.0)
+        .setShelfLifeDays(3)
+        .setCategory(category));
+
+    // Restocked now with a shelf life of 3 days, so the item expires within the notification window
+    StorageItem storageItem = storageItemRepository.save(new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(definition)
+        .setCurrentStock(2.0)
+        .setLastRestockedAt(new Date())
+        .refreshExpiresAt());
+
+    householdId = household.getId();
+    storageItemId = storageItem.getId();
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    notificationOutboxRepository.deleteAll();
+    notificationRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    householdRepository.deleteAll();
+  }
+
+  private NotificationOutboxEntry saveEntry(Long itemId) {
+    return notificationOutboxRepository.save(new NotificationOutboxEntry()
+        .setHouseholdId(householdId)
+        .setStorageItemId(itemId)
+        .setNextAttemptAt(Instant.now()));
+  }
+
+  @Test
+  public void testProcessHouseholdBatchEvaluatesEachItemOnceAndClearsEntries() {
+    List<NotificationOutboxEntry> entries = List.of(saveEntry(storageItemId), saveEntry(storageItemId));
+
+    notificationOutboxService.processHouseholdBatch(householdId, entries);
+
+    List<Notification> notifications = notificationRepository.findByHouseholdId(householdId);
+    assertEquals(1, notifications.size());
+    assertEquals(NotificationType.EXPIRATION, notifications.get(0).getType());
+    assertTrue(notificationOutboxRepository.findAll().isEmpty());
+  }
+
+  @Test
+  public void testLeaseOnlyClaimsEntriesThatAreStillDue() {
+    List<Long> ids = List.of(saveEntry(storageItemId).getId(), saveEntry(storageItemId).getId());
+    Instant now = Instant.now();
+
+    assertEquals(Integer.valueOf(2), transactionTemplate.execute(
+        status -> notificationOutboxRepository.lease(ids, now, now.plusSeconds(60), "first")));
+    // A second poll that found the same entries due claims none of them
+    assertEquals(Integer.valueOf(0), transactionTemplate.execute(
+        status -> notificationOutboxRepository.lease(ids, now, now.plusSeconds(60), "second")));
+
+    assertEquals(2, notificationOutboxRepository.findLeasedIds(ids, "first").size());
+    assertTrue(notificationOutboxRepository.findLeasedIds(ids, "second").isEmpty());
+  }
+
+  @Test
+  public void testProcessHouseholdBatchSkipsDeletedStorageItems() {
+    List<NotificationOutboxEntry> entries = List.of(saveEntry(999_999L));
+
+    notificationOutboxService.processHouseholdBatch(householdId, entries);
+
+    assertTrue(notificationRepository.findByHouseholdId(householdId).isEmpty());
+    assertTrue(notificationOutboxRepository.findAll().isEmpty());
+  }
+}
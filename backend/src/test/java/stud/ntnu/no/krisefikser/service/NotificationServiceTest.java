@@ -5,7 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.config.SecurityUtil;
+import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationFeedResponse;
 import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationRequest;
 import stud.ntnu.no.krisefikser.dtos.preparedness.NotificationResponse;
 import stud.ntnu.no.krisefikser.entities.*;
@@ -36,6 +40,15 @@ class NotificationServiceTest {
   @Mock
   private SimpMessagingTemplate messagingTemplate;
 
+  @Mock
+  private NotificationReadRepository notificationReadRepository;
+
+  @Mock
+  private NotificationUnreadCounter unreadCounter;
+
+  @Mock
+  private SecurityUtil securityUtil;
+
   @Spy @InjectMocks
   private NotificationService notificationService;
 
@@ -121,6 +134,7 @@ class NotificationServiceTest {
     assertEquals(household, saved.getHousehold());
     assertEquals(storageItem, saved.getStorageItem());
     assertEquals(NotificationType.EXPIRATION, saved.getType());
+    verify(messagingTemplate).convertAndSend("/topic/households/1/notifications", result);
   }
 
   @Test
@@ -206,21 +220,21 @@ class NotificationServiceTest {
   void deleteNotification_existingNotification_deletesNotification() {
     // Arrange
     Long notificationId = 3L;
-    when(notificationRepository.existsById(notificationId)).thenReturn(true);
+    when(notificationRepository.findById(notificationId)).thenReturn(Optional.of(existingNotification));
 
     // Act
     notificationService.deleteNotification(notificationId);
 
     // Assert
-    verify(notificationRepository).existsById(notificationId);
-    verify(notificationRepository).deleteById(notificationId);
+    verify(notificationRepository).delete(existingNotification);
+    verify(messagingTemplate).convertAndSend("/topic/households/1/notifications/delete", notificationId);
   }
 
   @Test
   void deleteNotification_nonExistingNotification_throwsException() {
     // Arrange
     Long notificationId = 3L;
-    when(notificationRepository.existsById(notificationId)).thenReturn(false);
+    when(notificationRepository.findById(notificationId)).thenReturn(Optional.empty());
 
     // Act & Assert
     NotificationNotFoundException exception = assertThrows(
@@ -228,8 +242,8 @@ class NotificationServiceTest {
         () -> notificationService.deleteNotification(notificationId)
     );
     assertEquals(CustomErrorMessage.NOTIFICATION_NOT_FOUND.getMessage(), exception.getMessage());
-    verify(notificationRepository).existsById(notificationId);
-    verify(notificationRepository, never()).deleteById(anyLong());
+    verify(notificationRepository, never()).delete(any());
+    verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
   }
 
   @Test
@@ -237,84 +251,71 @@ class NotificationServiceTest {
     household.setUsers(List.of(new User(), new User()));
     storageItem.setCurrentStock(12.0); // recommended=10, threshold=4
 
-    // Mock the findByHouseholdIdAndStorageItemIdAndType to return a notification
-    Notification notificationToDelete = new Notification();
-    notificationToDelete.setId(3L);
-    when(notificationRepository.findByHouseholdIdAndStorageItemIdAndType(
-        eq(1L), eq(2L), eq(NotificationType.LOW_STOCK)))
-        .thenReturn(List.of(notificationToDelete));
+    when(notificationRepository.findIdsByStorageItemIdAndType(2L, NotificationType.LOW_STOCK))
+        .thenReturn(List.of(3L));
 
     notificationService.generateLowStockNotification(storageItem);
 
-    // Verify find is called as expected
-    verify(notificationRepository).findByHouseholdIdAndStorageItemIdAndType(
-        1L, 2L, NotificationType.LOW_STOCK);
-
-    // Verify deleteById is called directly with the notification ID
-    verify(notificationRepository).deleteById(3L);
+    // Verify the notifications are removed in one batch
+    verify(notificationRepository).deleteAllByIdInBatch(List.of(3L));
 
     // Verify that a WebSocket message is sent
-    verify(messagingTemplate).convertAndSend("/topic/notifications/delete", 3L);
+    verify(messagingTemplate).convertAndSend("/topic/households/1/notifications/delete", 3L);
 
-    // Verify createNotification is never called
-    verify(notificationService, never()).createNotification(any());
+    // Verify nothing is inserted
+    verify(notificationRepository, never()).insertIgnore(anyLong(), anyLong(), anyString());
   }
 
   @Test
-  void generateLowStockNotification_lowStockCreates() {
-    // Setup
+  void generateLowStockNotification_adequateWithoutNotificationsDoesNothing() {
     household.setUsers(List.of(new User(), new User()));
-    storageItem.setCurrentStock(0.2); // very below threshold
+    storageItem.setCurrentStock(12.0);
 
-    // Mock repository calls
-    when(notificationRepository.findByHouseholdIdAndStorageItemIdAndType(
-        eq(1L), eq(2L), eq(NotificationType.LOW_STOCK)))
+    when(notificationRepository.findIdsByStorageItemIdAndType(2L, NotificationType.LOW_STOCK))
         .thenReturn(Collections.emptyList());
 
-    // Mock householdRepository.findById() since createNotification calls it
-    when(householdRepository.findById(1L)).thenReturn(Optional.of(household));
-
-    // Mock storageItemRepository.findById() since createNotification calls it
-    when(storageItemRepository.findById(2L)).thenReturn(Optional.of(storageItem));
+    notificationService.generateLowStockNotification(storageItem);
 
-    // Mock notification save
-    Notification savedNotification = new Notification();
-    savedNotification.setId(5L);
-    savedNotification.setHousehold(household);
-    savedNotification.setStorageItem(storageItem);
-    savedNotification.setType(NotificationType.LOW_STOCK);
-    when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
+    verify(notificationRepository, never()).deleteAllByIdInBatch(any());
+    verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+  }
 
-    // Execute
-    notificationService.generateLowStockNotification(storageItem);
+  @Test
+  void generateLowStockNotification_lowStockCreates() {
+    household.setUsers(List.of(new User(), new User()));
+    storageItem.setCurrentStock(0.2); // very below threshold
 
-    // Verify repository interactions
-    verify(notificationRepository).findByHouseholdIdAndStorageItemIdAndType(
-        1L, 2L, NotificationType.LOW_STOCK);
+    Notification inserted = new Notification();
+    inserted.setId(5L);
+    inserted.setHousehold(household);
+    inserted.setStorageItem(storageItem);
+    inserted.setType(NotificationType.LOW_STOCK);
+    when(notificationRepository.insertIgnore(1L, 2L, "LOW_STOCK")).thenReturn(1);
+    when(notificationRepository.findByHouseholdIdAndStorageItemIdAndType(
+        1L, 2L, NotificationType.LOW_STOCK))
+        .thenReturn(Optional.of(inserted));
 
-    // Capture and verify the notification that was saved
-    ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
-    verify(notificationRepository).save(notificationCaptor.capture());
-    Notification capturedNotification = notificationCaptor.getValue();
-    assertEquals(NotificationType.LOW_STOCK, capturedNotification.getType());
-    assertEquals(household, capturedNotification.getHousehold());
-    assertEquals(storageItem, capturedNotification.getStorageItem());
+    notificationService.generateLowStockNotification(storageItem);
 
-    // Verify WebSocket message was sent
-    verify(messagingTemplate).convertAndSend(eq("/topic/notifications"), any(NotificationResponse.class));
+    // Verify the inserted notification is published
+    ArgumentCaptor<NotificationResponse> captor = ArgumentCaptor.forClass(NotificationResponse.class);
+    verify(messagingTemplate).convertAndSend(eq("/topic/households/1/notifications"), captor.capture());
+    assertEquals(5L, captor.getValue().getId());
+    assertEquals(NotificationType.LOW_STOCK, captor.getValue().getType());
+    verify(notificationRepository, never()).save(any());
   }
 
   @Test
   void generateLowStockNotification_existingNoDuplicate() {
     household.setUsers(List.of(new User(), new User()));
-    storageItem.setCurrentStock(4.0);
-    when(notificationRepository
-        .findByHouseholdIdAndStorageItemIdAndType(1L, 2L, NotificationType.LOW_STOCK))
-        .thenReturn(List.of(new Notification()));
+    storageItem.setCurrentStock(3.0);
+    when(notificationRepository.insertIgnore(1L, 2L, "LOW_STOCK")).thenReturn(0);
 
     notificationService.generateLowStockNotification(storageItem);
 
-    verify(notificationService, never()).createNotification(any());
+    verify(notificationRepository, never())
+        .findByHouseholdIdAndStorageItemIdAndType(anyLong(), anyLong(), any());
+    verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
   }
 
   @Test
@@ -341,6 +342,7 @@ class NotificationServiceTest {
 
     // Will expire in 25 days (outside the window)
     storageItem.getItemDefinition().setShelfLifeDays(30);
+    storageItem.refreshExpiresAt();
 
     notificationService.generateExpiringNotification(storageItem);
 
@@ -359,39 +361,120 @@ class NotificationServiceTest {
 
     // last restocked 5 days ago → expires in 2 days (within 7-day window)
     storageItem.setLastRestockedAt(Date.from(Instant.now().minus(5, ChronoUnit.DAYS)));
-
-    // Mock repository calls
+    storageItem.refreshExpiresAt();
+
+    Notification inserted = new Notification();
+    inserted.setId(5L);
+    inserted.setHousehold(household);
+    inserted.setStorageItem(storageItem);
+    inserted.setType(NotificationType.EXPIRATION);
+    when(notificationRepository.insertIgnore(1L, 2L, "EXPIRATION")).thenReturn(1);
     when(notificationRepository.findByHouseholdIdAndStorageItemIdAndType(
-        eq(1L), eq(2L), eq(NotificationType.EXPIRATION)))
-        .thenReturn(Collections.emptyList());
+        1L, 2L, NotificationType.EXPIRATION))
+        .thenReturn(Optional.of(inserted));
 
-    // Mock householdRepository and storageItemRepository for createNotification
-    when(householdRepository.findById(1L)).thenReturn(Optional.of(household));
-    when(storageItemRepository.findById(2L)).thenReturn(Optional.of(storageItem));
+    notificationService.generateExpiringNotification(storageItem);
 
-    // Mock notification save
-    Notification savedNotification = new Notification();
-    savedNotification.setId(5L);
-    savedNotification.setHousehold(household);
-    savedNotification.setStorageItem(storageItem);
-    savedNotification.setType(NotificationType.EXPIRATION);
-    when(notificationRepository.save(any(Notification.class))).thenReturn(savedNotification);
+    // Verify WebSocket message is sent
+    verify(messagingTemplate).convertAndSend(eq("/topic/households/1/notifications"), any(NotificationResponse.class));
+    verify(notificationRepository, never()).deleteByStorageItemIdAndType(anyLong(), any());
+  }
+
+  @Test
+  void generateExpiringNotification_withinWindowExistingNoDuplicate() {
+    storageItem.getItemDefinition().setShelfLifeDays(7);
+    storageItem.setCurrentStock(10.0);
+    storageItem.setLastRestockedAt(Date.from(Instant.now().minus(5, ChronoUnit.DAYS)));
+    storageItem.refreshExpiresAt();
+    when(notificationRepository.insertIgnore(1L, 2L, "EXPIRATION")).thenReturn(0);
 
     notificationService.generateExpiringNotification(storageItem);
 
-    // Verify repository interactions
-    verify(notificationRepository).findByHouseholdIdAndStorageItemIdAndType(
-        1L, 2L, NotificationType.EXPIRATION);
+    verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+  }
 
-    // Verify the notification is saved
-    ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
-    verify(notificationRepository).save(notificationCaptor.capture());
-    Notification capturedNotification = notificationCaptor.getValue();
-    assertEquals(NotificationType.EXPIRATION, capturedNotification.getType());
+  @Test
+  void getNotificationFeed_returnsPageWithReadStateAndCursor() {
+    User user = new User().setHousehold(household);
+    user.setId(7L);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(user));
+
+    Notification newest = new Notification().setId(12L).setHousehold(household).setType(NotificationType.LOW_STOCK);
+    Notification middle = new Notification().setId(11L).setHousehold(household).setType(NotificationType.EXPIRATION);
+    Notification extra = new Notification().setId(10L).setHousehold(household).setType(NotificationType.LOW_STOCK);
+    when(notificationRepository.findPageByHouseholdId(1L, Long.MAX_VALUE, Limit.of(3)))
+        .thenReturn(List.of(newest, middle, extra));
+    when(notificationReadRepository.findReadNotificationIds(7L, List.of(12L, 11L)))
+        .thenReturn(List.of(11L));
+
+    NotificationFeedResponse feed = notificationService.getNotificationFeed(null, 2);
+
+    assertEquals(2, feed.getNotifications().size());
+    assertFalse(feed.getNotifications().get(0).getRead());
+    assertTrue(feed.getNotifications().get(1).getRead());
+    assertEquals(11L, feed.getNextCursor());
+  }
 
-    // Verify WebSocket message is sent
-    verify(messagingTemplate).convertAndSend(eq("/topic/notifications"), any(NotificationResponse.class));
+  @Test
+  void getNotificationFeed_lastPageHasNoCursor() {
+    User user = new User().setHousehold(household);
+    user.setId(7L);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(user));
+    when(notificationRepository.findPageByHouseholdId(1L, 11L, Limit.of(21)))
+        .thenReturn(List.of(new Notification().setId(10L).setType(NotificationType.LOW_STOCK)));
+    when(notificationReadRepository.findReadNotificationIds(7L, List.of(10L))).thenReturn(List.of());
+
+    NotificationFeedResponse feed = notificationService.getNotificationFeed(11L, null);
+
+    assertEquals(1, feed.getNotifications().size());
+    assertNull(feed.getNextCursor());
+  }
+
+  @Test
+  void getNotificationFeed_userWithoutHousehold_throwsException() {
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(new User()));
+
+    assertThrows(AppEntityNotFoundException.class, () -> notificationService.getNotificationFeed(null, null));
+    verifyNoInteractions(notificationRepository);
   }
+
+  @Test
+  void getUnreadCount_usesCounter() {
+    User user = new User().setHousehold(household);
+    user.setId(7L);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(user));
+    when(unreadCounter.get(eq(1L), eq(7L), any())).thenReturn(4L);
+
+    assertEquals(4L, notificationService.getUnreadCount());
+    verify(notificationRepository, never()).countUnread(anyLong(), anyLong());
+  }
+
+  @Test
+  void markAsRead_marksAndDecrementsCounter() {
+    User user = new User().setHousehold(household);
+    user.setId(7L);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(user));
+    when(notificationRepository.findById(3L)).thenReturn(Optional.of(existingNotification));
+    when(notificationReadRepository.markRead(7L, 3L)).thenReturn(1);
+
+    notificationService.markAsRead(3L);
+
+    verify(unreadCounter).notificationsRead(1L, 7L, 1);
+  }
+
+  @Test
+  void markAsRead_notificationInOtherHousehold_throwsException() {
+    Household other = new Household();
+    other.setId(2L);
+    User user = new User().setHousehold(other);
+    user.setId(7L);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(user));
+    when(notificationRepository.findById(3L)).thenReturn(Optional.of(existingNotification));
+
+    assertThrows(NotificationNotFoundException.class, () -> notificationService.markAsRead(3L));
+    verify(notificationReadRepository, never()).markRead(anyLong(), anyLong());
+  }
+
   @Test
   void checkAndGenerateNotifications_invokesBoth() {
     doNothing().when(notificationService).generateLowStockNotification(storageItem);
@@ -402,4 +485,9 @@ class NotificationServiceTest {
     verify(notificationService).generateLowStockNotification(storageItem);
     verify(notificationService).generateExpiringNotification(storageItem);
   }
+
+  private AuthenticatedUser principalOf(User user) {
+    return new AuthenticatedUser(user.getId(), user.getEmail(),
+        user.getHousehold() == null ? null : user.getHousehold().getId(), List.of());
+  }
 }
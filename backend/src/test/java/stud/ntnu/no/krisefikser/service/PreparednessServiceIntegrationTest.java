@@ -0,0 +1,134 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessSummary;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.HouseholdPreparedness;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the materialized preparedness summaries against the database, where a new summary
+ * must be inserted and an existing one updated.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class PreparednessServiceIntegrationTest {
+
+  @Autowired
+  private PreparednessService preparednessService;
+
+  @Autowired
+  private HouseholdPreparednessRepository preparednessRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  private ItemDefinition water;
+  private ItemDefinition bread;
+
+  @BeforeEach
+  public void setUp() {
+    String suffix = String.valueOf(System.nanoTime());
+    ItemCategory category = itemCategoryRepository.save(new ItemCategory().setName("Preparedness " + suffix));
+    water = itemDefinitionRepository.save(definition("Water " + suffix, category));
+    bread = itemDefinitionRepository.save(definition("Bread " + suffix, category));
+  }
+
+  @Test
+  public void testFirstSummaryOfHouseholdIsInsertedAndThenRead() {
+    Household household = household("First", 1.0, 0.0);
+
+    PreparednessSummary summary = preparednessService.calculateHouseholdPreparednessSummary(household.getId());
+    assertEquals(2, summary.getTotalItems());
+    assertEquals(1, summary.getAdequateItems());
+    assertEquals(1, summary.getLowStockItems());
+    assertEquals(0.5, summary.getOverallScore(), 0.001);
+
+    HouseholdPreparedness stored = preparednessRepository.findById(household.getId()).orElseThrow();
+    assertEquals(2, stored.getTotalItems());
+    assertEquals(summary.getOverallScore(),
+        preparednessService.calculateHouseholdPreparednessSummary(household.getId()).getOverallScore(), 0.001);
+  }
+
+  @Test
+  public void testRecalculationUpdatesExistingSummary() {
+    Household household = household("Recalculated", 0.0, 0.0);
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
+    assertEquals(0, preparednessRepository.findById(household.getId()).orElseThrow().getAdequateItems());
+
+    for (StorageItem item : storageItemRepository.findByHouseholdId(household.getId())) {
+      storageItemRepository.save(item.setCurrentStock(1.0).refreshExpiresAt());
+    }
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
+
+    HouseholdPreparedness stored = preparednessRepository.findById(household.getId()).orElseThrow();
+    assertEquals(2, stored.getTotalItems());
+    assertEquals(2, stored.getAdequateItems());
+    assertEquals(0, stored.getLowStockItems());
+  }
+
+  @Test
+  public void testBatchInsertsMissingSummariesAndKeepsExistingOnes() {
+    Household existing = household("Existing", 1.0, 1.0);
+    Household missing = household("Missing", 1.0, 0.0);
+    preparednessService.recalculateHouseholdPreparedness(existing.getId());
+
+    Map<Long, PreparednessSummary> summaries = preparednessService.calculateHouseholdPreparednessSummaries(
+        List.of(existing.getId(), missing.getId()));
+
+    assertEquals(1.0, summaries.get(existing.getId()).getOverallScore(), 0.001);
+    assertEquals(0.5, summaries.get(missing.getId()).getOverallScore(), 0.001);
+    assertEquals(1, preparednessRepository.findById(missing.getId()).orElseThrow().getLowStockItems());
+  }
+
+  private Household household(String name, double waterStock, double breadStock) {
+    Household household = householdRepository.save(new Household().setName(name));
+    storageItemRepository.save(item(household, water, waterStock));
+    storageItemRepository.save(item(household, bread, breadStock));
+    return household;
+  }
+
+  private StorageItem item(Household household, ItemDefinition definition, double stock) {
+    return new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(definition)
+        .setCurrentStock(stock)
+        .setLastRestockedAt(new Date())
+        .refreshExpiresAt();
+  }
+
+  private ItemDefinition definition(String name, ItemCategory category) {
+    return new ItemDefinition()
+        .setName(name)
+        .setUnit("pcs")
+        .setRecommendedAmountPerPerson(1.0)
+        .setCategory(category);
+  }
+}
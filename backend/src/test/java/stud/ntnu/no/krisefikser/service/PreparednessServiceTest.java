@@ -2,6 +2,10 @@ package stud.ntnu.no.krisefikser.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.config.SecurityUtil;
+import stud.ntnu.no.krisefikser.dtos.household.HouseholdMemberCount;
 import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessSummary;
 import stud.ntnu.no.krisefikser.entities.*;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
@@ -15,13 +19,18 @@ class PreparednessServiceTest {
 
   private HouseholdRepository householdRepository;
   private StorageItemRepository storageItemRepository;
+  private HouseholdPreparednessRepository preparednessRepository;
+  private SecurityUtil securityUtil;
   private PreparednessService preparednessService;
 
   @BeforeEach
   void setup() {
     householdRepository = mock(HouseholdRepository.class);
     storageItemRepository = mock(StorageItemRepository.class);
-    preparednessService = new PreparednessService(householdRepository, storageItemRepository);
+    preparednessRepository = mock(HouseholdPreparednessRepository.class);
+    securityUtil = mock(SecurityUtil.class);
+    preparednessService = new PreparednessService(householdRepository, storageItemRepository, preparednessRepository,
+        securityUtil);
   }
 
   @Test
@@ -48,6 +57,7 @@ class PreparednessServiceTest {
     item.setCurrentStock(8.9);
     item.setHousehold(household);
     item.setLastRestockedAt(new Date()); // Set to current date
+    item.refreshExpiresAt();
 
     when(storageItemRepository.findByHouseholdId(householdId))
         .thenReturn(List.of(item));
@@ -96,6 +106,7 @@ class PreparednessServiceTest {
     storageItem.setCurrentStock(10.0); // Exactly 100% of recommended
     storageItem.setHousehold(household);
     storageItem.setLastRestockedAt(new Date()); // Set to current date
+    storageItem.refreshExpiresAt();
 
     when(storageItemRepository.findByHouseholdId(householdId))
         .thenReturn(List.of(storageItem));
@@ -128,6 +139,7 @@ class PreparednessServiceTest {
     storageItem.setCurrentStock(1.0);
     storageItem.setHousehold(household);
     storageItem.setLastRestockedAt(new Date()); // Current date, will expire in 10 days
+    storageItem.refreshExpiresAt();
 
     when(storageItemRepository.findByHouseholdId(householdId))
         .thenReturn(List.of(storageItem));
@@ -161,4 +173,218 @@ class PreparednessServiceTest {
     assertEquals(0, result.getTotalItems());
     assertEquals(0, result.getOverallScore());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testCalculatePreparednessSummary_materialized_readsSingleRow() {
+    Household household = new Household();
+    household.setId(5L);
+    household.setName("Materialized");
+    HouseholdPreparedness preparedness = new HouseholdPreparedness()
+        .setHouseholdId(5L)
+        .setHousehold(household)
+        .setHouseholdSize(2)
+        .setTotalItems(2)
+        .setAdequateItems(1)
+        .setLowStockItems(1)
+        .setExpiringItems(0)
+        .setTotalScore(150 * PreparednessScoring.SCORE_SCALE);
+    when(preparednessRepository.findWithHouseholdByHouseholdId(5L)).thenReturn(Optional.of(preparedness));
+
+    PreparednessSummary result = preparednessService.calculateHouseholdPreparednessSummary(5L);
+
+    assertEquals("Materialized", result.getHouseholdName());
+    assertEquals(2, result.getTotalItems());
+    assertEquals(1, result.getAdequateItems());
+    assertEquals(0.75, result.getOverallScore());
+    verifyNoInteractions(householdRepository, storageItemRepository);
+  }
+
+  @Test
+  void testCalculatePreparednessSummary_notMaterialized_storesSummaryAndItemScores() {
+    Household household = new Household();
+    household.setId(6L);
+    household.setUsers(List.of(new User()));
+    when(householdRepository.findById(6L)).thenReturn(Optional.of(household));
+
+    ItemDefinition water = new ItemDefinition();
+    water.setRecommendedAmountPerPerson(10.0);
+    StorageItem item = new StorageItem();
+    item.setItemDefinition(water);
+    item.setCurrentStock(10.0);
+    item.setHousehold(household);
+    when(storageItemRepository.findByHouseholdId(6L)).thenReturn(List.of(item));
+
+    preparednessService.calculateHouseholdPreparednessSummary(6L);
+
+    ArgumentCaptor<HouseholdPreparedness> captor = ArgumentCaptor.forClass(HouseholdPreparedness.class);
+    verify(preparednessRepository).save(captor.capture());
+    assertEquals(1, captor.getValue().getHouseholdSize());
+    assertEquals(100 * PreparednessScoring.SCORE_SCALE, captor.getValue().getTotalScore());
+    assertEquals(100 * PreparednessScoring.SCORE_SCALE, item.getPreparednessScore());
+    assertTrue(item.isAdequate());
+  }
+
+  @Test
+  void testUpdateItemScore_appliesDifferenceToSummary() {
+    Household household = new Household();
+    household.setId(7L);
+    ItemDefinition water = new ItemDefinition();
+    water.setRecommendedAmountPerPerson(5.0);
+
+    // Previously adequate with a full score, now at half of the recommended amount for two members
+    StorageItem item = new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(water)
+        .setCurrentStock(5.0)
+        .setPreparednessScore(100 * PreparednessScoring.SCORE_SCALE)
+        .setAdequate(true);
+    when(preparednessRepository.findHouseholdSizeByHouseholdId(7L)).thenReturn(Optional.of(2));
+
+    preparednessService.updateItemScore(item);
+
+    long expectedScore = Math.round(100 * (0.5 - 0.1) / 0.8 * PreparednessScoring.SCORE_SCALE);
+    verify(preparednessRepository).applyDelta(7L, expectedScore - 100 * PreparednessScoring.SCORE_SCALE, -1, 1, 0);
+    assertEquals(expectedScore, item.getPreparednessScore());
+    assertFalse(item.isAdequate());
+  }
+
+  @Test
+  void testUpdateItemScore_unchangedScore_noUpdate() {
+    Household household = new Household();
+    household.setId(7L);
+    ItemDefinition water = new ItemDefinition();
+    water.setRecommendedAmountPerPerson(5.0);
+    StorageItem item = new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(water)
+        .setCurrentStock(10.0)
+        .setPreparednessScore(100 * PreparednessScoring.SCORE_SCALE)
+        .setAdequate(true);
+    when(preparednessRepository.findHouseholdSizeByHouseholdId(7L)).thenReturn(Optional.of(2));
+
+    preparednessService.updateItemScore(item);
+
+    verify(preparednessRepository, never()).applyDelta(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+  }
+
+  @Test
+  void testUpdateItemScore_notMaterialized_skipped() {
+    Household household = new Household();
+    household.setId(8L);
+    StorageItem item = new StorageItem().setHousehold(household).setCurrentStock(3.0);
+
+    preparednessService.updateItemScore(item);
+
+    verify(preparednessRepository, never()).applyDelta(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+    assertEquals(0, item.getPreparednessScore());
+  }
+
+  @Test
+  void testCalculateSummaries_readsMaterializedAndScoresMissingInBatch() {
+    Household materialized = new Household();
+    materialized.setId(1L);
+    materialized.setName("Materialized");
+    HouseholdPreparedness preparedness = new HouseholdPreparedness()
+        .setHouseholdId(1L)
+        .setHousehold(materialized)
+        .setTotalItems(1)
+        .setAdequateItems(1)
+        .setTotalScore(100 * PreparednessScoring.SCORE_SCALE);
+    when(preparednessRepository.findWithHouseholdByHouseholdIdIn(any())).thenReturn(List.of(preparedness));
+
+    // Household 2 has not been calculated yet, household 3 does not exist
+    Household household = new Household();
+    household.setId(2L);
+    when(householdRepository.findMemberCountsByIdIn(any()))
+        .thenReturn(List.of(new HouseholdMemberCount(2L, "New", 2)));
+    ItemDefinition water = new ItemDefinition();
+    water.setRecommendedAmountPerPerson(5.0);
+    StorageItem full = new StorageItem().setHousehold(household).setItemDefinition(water).setCurrentStock(10.0);
+    StorageItem half = new StorageItem().setHousehold(household).setItemDefinition(water).setCurrentStock(5.0);
+    when(storageItemRepository.findWithItemDefinitionByHouseholdIdIn(any())).thenReturn(List.of(full, half));
+
+    Map<Long, PreparednessSummary> result =
+        preparednessService.calculateHouseholdPreparednessSummaries(List.of(3L, 2L, 1L, 2L));
+
+    assertEquals(List.of(1L, 2L), new ArrayList<>(result.keySet()));
+    assertEquals("Materialized", result.get(1L).getHouseholdName());
+    assertEquals(1.0, result.get(1L).getOverallScore());
+
+    long halfScore = Math.round(100 * (0.5 - 0.1) / 0.8 * PreparednessScoring.SCORE_SCALE);
+    PreparednessSummary calculated = result.get(2L);
+    assertEquals("New", calculated.getHouseholdName());
+    assertEquals(2, calculated.getTotalItems());
+    assertEquals(1, calculated.getAdequateItems());
+    assertEquals(1, calculated.getLowStockItems());
+    assertEquals(100 * PreparednessScoring.SCORE_SCALE, full.getPreparednessScore());
+    assertEquals(halfScore, half.getPreparednessScore());
+    assertFalse(half.isAdequate());
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<HouseholdPreparedness>> captor = ArgumentCaptor.forClass(List.class);
+    verify(preparednessRepository).saveAll(captor.capture());
+    assertEquals(1, captor.getValue().size());
+    assertEquals(100 * PreparednessScoring.SCORE_SCALE + halfScore, captor.getValue().get(0).getTotalScore());
+    verify(householdRepository).findMemberCountsByIdIn(Set.of(2L, 3L));
+    verify(storageItemRepository).findWithItemDefinitionByHouseholdIdIn(Set.of(2L));
+    verify(householdRepository, never()).findById(anyLong());
+    verify(storageItemRepository, never()).findByHouseholdId(anyLong());
+  }
+
+  @Test
+  void testCalculateSummaries_allMaterialized_noScoring() {
+    Household household = new Household();
+    household.setId(4L);
+    HouseholdPreparedness preparedness = new HouseholdPreparedness().setHouseholdId(4L).setHousehold(household);
+    when(preparednessRepository.findWithHouseholdByHouseholdIdIn(any())).thenReturn(List.of(preparedness));
+
+    Map<Long, PreparednessSummary> result = preparednessService.calculateHouseholdPreparednessSummaries(List.of(4L));
+
+    assertEquals(Set.of(4L), result.keySet());
+    verifyNoInteractions(householdRepository, storageItemRepository);
+  }
+
+  @Test
+  void testCalculateMySummary_readsCurrentUsersHousehold() {
+    when(securityUtil.getCurrentPrincipal()).thenReturn(new AuthenticatedUser(1L, "user@example.com", 4L, List.of()));
+    Household household = new Household();
+    household.setId(4L);
+    HouseholdPreparedness preparedness = new HouseholdPreparedness().setHouseholdId(4L).setHousehold(household);
+    when(preparednessRepository.findWithHouseholdByHouseholdId(4L)).thenReturn(Optional.of(preparedness));
+
+    PreparednessSummary result = preparednessService.calculateMyHouseholdPreparednessSummary();
+
+    assertEquals(4L, result.getHouseholdId());
+  }
+
+  @Test
+  void testCalculateMySummary_withoutHousehold_throws() {
+    when(securityUtil.getCurrentPrincipal()).thenReturn(new AuthenticatedUser(1L, "user@example.com", null, List.of()));
+
+    assertThrows(AppEntityNotFoundException.class, () -> preparednessService.calculateMyHouseholdPreparednessSummary());
+    verifyNoInteractions(preparednessRepository, householdRepository);
+  }
+
+  @Test
+  void testScoreItems_matchesSingleItemScoring() {
+    ItemDefinition water = new ItemDefinition();
+    water.setRecommendedAmountPerPerson(4.0);
+    double[] stocks = {0.0, 0.3, 0.5, 1.0, 2.0, 3.5, 3.6, 4.0, 9.0};
+    double[] recommendedPerPerson = new double[stocks.length];
+    boolean[] expiring = new boolean[stocks.length];
+    Arrays.fill(recommendedPerPerson, 4.0);
+    expiring[4] = true;
+    long[] scores = new long[stocks.length];
+    boolean[] adequate = new boolean[stocks.length];
+
+    PreparednessScoring.scoreItems(stocks, recommendedPerPerson, expiring, 0, stocks.length, 1, scores, adequate);
+
+    for (int i = 0; i < stocks.length; i++) {
+      StorageItem item = new StorageItem().setItemDefinition(water).setCurrentStock(stocks[i]);
+      PreparednessScoring.ItemScore expected = PreparednessScoring.score(item, 1);
+      long expectedScore = expiring[i] ? Math.round(expected.getScore() * 0.5) : expected.getScore();
+      assertEquals(expectedScore, scores[i], "score of stock " + stocks[i]);
+      assertEquals(expected.isAdequate(), adequate[i], "adequacy of stock " + stocks[i]);
+    }
+  }
+}
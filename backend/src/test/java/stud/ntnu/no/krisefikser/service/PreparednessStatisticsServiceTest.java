@@ -0,0 +1,182 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessGroupStatistics;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessGrouping;
+import stud.ntnu.no.krisefikser.dtos.preparedness.PreparednessStatisticsResponse;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "admin.preparedness-statistics.parallelism=2")
+@ActiveProfiles("test")
+public class PreparednessStatisticsServiceTest {
+
+  @Autowired
+  private PreparednessStatisticsService statisticsService;
+
+  @Autowired
+  private StorageItemCreationService creationService;
+
+  @Autowired
+  private PreparednessService preparednessService;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Autowired
+  private NotificationRepository notificationRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @BeforeEach
+  public void setUp() {
+    notificationOutboxRepository.deleteAll();
+    notificationRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    // Users left by other test classes may still belong to a household
+    userRepository.saveAll(userRepository.findAll().stream()
+        .filter(user -> user.getHousehold() != null)
+        .map(user -> user.setHousehold(null))
+        .toList());
+    householdRepository.deleteAll();
+    statisticsService.clearCache();
+
+    ItemCategory drinks = itemCategoryRepository.save(new ItemCategory().setName("Drinks"));
+    ItemCategory food = itemCategoryRepository.save(new ItemCategory().setName("Food"));
+    itemDefinitionRepository.save(definition("Water", drinks));
+    itemDefinitionRepository.save(definition("Bread", food));
+
+    // Households without members need any stock to be adequate
+    household("Half", "Oslo", "0150", "Water");
+    household("Full", "Oslo", "0151", "Water", "Bread");
+    household("Empty", "Bergen", "5003");
+  }
+
+  @Test
+  public void testStatisticsByCityAddUpHouseholdRanges() {
+    PreparednessStatisticsResponse response = statisticsService.getStatistics(PreparednessGrouping.CITY);
+
+    assertEquals(PreparednessGrouping.CITY, response.getGrouping());
+    assertEquals(List.of("Bergen", "Oslo"),
+        response.getGroups().stream().map(PreparednessGroupStatistics::getGroup).toList());
+
+    PreparednessGroupStatistics bergen = response.getGroups().get(0);
+    assertEquals(1, bergen.getCount());
+    assertEquals(0.0, bergen.getMeanScore(), 0.001);
+    assertEquals(1.0, bergen.getLowStockRate(), 0.001);
+    assertEquals(1, bergen.getDistribution().get(0));
+
+    PreparednessGroupStatistics oslo = response.getGroups().get(1);
+    assertEquals(2, oslo.getCount());
+    assertEquals(0.75, oslo.getMeanScore(), 0.001);
+    assertEquals(0.25, oslo.getLowStockRate(), 0.001);
+    assertEquals(1, oslo.getDistribution().get(5));
+    assertEquals(1, oslo.getDistribution().get(9));
+    assertEquals(2, oslo.getDistribution().stream().mapToLong(Long::longValue).sum());
+  }
+
+  @Test
+  public void testStatisticsByPostalCode() {
+    PreparednessStatisticsResponse response = statisticsService.getStatistics(PreparednessGrouping.POSTAL_CODE);
+
+    assertEquals(List.of("0150", "0151", "5003"),
+        response.getGroups().stream().map(PreparednessGroupStatistics::getGroup).toList());
+    assertEquals(0.5, response.getGroups().get(0).getMeanScore(), 0.001);
+    assertEquals(1.0, response.getGroups().get(1).getMeanScore(), 0.001);
+  }
+
+  @Test
+  public void testStatisticsByCategoryScoreStorageItems() {
+    PreparednessStatisticsResponse response = statisticsService.getStatistics(PreparednessGrouping.CATEGORY);
+
+    assertEquals(2, response.getGroups().size());
+    PreparednessGroupStatistics drinks = response.getGroups().get(0);
+    assertEquals("Drinks", drinks.getGroup());
+    assertEquals(3, drinks.getCount());
+    assertEquals(2.0 / 3, drinks.getMeanScore(), 0.001);
+    assertEquals(1.0 / 3, drinks.getLowStockRate(), 0.001);
+
+    PreparednessGroupStatistics food = response.getGroups().get(1);
+    assertEquals("Food", food.getGroup());
+    assertEquals(1.0 / 3, food.getMeanScore(), 0.001);
+    assertEquals(2, food.getDistribution().get(0));
+    assertEquals(1, food.getDistribution().get(9));
+  }
+
+  @Test
+  public void testStatisticsAreCached() {
+    PreparednessStatisticsResponse first = statisticsService.getStatistics(PreparednessGrouping.CITY);
+    household("Late", "Tromsø", "9008");
+
+    PreparednessStatisticsResponse second = statisticsService.getStatistics(PreparednessGrouping.CITY);
+    assertSame(first, second);
+
+    statisticsService.clearCache();
+    assertEquals(3, statisticsService.getStatistics(PreparednessGrouping.CITY).getGroups().size());
+  }
+
+  @Test
+  public void testStatisticsWithoutHouseholdsAreEmpty() {
+    storageItemRepository.deleteAll();
+    householdRepository.deleteAll();
+
+    assertTrue(statisticsService.getStatistics(PreparednessGrouping.CITY).getGroups().isEmpty());
+  }
+
+  private void household(String name, String city, String postalCode, String... stockedItems) {
+    Household household = householdRepository.save(new Household()
+        .setName(name)
+        .setCity(city)
+        .setPostalCode(postalCode));
+    creationService.createStorageItemsForNewHousehold(household);
+
+    List<String> stocked = List.of(stockedItems);
+    for (StorageItem item : storageItemRepository.findByHouseholdId(household.getId())) {
+      if (stocked.contains(item.getItemDefinition().getName())) {
+        storageItemRepository.save(item.setCurrentStock(1.0).refreshExpiresAt());
+      }
+    }
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
+  }
+
+  private ItemDefinition definition(String name, ItemCategory category) {
+    return new ItemDefinition()
+        .setName(name)
+        .setUnit("pcs")
+        .setRecommendedAmountPerPerson(1.0)
+        .setCategory(category);
+  }
+}
@@ -0,0 +1,165 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerRequest;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionStatisticsDto;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizResponse;
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
+import stud.ntnu.no.krisefikser.entities.QuizQuestion;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.repository.QuizAnswerOptionRepository;
+import stud.ntnu.no.krisefikser.repository.QuizAnswerOptionStatisticsRepository;
+import stud.ntnu.no.krisefikser.repository.QuizAttemptRepository;
+import stud.ntnu.no.krisefikser.repository.QuizQuestionRepository;
+import stud.ntnu.no.krisefikser.repository.QuizQuestionStatisticsRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class QuizAnalyticsServiceTest {
+
+  @Autowired
+  private QuizAnalyticsService analyticsService;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizQuestionStatisticsRepository questionStatisticsRepository;
+
+  @Autowired
+  private QuizAnswerOptionStatisticsRepository optionStatisticsRepository;
+
+  @Autowired
+  private QuizAttemptRepository quizAttemptRepository;
+
+  @Autowired
+  private QuizQuestionRepository quizQuestionRepository;
+
+  @Autowired
+  private QuizAnswerOptionRepository quizAnswerOptionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private User user;
+  private QuizQuestion question;
+  private QuizAnswerOption correctOption;
+  private QuizAnswerOption incorrectOption;
+
+  @BeforeEach
+  public void setUp() {
+    // Drop counts left by other tests
+    analyticsService.flush();
+    questionStatisticsRepository.deleteAll();
+    optionStatisticsRepository.deleteAll();
+
+    quizAttemptRepository.deleteAll();
+    quizAnswerOptionRepository.deleteAll();
+    quizQuestionRepository.deleteAll();
+    userRepository.deleteAll();
+
+    user = userRepository.save(new User()
+        .setFirstName("Test")
+        .setLastName("User")
+        .setEmail("test.user@example.com")
+        .setUsername("testuser")
+        .setPassword("password")
+        .setEnabled(true));
+
+    question = new QuizQuestion();
+    question.setQuestionText("How many days of water should you store?");
+    quizQuestionRepository.save(question);
+
+    correctOption = new QuizAnswerOption();
+    correctOption.setText("Seven");
+    correctOption.setCorrect(true);
+    correctOption.setQuizQuestion(question);
+    quizAnswerOptionRepository.save(correctOption);
+
+    incorrectOption = new QuizAnswerOption();
+    incorrectOption.setText("One");
+    incorrectOption.setCorrect(false);
+    incorrectOption.setQuizQuestion(question);
+    quizAnswerOptionRepository.save(incorrectOption);
+  }
+
+  @Test
+  public void testAnswersAreCountedBeforeAndAfterFlush() {
+    answer(incorrectOption);
+    answer(incorrectOption);
+    answer(correctOption);
+    quizService.startQuiz(user.getId(), 1);
+
+    assertCounts(analyticsService.getStatistics());
+    assertEquals(0, questionStatisticsRepository.count());
+
+    assertEquals(3, analyticsService.flush());
+    assertEquals(0, analyticsService.flush(), "Flushed counts should not be flushed again");
+    assertEquals(4, questionStatisticsRepository.findById(question.getId()).orElseThrow().getShownCount());
+    assertEquals(2, optionStatisticsRepository.findById(incorrectOption.getId()).orElseThrow().getAnswerCount());
+
+    assertCounts(analyticsService.getStatistics());
+  }
+
+  @Test
+  public void testHardestQuestionsComeFirst() {
+    QuizQuestion easy = new QuizQuestion();
+    easy.setQuestionText("Should you store water?");
+    quizQuestionRepository.save(easy);
+    QuizAnswerOption yes = new QuizAnswerOption();
+    yes.setText("Yes");
+    yes.setCorrect(true);
+    yes.setQuizQuestion(easy);
+    quizAnswerOptionRepository.save(yes);
+
+    analyticsService.recordAnswer(easy.getId(), yes.getId(), true);
+    analyticsService.recordAnswer(question.getId(), incorrectOption.getId(), false);
+    analyticsService.flush();
+
+    QuizQuestion unanswered = new QuizQuestion();
+    unanswered.setQuestionText("Is this question answered?");
+    quizQuestionRepository.save(unanswered);
+
+    List<QuizQuestionStatisticsDto> statistics = analyticsService.getStatistics();
+    assertEquals(List.of(question.getId(), easy.getId(), unanswered.getId()),
+        statistics.stream().map(QuizQuestionStatisticsDto::getQuestionId).toList());
+    assertEquals(0.0, statistics.get(0).getCorrectRate(), 0.001);
+    assertEquals(1.0, statistics.get(1).getCorrectRate(), 0.001);
+    assertNull(statistics.get(2).getCorrectRate());
+  }
+
+  private void assertCounts(List<QuizQuestionStatisticsDto> statistics) {
+    assertEquals(1, statistics.size());
+    QuizQuestionStatisticsDto dto = statistics.get(0);
+    assertEquals(4, dto.getShownCount());
+    assertEquals(3, dto.getAnswerCount());
+    assertEquals(1, dto.getCorrectCount());
+    assertEquals(1.0 / 3, dto.getCorrectRate(), 0.001);
+
+    assertEquals(2, dto.getOptions().size());
+    assertEquals(correctOption.getId(), dto.getOptions().get(0).getOptionId());
+    assertTrue(dto.getOptions().get(0).isCorrect());
+    assertEquals(1, dto.getOptions().get(0).getAnswerCount());
+    assertEquals(2, dto.getOptions().get(1).getAnswerCount());
+    assertEquals(2.0 / 3, dto.getOptions().get(1).getShare(), 0.001);
+  }
+
+  private void answer(QuizAnswerOption option) {
+    QuizResponse quiz = quizService.startQuiz(user.getId(), 1);
+    QuizAnswerRequest request = new QuizAnswerRequest();
+    request.setUserId(user.getId());
+    request.setQuestionId(question.getId());
+    request.setSelectedAnswerId(option.getId());
+    quizService.submitAnswer(quiz.getId(), request);
+  }
+}
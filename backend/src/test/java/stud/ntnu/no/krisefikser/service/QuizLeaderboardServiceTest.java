@@ -0,0 +1,258 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerRequest;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAttemptCompletion;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizLeaderboardEntryDto;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizResponse;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
+import stud.ntnu.no.krisefikser.entities.QuizLeaderboardEntry;
+import stud.ntnu.no.krisefikser.entities.QuizQuestion;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.QuizAnswerOptionRepository;
+import stud.ntnu.no.krisefikser.repository.QuizAttemptRepository;
+import stud.ntnu.no.krisefikser.repository.QuizLeaderboardRepository;
+import stud.ntnu.no.krisefikser.repository.QuizQuestionRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class QuizLeaderboardServiceTest {
+
+  @Autowired
+  private QuizLeaderboardService leaderboardService;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizLeaderboardRepository leaderboardRepository;
+
+  @Autowired
+  private QuizAttemptRepository quizAttemptRepository;
+
+  @Autowired
+  private QuizQuestionRepository quizQuestionRepository;
+
+  @Autowired
+  private QuizAnswerOptionRepository quizAnswerOptionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  private QuizQuestion question;
+  private QuizAnswerOption correctOption;
+  private QuizAnswerOption incorrectOption;
+
+  @BeforeEach
+  public void setUp() {
+    leaderboardRepository.deleteAll();
+    quizAttemptRepository.deleteAll();
+    quizAnswerOptionRepository.deleteAll();
+    quizQuestionRepository.deleteAll();
+    userRepository.deleteAll();
+    leaderboardService.invalidate();
+
+    question = new QuizQuestion();
+    question.setQuestionText("What should you store in case of a power outage?");
+    quizQuestionRepository.save(question);
+
+    correctOption = new QuizAnswerOption();
+    correctOption.setText("Water");
+    correctOption.setCorrect(true);
+    correctOption.setQuizQuestion(question);
+    quizAnswerOptionRepository.save(correctOption);
+
+    incorrectOption = new QuizAnswerOption();
+    incorrectOption.setText("Ice cream");
+    incorrectOption.setCorrect(false);
+    incorrectOption.setQuizQuestion(question);
+    quizAnswerOptionRepository.save(incorrectOption);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+    // Other test classes clear the households, which the users must not belong to
+    userRepository.saveAll(userRepository.findAll().stream()
+        .filter(user -> user.getHousehold() != null)
+        .map(user -> user.setHousehold(null))
+        .toList());
+  }
+
+  @Test
+  public void testCompletedAttemptsAreRanked() {
+    User ola = user("Ola", "Nordmann", null);
+    User kari = user("Kari", "Hansen", null);
+
+    completeQuiz(ola, incorrectOption);
+    completeQuiz(kari, correctOption);
+
+    List<QuizLeaderboardEntryDto> leaderboard = leaderboardService.getLeaderboard(null);
+    assertEquals(2, leaderboard.size());
+    assertEquals(kari.getId(), leaderboard.get(0).getUserId());
+    assertEquals(1, leaderboard.get(0).getRank());
+    assertEquals("Kari H.", leaderboard.get(0).getName());
+    assertEquals(1, leaderboard.get(0).getBestScore());
+    assertEquals(ola.getId(), leaderboard.get(1).getUserId());
+    assertEquals(2, leaderboard.get(1).getRank());
+
+    // A second completion moves Ola ahead on completed attempts
+    completeQuiz(ola, correctOption);
+    leaderboard = leaderboardService.getLeaderboard(null);
+    assertEquals(ola.getId(), leaderboard.get(0).getUserId());
+    assertEquals(2, leaderboard.get(0).getCompletedAttempts());
+    assertEquals(1, leaderboardRepository.findById(ola.getId()).orElseThrow().getBestScore());
+  }
+
+  @Test
+  public void testUnfinishedAttemptsAreNotRanked() {
+    User ola = user("Ola", "Nordmann", null);
+    quizService.startQuiz(ola.getId(), 1);
+
+    assertTrue(leaderboardService.getLeaderboard(null).isEmpty());
+    assertEquals(0, leaderboardRepository.count());
+  }
+
+  @Test
+  public void testRanksMatchSortedStandings() {
+    for (int i = 0; i < 40; i++) {
+      User user = user("User" + i, "Test", null);
+      LocalDateTime now = LocalDateTime.now();
+      for (int attempt = 0; attempt <= i % 4; attempt++) {
+        leaderboardService.recordCompletedAttempt(new QuizAttemptCompletion(user.getId(), (i * 7) % 11, now));
+      }
+    }
+
+    List<QuizLeaderboardEntry> expected = new ArrayList<>(leaderboardRepository.findAll());
+    expected.sort(Comparator.comparingInt((QuizLeaderboardEntry entry) -> -entry.getBestScore())
+        .thenComparingInt(entry -> -entry.getCompletedAttempts())
+        .thenComparingInt(entry -> -entry.getBestStreak())
+        .thenComparingLong(QuizLeaderboardEntry::getUserId));
+
+    List<QuizLeaderboardEntryDto> top = leaderboardService.getLeaderboard(10);
+    assertEquals(10, top.size());
+    for (int i = 0; i < top.size(); i++) {
+      assertEquals(expected.get(i).getUserId(), top.get(i).getUserId());
+      assertEquals(i + 1, top.get(i).getRank());
+    }
+
+    // Ranks are the same when read back from the table
+    leaderboardService.invalidate();
+    for (int i = 0; i < expected.size(); i += 7) {
+      User user = userRepository.findById(expected.get(i).getUserId()).orElseThrow();
+      authenticate(user);
+      assertEquals(i + 1, leaderboardService.getMyStanding().getRank());
+    }
+  }
+
+  @Test
+  public void testStreaksCountConsecutiveDays() {
+    User ola = user("Ola", "Nordmann", null);
+    LocalDateTime today = LocalDateTime.now();
+    leaderboardService.recordCompletedAttempt(new QuizAttemptCompletion(ola.getId(), 1, today.minusDays(4)));
+    leaderboardService.recordCompletedAttempt(new QuizAttemptCompletion(ola.getId(), 1, today.minusDays(3)));
+    leaderboardService.recordCompletedAttempt(new QuizAttemptCompletion(ola.getId(), 1, today.minusDays(3)));
+    leaderboardService.recordCompletedAttempt(new QuizAttemptCompletion(ola.getId(), 1, today.minusDays(1)));
+
+    QuizLeaderboardEntry entry = leaderboardRepository.findById(ola.getId()).orElseThrow();
+    assertEquals(1, entry.getCurrentStreak());
+    assertEquals(2, entry.getBestStreak());
+    assertEquals(4, entry.getCompletedAttempts());
+    assertEquals(LocalDate.now().minusDays(1), entry.getLastCompletedOn());
+
+    authenticate(ola);
+    assertEquals(1, leaderboardService.getMyStanding().getCurrentStreak());
+
+    // The streak is broken once a whole day passes without a completed quiz
+    leaderboardRepository.save(entry.setLastCompletedOn(LocalDate.now().minusDays(2)));
+    leaderboardService.invalidate();
+    assertEquals(0, leaderboardService.getMyStanding().getCurrentStreak());
+  }
+
+  @Test
+  public void testMyStandingWithoutCompletedQuizHasNoRank() {
+    User ola = user("Ola", "Nordmann", null);
+    authenticate(ola);
+
+    QuizLeaderboardEntryDto standing = leaderboardService.getMyStanding();
+    assertNull(standing.getRank());
+    assertEquals(0, standing.getCompletedAttempts());
+  }
+
+  @Test
+  public void testHouseholdLeaderboardRanksMembers() {
+    Household household = householdRepository.save(new Household().setName("Test Household"));
+    User ola = user("Ola", "Nordmann", household);
+    User kari = user("Kari", "Nordmann", household);
+    User outsider = user("Per", "Hansen", null);
+
+    completeQuiz(ola, incorrectOption);
+    completeQuiz(kari, correctOption);
+    completeQuiz(outsider, correctOption);
+    completeQuiz(outsider, correctOption);
+
+    authenticate(ola);
+    List<QuizLeaderboardEntryDto> leaderboard = leaderboardService.getHouseholdLeaderboard();
+    assertEquals(List.of(kari.getId(), ola.getId()),
+        leaderboard.stream().map(QuizLeaderboardEntryDto::getUserId).toList());
+    assertEquals(2, leaderboard.get(1).getRank());
+
+    assertEquals(3, leaderboardService.getMyStanding().getRank());
+  }
+
+  @Test
+  public void testHouseholdLeaderboardWithoutHouseholdThrows() {
+    authenticate(user("Ola", "Nordmann", null));
+
+    assertThrows(AppEntityNotFoundException.class, () -> leaderboardService.getHouseholdLeaderboard());
+  }
+
+  private void completeQuiz(User user, QuizAnswerOption option) {
+    QuizResponse quiz = quizService.startQuiz(user.getId(), 1);
+    QuizAnswerRequest answer = new QuizAnswerRequest();
+    answer.setUserId(user.getId());
+    answer.setQuestionId(question.getId());
+    answer.setSelectedAnswerId(option.getId());
+    quizService.submitAnswer(quiz.getId(), answer);
+  }
+
+  private User user(String firstName, String lastName, Household household) {
+    String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com";
+    return userRepository.save(new User()
+        .setFirstName(firstName)
+        .setLastName(lastName)
+        .setEmail(email)
+        .setUsername(email)
+        .setPassword("password")
+        .setEnabled(true)
+        .setHousehold(household));
+  }
+
+  private void authenticate(User user) {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user.getEmail(), null, List.of()));
+  }
+}
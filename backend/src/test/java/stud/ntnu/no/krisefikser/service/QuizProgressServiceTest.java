@@ -0,0 +1,220 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizAnswerRequest;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizQuestionDto;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizResponse;
+import stud.ntnu.no.krisefikser.dtos.quiz.QuizSelectionMode;
+import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
+import stud.ntnu.no.krisefikser.entities.QuizQuestion;
+import stud.ntnu.no.krisefikser.entities.QuizUserProgress;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.repository.QuizAnswerOptionRepository;
+import stud.ntnu.no.krisefikser.repository.QuizAttemptRepository;
+import stud.ntnu.no.krisefikser.repository.QuizQuestionRepository;
+import stud.ntnu.no.krisefikser.repository.QuizUserProgressRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class QuizProgressServiceTest {
+
+  @Autowired
+  private QuizProgressService progressService;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizUserProgressRepository progressRepository;
+
+  @Autowired
+  private QuizAttemptRepository quizAttemptRepository;
+
+  @Autowired
+  private QuizQuestionRepository quizQuestionRepository;
+
+  @Autowired
+  private QuizAnswerOptionRepository quizAnswerOptionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private User user;
+  private final List<QuizQuestion> questions = new ArrayList<>();
+  private final Map<Long, QuizAnswerOption> correctOptions = new HashMap<>();
+  private final Map<Long, QuizAnswerOption> incorrectOptions = new HashMap<>();
+
+  @BeforeEach
+  public void setUp() {
+    progressRepository.deleteAll();
+    quizAttemptRepository.deleteAll();
+    quizAnswerOptionRepository.deleteAll();
+    quizQuestionRepository.deleteAll();
+    userRepository.deleteAll();
+    progressService.clearCache();
+    questions.clear();
+    correctOptions.clear();
+    incorrectOptions.clear();
+
+    user = userRepository.save(new User()
+        .setFirstName("Test")
+        .setLastName("User")
+        .setEmail("test.user@example.com")
+        .setUsername("testuser")
+        .setPassword("password")
+        .setEnabled(true));
+
+    for (int i = 0; i < 3; i++) {
+      QuizQuestion question = new QuizQuestion();
+      question.setQuestionText("Question " + i);
+      quizQuestionRepository.save(question);
+      questions.add(question);
+      correctOptions.put(question.getId(), option(question, "Correct", true));
+      incorrectOptions.put(question.getId(), option(question, "Incorrect", false));
+    }
+  }
+
+  @Test
+  public void testAnswersUpdateProgress() {
+    QuizQuestion known = questions.get(0);
+    QuizQuestion missed = questions.get(1);
+    answer(known, true);
+    answer(missed, false);
+
+    QuizUserProgress row = progressRepository.findById(user.getId()).orElseThrow();
+    assertEquals(2, row.getAnswerCount());
+    assertTrue(row.isBackfilled());
+
+    // The stored progress matches the cached one
+    progressService.clearCache();
+    QuizProgressService.Progress progress = progressService.getProgress(user.getId());
+    assertTrue(progress.isAnswered(known.getId()));
+    assertTrue(progress.isCorrect(known.getId()));
+    assertTrue(progress.isAnswered(missed.getId()));
+    assertFalse(progress.isCorrect(missed.getId()));
+    assertFalse(progress.isAnswered(questions.get(2).getId()));
+
+    // A later correct answer replaces the miss
+    answer(missed, true);
+    assertTrue(progressService.getProgress(user.getId()).isCorrect(missed.getId()));
+  }
+
+  @Test
+  public void testProgressIsBuiltFromHistory() {
+    QuizQuestion missed = questions.get(0);
+    answer(missed, false);
+
+    // Answers given before the progress was kept
+    progressRepository.deleteAll();
+    progressService.clearCache();
+
+    QuizProgressService.Progress progress = progressService.getProgress(user.getId());
+    assertTrue(progress.isAnswered(missed.getId()));
+    assertFalse(progress.isCorrect(missed.getId()));
+
+    QuizQuestion known = questions.get(1);
+    answer(known, true);
+    progressService.clearCache();
+    progress = progressService.getProgress(user.getId());
+    assertTrue(progress.isAnswered(missed.getId()));
+    assertTrue(progress.isCorrect(known.getId()));
+    assertTrue(progressRepository.findById(user.getId()).orElseThrow().isBackfilled());
+  }
+
+  @Test
+  public void testProgressHoldsLargeQuestionIds() {
+    long large = 5_000_000_000L;
+    progressService.recordAnswer(user.getId(), large, false);
+    progressService.recordAnswer(user.getId(), 3L, true);
+
+    QuizUserProgress row = progressRepository.findById(user.getId()).orElseThrow();
+    assertTrue(row.getAnsweredQuestionIds().length < 8);
+    progressService.clearCache();
+    QuizProgressService.Progress progress = progressService.getProgress(user.getId());
+    assertTrue(progress.isAnswered(large));
+    assertFalse(progress.isCorrect(large));
+    assertTrue(progress.isCorrect(3L));
+    assertFalse(progress.isAnswered(4L));
+  }
+
+  @Test
+  public void testProgressForgetsKnownQuestionsWhenFull() {
+    // Each difference of 2^49 takes 8 bytes, so 1024 questions fill the progress
+    int answers = QuizUserProgress.MAX_PROGRESS_BYTES / 8 + 2;
+    for (int i = 0; i < answers; i++) {
+      progressService.recordAnswer(user.getId(), (i + 1L) << 49, i % 2 == 0);
+    }
+
+    QuizUserProgress row = progressRepository.findById(user.getId()).orElseThrow();
+    assertEquals(answers, row.getAnswerCount());
+    assertTrue(row.getAnsweredQuestionIds().length <= QuizUserProgress.MAX_PROGRESS_BYTES);
+    progressService.clearCache();
+    QuizProgressService.Progress progress = progressService.getProgress(user.getId());
+    assertFalse(progress.isAnswered(1L << 49), "Known questions are forgotten");
+    assertTrue(progress.isAnswered(2L << 49), "Missed questions are kept");
+    assertTrue(progress.isAnswered((long) answers << 49), "The last answer is kept");
+  }
+
+  @Test
+  public void testAdaptiveSelectionFavoursMissedAndUnseenQuestions() {
+    QuizQuestion known = questions.get(0);
+    QuizQuestion missed = questions.get(1);
+    QuizQuestion unseen = questions.get(2);
+    answer(known, true);
+    answer(missed, false);
+
+    Map<Long, Integer> drawn = new HashMap<>();
+    for (int i = 0; i < 3000; i++) {
+      List<QuizQuestionDto> selected = progressService.selectAdaptive(user.getId(), 1);
+      assertEquals(1, selected.size());
+      drawn.merge(selected.get(0).getQuestionId(), 1, Integer::sum);
+    }
+
+    // Expected shares are 8/13, 4/13 and 1/13
+    assertTrue(drawn.getOrDefault(missed.getId(), 0) > drawn.getOrDefault(unseen.getId(), 0));
+    assertTrue(drawn.getOrDefault(unseen.getId(), 0) > drawn.getOrDefault(known.getId(), 0));
+    assertTrue(drawn.getOrDefault(known.getId(), 0) > 0);
+  }
+
+  @Test
+  public void testAdaptiveQuizHasRequestedNumberOfDistinctQuestions() {
+    answer(questions.get(0), false);
+
+    QuizResponse quiz = quizService.startQuiz(user.getId(), 3, QuizSelectionMode.ADAPTIVE);
+    assertEquals(3, quiz.getQuestions().size());
+    assertEquals(3, new HashSet<>(quiz.getQuestions().stream().map(QuizQuestionDto::getQuestionId).toList()).size());
+
+    assertThrows(IllegalArgumentException.class, () -> progressService.selectAdaptive(user.getId(), 4));
+  }
+
+  private void answer(QuizQuestion question, boolean correct) {
+    QuizResponse quiz = quizService.startQuiz(user.getId(), 3);
+    QuizAnswerRequest answer = new QuizAnswerRequest();
+    answer.setUserId(user.getId());
+    answer.setQuestionId(question.getId());
+    answer.setSelectedAnswerId((correct ? correctOptions : incorrectOptions).get(question.getId()).getId());
+    quizService.submitAnswer(quiz.getId(), answer);
+  }
+
+  private QuizAnswerOption option(QuizQuestion question, String text, boolean correct) {
+    QuizAnswerOption option = new QuizAnswerOption();
+    option.setText(text);
+    option.setCorrect(correct);
+    option.setQuizQuestion(question);
+    return quizAnswerOptionRepository.save(option);
+  }
+}
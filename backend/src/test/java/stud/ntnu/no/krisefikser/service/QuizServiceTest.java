@@ -1,8 +1,10 @@
 package stud.ntnu.no.krisefikser.service;
 
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +23,7 @@ import stud.ntnu.no.krisefikser.dtos.quiz.QuizResultResponse;
 import stud.ntnu.no.krisefikser.entities.QuizAnswerOption;
 import stud.ntnu.no.krisefikser.entities.QuizAttempt;
 import stud.ntnu.no.krisefikser.entities.QuizQuestion;
+import stud.ntnu.no.krisefikser.entities.QuizSessionStatus;
 import stud.ntnu.no.krisefikser.entities.User;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
 import stud.ntnu.no.krisefikser.exception.customExceptions.EntityOperationException;
@@ -207,7 +210,7 @@ public class QuizServiceTest {
 
   @Test
   public void testGetQuizHistoryWhenNoAttempts() {
-    List<QuizAttemptHistoryDto> history = quizService.getQuizHistory(testUser.getId());
+    List<QuizAttemptHistoryDto> history = quizService.getQuizHistory(testUser.getId(), null, null);
     assertNotNull(history, "History list should not be null");
     assertTrue(history.isEmpty(), "History should be empty when no attempts exist");
   }
@@ -230,7 +233,7 @@ public class QuizServiceTest {
     secondAnswer.setSelectedAnswerId(incorrectOption.getId());
     quizService.submitAnswer(secondResponse.getId(), secondAnswer);
 
-    List<QuizAttemptHistoryDto> history = quizService.getQuizHistory(testUser.getId());
+    List<QuizAttemptHistoryDto> history = quizService.getQuizHistory(testUser.getId(), null, null);
     assertEquals(2, history.size(), "History should contain two entries");
 
     // Verify entries contain correct data
@@ -247,6 +250,49 @@ public class QuizServiceTest {
     assertTrue(sawCorrectSecond, "Should include entry with 0 correct answers");
   }
 
+  @Test
+  public void testGetQuizHistoryIsPagedNewestFirst() {
+    Long first = quizService.startQuiz(testUser.getId(), 1).getId();
+    Long second = quizService.startQuiz(testUser.getId(), 1).getId();
+    Long third = quizService.startQuiz(testUser.getId(), 1).getId();
+
+    List<QuizAttemptHistoryDto> firstPage = quizService.getQuizHistory(testUser.getId(), null, 2);
+    assertEquals(List.of(third, second),
+        firstPage.stream().map(QuizAttemptHistoryDto::getAttemptId).toList());
+
+    List<QuizAttemptHistoryDto> secondPage = quizService.getQuizHistory(testUser.getId(),
+        firstPage.get(1).getAttemptId(), 2);
+    assertEquals(List.of(first), secondPage.stream().map(QuizAttemptHistoryDto::getAttemptId).toList());
+
+    assertTrue(quizService.getQuizHistory(testUser.getId(), first, 2).isEmpty(),
+        "Nothing should come after the oldest attempt");
+  }
+
+  @Test
+  public void testAnsweringAnAttemptDoesNotMoveItInTheHistory() {
+    Long first = quizService.startQuiz(testUser.getId(), 1).getId();
+    Long second = quizService.startQuiz(testUser.getId(), 1).getId();
+    Long third = quizService.startQuiz(testUser.getId(), 1).getId();
+    List<QuizAttemptHistoryDto> firstPage = quizService.getQuizHistory(testUser.getId(), null, 2);
+
+    quizService.submitAnswer(first,
+        new QuizAnswerRequest(testUser.getId(), testQuizQuestion.getId(), correctOption.getId()));
+
+    assertEquals(List.of(third, second),
+        quizService.getQuizHistory(testUser.getId(), null, 2).stream().map(QuizAttemptHistoryDto::getAttemptId).toList());
+    assertEquals(List.of(first), quizService.getQuizHistory(testUser.getId(),
+        firstPage.get(1).getAttemptId(), 2).stream().map(QuizAttemptHistoryDto::getAttemptId).toList());
+  }
+
+  @Test
+  public void testGetQuizHistoryClampsLimit() {
+    quizService.startQuiz(testUser.getId(), 1);
+    quizService.startQuiz(testUser.getId(), 1);
+
+    assertEquals(1, quizService.getQuizHistory(testUser.getId(), null, 0).size(),
+        "A limit below one should return one attempt");
+  }
+
   @Test
   public void testStartQuizWithZeroQuestionsThrows() {
     assertThrows(
@@ -322,4 +368,107 @@ public class QuizServiceTest {
           "Should throw when attempt not found"
       );
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testStartQuizDrawsDistinctQuestions() {
+    Set<Long> questionIds = new HashSet<>(Set.of(testQuizQuestion.getId()));
+    for (int i = 0; i < 4; i++) {
+      questionIds.add(quizQuestionRepository.save(new QuizQuestion().setQuestionText("Question " + i)).getId());
+    }
+
+    QuizResponse response = quizService.startQuiz(testUser.getId(), 5);
+
+    Set<Long> drawnIds = new HashSet<>();
+    response.getQuestions().forEach(question -> drawnIds.add(question.getQuestionId()));
+    assertEquals(questionIds, drawnIds, "Should draw every question exactly once");
+    assertEquals(5, quizService.getQuestionCount(response.getId()));
+  }
+
+  @Test
+  public void testQuestionBankRefreshesWhenQuestionsChange() {
+    assertEquals(1L, quizService.getQuestionCount());
+
+    QuizQuestion added = quizQuestionRepository.save(new QuizQuestion().setQuestionText("What is 3 + 3?"));
+    assertEquals(2L, quizService.getQuestionCount(), "Added question should be in the bank");
+
+    quizQuestionRepository.delete(added);
+    assertEquals(1L, quizService.getQuestionCount(), "Deleted question should be removed from the bank");
+  }
+
+  @Test
+  public void testStartQuizUnknownUserThrows() {
+    assertThrows(
+        AppEntityNotFoundException.class,
+        () -> quizService.startQuiz(999_999L, 1),
+        "Should throw when the user does not exist");
+  }
+
+  @Test
+  public void testSubmitAnswersUpdatesCountersAndCompletesAttempt() {
+    QuizQuestion second = quizQuestionRepository.save(new QuizQuestion().setQuestionText("What is 3 + 3?"));
+    QuizAnswerOption secondCorrect = quizAnswerOptionRepository.save(
+        new QuizAnswerOption().setText("6").setCorrect(true).setQuizQuestion(second));
+    QuizAnswerOption secondWrong = quizAnswerOptionRepository.save(
+        new QuizAnswerOption().setText("5").setCorrect(false).setQuizQuestion(second));
+
+    Long attemptId = quizService.startQuiz(testUser.getId(), 2).getId();
+
+    quizService.submitAnswer(attemptId,
+        new QuizAnswerRequest(testUser.getId(), testQuizQuestion.getId(), correctOption.getId()));
+    QuizAttempt inProgress = quizAttemptRepository.findById(attemptId).orElseThrow();
+    assertEquals(2, inProgress.getTotalQuestions());
+    assertEquals(1, inProgress.getAnsweredCount());
+    assertEquals(1, inProgress.getCorrectCount());
+    assertEquals(QuizSessionStatus.IN_PROGRESS, inProgress.getStatus());
+
+    QuizAnswerResponse response = quizService.submitAnswer(attemptId,
+        new QuizAnswerRequest(testUser.getId(), second.getId(), secondWrong.getId()));
+    assertFalse(response.isCorrectAnswer());
+    assertEquals(secondCorrect.getId(), response.getCorrectAnswerId());
+
+    QuizAttempt completed = quizAttemptRepository.findById(attemptId).orElseThrow();
+    assertEquals(2, completed.getAnsweredCount());
+    assertEquals(1, completed.getCorrectCount());
+    assertEquals(QuizSessionStatus.COMPLETED, completed.getStatus());
+
+    QuizResultResponse result = quizService.getResult(attemptId);
+    assertEquals(2, result.getTotalQuestions());
+    assertEquals(1, result.getCorrectAnswers());
+  }
+
+  @Test
+  public void testSubmitAnswerFromOtherQuestionIsRejected() {
+    QuizQuestion other = quizQuestionRepository.save(new QuizQuestion().setQuestionText("What is 3 + 3?"));
+    QuizAnswerOption otherOption = quizAnswerOptionRepository.save(
+        new QuizAnswerOption().setText("6").setCorrect(true).setQuizQuestion(other));
+    Long attemptId = quizService.startQuiz(testUser.getId(), 2).getId();
+
+    assertThrows(
+        EntityOperationException.class,
+        () -> quizService.submitAnswer(attemptId,
+            new QuizAnswerRequest(testUser.getId(), testQuizQuestion.getId(), otherOption.getId())),
+        "Should reject an option of another question");
+
+    QuizAttempt attempt = quizAttemptRepository.findById(attemptId).orElseThrow();
+    assertEquals(0, attempt.getAnsweredCount());
+    assertEquals(0, quizService.getSubmittedAnswersCount(attemptId));
+  }
+
+  @Test
+  public void testBackfillAttemptCountersCountsOldAttempts() {
+    Long attemptId = quizService.startQuiz(testUser.getId(), 1).getId();
+    quizService.submitAnswer(attemptId,
+        new QuizAnswerRequest(testUser.getId(), testQuizQuestion.getId(), correctOption.getId()));
+
+    // An attempt from before the counters were kept
+    QuizAttempt attempt = quizAttemptRepository.findById(attemptId).orElseThrow();
+    quizAttemptRepository.save(attempt.setTotalQuestions(0).setAnsweredCount(0).setCorrectCount(0));
+
+    quizService.backfillAttemptCounters();
+
+    QuizAttempt backfilled = quizAttemptRepository.findById(attemptId).orElseThrow();
+    assertEquals(1, backfilled.getTotalQuestions());
+    assertEquals(1, backfilled.getAnsweredCount());
+    assertEquals(1, backfilled.getCorrectCount());
+  }
+}
@@ -0,0 +1,123 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteDocument;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNote;
+import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNoteVisibility;
+import stud.ntnu.no.krisefikser.repository.ReflectionRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReflectionSearchIndexTest {
+
+  private static final Long ME = 1L;
+  private static final Long HOUSEHOLD_MEMBER = 2L;
+  private static final Long STRANGER = 3L;
+
+  @Mock
+  private ReflectionRepository reflectionRepository;
+
+  private ReflectionSearchIndex searchIndex;
+
+  @BeforeEach
+  void setUp() {
+    searchIndex = new ReflectionSearchIndex(reflectionRepository, false);
+  }
+
+  @Test
+  void search_ShouldOnlyReturnNotesTheUserMayRead() {
+    index(10L, ME, ReflectionNoteVisibility.PRIVATE, "Strømbrudd", "Vi hadde nok vann");
+    index(11L, HOUSEHOLD_MEMBER, ReflectionNoteVisibility.HOUSEHOLD, "Strømbrudd", "Lommelykt og vann");
+    index(12L, STRANGER, ReflectionNoteVisibility.HOUSEHOLD, "Strømbrudd", "Vann på tur");
+    index(13L, STRANGER, ReflectionNoteVisibility.PRIVATE, "Strømbrudd", "Hemmelig vann");
+    index(14L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Strømbrudd", "Offentlig vann");
+
+    List<Long> hits = searchIndex.search("strømbrudd", ME, Set.of(ME, HOUSEHOLD_MEMBER), 10);
+
+    assertEquals(Set.of(10L, 11L, 14L), Set.copyOf(hits));
+    assertEquals(Set.of(12L, 13L, 14L), Set.copyOf(searchIndex.search("vann", STRANGER, Set.of(), 10)));
+  }
+
+  @Test
+  void search_ShouldRankTitleAndRepeatedMatchesFirst() {
+    index(20L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Evakuering", "Vi dro hjemmefra");
+    index(21L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Øvelse", "Evakuering av skolen, evakuering av byen");
+    index(22L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Øvelse", "Kort evakuering og lang tur hjem igjen");
+    index(23L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Mat", "Hermetikk");
+
+    List<Long> hits = searchIndex.search("Evakuering", ME, Set.of(), 10);
+
+    assertEquals(List.of(20L, 21L, 22L), hits);
+  }
+
+  @Test
+  void search_ShouldMatchCompoundWordsByPrefix() {
+    index(30L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Vannforsyning", "Brønnen tørket ut");
+    index(31L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Vann", "Flasker i kjelleren");
+
+    List<Long> hits = searchIndex.search("vann", ME, Set.of(), 10);
+
+    // The exact word outranks the compound word
+    assertEquals(List.of(31L, 30L), hits);
+    assertTrue(searchIndex.search("va", ME, Set.of(), 10).isEmpty());
+  }
+
+  @Test
+  void remove_ShouldDropNoteFromResults() {
+    index(40L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Førstehjelp", "Bandasjer");
+    index(41L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Førstehjelp", "Plaster");
+
+    searchIndex.remove(40L);
+
+    assertEquals(List.of(41L), searchIndex.search("førstehjelp", ME, Set.of(), 10));
+    assertTrue(searchIndex.search("bandasjer", ME, Set.of(), 10).isEmpty());
+  }
+
+  @Test
+  void rebuild_ShouldIndexAllNotesInChunks() {
+    List<ReflectionNoteDocument> firstChunk = new ArrayList<>();
+    for (long id = 1; id <= 500; id++) {
+      firstChunk.add(new ReflectionNoteDocument(id, STRANGER, ReflectionNoteVisibility.PUBLIC, "Notat " + id, "Radio"));
+    }
+    List<ReflectionNoteDocument> secondChunk = List.of(
+        new ReflectionNoteDocument(501L, STRANGER, ReflectionNoteVisibility.PUBLIC, "Siste", "Radio og batterier"));
+    when(reflectionRepository.findDocumentsAfter(eq(0L), any(Limit.class))).thenReturn(firstChunk);
+    when(reflectionRepository.findDocumentsAfter(eq(500L), any(Limit.class))).thenReturn(secondChunk);
+
+    assertEquals(501, searchIndex.rebuild());
+    assertEquals(List.of(501L), searchIndex.search("batterier", ME, Set.of(), 10));
+    assertEquals(10, searchIndex.search("radio", ME, Set.of(), 10).size());
+  }
+
+  @Test
+  void tokenize_ShouldSplitOnNonLetters() {
+    assertEquals(List.of("vann", "mat", "72", "timer"),
+        ReflectionSearchIndex.tokenize("Vann, mat & 72 timer!"));
+    assertTrue(ReflectionSearchIndex.tokenize(null).isEmpty());
+  }
+
+  private void index(Long id, Long userId, ReflectionNoteVisibility visibility, String title, String content) {
+    User user = new User();
+    user.setId(userId);
+    searchIndex.index(new ReflectionNote()
+        .setId(id)
+        .setUser(user)
+        .setVisibility(visibility)
+        .setTitle(title)
+        .setContent(content));
+  }
+}
@@ -7,9 +7,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
 import stud.ntnu.no.krisefikser.config.SecurityUtil;
 import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteRequest;
 import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteResponse;
+import stud.ntnu.no.krisefikser.dtos.reflection.ReflectionNoteSummary;
 import stud.ntnu.no.krisefikser.entities.Household;
 import stud.ntnu.no.krisefikser.entities.User;
 import stud.ntnu.no.krisefikser.entities.reflections.ReflectionNote;
@@ -18,10 +22,14 @@ import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
 import stud.ntnu.no.krisefikser.exception.customExceptions.UnauthorizedOperationException;
 import stud.ntnu.no.krisefikser.repository.ReflectionRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,9 +41,18 @@ class ReflectionServiceTest {
   @Mock
   private ReflectionRepository reflectionRepository;
 
+  @Mock
+  private ReflectionSearchIndex reflectionSearchIndex;
+
+  @Mock
+  private UserRepository userRepository;
+
   @Mock
   private SecurityUtil securityUtil;
 
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   @InjectMocks
   private ReflectionService reflectionService;
 
@@ -94,39 +111,125 @@ class ReflectionServiceTest {
 
     // Assert
     verify(reflectionRepository, times(1)).save(any(ReflectionNote.class));
+    verify(reflectionSearchIndex, times(1)).index(any(ReflectionNote.class));
   }
 
   @Test
-  @DisplayName("Should get all public reflection notes except current user's")
-  void getAllPublicReflectionNotes_ShouldReturnPublicNotesExceptCurrentUsers() {
+  @DisplayName("Should get the first page of public reflection notes except current user's")
+  void getPublicReflectionFeed_ShouldReturnFirstPageExceptCurrentUsers() {
     // Arrange
-    ReflectionNote note1 = new ReflectionNote()
-        .setId(2L)
-        .setTitle("Public Note 1")
-        .setContent("Content 1")
-        .setVisibility(ReflectionNoteVisibility.PUBLIC)
+    ReflectionNoteSummary note1 = new ReflectionNoteSummary(3L, "Public Note 2", "Content 2",
+        ReflectionNoteVisibility.PUBLIC, new Date(), householdMember.getId(), "member@example.com", "Kari", "Nordmann");
+    ReflectionNoteSummary note2 = new ReflectionNoteSummary(2L, "Public Note 1", "Content 1",
+        ReflectionNoteVisibility.PUBLIC, new Date(), householdMember.getId(), "member@example.com", "Kari", "Nordmann");
+
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(reflectionRepository.findFeed(ReflectionNoteVisibility.PUBLIC, currentUser.getId(), Limit.of(20)))
+        .thenReturn(Arrays.asList(note1, note2));
+
+    // Act
+    List<ReflectionNoteSummary> result = reflectionService.getPublicReflectionFeed(null, null);
+
+    // Assert
+    assertEquals(2, result.size());
+    assertEquals("member@example.com", result.get(0).getCreator().getUsername());
+    verify(reflectionRepository, never()).findFeedBefore(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should get the next page of public reflection notes with a clamped limit")
+  void getPublicReflectionFeed_WithCursor_ShouldReturnNextPage() {
+    // Arrange
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(reflectionRepository.findFeedBefore(ReflectionNoteVisibility.PUBLIC, currentUser.getId(), 5L, Limit.of(100)))
+        .thenReturn(List.of());
+
+    // Act
+    List<ReflectionNoteSummary> result = reflectionService.getPublicReflectionFeed(5L, 1000);
+
+    // Assert
+    assertTrue(result.isEmpty());
+    verify(reflectionRepository, never()).findFeed(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should keep a short snippet of long content")
+  void setContent_WithLongContent_ShouldKeepSnippet() {
+    // Arrange
+    String content = "Vann  og\nmat ".repeat(100);
+
+    // Act
+    ReflectionNote note = new ReflectionNote().setContent(content);
+
+    // Assert
+    assertEquals(content, note.getContent());
+    assertTrue(note.getSnippet().length() <= ReflectionNote.SNIPPET_LENGTH + 1);
+    assertTrue(note.getSnippet().startsWith("Vann og mat Vann og mat"));
+    assertTrue(note.getSnippet().endsWith("\u2026"));
+    assertEquals("Test Content", reflectionNote.getSnippet());
+  }
+
+  @Test
+  @DisplayName("Should get a household reflection note of the same household")
+  void getReflectionNote_WithHouseholdNoteOfSameHousehold_ShouldReturnNote() {
+    // Arrange
+    ReflectionNote householdNote = new ReflectionNote()
+        .setId(4L)
+        .setTitle("Household Note")
+        .setContent("Full content")
+        .setVisibility(ReflectionNoteVisibility.HOUSEHOLD)
         .setUser(householdMember);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(reflectionRepository.findById(4L)).thenReturn(Optional.of(householdNote));
 
-    ReflectionNote note2 = new ReflectionNote()
-        .setId(3L)
-        .setTitle("Public Note 2")
-        .setContent("Content 2")
-        .setVisibility(ReflectionNoteVisibility.PUBLIC)
+    // Act
+    ReflectionNoteResponse result = reflectionService.getReflectionNote(4L);
+
+    // Assert
+    assertEquals("Full content", result.getContent());
+  }
+
+  @Test
+  @DisplayName("Should throw exception when user reads another user's private note")
+  void getReflectionNote_WithOtherUsersPrivateNote_ShouldThrowException() {
+    // Arrange
+    ReflectionNote privateNote = new ReflectionNote()
+        .setId(5L)
+        .setTitle("Private Note")
+        .setContent("Secret")
+        .setVisibility(ReflectionNoteVisibility.PRIVATE)
         .setUser(householdMember);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(reflectionRepository.findById(5L)).thenReturn(Optional.of(privateNote));
 
-    List<ReflectionNote> notes = Arrays.asList(note1, note2);
+    // Act & Assert
+    UnauthorizedOperationException exception = assertThrows(
+        UnauthorizedOperationException.class,
+        () -> reflectionService.getReflectionNote(5L)
+    );
+    assertEquals(CustomErrorMessage.UNAUTHORIZED_OPERATION, exception.getErrorMessage());
+  }
 
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
-    when(reflectionRepository.findAllByVisibilityAndUserIdNot(ReflectionNoteVisibility.PUBLIC, currentUser.getId()))
-        .thenReturn(notes);
+  @Test
+  @DisplayName("Should search with the household members and return hits in rank order")
+  void searchReflectionNotes_ShouldReturnHitsInRankOrder() {
+    // Arrange
+    ReflectionNoteSummary first = new ReflectionNoteSummary(7L, "Vann", "Lagre vann",
+        ReflectionNoteVisibility.HOUSEHOLD, new Date(), householdMember.getId(), "member@example.com", "Kari", "Nordmann");
+    ReflectionNoteSummary second = new ReflectionNoteSummary(3L, "Mat", "Vann og mat",
+        ReflectionNoteVisibility.PUBLIC, new Date(), householdMember.getId(), "member@example.com", "Kari", "Nordmann");
+
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(userRepository.findIdsByHouseholdId(household.getId())).thenReturn(List.of(1L, 2L));
+    when(reflectionSearchIndex.search("vann", currentUser.getId(), Set.of(1L, 2L), 20))
+        .thenReturn(List.of(7L, 9L, 3L));
+    when(reflectionRepository.findSummariesByIdIn(List.of(7L, 9L, 3L))).thenReturn(List.of(second, first));
 
     // Act
-    List<ReflectionNoteResponse> result = reflectionService.getAllPublicReflectionNotes();
+    List<ReflectionNoteSummary> result = reflectionService.searchReflectionNotes("vann", null);
 
     // Assert
-    assertEquals(2, result.size());
-    verify(reflectionRepository, times(1))
-        .findAllByVisibilityAndUserIdNot(ReflectionNoteVisibility.PUBLIC, currentUser.getId());
+    assertEquals(List.of(7L, 3L), result.stream().map(ReflectionNoteSummary::getId).toList());
   }
 
   @Test
@@ -149,7 +252,7 @@ class ReflectionServiceTest {
 
     List<ReflectionNote> notes = Arrays.asList(note1, note2);
 
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
     when(reflectionRepository.findAllByUserId(currentUser.getId())).thenReturn(notes);
 
     // Act
@@ -173,7 +276,8 @@ class ReflectionServiceTest {
 
     List<ReflectionNote> notes = List.of(note1);
 
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(userRepository.findIdsByHouseholdId(household.getId())).thenReturn(List.of(1L, 2L));
     when(reflectionRepository.findAllByVisibilityAndUserIdIn(
         eq(ReflectionNoteVisibility.HOUSEHOLD), anySet()))
         .thenReturn(notes);
@@ -192,7 +296,7 @@ class ReflectionServiceTest {
   void getAllReflectionNotesInMyHousehold_WithNoHousehold_ShouldThrowException() {
     // Arrange
     currentUser.setHousehold(null);
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
 
     // Act & Assert
     AppEntityNotFoundException exception = assertThrows(
@@ -214,7 +318,8 @@ class ReflectionServiceTest {
     singleUserHousehold.setUsers(singleUserSet);
     currentUser.setHousehold(singleUserHousehold);
 
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
+    when(userRepository.findIdsByHouseholdId(singleUserHousehold.getId())).thenReturn(List.of(currentUser.getId()));
 
     // Act
     List<ReflectionNoteResponse> result = reflectionService.getAllReflectionNotesInMyHousehold();
@@ -229,7 +334,7 @@ class ReflectionServiceTest {
   void deleteReflectionNoteById_WithValidIdAndOwner_ShouldDeleteNote() {
     // Arrange
     Long noteId = 1L;
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
     when(reflectionRepository.findById(noteId)).thenReturn(Optional.of(reflectionNote));
 
     // Act
@@ -237,6 +342,7 @@ class ReflectionServiceTest {
 
     // Assert
     verify(reflectionRepository, times(1)).delete(reflectionNote);
+    verify(reflectionSearchIndex, times(1)).remove(noteId);
   }
 
   @Test
@@ -244,7 +350,7 @@ class ReflectionServiceTest {
   void deleteReflectionNoteById_WithInvalidId_ShouldThrowException() {
     // Arrange
     Long invalidNoteId = 999L;
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
     when(reflectionRepository.findById(invalidNoteId)).thenReturn(Optional.empty());
 
     // Act & Assert
@@ -268,7 +374,7 @@ class ReflectionServiceTest {
         .setVisibility(ReflectionNoteVisibility.PUBLIC)
         .setUser(householdMember);
 
-    when(securityUtil.getCurrentUser()).thenReturn(currentUser);
+    when(securityUtil.getCurrentPrincipal()).thenReturn(principalOf(currentUser));
     when(reflectionRepository.findById(noteId)).thenReturn(Optional.of(otherUserNote));
 
     // Act & Assert
@@ -279,4 +385,32 @@ class ReflectionServiceTest {
     assertEquals(CustomErrorMessage.UNAUTHORIZED_OPERATION, exception.getErrorMessage());
     verify(reflectionRepository, never()).delete(any());
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("Should backfill snippets in one transaction per chunk")
+  void backfillSnippets_ShouldCommitEachChunk() {
+    // Arrange
+    List<ReflectionNote> fullChunk = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      fullChunk.add(new ReflectionNote().setContent("Content " + i).setSnippet(null));
+    }
+    ReflectionNote last = new ReflectionNote().setContent("Last content").setSnippet(null);
+    when(reflectionRepository.findBySnippetIsNull(any(Limit.class)))
+        .thenReturn(fullChunk)
+        .thenReturn(List.of(last));
+
+    // Act
+    reflectionService.backfillSnippets();
+
+    // Assert
+    assertEquals("Content 0", fullChunk.get(0).getSnippet());
+    assertEquals("Last content", last.getSnippet());
+    verify(transactionManager, times(2)).getTransaction(any());
+    verify(transactionManager, times(2)).commit(any());
+  }
+
+  private AuthenticatedUser principalOf(User user) {
+    return new AuthenticatedUser(user.getId(), user.getUsername(),
+        user.getHousehold() == null ? null : user.getHousehold().getId(), List.of());
+  }
+}
@@ -0,0 +1,89 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import stud.ntnu.no.krisefikser.config.AuthenticatedUser;
+import stud.ntnu.no.krisefikser.config.SecurityUtil;
+import stud.ntnu.no.krisefikser.entities.User;
+import stud.ntnu.no.krisefikser.exception.customExceptions.UnauthorizedOperationException;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityUtilTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private CustomUserDetailsService userDetailsService;
+
+  @InjectMocks
+  private SecurityUtil securityUtil;
+
+  private final AuthenticatedUser principal = new AuthenticatedUser(7L, "ola@example.com", 3L, List.of());
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void getCurrentPrincipal_withTokenPrincipal_doesNotQueryDatabase() {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+
+    assertSame(principal, securityUtil.getCurrentPrincipal());
+    verifyNoInteractions(userRepository, userDetailsService);
+  }
+
+  @Test
+  void getCurrentPrincipal_withNamePrincipal_resolvesOncePerRequest() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("ola@example.com", null, List.of()));
+    when(userDetailsService.findAuthenticatedUser("ola@example.com")).thenReturn(Optional.of(principal));
+
+    assertSame(principal, securityUtil.getCurrentPrincipal());
+    assertEquals(3L, securityUtil.getCurrentPrincipal().getHouseholdId());
+    verify(userDetailsService, times(1)).findAuthenticatedUser("ola@example.com");
+
+    // A new request resolves the principal again
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    securityUtil.getCurrentPrincipal();
+    verify(userDetailsService, times(2)).findAuthenticatedUser("ola@example.com");
+  }
+
+  @Test
+  void getCurrentUser_loadsEntityById() {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    User user = new User().setEmail("ola@example.com");
+    when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+    assertSame(user, securityUtil.getCurrentUser());
+    verify(userRepository, never()).findByEmail(any());
+  }
+
+  @Test
+  void getCurrentPrincipal_withoutAuthentication_throwsException() {
+    assertTrue(securityUtil.getCurrentPrincipalIfAuthenticated().isEmpty());
+    assertThrows(UnauthorizedOperationException.class, () -> securityUtil.getCurrentPrincipal());
+  }
+}
@@ -0,0 +1,224 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.dtos.storageItem.StockHistoryBucket;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemBulkStockUpdateRequest;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemResponse;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockAdjustRequest;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockUpdateRequest;
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.StockRollupGranularity;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.StockEventRepository;
+import stud.ntnu.no.krisefikser.repository.StockRollupRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StockHistoryServiceTest {
+
+  @Autowired
+  private StockHistoryService stockHistoryService;
+
+  @Autowired
+  private StorageItemService storageItemService;
+
+  @Autowired
+  private StockEventRepository stockEventRepository;
+
+  @Autowired
+  private StockRollupRepository stockRollupRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  private Long storageItemId;
+
+  @BeforeEach
+  public void setUp() {
+    stockRollupRepository.deleteAll();
+    stockEventRepository.deleteAll();
+    notificationOutboxRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    householdRepository.deleteAll();
+
+    Household household = householdRepository.save(new Household().setName("Test Household"));
+    ItemCategory category = itemCategoryRepository.save(new ItemCategory().setName("Drinks"));
+    ItemDefinition water = itemDefinitionRepository.save(new ItemDefinition()
+        .setName("Water")
+        .setUnit("L")
+        .setRecommendedAmountPerPerson(9.0)
+        .setCategory(category));
+
+    storageItemId = storageItemRepository.save(new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(water)
+        .setCurrentStock(5.0)).getId();
+  }
+
+  @Test
+  public void testStockChangesAreRolledUpPerDayAndWeek() {
+    storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, 3.0));
+    storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, -2.0));
+
+    assertEquals(2, stockEventRepository.count());
+    for (StockRollupGranularity granularity : StockRollupGranularity.values()) {
+      List<StockHistoryBucket> history = stockHistoryService.getHistory(storageItemId, granularity, null, null);
+
+      assertEquals(1, history.size());
+      StockHistoryBucket bucket = history.get(0);
+      assertEquals(StockHistoryService.bucketStart(granularity, LocalDate.now()), bucket.getBucketStart());
+      assertEquals(3.0, bucket.getAdded(), 0.001);
+      assertEquals(2.0, bucket.getConsumed(), 0.001);
+      assertEquals(2, bucket.getEventCount());
+      assertEquals(6.0, bucket.getClosingStock(), 0.001);
+    }
+  }
+
+  @Test
+  public void testClampedRemovalRecordsTheAmountRemoved() {
+    // Removing slightly more than the stock is a rounding difference and empties the item
+    storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, -5.0005));
+
+    assertEquals(0.0, storageItemRepository.findById(storageItemId).get().getCurrentStock(), 0.0);
+    assertEquals(-5.0, stockEventRepository.findAll().get(0).getDelta(), 0.0);
+  }
+
+  @Test
+  public void testAdjustingStockWritesTheItemOnce() {
+    long version = storageItemRepository.findById(storageItemId).get().getVersion();
+
+    StorageItemResponse response = storageItemService.adjustStock(
+        new StorageItemStockAdjustRequest(storageItemId, -2.0));
+
+    assertEquals(version + 1, storageItemRepository.findById(storageItemId).get().getVersion());
+    assertEquals(version + 1, response.getVersion());
+  }
+
+  @Test
+  public void testSettingStockRecordsTheDifference() {
+    storageItemService.updateStock(new StorageItemStockUpdateRequest(storageItemId, 1.0));
+
+    List<StockHistoryBucket> history = stockHistoryService.getHistory(storageItemId,
+        StockRollupGranularity.DAY, null, null);
+    assertEquals(1, history.size());
+    assertEquals(0.0, history.get(0).getAdded(), 0.001);
+    assertEquals(4.0, history.get(0).getConsumed(), 0.001);
+    assertEquals(1.0, history.get(0).getClosingStock(), 0.001);
+  }
+
+  @Test
+  public void testBulkUpdateRecordsTheHistoryOfEveryItem() {
+    ItemDefinition bread = itemDefinitionRepository.save(new ItemDefinition()
+        .setName("Bread")
+        .setUnit("pcs")
+        .setRecommendedAmountPerPerson(2.0)
+        .setCategory(itemCategoryRepository.findAll().get(0)));
+    Long breadItemId = storageItemRepository.save(new StorageItem()
+        .setHousehold(householdRepository.findAll().get(0))
+        .setItemDefinition(bread)
+        .setCurrentStock(4.0)).getId();
+
+    List<StorageItemResponse> responses = storageItemService.updateStocks(new StorageItemBulkStockUpdateRequest(
+        List.of(new StorageItemStockUpdateRequest(storageItemId, 3.0),
+            new StorageItemStockUpdateRequest(breadItemId, 6.0))));
+
+    assertEquals(2, stockEventRepository.count());
+    assertEquals(2L * StockRollupGranularity.values().length, stockRollupRepository.count());
+    StockHistoryBucket water = stockHistoryService.getHistory(storageItemId,
+        StockRollupGranularity.DAY, null, null).get(0);
+    assertEquals(2.0, water.getConsumed(), 0.001);
+    assertEquals(3.0, water.getClosingStock(), 0.001);
+    StockHistoryBucket breadWeek = stockHistoryService.getHistory(breadItemId,
+        StockRollupGranularity.WEEK, null, null).get(0);
+    assertEquals(2.0, breadWeek.getAdded(), 0.001);
+    assertEquals(6.0, breadWeek.getClosingStock(), 0.001);
+
+    StorageItemResponse waterResponse = responses.stream()
+        .filter(response -> response.getId().equals(storageItemId)).findFirst().orElseThrow();
+    StorageItemResponse breadResponse = responses.stream()
+        .filter(response -> response.getId().equals(breadItemId)).findFirst().orElseThrow();
+    assertEquals(2.0, waterResponse.getConsumptionPerDay(), 0.001);
+    assertNotNull(waterResponse.getRunsOutAt());
+    assertEquals(0.0, breadResponse.getConsumptionPerDay(), 0.001);
+    assertNull(breadResponse.getRunsOutAt());
+  }
+
+  @Test
+  public void testUnchangedStockIsNotRecorded() {
+    storageItemService.updateStock(new StorageItemStockUpdateRequest(storageItemId, 5.0));
+
+    assertEquals(0, stockEventRepository.count());
+    assertTrue(stockHistoryService.getHistory(storageItemId, StockRollupGranularity.DAY, null, null).isEmpty());
+  }
+
+  @Test
+  public void testHistoryOutsidePeriodIsLeftOut() {
+    storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, 1.0));
+
+    LocalDate lastWeek = LocalDate.now().minusWeeks(1);
+    assertTrue(stockHistoryService.getHistory(storageItemId, StockRollupGranularity.DAY,
+        lastWeek.minusDays(6), lastWeek).isEmpty());
+  }
+
+  @Test
+  public void testConsumptionForecastsWhenStockRunsOut() {
+    long before = System.currentTimeMillis();
+
+    StorageItemResponse response = storageItemService.adjustStock(
+        new StorageItemStockAdjustRequest(storageItemId, -2.0));
+
+    // 2 L used today leaves 3 L, which lasts 1.5 days at the same rate
+    assertEquals(2.0, response.getConsumptionPerDay(), 0.001);
+    assertNotNull(response.getRunsOutAt());
+    long expected = before + Duration.ofHours(36).toMillis();
+    assertTrue(Math.abs(response.getRunsOutAt().getTime() - expected) < Duration.ofMinutes(1).toMillis());
+  }
+
+  @Test
+  public void testNoForecastWithoutConsumption() {
+    StorageItemResponse response = storageItemService.adjustStock(
+        new StorageItemStockAdjustRequest(storageItemId, 2.0));
+
+    assertEquals(0.0, response.getConsumptionPerDay(), 0.001);
+    assertNull(response.getRunsOutAt());
+  }
+
+  @Test
+  public void testGetHistoryMissingItemThrows() {
+    assertThrows(AppEntityNotFoundException.class,
+        () -> stockHistoryService.getHistory(999L, StockRollupGranularity.DAY, null, null));
+  }
+}
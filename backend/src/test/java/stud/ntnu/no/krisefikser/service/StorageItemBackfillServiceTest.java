@@ -0,0 +1,157 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.HouseholdPreparedness;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "storage-item.backfill.chunk-size=2")
+@ActiveProfiles("test")
+public class StorageItemBackfillServiceTest {
+
+  @Autowired
+  private StorageItemBackfillService backfillService;
+
+  @Autowired
+  private StorageItemCreationService creationService;
+
+  @Autowired
+  private PreparednessService preparednessService;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private HouseholdPreparednessRepository preparednessRepository;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  private ItemCategory category;
+  private ItemDefinition water;
+  private final List<Household> households = new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() {
+    notificationOutboxRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    householdRepository.deleteAll();
+
+    category = itemCategoryRepository.save(new ItemCategory().setName("Drinks"));
+    water = itemDefinitionRepository.save(definition("Water"));
+
+    households.clear();
+    for (int i = 0; i < 5; i++) {
+      Household household = householdRepository.save(new Household().setName("Household " + i));
+      creationService.createStorageItemsForNewHousehold(household);
+      households.add(household);
+    }
+  }
+
+  @Test
+  public void testCreateStorageItemsForNewHouseholdCreatesOneItemPerDefinition() {
+    itemDefinitionRepository.save(definition("Bread"));
+    Household household = households.get(0);
+
+    creationService.createStorageItemsForNewHousehold(household);
+
+    List<StorageItem> items = storageItemRepository.findByHouseholdId(household.getId());
+    assertEquals(2, items.size());
+    assertTrue(items.stream().allMatch(item -> item.getCurrentStock() == 0.0));
+    assertTrue(items.stream().allMatch(item -> item.getLastRestockedAt() != null));
+
+    // Running it again creates nothing
+    creationService.createStorageItemsForNewHousehold(household);
+    assertEquals(2, storageItemRepository.findByHouseholdId(household.getId()).size());
+  }
+
+  @Test
+  public void testBackfillAddsItemDefinitionToEveryHouseholdInChunks() {
+    ItemDefinition bread = itemDefinitionRepository.save(definition("Bread"));
+    assertEquals(List.of(bread.getId()), itemDefinitionRepository.findIdsMissingFromAnyHousehold());
+
+    int created = backfillService.backfillItemDefinition(bread.getId());
+
+    assertEquals(households.size(), created);
+    for (Household household : households) {
+      assertEquals(2, storageItemRepository.findByHouseholdId(household.getId()).size());
+    }
+    assertTrue(itemDefinitionRepository.findIdsMissingFromAnyHousehold().isEmpty());
+  }
+
+  @Test
+  public void testBackfillResumesWithoutDuplicates() {
+    ItemDefinition bread = itemDefinitionRepository.save(definition("Bread"));
+    // A previous run stopped after some households
+    creationService.createStorageItemsForNewHousehold(households.get(0));
+    creationService.createStorageItemsForNewHousehold(households.get(1));
+
+    int created = backfillService.backfillItemDefinition(bread.getId());
+
+    assertEquals(households.size() - 2, created);
+    assertEquals(0, backfillService.backfillItemDefinition(bread.getId()));
+    assertEquals(households.size() * 2L, storageItemRepository.count());
+  }
+
+  @Test
+  public void testBackfillUpdatesPreparednessSummaries() {
+    Household household = households.get(3);
+    StorageItem waterItem = storageItemRepository.findByHouseholdId(household.getId()).get(0);
+    storageItemRepository.save(waterItem.setCurrentStock(10.0).refreshExpiresAt());
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
+    HouseholdPreparedness before = preparednessRepository.findById(household.getId()).get();
+
+    ItemDefinition bread = itemDefinitionRepository.save(definition("Bread"));
+    backfillService.backfillItemDefinition(bread.getId());
+
+    HouseholdPreparedness after = preparednessRepository.findById(household.getId()).get();
+    assertEquals(before.getTotalItems() + 1, after.getTotalItems());
+    assertEquals(before.getLowStockItems() + 1, after.getLowStockItems());
+    assertEquals(before.getTotalScore(), after.getTotalScore());
+
+    // The incremental update matches a full recalculation
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
+    HouseholdPreparedness recalculated = preparednessRepository.findById(household.getId()).get();
+    assertEquals(recalculated.getTotalItems(), after.getTotalItems());
+    assertEquals(recalculated.getLowStockItems(), after.getLowStockItems());
+    assertEquals(recalculated.getAdequateItems(), after.getAdequateItems());
+    assertEquals(recalculated.getTotalScore(), after.getTotalScore());
+  }
+
+  private ItemDefinition definition(String name) {
+    return new ItemDefinition()
+        .setName(name)
+        .setUnit("pcs")
+        .setRecommendedAmountPerPerson(1.0)
+        .setCategory(category);
+  }
+}
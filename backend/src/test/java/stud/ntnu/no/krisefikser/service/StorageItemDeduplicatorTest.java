@@ -0,0 +1,141 @@
+package stud.ntnu.no.krisefikser.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import stud.ntnu.no.krisefikser.entities.Household;
+import stud.ntnu.no.krisefikser.entities.ItemCategory;
+import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.StockEvent;
+import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.repository.HouseholdPreparednessRepository;
+import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
+import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
+import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
+import stud.ntnu.no.krisefikser.repository.StockEventRepository;
+import stud.ntnu.no.krisefikser.repository.StockRollupRepository;
+import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests merging duplicate storage items. The unique key is dropped while a test runs, as in
+ * a database created before the key existed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class StorageItemDeduplicatorTest {
+
+  @Autowired
+  private StorageItemDeduplicator deduplicator;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private StorageItemRepository storageItemRepository;
+
+  @Autowired
+  private StockEventRepository stockEventRepository;
+
+  @Autowired
+  private StockRollupRepository stockRollupRepository;
+
+  @Autowired
+  private ItemDefinitionRepository itemDefinitionRepository;
+
+  @Autowired
+  private ItemCategoryRepository itemCategoryRepository;
+
+  @Autowired
+  private HouseholdRepository householdRepository;
+
+  @Autowired
+  private HouseholdPreparednessRepository preparednessRepository;
+
+  @Autowired
+  private PreparednessService preparednessService;
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  private Household household;
+  private ItemDefinition water;
+
+  @BeforeEach
+  public void setUp() {
+    stockRollupRepository.deleteAll();
+    stockEventRepository.deleteAll();
+    notificationOutboxRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    itemDefinitionRepository.deleteAll();
+    itemCategoryRepository.deleteAll();
+    householdRepository.deleteAll();
+
+    household = householdRepository.save(new Household().setName("Test Household"));
+    ItemCategory category = itemCategoryRepository.save(new ItemCategory().setName("Drinks"));
+    water = itemDefinitionRepository.save(new ItemDefinition()
+        .setName("Water")
+        .setUnit("L")
+        .setRecommendedAmountPerPerson(9.0)
+        .setCategory(category));
+
+    jdbcTemplate.execute("ALTER TABLE storage_item DROP CONSTRAINT uk_storage_item_household_item");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    // Duplicates left by a failed test would keep the key from being restored
+    stockEventRepository.deleteAll();
+    storageItemRepository.deleteAll();
+    jdbcTemplate.execute("ALTER TABLE storage_item ADD CONSTRAINT uk_storage_item_household_item "
+        + "UNIQUE (household_id, item_id)");
+  }
+
+  @Test
+  public void testDuplicatesAreMergedIntoTheFirstItem() {
+    StorageItem first = storageItemRepository.save(item(2.0));
+    StorageItem duplicate = storageItemRepository.save(item(3.0));
+    stockEventRepository.save(new StockEvent()
+        .setStorageItem(duplicate)
+        .setDelta(3.0)
+        .setStockAfter(3.0)
+        .setOccurredAt(new Date()));
+    preparednessService.recalculateHouseholdPreparedness(household.getId());
+    assertTrue(preparednessRepository.existsById(household.getId()));
+
+    assertEquals(1, deduplicator.deduplicate());
+
+    List<StorageItem> items = storageItemRepository.findByHouseholdId(household.getId());
+    assertEquals(1, items.size());
+    assertEquals(first.getId(), items.get(0).getId());
+    assertEquals(5.0, items.get(0).getCurrentStock(), 0.0);
+    assertEquals(0, stockEventRepository.count());
+    // The summary is recalculated on the next read
+    assertFalse(preparednessRepository.existsById(household.getId()));
+  }
+
+  @Test
+  public void testNothingChangesWithoutDuplicates() {
+    storageItemRepository.save(item(2.0));
+
+    assertEquals(0, deduplicator.deduplicate());
+    assertEquals(1, storageItemRepository.count());
+  }
+
+  private StorageItem item(double stock) {
+    return new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(water)
+        .setCurrentStock(stock);
+  }
+}
@@ -1,25 +1,40 @@
 package stud.ntnu.no.krisefikser.service;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemBulkStockUpdateRequest;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemResponse;
+import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockAdjustRequest;
 import stud.ntnu.no.krisefikser.dtos.storageItem.StorageItemStockUpdateRequest;
 import stud.ntnu.no.krisefikser.entities.Household;
 import stud.ntnu.no.krisefikser.entities.ItemCategory;
 import stud.ntnu.no.krisefikser.entities.ItemDefinition;
+import stud.ntnu.no.krisefikser.entities.NotificationOutboxEntry;
 import stud.ntnu.no.krisefikser.entities.StorageItem;
+import stud.ntnu.no.krisefikser.exception.CustomErrorMessage;
 import stud.ntnu.no.krisefikser.exception.customExceptions.AppEntityNotFoundException;
+import stud.ntnu.no.krisefikser.exception.customExceptions.EntityOperationException;
 import stud.ntnu.no.krisefikser.repository.HouseholdRepository;
 import stud.ntnu.no.krisefikser.repository.ItemCategoryRepository;
 import stud.ntnu.no.krisefikser.repository.ItemDefinitionRepository;
+import stud.ntnu.no.krisefikser.repository.NotificationOutboxRepository;
 import stud.ntnu.no.krisefikser.repository.StorageItemRepository;
+import stud.ntnu.no.krisefikser.repository.UserRepository;
+import stud.ntnu.no.krisefikser.util.DateUtil;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,15 +57,31 @@ public class StorageItemServiceTest {
   @Autowired
   private HouseholdRepository householdRepository;
 
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
   private Long householdId;
   private Long categoryId;
   private Long storageItemId;
+  private Long itemDefinitionId;
 
   @BeforeEach
   public void setUp() {
+    notificationOutboxRepository.deleteAll();
     storageItemRepository.deleteAll();
     itemRepository.deleteAll();
     itemCategoryRepository.deleteAll();
+    // Users left by other test classes may still belong to a household
+    userRepository.saveAll(userRepository.findAll().stream()
+        .filter(user -> user.getHousehold() != null)
+        .map(user -> user.setHousehold(null))
+        .toList());
     householdRepository.deleteAll(); // Clear the Household repository too
 
     // Create a new Household entity
@@ -87,6 +118,7 @@ public class StorageItemServiceTest {
     this.householdId = household.getId();
     this.categoryId = category.getId();
     this.storageItemId = storageItem.getId();
+    this.itemDefinitionId = item.getId();
   }
 
   @Test
@@ -104,6 +136,41 @@ public class StorageItemServiceTest {
     assertNull(response.getExpirationDate());
   }
 
+  @Test
+  public void testGetStorageItemsUsesBoundedNumberOfQueries() {
+    Household household = householdRepository.findById(householdId).get();
+    ItemCategory category = itemCategoryRepository.findById(categoryId).get();
+    for (int i = 0; i < 5; i++) {
+      ItemDefinition item = itemRepository.save(new ItemDefinition()
+          .setName("Item " + i)
+          .setUnit("pcs")
+          .setRecommendedAmountPerPerson(2.0)
+          .setCategory(category));
+      storageItemRepository.save(new StorageItem()
+          .setHousehold(household)
+          .setItemDefinition(item)
+          .setCurrentStock(i));
+    }
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    List<StorageItemResponse> byHousehold = storageItemService.getStorageItemsByHousehold(householdId);
+    long householdStatements = statistics.getPrepareStatementCount();
+
+    statistics.clear();
+    List<StorageItemResponse> byCategory = storageItemService.getStorageItemsByHouseholdAndCategory(householdId,
+        categoryId);
+    long categoryStatements = statistics.getPrepareStatementCount();
+
+    assertEquals(6, byHousehold.size());
+    assertEquals(6, byCategory.size());
+    assertEquals("Item 4", byHousehold.get(5).getName());
+    assertEquals(categoryId, byHousehold.get(5).getCategoryId());
+    // One query for the household size and one for the items, however many items there are
+    assertTrue(householdStatements <= 2, "Expected at most 2 statements, was " + householdStatements);
+    assertTrue(categoryStatements <= 2, "Expected at most 2 statements, was " + categoryStatements);
+  }
+
   @Test
   public void testGetStorageItemsThrowsIfHouseholdNotFound() {
     Long invalidHouseholdId = 999L;
@@ -142,6 +209,21 @@ public class StorageItemServiceTest {
     assertEquals(10.0, updatedItemResponse.getCurrentStock(), 0.01);
   }
 
+  @Test
+  public void testUpdateStockQueuesNotificationEvaluation() {
+    StorageItemStockUpdateRequest updateRequest = new StorageItemStockUpdateRequest();
+    updateRequest.setId(storageItemId);
+    updateRequest.setNewStock(2.0);
+
+    storageItemService.updateStock(updateRequest);
+
+    List<NotificationOutboxEntry> entries = notificationOutboxRepository.findAll();
+    assertEquals(1, entries.size());
+    assertEquals(storageItemId, entries.get(0).getStorageItemId());
+    assertEquals(householdId, entries.get(0).getHouseholdId());
+    assertEquals(0, entries.get(0).getAttempts());
+  }
+
   // Test for updating stock where the storage item does not exist
   @Test
   public void testUpdateStockThrowsIfStorageItemNotFound() {
@@ -187,4 +269,163 @@ public class StorageItemServiceTest {
     assertEquals(before, after,
         "Expected restock timestamp to stay the same on decrease");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testUpdateStockMaintainsExpirationDate() {
+    ItemDefinition item = itemRepository.findById(itemDefinitionId).get();
+    itemRepository.save(item.setShelfLifeDays(30));
+
+    StorageItemStockUpdateRequest req = new StorageItemStockUpdateRequest();
+    req.setId(storageItemId);
+    req.setNewStock(8.0);
+    StorageItemResponse response = storageItemService.updateStock(req);
+
+    StorageItem restocked = storageItemRepository.findById(storageItemId).get();
+    assertEquals(DateUtil.addDaysToDate(restocked.getLastRestockedAt(), 30).getTime(),
+        restocked.getExpiresAt().getTime());
+    assertEquals(restocked.getExpiresAt().getTime(), response.getExpirationDate().getTime());
+
+    // Items without stock do not expire
+    req.setNewStock(0.0);
+    storageItemService.updateStock(req);
+    assertNull(storageItemRepository.findById(storageItemId).get().getExpiresAt());
+  }
+
+  @Test
+  public void testUpdateStocksUpdatesAllItemsInOneCall() {
+    ItemCategory category = itemCategoryRepository.findById(categoryId).get();
+    ItemDefinition item = itemRepository.save(new ItemDefinition()
+        .setName("Batteries")
+        .setUnit("pcs")
+        .setRecommendedAmountPerPerson(4.0)
+        .setCategory(category));
+    Household household = householdRepository.findById(householdId).get();
+    StorageItem second = storageItemRepository.save(new StorageItem()
+        .setHousehold(household)
+        .setItemDefinition(item)
+        .setCurrentStock(1.0));
+
+    StorageItemBulkStockUpdateRequest request = new StorageItemBulkStockUpdateRequest(List.of(
+        new StorageItemStockUpdateRequest(storageItemId, 7.0),
+        new StorageItemStockUpdateRequest(second.getId(), 0.5),
+        new StorageItemStockUpdateRequest(second.getId(), 3.0)));
+
+    List<StorageItemResponse> responses = storageItemService.updateStocks(request);
+
+    // The last update of an item wins
+    assertEquals(2, responses.size());
+    assertEquals(storageItemId, responses.get(0).getId());
+    assertEquals(7.0, responses.get(0).getCurrentStock(), 0.01);
+    assertEquals(second.getId(), responses.get(1).getId());
+    assertEquals(3.0, responses.get(1).getCurrentStock(), 0.01);
+    assertEquals(7.0, storageItemRepository.findById(storageItemId).get().getCurrentStock(), 0.01);
+    assertEquals(3.0, storageItemRepository.findById(second.getId()).get().getCurrentStock(), 0.01);
+
+    List<NotificationOutboxEntry> entries = notificationOutboxRepository.findAll();
+    assertEquals(2, entries.size());
+    assertTrue(entries.stream().allMatch(entry -> householdId.equals(entry.getHouseholdId())));
+  }
+
+  @Test
+  public void testUpdateStocksUpdatesNothingIfAnItemIsMissing() {
+    StorageItemBulkStockUpdateRequest request = new StorageItemBulkStockUpdateRequest(List.of(
+        new StorageItemStockUpdateRequest(storageItemId, 9.0),
+        new StorageItemStockUpdateRequest(999L, 1.0)));
+
+    assertThrows(AppEntityNotFoundException.class, () -> storageItemService.updateStocks(request));
+
+    assertEquals(5.0, storageItemRepository.findById(storageItemId).get().getCurrentStock(), 0.01);
+    assertTrue(notificationOutboxRepository.findAll().isEmpty());
+  }
+
+  @Test
+  public void testAdjustStockAddsToStockAndRestocks() {
+    StorageItem before = storageItemRepository.findById(storageItemId).get();
+
+    StorageItemResponse response = storageItemService.adjustStock(
+        new StorageItemStockAdjustRequest(storageItemId, 2.5));
+
+    StorageItem after = storageItemRepository.findById(storageItemId).get();
+    assertEquals(7.5, after.getCurrentStock(), 0.01);
+    assertEquals(7.5, response.getCurrentStock(), 0.01);
+    assertFalse(after.getLastRestockedAt().before(before.getLastRestockedAt()));
+    assertTrue(after.getVersion() > before.getVersion());
+    assertEquals(after.getVersion(), response.getVersion());
+    assertEquals(1, notificationOutboxRepository.findAll().size());
+  }
+
+  @Test
+  public void testAdjustStockRemovesFromStockAndKeepsRestockTimestamp() {
+    Date before = storageItemRepository.findById(storageItemId).get().getLastRestockedAt();
+
+    storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, -2.0));
+
+    StorageItem after = storageItemRepository.findById(storageItemId).get();
+    assertEquals(3.0, after.getCurrentStock(), 0.01);
+    assertEquals(before.getTime(), after.getLastRestockedAt().getTime());
+  }
+
+  @Test
+  public void testAdjustStockRejectsRemovingMoreThanStock() {
+    EntityOperationException e = assertThrows(EntityOperationException.class,
+        () -> storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, -6.0)));
+
+    assertEquals(CustomErrorMessage.STORAGE_ITEM_INSUFFICIENT_STOCK, e.getErrorMessage());
+    assertEquals(5.0, storageItemRepository.findById(storageItemId).get().getCurrentStock(), 0.01);
+  }
+
+  @Test
+  public void testAdjustStockMissingItemThrows() {
+    assertThrows(AppEntityNotFoundException.class,
+        () -> storageItemService.adjustStock(new StorageItemStockAdjustRequest(999L, 1.0)));
+  }
+
+  @Test
+  public void testConcurrentAdjustmentsAreNotLost() throws Exception {
+    int threads = 4;
+    int adjustmentsPerThread = 5;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < adjustmentsPerThread; j++) {
+            storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, 1.0));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(5.0 + threads * adjustmentsPerThread,
+        storageItemRepository.findById(storageItemId).get().getCurrentStock(), 0.01);
+  }
+
+  @Test
+  public void testUpdateStockRejectsStaleVersion() {
+    long version = storageItemRepository.findById(storageItemId).get().getVersion();
+    // Another household member changes the item in the meantime
+    storageItemService.adjustStock(new StorageItemStockAdjustRequest(storageItemId, 1.0));
+
+    EntityOperationException e = assertThrows(EntityOperationException.class,
+        () -> storageItemService.updateStock(new StorageItemStockUpdateRequest(storageItemId, 2.0, version)));
+
+    assertEquals(CustomErrorMessage.STORAGE_ITEM_VERSION_CONFLICT, e.getErrorMessage());
+    assertEquals(6.0, storageItemRepository.findById(storageItemId).get().getCurrentStock(), 0.01);
+  }
+
+  @Test
+  public void testUpdateStockAcceptsCurrentVersion() {
+    long version = storageItemRepository.findById(storageItemId).get().getVersion();
+
+    StorageItemResponse response = storageItemService.updateStock(
+        new StorageItemStockUpdateRequest(storageItemId, 2.0, version));
+
+    assertEquals(2.0, response.getCurrentStock(), 0.01);
+    assertEquals(version + 1, response.getVersion());
+  }
+}
@@ -7,8 +7,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseCookie;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.DisabledException;
@@ -43,7 +41,7 @@ class UserServiceTest {
   @Mock private CustomUserDetailsService customUserDetailsService;
   @Mock private JWTUtil jwtUtil;
   @Mock
-  private JavaMailSender mailSender;
+  private MailOutboxService mailOutboxService;
   @Mock
   private SecurityUtil securityUtil;
   @Mock private VerificationTokenRepository verificationTokenRepository;
@@ -114,14 +112,13 @@ class UserServiceTest {
     when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
     when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
     when(verificationTokenRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-    doNothing().when(mailSender).send(any(SimpleMailMessage.class));
 
     assertDoesNotThrow(() -> userService.register(validRequest));
 
     verify(userRepository).existsByEmail(validRequest.getEmail());
     verify(userRepository).save(any(User.class));
     verify(verificationTokenRepository).save(any(VerificationToken.class));
-    verify(mailSender).send(any(SimpleMailMessage.class));
+    verify(mailOutboxService).enqueue(eq(validRequest.getEmail()), anyString(), contains("/verify?token="));
   }
 
   @Test
@@ -132,22 +129,23 @@ class UserServiceTest {
 
     verify(userRepository, never()).save(any());
     verify(verificationTokenRepository, never()).save(any());
-    verify(mailSender, never()).send(any(SimpleMailMessage.class));
+    verify(mailOutboxService, never()).enqueue(anyString(), anyString(), anyString());
   }
 
   @Test
-  void register_shouldStillSaveUserIfEmailSendingFails() {
+  void register_shouldNotSaveUserIfEmailCannotBeQueued() {
     when(userRepository.existsByEmail(validRequest.getEmail())).thenReturn(false);
     when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
     when(captchaService.verifyToken(validRequest.getRecaptchaToken())).thenReturn(true);
 
 
-    doThrow(new RuntimeException("Mail server down")).when(mailSender).send(any(SimpleMailMessage.class));
+    doThrow(new RuntimeException("Mail outbox unavailable"))
+        .when(mailOutboxService).enqueue(anyString(), anyString(), anyString());
 
     assertThrows(RuntimeException.class, () -> userService.register(validRequest));
 
     verify(userRepository, never()).save(any(User.class));
-    verify(mailSender).send(any(SimpleMailMessage.class));
+    verify(mailOutboxService).enqueue(eq(validRequest.getEmail()), anyString(), anyString());
   }
 
   @Test
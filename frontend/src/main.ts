@@ -8,10 +8,11 @@ import 'leaflet-routing-machine/dist/leaflet-routing-machine.css'
 import 'leaflet-draw'
 import 'leaflet-draw/dist/leaflet.draw.css'
 import { useNotificationStore } from '@/stores/notification'
-import { createWebSocket } from '@/utils/socket'
+import { useHouseholdStore } from '@/stores/household'
+import { createWebSocket, setNotificationHousehold } from '@/utils/socket'
 import './assets/main.css'
 import { OhVueIcon, addIcons } from 'oh-vue-icons'
-import { createApp } from 'vue'
+import { createApp, watch } from 'vue'
 import { createPinia } from 'pinia'
 import * as Sentry from '@sentry/vue'
 import router from './router'
@@ -54,7 +55,15 @@ userStore.fetchCurrentUser().finally(() => {
           : event.data
       notificationStore.removeNotification(id)
     }
-  })
+  }, true)
+
+  // Notifications are published per household, so follow the user's current household
+  const householdStore = useHouseholdStore()
+  watch(
+    () => householdStore.household?.id ?? null,
+    (householdId) => setNotificationHousehold(householdId),
+    { immediate: true }
+  )
 
   app.mount('#app')
 })
@@ -1,6 +1,7 @@
 import type {
   Category,
   PreparednessSummary,
+  StockHistoryBucket,
   StorageItem,
   Notification,
 } from '@/types/types.ts'
@@ -70,18 +71,22 @@ export const getAllStorageItemsForHousehold = async (
  *
  * @param itemId The ID of the storage item to update
  * @param newStock The new stock quantity value
+ * @param version The version of the item the new stock is based on. If the item has
+ *   changed since, the backend rejects the update with 409 Conflict
  * @error logs the error message and returns undefined
  * @returns the updated StorageItem if successful, undefined otherwise
  */
 export const updateStorageItem = async (
   itemId: number,
-  newStock: number
+  newStock: number,
+  version?: number
 ): Promise<StorageItem> => {
   try {
     // Create the update payload according to what the backend expects
     const updatePayload = {
       id: itemId,
       newStock: newStock,
+      version: version,
     }
 
     const response = await apiClient.put<StorageItem>(
@@ -96,6 +101,81 @@ export const updateStorageItem = async (
   }
 }
 
+/**
+ * Adds to or removes from the stock of a storage item. The change is applied atomically
+ * by the backend, so concurrent changes from other household members are never lost.
+ *
+ * @param itemId The ID of the storage item to adjust
+ * @param delta The amount to add, or a negative amount to remove
+ * @error logs the error message and rethrows it
+ * @returns the updated StorageItem
+ */
+export const adjustStorageItemStock = async (
+  itemId: number,
+  delta: number
+): Promise<StorageItem> => {
+  try {
+    const response = await apiClient.put<StorageItem>(
+      `/storageitems/adjust-stock`,
+      { id: itemId, delta }
+    )
+
+    return response.data
+  } catch (error) {
+    console.error(`Failed to adjust storage item ${itemId} stock: ${error}`)
+    throw error
+  }
+}
+
+/**
+ * Retrieves the stock history of a storage item. Days or weeks without changes are left out.
+ *
+ * @param itemId The ID of the storage item
+ * @param granularity Whether to return one entry per day or per week
+ * @error logs the error message and rethrows it
+ * @returns the stock history, oldest first
+ */
+export const getStorageItemHistory = async (
+  itemId: number,
+  granularity: 'DAY' | 'WEEK' = 'DAY'
+): Promise<StockHistoryBucket[]> => {
+  try {
+    const response = await apiClient.get<StockHistoryBucket[]>(
+      `/storageitems/history/${itemId}`,
+      { params: { granularity } }
+    )
+
+    return response.data
+  } catch (error) {
+    console.error(`Failed to fetch stock history of storage item ${itemId}: ${error}`)
+    throw error
+  }
+}
+
+/**
+ * Updates the stock quantity of several storage items in one request.
+ * Either all items are updated, or none of them if any item is not found.
+ *
+ * @param updates The storage item IDs and their new stock quantities
+ * @error logs the error message and rethrows it
+ * @returns the updated StorageItems
+ */
+export const updateStorageItems = async (
+  updates: { id: number; newStock: number }[]
+): Promise<StorageItem[]> => {
+  try {
+    const response = await apiClient.put<StorageItem[]>(
+      `/storageitems/update-stock/bulk`,
+      { updates }
+    )
+
+    return response.data
+  } catch (error) {
+    console.error(`Failed to update stock of ${updates.length} storage items: ${error}`)
+    throw error
+  }
+}
+
 /**
  * Fetches the preparedness summary for a household
  *
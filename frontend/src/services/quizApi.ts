@@ -1,8 +1,11 @@
 import apiClient from '@/services/apiClient.ts'
 
+export type QuizSelectionMode = 'RANDOM' | 'ADAPTIVE'
+
 export interface QuizRequest {
   userId: number
   numberOfQuestions: number
+  mode?: QuizSelectionMode
 }
 
 export interface QuizOption {
@@ -17,12 +20,23 @@ export interface QuizQuestion {
 }
 
 export interface QuizHistoryDto {
+  attemptId: number
   correctAnswers: number
   totalQuestions: number
   date: string
   status: string
 }
 
+export interface QuizLeaderboardEntry {
+  rank: number | null
+  userId: number
+  name: string
+  bestScore: number
+  completedAttempts: number
+  currentStreak: number
+  bestStreak: number
+}
+
 export interface QuizResponse {
   id: number
   questions: QuizQuestion[]
@@ -88,9 +102,14 @@ const quizApi = {
     return res.data
   },
 
-  async getQuizHistory(userId: number): Promise<QuizHistoryDto[]> {
+  async getQuizHistory(
+    userId: number,
+    before?: number,
+    limit?: number
+  ): Promise<QuizHistoryDto[]> {
     const res = await apiClient.get<QuizHistoryDto[]>(
-      `/quizzes/history/${userId}`
+      `/quizzes/history/${userId}`,
+      { params: { before, limit } }
     )
     return res.data
   },
@@ -99,6 +118,28 @@ const quizApi = {
     const res = await apiClient.get<QuizAttemptResponse>(`/quizzes/${quizId}`)
     return res.data
   },
+
+  async getLeaderboard(limit?: number): Promise<QuizLeaderboardEntry[]> {
+    const res = await apiClient.get<QuizLeaderboardEntry[]>(
+      '/quizzes/leaderboard',
+      { params: { limit } }
+    )
+    return res.data
+  },
+
+  async getMyStanding(): Promise<QuizLeaderboardEntry> {
+    const res = await apiClient.get<QuizLeaderboardEntry>(
+      '/quizzes/leaderboard/me'
+    )
+    return res.data
+  },
+
+  async getHouseholdLeaderboard(): Promise<QuizLeaderboardEntry[]> {
+    const res = await apiClient.get<QuizLeaderboardEntry[]>(
+      '/quizzes/leaderboard/household'
+    )
+    return res.data
+  },
 }
 
 export default quizApi
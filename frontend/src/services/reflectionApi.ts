@@ -1,4 +1,8 @@
-import type { ReflectionNote, ReflectionNoteCreate } from '@/types/types.ts'
+import type {
+  ReflectionNote,
+  ReflectionNoteCreate,
+  ReflectionNoteSummary,
+} from '@/types/types.ts'
 import apiClient from '@/services/apiClient.ts'
 
 /**
@@ -31,13 +35,21 @@ export const deleteReflectionNote = async (noteId: number): Promise<void> => {
 }
 
 /**
- * Retrieves a list of public reflection notes
+ * Retrieves a page of public reflection notes, newest first
  *
- * @return Promise<ReflectionNote[]> - a list of public reflection notes
+ * @param before - the ID of the last note of the previous page, if any
+ * @param limit - the maximum number of notes
+ * @return Promise<ReflectionNoteSummary[]> - a page of public reflection notes with snippets
  */
-export const getPublicReflectionNotes = async (): Promise<ReflectionNote[]> => {
+export const getPublicReflectionNotes = async (
+  before?: number,
+  limit?: number
+): Promise<ReflectionNoteSummary[]> => {
   try {
-    const response = await apiClient.get<ReflectionNote[]>(`reflection/public`)
+    const response = await apiClient.get<ReflectionNoteSummary[]>(
+      `reflection/public`,
+      { params: { before, limit } }
+    )
     return response.data
   } catch (error) {
     console.error('Failed to get public reflection notes:', error)
@@ -45,6 +57,47 @@ export const getPublicReflectionNotes = async (): Promise<ReflectionNote[]> => {
   }
 }
 
+/**
+ * Searches the reflection notes the current user can read, best match first
+ *
+ * @param query - the words to search for
+ * @param limit - the maximum number of hits
+ * @return Promise<ReflectionNoteSummary[]> - the matching reflection notes with snippets
+ */
+export const searchReflectionNotes = async (
+  query: string,
+  limit?: number
+): Promise<ReflectionNoteSummary[]> => {
+  try {
+    const response = await apiClient.get<ReflectionNoteSummary[]>(
+      `reflection/search`,
+      { params: { q: query, limit } }
+    )
+    return response.data
+  } catch (error) {
+    console.error('Failed to search reflection notes:', error)
+    throw error
+  }
+}
+
+/**
+ * Retrieves a reflection note with its full content
+ *
+ * @param noteId - the ID of the reflection note
+ * @return Promise<ReflectionNote> - the reflection note
+ */
+export const getReflectionNote = async (
+  noteId: number
+): Promise<ReflectionNote> => {
+  try {
+    const response = await apiClient.get<ReflectionNote>(`reflection/${noteId}`)
+    return response.data
+  } catch (error) {
+    console.error('Failed to get reflection note:', error)
+    throw error
+  }
+}
+
 /**
  * Retrieves the current user's reflection notes - independent of visibility status
  *
@@ -94,6 +94,20 @@ export interface StorageItem {
   unit?: string // For convenience in the frontend
   recommendedStockForHousehold?: number // Calculated based on household size
   stockCompletionPercentage?: number // Calculated field
+  version?: number // Sent back when setting the stock, to detect concurrent changes
+  consumptionPerDay?: number // Average amount used per day over the last four weeks
+  runsOutAt?: string // ISO date string, forecast of when the stock runs out
+}
+
+/**
+ * Stock added and used during one day or week, for the stock history of a storage item
+ */
+export interface StockHistoryBucket {
+  bucketStart: string // ISO date string, first day of the bucket
+  added: number
+  consumed: number
+  eventCount: number
+  closingStock: number // Stock after the last change in the bucket
 }
 
 /**
@@ -271,6 +285,18 @@ export interface ReflectionNote {
   createdAt: string // ISO string
 }
 
+/**
+ * Reflection note in a list, with a snippet instead of the full content
+ */
+export interface ReflectionNoteSummary {
+  id: number
+  title: string
+  snippet: string
+  visibility: ReflectionNoteVisibility
+  creator: User
+  createdAt: string // ISO string
+}
+
 /**
  * Reflection note request data
  */
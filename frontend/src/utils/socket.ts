@@ -1,10 +1,68 @@
 import { Client } from '@stomp/stompjs'
 import SockJS from 'sockjs-client'
-import type { IMessage, Frame } from '@stomp/stompjs'
+import type { IMessage, Frame, StompSubscription } from '@stomp/stompjs'
 
 const BACKEND_BASE = import.meta.env.VITE_API_BASE_URL_SOCKET
 
-export function createWebSocket(onEvent: (evt: any) => void) {
+let activeClient: Client | null = null
+let notificationHandler: ((evt: any) => void) | null = null
+let notificationHouseholdId: number | null = null
+let notificationSubscriptions: StompSubscription[] = []
+
+/**
+ * Subscribes to the notification topics of the current household.
+ * Notifications are only published to members of the household they belong to.
+ */
+function subscribeToHouseholdNotifications() {
+  if (!activeClient?.connected || !notificationHandler || !notificationHouseholdId) {
+    return
+  }
+  const onEvent = notificationHandler
+  const base = `/topic/households/${notificationHouseholdId}/notifications`
+
+  notificationSubscriptions = [
+    activeClient.subscribe(base, (msg: IMessage) => {
+      if (msg.body) {
+        const payload = JSON.parse(msg.body)
+        onEvent({ topic: '/topic/notifications', data: payload })
+      }
+    }),
+    activeClient.subscribe(`${base}/delete`, (msg: IMessage) => {
+      if (msg.body) {
+        // Usually, delete just sends an ID
+        const payload = JSON.parse(msg.body)
+        onEvent({ topic: '/topic/notifications/delete', data: payload })
+      }
+    }),
+  ]
+}
+
+/**
+ * Switches the notification subscriptions to the given household.
+ *
+ * @param householdId the household to receive notifications for, or null to stop
+ */
+export function setNotificationHousehold(householdId: number | null) {
+  if (householdId === notificationHouseholdId) return
+  if (activeClient?.connected) {
+    notificationSubscriptions.forEach((sub) => sub.unsubscribe())
+  }
+  notificationSubscriptions = []
+  notificationHouseholdId = householdId
+  subscribeToHouseholdNotifications()
+}
+
+/**
+ * Creates and activates a STOMP client.
+ *
+ * @param onEvent callback receiving every message as `{ topic, data }`
+ * @param withNotifications whether this client should follow the household
+ *   notification topics set through {@link setNotificationHousehold}
+ */
+export function createWebSocket(
+  onEvent: (evt: any) => void,
+  withNotifications = false
+) {
   const sockUrl = `${BACKEND_BASE}/ws`
   console.log('[WS] Forsøker å koble til', sockUrl)
 
@@ -74,23 +132,18 @@ export function createWebSocket(onEvent: (evt: any) => void) {
         console.log('[WS] Subscribed to /topic/positions/delete')
       })
 
-      client.subscribe('/topic/notifications', (msg: IMessage) => {
-        if (msg.body) {
-          const payload = JSON.parse(msg.body)
-          onEvent({ topic: '/topic/notifications', data: payload })
-        }
-      })
-
-      client.subscribe('/topic/notifications/delete', (msg: IMessage) => {
-        if (msg.body) {
-          // Usually, delete just sends an ID
-          const payload = JSON.parse(msg.body)
-          onEvent({ topic: '/topic/notifications/delete', data: payload })
-        }
-      })
+      if (withNotifications) {
+        // Subscriptions do not survive a reconnect, so resubscribe from scratch
+        notificationSubscriptions = []
+        subscribeToHouseholdNotifications()
+      }
     },
   })
 
+  if (withNotifications) {
+    activeClient = client
+    notificationHandler = onEvent
+  }
   client.activate()
   return client
 }